@@ -1,6 +1,11 @@
 #!/bin/bash
 
 DEV_MODE=0
+CDS_MODE=0
+TRAIN_ONLY=0
+if [[ "$STARTUP_MODE" == "cds" ]]; then
+    CDS_MODE=1
+fi
 
 for arg in "$@"; do
     case $arg in
@@ -8,6 +13,15 @@ for arg in "$@"; do
             DEV_MODE=1
             shift
             ;;
+        -c|--cds)
+            CDS_MODE=1
+            shift
+            ;;
+        --train-only)
+            CDS_MODE=1
+            TRAIN_ONLY=1
+            shift
+            ;;
         -*|--*)
             echo "Unknown option $arg"
             exit 1
@@ -17,8 +31,41 @@ for arg in "$@"; do
     esac
 done
 
+# In CDS mode, the application is run from its packaged jar (with the bean
+# definitions generated by Spring AOT), along with a class data sharing archive
+# created by a training run, which stops as soon as the application context has
+# been refreshed. Both are kept in "./cds", so they are only created once (i.e.
+# while building the image, or on the first start), unless "./cds" is removed.
+CDS_DIRECTORY=./cds
+CDS_JAR=$CDS_DIRECTORY/api.jar
+CDS_ARCHIVE=$CDS_DIRECTORY/application.jsa
+
+prepare_cds() {
+    if [[ -f $CDS_ARCHIVE && -f $CDS_JAR ]]; then
+        return 0
+    fi
+    rm -rf $CDS_DIRECTORY
+    mvn -q -Pcds package -DskipTests || return 1
+    java -Djarmode=tools -jar target/api-*.jar extract --destination $CDS_DIRECTORY --application-filename api.jar || return 1
+    java -XX:ArchiveClassesAtExit=$CDS_ARCHIVE \
+        -Dspring.aot.enabled=true \
+        -Dspring.context.exit=onRefresh \
+        -jar $CDS_JAR || return 1
+}
+
+if [[ $CDS_MODE -eq 1 ]]; then
+    if [[ $DEV_MODE -eq 1 ]]; then
+        mvn test
+    fi
+    prepare_cds || exit 1
+    if [[ $TRAIN_ONLY -eq 1 ]]; then
+        exit 0
+    fi
+    exec java -XX:SharedArchiveFile=$CDS_ARCHIVE -Dspring.aot.enabled=true -jar $CDS_JAR
+fi
+
 mvn -q clean
 if [[ $DEV_MODE -eq 1 ]]; then
     mvn test
 fi
-mvn -q spring-boot:run
\ No newline at end of file
+mvn -q spring-boot:run
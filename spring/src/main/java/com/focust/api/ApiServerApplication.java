@@ -17,23 +17,34 @@
  * ------------------------------------------------------------------------
  *
  * @author Allan DeBoe (allan.m.deboe@gmail.com)
- * @version 0.0.3
+ * @version 0.0.6
  * @since 0.0.1
  */
 package com.focust.api;
 
 ///////////////////////////////////////////////////////////////////////////
 
+// Focust //
+import com.focust.api.aot.FocustRuntimeHints;
+import com.focust.api.http.HostConnectionLimiter;
+import com.focust.api.http.OutboundHttpConfiguration;
+
 // Spring Framework //
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.autoconfigure.security.servlet.SecurityAutoConfiguration;
-import org.springframework.boot.ssl.SslBundles;
 import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.ImportRuntimeHints;
+import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.web.client.RestTemplate;
 
+// Standard Java //
+import java.net.http.HttpClient;
+import java.time.Duration;
+
 ///////////////////////////////////////////////////////////////////////////
 
 @SpringBootApplication
@@ -41,15 +52,23 @@ import org.springframework.web.client.RestTemplate;
 		// This disables the default "/login" page
 		SecurityAutoConfiguration.class
 })
+@EnableScheduling
+@ImportRuntimeHints(FocustRuntimeHints.class)
 public class ApiServerApplication {
 
 	public static void main(String[] args) {
 		SpringApplication.run(ApiServerApplication.class, args);
 	}
 
+	// The "focust-spring" SSL bundle is part of the outbound HttpClient, which pools
+	// connections, resumes TLS sessions, and speaks HTTP/2 (see OutboundHttpConfiguration).
 	@Bean
-	public RestTemplate restTemplate(RestTemplateBuilder restTemplateBuilder, SslBundles sslBundles) {
-		return restTemplateBuilder.setSslBundle(sslBundles.getBundle("focust-spring")).build();
+	public RestTemplate restTemplate(RestTemplateBuilder restTemplateBuilder, HttpClient outboundHttpClient, HostConnectionLimiter hostConnectionLimiter,
+									 @Value("${focust.http.client.read-timeout:PT30S}") Duration readTimeout) {
+		return restTemplateBuilder
+				.requestFactory(() -> OutboundHttpConfiguration.createRequestFactory(outboundHttpClient, readTimeout))
+				.additionalInterceptors(hostConnectionLimiter)
+				.build();
 	}
 
 }
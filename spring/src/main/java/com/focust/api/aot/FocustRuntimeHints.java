@@ -0,0 +1,132 @@
+/**
+ * FocustRuntimeHints.java - Reflection and resource hints for native images
+ * Copyright (C) 2024  Allan DeBoe
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ * ------------------------------------------------------------------------
+ *
+ * Spring AOT works out most of what a native image needs from the bean
+ * definitions, but not what is only reached through reflection or by name:
+ *
+ *  - BCryptHashType, which Hibernate creates from User's @Type.
+ *  - The request and response DTOs (found by scanning their package, so
+ *    new ones are covered too), as controllers return ResponseEntity<Object>,
+ *    along with the other classes read or written by Jackson.
+ *  - The Auth0 JWT implementation classes, which it builds its Jackson
+ *    ObjectMapper around.
+ *  - The classes named in logback-spring.xml.
+ *  - The ".keystore" resources (TLS bundles and JWT keys), which are only
+ *    named in application.properties.
+ *
+ * @see com.focust.api.ApiServerApplication
+ *
+ * @author Allan DeBoe (allan.m.deboe@gmail.com)
+ * @version 0.0.6
+ * @since 0.0.6
+ */
+package com.focust.api.aot;
+
+///////////////////////////////////////////////////////////////////////////
+
+// Focust //
+import com.focust.api.github.GitHubProfile;
+import com.focust.api.logging.SampledLogFilter;
+import com.focust.api.security.audit.AuthAuditEvent;
+import com.focust.api.security.bcrypt.BCryptHash;
+import com.focust.api.security.bcrypt.BCryptHashType;
+
+// Spring Framework //
+import org.springframework.aot.hint.BindingReflectionHintsRegistrar;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.aot.hint.TypeReference;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.context.annotation.ClassPathScanningCandidateComponentProvider;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.lang.Nullable;
+import org.springframework.util.ClassUtils;
+
+// Standard Java //
+import java.util.List;
+
+///////////////////////////////////////////////////////////////////////////
+
+public class FocustRuntimeHints implements RuntimeHintsRegistrar {
+
+    private static final String DTO_PACKAGE = "com.focust.api.dto";
+    private static final String KEYSTORE_RESOURCES = ".keystore/*";
+
+    private static final List<Class<?>> JSON_TYPES = List.of(AuthAuditEvent.class, GitHubProfile.class);
+
+    private static final List<String> JWT_TYPES = List.of(
+            "com.auth0.jwt.impl.JWTParser",
+            "com.auth0.jwt.impl.JsonNodeClaim",
+            "com.auth0.jwt.impl.BasicHeader",
+            "com.auth0.jwt.impl.PayloadImpl",
+            "com.auth0.jwt.impl.HeaderDeserializer",
+            "com.auth0.jwt.impl.PayloadDeserializer",
+            "com.auth0.jwt.impl.ClaimsHolder",
+            "com.auth0.jwt.impl.HeaderClaimsHolder",
+            "com.auth0.jwt.impl.PayloadClaimsHolder",
+            "com.auth0.jwt.impl.ClaimsSerializer",
+            "com.auth0.jwt.impl.HeaderSerializer",
+            "com.auth0.jwt.impl.PayloadSerializer"
+    );
+
+    private static final List<String> LOGBACK_TYPES = List.of(
+            "ch.qos.logback.classic.AsyncAppender",
+            "ch.qos.logback.classic.encoder.JsonEncoder"
+    );
+
+    @Override
+    public void registerHints(RuntimeHints hints, @Nullable ClassLoader classLoader) {
+        hints.reflection().registerType(BCryptHashType.class, MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS, MemberCategory.INVOKE_PUBLIC_METHODS);
+        hints.reflection().registerType(BCryptHash.class, MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS);
+
+        BindingReflectionHintsRegistrar bindingHints = new BindingReflectionHintsRegistrar();
+        for (Class<?> type : findDtoTypes(classLoader)) {
+            bindingHints.registerReflectionHints(hints.reflection(), type);
+        }
+        for (Class<?> type : JSON_TYPES) {
+            bindingHints.registerReflectionHints(hints.reflection(), type);
+        }
+
+        for (String type : JWT_TYPES) {
+            hints.reflection().registerType(TypeReference.of(type),
+                    MemberCategory.INVOKE_DECLARED_CONSTRUCTORS, MemberCategory.INVOKE_DECLARED_METHODS, MemberCategory.DECLARED_FIELDS);
+        }
+
+        hints.reflection().registerType(SampledLogFilter.class, MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS, MemberCategory.INVOKE_PUBLIC_METHODS);
+        for (String type : LOGBACK_TYPES) {
+            hints.reflection().registerType(TypeReference.of(type), MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS, MemberCategory.INVOKE_PUBLIC_METHODS);
+        }
+
+        hints.resources().registerPattern(KEYSTORE_RESOURCES);
+    }
+
+    ///////////////////////////////////////////////////////////////////////////
+
+    // Every concrete class of the DTO package (and its sub-packages).
+    private static List<Class<?>> findDtoTypes(@Nullable ClassLoader classLoader) {
+        ClassPathScanningCandidateComponentProvider scanner = new ClassPathScanningCandidateComponentProvider(false);
+        scanner.setResourceLoader(new DefaultResourceLoader(classLoader));
+        scanner.addIncludeFilter((metadataReader, metadataReaderFactory) -> true);
+        return scanner.findCandidateComponents(DTO_PACKAGE).stream()
+                .map(BeanDefinition::getBeanClassName)
+                .<Class<?>>map(className -> ClassUtils.resolveClassName(className, classLoader))
+                .toList();
+    }
+
+}
@@ -0,0 +1,211 @@
+/**
+ * CaptureAnonymizer.java - Replaces anything personal in captured requests.
+ * Copyright (C) 2024  Allan DeBoe
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ * ------------------------------------------------------------------------
+ *
+ * Every string in a body (and every query parameter, except the few that
+ * only shape the response, like "fields" or "size") is replaced by a
+ * pseudonym, derived from it with an HMAC. The same value always gets the
+ * same pseudonym within a capture, so a replayed sign in still matches the
+ * replayed registration before it, and values keep their length (emails
+ * are replaced by emails, with the same domain for the same domain), so
+ * the replayed requests cost the server about as much as the real ones.
+ *
+ * The key is random unless one is configured, so pseudonyms cannot be
+ * tied back to real values, nor compared across captures.
+ *
+ * Bodies that are not JSON, NDJSON or CSV (or cannot be parsed) are not
+ * kept at all. As the Mac is reused, an instance must only be used by one
+ * thread at a time.
+ *
+ * @author Allan DeBoe (allan.m.deboe@gmail.com)
+ * @version 0.0.6
+ * @since 0.0.6
+ */
+package com.focust.api.capture;
+
+///////////////////////////////////////////////////////////////////////////
+
+// Jackson //
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.databind.node.TextNode;
+
+// Standard Java //
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.security.InvalidKeyException;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.StringJoiner;
+import java.util.stream.Collectors;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+///////////////////////////////////////////////////////////////////////////
+
+public class CaptureAnonymizer {
+
+    // query parameters that never hold anything personal.
+    private static final Set<String> KEPT_PARAMETERS = Set.of(
+            "fields", "pageNumber", "size", "limit", "ids", "since", "registeredAfter", "registeredBefore"
+    );
+    private static final String DOMAIN_PARAMETER = "domain";
+    private static final String PSEUDONYM_DOMAIN_SUFFIX = ".test";
+
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final Mac mac;
+
+    /**
+     * @param key the key pseudonyms are derived with
+     */
+    public CaptureAnonymizer(byte[] key) {
+        try {
+            this.mac = Mac.getInstance("HmacSHA256");
+            this.mac.init(new SecretKeySpec(key, "HmacSHA256"));
+        }
+        catch (NoSuchAlgorithmException | InvalidKeyException e) {
+            throw new IllegalStateException("HmacSHA256 is not available", e);
+        }
+    }
+
+    /**
+     * @param request a request with its query and body as they were sent
+     * @return the same request, with its query and body anonymized.
+     */
+    public CapturedRequest anonymize(CapturedRequest request) {
+        return request.withAnonymized(anonymizeQuery(request.query()), anonymizeBody(request.contentType(), request.body()));
+    }
+
+    ///////////////////////////////////////////////////////////////////////////
+
+    String anonymizeQuery(String query) {
+        if (query.isEmpty()) return query;
+
+        StringJoiner anonymized = new StringJoiner("&");
+        for (String parameter : query.split("&")) {
+            int equals = parameter.indexOf('=');
+            String name = (equals < 0) ? parameter : parameter.substring(0, equals);
+            if (equals < 0 || KEPT_PARAMETERS.contains(name)) {
+                anonymized.add(parameter);
+                continue;
+            }
+            String value = URLDecoder.decode(parameter.substring(equals + 1), StandardCharsets.UTF_8);
+            String pseudonym = name.equals(DOMAIN_PARAMETER) ? pseudonymizeDomain(value) : pseudonymize(value);
+            anonymized.add(name + "=" + URLEncoder.encode(pseudonym, StandardCharsets.UTF_8));
+        }
+        return anonymized.toString();
+    }
+
+    byte[] anonymizeBody(String contentType, byte[] body) {
+        if (body.length == 0) return body;
+        String text = new String(body, StandardCharsets.UTF_8);
+        try {
+            String anonymized;
+            if (contentType.startsWith("application/json")) {
+                anonymized = objectMapper.writeValueAsString(anonymizeJson(objectMapper.readTree(text)));
+            }
+            else if (contentType.startsWith("application/x-ndjson")) {
+                anonymized = text.lines()
+                        .map(line -> line.isBlank() ? line : anonymizeJsonLine(line))
+                        .collect(Collectors.joining("\n", "", "\n"));
+            }
+            else if (contentType.startsWith("text/csv")) {
+                anonymized = anonymizeCsv(text);
+            }
+            else {
+                return new byte[0];
+            }
+            return anonymized.getBytes(StandardCharsets.UTF_8);
+        }
+        catch (JsonProcessingException | IllegalArgumentException e) {
+            return new byte[0];
+        }
+    }
+
+    private String anonymizeJsonLine(String line) {
+        try {
+            return objectMapper.writeValueAsString(anonymizeJson(objectMapper.readTree(line)));
+        }
+        catch (JsonProcessingException e) {
+            throw new IllegalArgumentException(e);
+        }
+    }
+
+    private JsonNode anonymizeJson(JsonNode node) {
+        if (node instanceof ObjectNode object) {
+            Iterator<Map.Entry<String, JsonNode>> fields = object.fields();
+            while (fields.hasNext()) {
+                Map.Entry<String, JsonNode> field = fields.next();
+                field.setValue(anonymizeJson(field.getValue()));
+            }
+        }
+        else if (node instanceof ArrayNode array) {
+            for (int i = 0; i < array.size(); i++) array.set(i, anonymizeJson(array.get(i)));
+        }
+        else if (node.isTextual()) {
+            return TextNode.valueOf(pseudonymize(node.textValue()));
+        }
+        return node;
+    }
+
+    // the header is kept; the fields of every other line are replaced.
+    private String anonymizeCsv(String text) {
+        StringBuilder anonymized = new StringBuilder();
+        Iterator<String> lines = text.lines().iterator();
+        if (lines.hasNext()) anonymized.append(lines.next()).append('\n');
+        while (lines.hasNext()) {
+            String[] fields = lines.next().split(",", -1);
+            StringJoiner line = new StringJoiner(",");
+            for (String field : fields) line.add(pseudonymize(field));
+            anonymized.append(line).append('\n');
+        }
+        return anonymized.toString();
+    }
+
+    private String pseudonymize(String value) {
+        if (value.isEmpty()) return value;
+
+        int at = value.lastIndexOf('@');
+        if (at > 0) {
+            String email = value.toLowerCase();
+            String domain = pseudonymizeDomain(email.substring(at + 1));
+            return hex(email, Math.max(1, at)) + "@" + domain;
+        }
+        return hex(value, value.length());
+    }
+
+    private String pseudonymizeDomain(String domain) {
+        if (domain.isEmpty()) return domain;
+        int length = Math.max(1, domain.length() - PSEUDONYM_DOMAIN_SUFFIX.length());
+        return hex("@" + domain.toLowerCase(), length) + PSEUDONYM_DOMAIN_SUFFIX;
+    }
+
+    // the HMAC of the value, in hex, repeated or cut to the given length.
+    private String hex(String value, int length) {
+        String digest = HexFormat.of().formatHex(mac.doFinal(value.getBytes(StandardCharsets.UTF_8)));
+        return digest.repeat(length / digest.length() + 1).substring(0, length);
+    }
+
+}
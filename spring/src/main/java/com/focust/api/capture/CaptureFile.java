@@ -0,0 +1,155 @@
+/**
+ * CaptureFile.java - The binary format of capture files.
+ * Copyright (C) 2024  Allan DeBoe
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ * ------------------------------------------------------------------------
+ *
+ * A capture file is gzipped, and starts with a header ("FCAP", a version,
+ * and when the capture started), followed by one record per request:
+ *
+ *   long    offset (nanoseconds since the start)
+ *   String  method, path, query, endpoint ("" if none)
+ *   byte    credentials (one bit per CapturedRequest.Credential)
+ *   String  content type
+ *   int     request size
+ *   short   status
+ *   int     response size
+ *   long    duration (nanoseconds)
+ *   int     body length, followed by the body
+ *
+ * with strings in "modified UTF-8" (see DataOutput.writeUTF). As the
+ * stream is flushed after every few records, a capture that was never
+ * closed (i.e. the server was killed) can still be read up to its end.
+ *
+ * @see com.focust.api.capture.RequestCaptureWriter
+ *
+ * @author Allan DeBoe (allan.m.deboe@gmail.com)
+ * @version 0.0.6
+ * @since 0.0.6
+ */
+package com.focust.api.capture;
+
+///////////////////////////////////////////////////////////////////////////
+
+// Standard Java //
+import java.io.BufferedInputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.zip.GZIPInputStream;
+
+///////////////////////////////////////////////////////////////////////////
+
+public final class CaptureFile {
+
+    public static final String FILE_EXTENSION = ".fcap";
+
+    private static final int MAGIC = 0x46434150;  // "FCAP"
+    private static final byte VERSION = 1;
+
+    private CaptureFile() { }
+
+    /**
+     * Reads every request in a capture file. A record cut off at the end of
+     * the file (i.e. the server was killed while writing it) is ignored.
+     *
+     * @param file the capture file
+     * @return the requests, in the order they were captured.
+     * @throws IOException if the file cannot be read, or is not a capture file.
+     */
+    public static List<CapturedRequest> read(Path file) throws IOException {
+        try (DataInputStream input = new DataInputStream(new BufferedInputStream(new GZIPInputStream(Files.newInputStream(file))))) {
+            if (input.readInt() != MAGIC) throw new IOException(file + " is not a capture file");
+            byte version = input.readByte();
+            if (version != VERSION) throw new IOException(file + " is a capture file of an unsupported version (" + version + ")");
+            input.readLong();  // started at (epoch milliseconds)
+
+            List<CapturedRequest> requests = new ArrayList<>();
+            while (true) {
+                try {
+                    requests.add(readRecord(input));
+                }
+                catch (EOFException e) {
+                    return requests;
+                }
+            }
+        }
+    }
+
+    ///////////////////////////////////////////////////////////////////////////
+
+    static void writeHeader(DataOutput output, long startedAtMillis) throws IOException {
+        output.writeInt(MAGIC);
+        output.writeByte(VERSION);
+        output.writeLong(startedAtMillis);
+    }
+
+    static void writeRecord(DataOutput output, CapturedRequest request) throws IOException {
+        output.writeLong(request.offsetNanos());
+        output.writeUTF(request.method());
+        output.writeUTF(request.path());
+        output.writeUTF(request.query());
+        output.writeUTF((request.endpoint() != null) ? request.endpoint() : "");
+        output.writeByte(encode(request.credentials()));
+        output.writeUTF(request.contentType());
+        output.writeInt(request.requestSize());
+        output.writeShort(request.status());
+        output.writeInt(request.responseSize());
+        output.writeLong(request.durationNanos());
+        output.writeInt(request.body().length);
+        output.write(request.body());
+    }
+
+    private static CapturedRequest readRecord(DataInput input) throws IOException {
+        long offsetNanos = input.readLong();
+        String method = input.readUTF();
+        String path = input.readUTF();
+        String query = input.readUTF();
+        String endpoint = input.readUTF();
+        Set<CapturedRequest.Credential> credentials = decode(input.readByte());
+        String contentType = input.readUTF();
+        int requestSize = input.readInt();
+        int status = input.readShort();
+        int responseSize = input.readInt();
+        long durationNanos = input.readLong();
+        byte[] body = new byte[input.readInt()];
+        input.readFully(body);
+        return new CapturedRequest(offsetNanos, method, path, query, endpoint.isEmpty() ? null : endpoint, credentials,
+                contentType, requestSize, status, responseSize, durationNanos, body);
+    }
+
+    private static byte encode(Set<CapturedRequest.Credential> credentials) {
+        int bits = 0;
+        for (CapturedRequest.Credential credential : credentials) bits |= 1 << credential.ordinal();
+        return (byte) bits;
+    }
+
+    private static Set<CapturedRequest.Credential> decode(byte bits) {
+        Set<CapturedRequest.Credential> credentials = EnumSet.noneOf(CapturedRequest.Credential.class);
+        for (CapturedRequest.Credential credential : CapturedRequest.Credential.values()) {
+            if ((bits & (1 << credential.ordinal())) != 0) credentials.add(credential);
+        }
+        return credentials;
+    }
+
+}
@@ -0,0 +1,77 @@
+/**
+ * CapturedRequest.java - A request, as recorded in a capture file.
+ * Copyright (C) 2024  Allan DeBoe
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ * ------------------------------------------------------------------------
+ *
+ * Only the shape of a request is kept: credentials are reduced to which
+ * kinds were sent (so a replay can send its own), and once written to a
+ * capture file, the query and body are anonymized.
+ *
+ * @see com.focust.api.capture.CaptureFile
+ *
+ * @author Allan DeBoe (allan.m.deboe@gmail.com)
+ * @version 0.0.6
+ * @since 0.0.6
+ */
+package com.focust.api.capture;
+
+///////////////////////////////////////////////////////////////////////////
+
+// Spring Framework //
+import org.springframework.lang.Nullable;
+
+// Standard Java //
+import java.util.Set;
+
+///////////////////////////////////////////////////////////////////////////
+
+/**
+ * @param offsetNanos when the request arrived, relative to the start of the capture
+ * @param method the HTTP method
+ * @param path the path (i.e. "/users/42")
+ * @param query the query string, or an empty string if there was none
+ * @param endpoint the pattern the request was mapped to (i.e. "/users/{id}"), if any
+ * @param credentials the kinds of credentials the request was sent with
+ * @param contentType the content type of the body, or an empty string if there was none
+ * @param requestSize the size of the body, in bytes
+ * @param status the status of the response
+ * @param responseSize the size of the response body, in bytes
+ * @param durationNanos how long it took to respond
+ * @param body the body (or as much of it as was kept)
+ */
+public record CapturedRequest(long offsetNanos, String method, String path, String query, @Nullable String endpoint,
+                              Set<Credential> credentials, String contentType, int requestSize,
+                              int status, int responseSize, long durationNanos, byte[] body) {
+
+    public enum Credential {
+        BASIC,
+        BEARER,
+        REFRESH_TOKEN
+    }
+
+    /**
+     * @return the endpoint, or the path if the request was not mapped to one.
+     */
+    public String endpointOrPath() {
+        return (endpoint != null) ? endpoint : path;
+    }
+
+    CapturedRequest withAnonymized(String anonymizedQuery, byte[] anonymizedBody) {
+        return new CapturedRequest(offsetNanos, method, path, anonymizedQuery, endpoint, credentials, contentType,
+                requestSize, status, responseSize, durationNanos, anonymizedBody);
+    }
+
+}
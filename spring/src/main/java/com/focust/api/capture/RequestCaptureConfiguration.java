@@ -0,0 +1,84 @@
+/**
+ * RequestCaptureConfiguration.java - Sets up request capturing, when it is turned on.
+ * Copyright (C) 2024  Allan DeBoe
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ * ------------------------------------------------------------------------
+ *
+ * Nothing is captured unless "focust.capture.enabled" is set to true. The
+ * beans are always defined (so the property can still be set when starting
+ * with bean definitions generated ahead of time), but the filter is only
+ * registered when it is true, and the writer (which opens the capture file)
+ * is only created once the filter first uses it.
+ *
+ * @author Allan DeBoe (allan.m.deboe@gmail.com)
+ * @version 0.0.6
+ * @since 0.0.6
+ */
+package com.focust.api.capture;
+
+///////////////////////////////////////////////////////////////////////////
+
+// Spring Framework //
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.core.Ordered;
+import org.springframework.util.unit.DataSize;
+
+// Standard Java //
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.security.SecureRandom;
+
+///////////////////////////////////////////////////////////////////////////
+
+@Configuration
+public class RequestCaptureConfiguration {
+
+    private static final int RANDOM_KEY_LENGTH = 32;
+
+    @Lazy
+    @Bean(destroyMethod = "close")
+    public RequestCaptureWriter requestCaptureWriter(
+            @Value("${focust.capture.directory:capture}") Path directory,
+            @Value("${focust.capture.max-file-size:256MB}") DataSize maxFileSize,
+            @Value("${focust.capture.anonymization-key:}") String anonymizationKey
+    ) throws IOException {
+        byte[] key = anonymizationKey.getBytes(StandardCharsets.UTF_8);
+        if (key.length == 0) {
+            key = new byte[RANDOM_KEY_LENGTH];
+            new SecureRandom().nextBytes(key);
+        }
+        return new RequestCaptureWriter(directory, maxFileSize.toBytes(), new CaptureAnonymizer(key));
+    }
+
+    // Right after the ServerTimingFilter and QueryBudgetFilter, so Spring Security is part of the timing.
+    @Bean
+    public FilterRegistrationBean<RequestCaptureFilter> requestCaptureFilter(
+            @Lazy RequestCaptureWriter requestCaptureWriter,
+            @Value("${focust.capture.enabled:false}") boolean enabled,
+            @Value("${focust.capture.max-body-size:64KB}") DataSize maxBodySize
+    ) {
+        RequestCaptureFilter filter = new RequestCaptureFilter(requestCaptureWriter, Math.toIntExact(maxBodySize.toBytes()));
+        FilterRegistrationBean<RequestCaptureFilter> registration = new FilterRegistrationBean<>(filter);
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 2);
+        registration.setEnabled(enabled);
+        return registration;
+    }
+
+}
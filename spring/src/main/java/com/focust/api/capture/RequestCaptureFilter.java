@@ -0,0 +1,176 @@
+/**
+ * RequestCaptureFilter.java - Captures authentication and user requests.
+ * Copyright (C) 2024  Allan DeBoe
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ * ------------------------------------------------------------------------
+ *
+ * Requests to "/auth/**" and "/users/**" are recorded with their timing,
+ * sizes and status, so that they can be replayed later on to reproduce
+ * performance regressions. The body is only kept as it is read by the
+ * controller (up to a limit), so nothing is read that would not have been
+ * anyway, and the response is only counted, never copied.
+ *
+ * Credentials are never recorded, only which kinds were sent.
+ *
+ * @see com.focust.api.capture.RequestCaptureWriter
+ *
+ * @author Allan DeBoe (allan.m.deboe@gmail.com)
+ * @version 0.0.6
+ * @since 0.0.6
+ */
+package com.focust.api.capture;
+
+///////////////////////////////////////////////////////////////////////////
+
+// Jakarta Servlets //
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+
+// Spring Framework //
+import org.springframework.http.HttpHeaders;
+import org.springframework.lang.NonNull;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.util.ContentCachingRequestWrapper;
+import org.springframework.web.util.WebUtils;
+
+// Standard Java //
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.util.EnumSet;
+import java.util.Set;
+
+///////////////////////////////////////////////////////////////////////////
+
+public class RequestCaptureFilter extends OncePerRequestFilter {
+
+    private static final int MAX_URI_LENGTH = 4096;
+    private static final String REFRESH_TOKEN_COOKIE = "jwt-refresh-token";
+
+    private final RequestCaptureWriter writer;
+    private final int maxBodySize;
+
+    /**
+     * @param writer the writer captured requests are handed to
+     * @param maxBodySize how much of each body is kept, in bytes
+     */
+    public RequestCaptureFilter(RequestCaptureWriter writer, int maxBodySize) {
+        this.writer = writer;
+        this.maxBodySize = maxBodySize;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(@NonNull HttpServletRequest request) {
+        String path = request.getRequestURI();
+        return !(path.startsWith("/auth/") || path.equals("/users") || path.startsWith("/users/"));
+    }
+
+    @Override
+    protected void doFilterInternal(@NonNull HttpServletRequest request, @NonNull HttpServletResponse response, @NonNull FilterChain filterChain) throws ServletException, IOException {
+        long offsetNanos = writer.elapsedNanos();
+        ContentCachingRequestWrapper cachingRequest = new ContentCachingRequestWrapper(request, maxBodySize);
+        CountingResponse countingResponse = new CountingResponse(response);
+        try {
+            filterChain.doFilter(cachingRequest, countingResponse);
+        }
+        finally {
+            long durationNanos = writer.elapsedNanos() - offsetNanos;
+            Object endpoint = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            byte[] body = cachingRequest.getContentAsByteArray();
+            writer.append(new CapturedRequest(
+                    offsetNanos,
+                    request.getMethod(),
+                    truncate(request.getRequestURI()),
+                    (request.getQueryString() != null) ? truncate(request.getQueryString()) : "",
+                    (endpoint != null) ? endpoint.toString() : null,
+                    credentials(request),
+                    (request.getContentType() != null) ? request.getContentType() : "",
+                    (int) Math.max(request.getContentLengthLong(), body.length),
+                    response.getStatus(),
+                    (int) Math.min(countingResponse.count, Integer.MAX_VALUE),
+                    durationNanos,
+                    body
+            ));
+        }
+    }
+
+    ///////////////////////////////////////////////////////////////////////////
+
+    private static Set<CapturedRequest.Credential> credentials(HttpServletRequest request) {
+        Set<CapturedRequest.Credential> credentials = EnumSet.noneOf(CapturedRequest.Credential.class);
+        String authorization = request.getHeader(HttpHeaders.AUTHORIZATION);
+        if (authorization != null && authorization.regionMatches(true, 0, "Basic ", 0, 6)) credentials.add(CapturedRequest.Credential.BASIC);
+        if (authorization != null && authorization.regionMatches(true, 0, "Bearer ", 0, 7)) credentials.add(CapturedRequest.Credential.BEARER);
+        if (WebUtils.getCookie(request, REFRESH_TOKEN_COOKIE) != null) credentials.add(CapturedRequest.Credential.REFRESH_TOKEN);
+        return credentials;
+    }
+
+    private static String truncate(String value) {
+        return (value.length() <= MAX_URI_LENGTH) ? value : value.substring(0, MAX_URI_LENGTH);
+    }
+
+    // counts what is written to the response (in characters, when written as text).
+    private static final class CountingResponse extends HttpServletResponseWrapper {
+        private long count;
+        private ServletOutputStream outputStream;
+        private PrintWriter writer;
+
+        private CountingResponse(HttpServletResponse response) {
+            super(response);
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            if (outputStream == null) {
+                ServletOutputStream delegate = super.getOutputStream();
+                outputStream = new ServletOutputStream() {
+                    @Override public boolean isReady() { return delegate.isReady(); }
+                    @Override public void setWriteListener(WriteListener listener) { delegate.setWriteListener(listener); }
+                    @Override public void write(int b) throws IOException { delegate.write(b); count++; }
+                    @Override public void write(@NonNull byte[] bytes, int offset, int length) throws IOException { delegate.write(bytes, offset, length); count += length; }
+                    @Override public void flush() throws IOException { delegate.flush(); }
+                    @Override public void close() throws IOException { delegate.close(); }
+                };
+            }
+            return outputStream;
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            if (writer == null) {
+                PrintWriter delegate = super.getWriter();
+                writer = new PrintWriter(new Writer() {
+                    @Override public void write(@NonNull char[] chars, int offset, int length) { delegate.write(chars, offset, length); count += length; }
+                    @Override public void flush() { delegate.flush(); }
+                    @Override public void close() { delegate.close(); }
+                });
+            }
+            return writer;
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            if (writer != null) writer.flush();
+            super.flushBuffer();
+        }
+    }
+
+}
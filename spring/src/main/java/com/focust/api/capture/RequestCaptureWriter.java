@@ -0,0 +1,226 @@
+/**
+ * RequestCaptureWriter.java - Writes captured requests to a capture file.
+ * Copyright (C) 2024  Allan DeBoe
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ * ------------------------------------------------------------------------
+ *
+ * Requests are only handed over to a bounded queue; a single thread
+ * anonymizes and writes them, so capturing never makes a request wait
+ * on the disk. When the queue is full, or the file has reached its
+ * maximum size, requests are dropped (and counted) instead.
+ *
+ * Each time the application starts, a new capture file is started, named
+ * after the time it was started at.
+ *
+ * @see com.focust.api.capture.CaptureFile
+ *
+ * @author Allan DeBoe (allan.m.deboe@gmail.com)
+ * @version 0.0.6
+ * @since 0.0.6
+ */
+package com.focust.api.capture;
+
+///////////////////////////////////////////////////////////////////////////
+
+// Project Lombok //
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+// Standard Java //
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPOutputStream;
+
+///////////////////////////////////////////////////////////////////////////
+
+@Slf4j
+public class RequestCaptureWriter implements AutoCloseable {
+
+    private static final int QUEUE_CAPACITY = 8192;
+    private static final int MAX_BATCH_SIZE = 256;
+    private static final long POLL_TIMEOUT_MILLIS = 500;
+    private static final long SHUTDOWN_TIMEOUT_MILLIS = 5000;
+
+    private static final DateTimeFormatter FILE_NAME_FORMAT = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss'Z'").withZone(ZoneOffset.UTC);
+
+    @Getter private final Path file;
+    private final long maxFileSize;
+    private final CaptureAnonymizer anonymizer;
+    private final long startNanos = System.nanoTime();
+
+    private final BlockingQueue<CapturedRequest> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+    private final AtomicLong dropped = new AtomicLong();
+    private final CountingOutputStream fileOutput;
+    private final DataOutputStream output;
+    private final Thread writerThread;
+    private volatile boolean closed = false;
+
+    // "written" is guarded by "this", and compared with "appended" by flush().
+    private final AtomicLong appended = new AtomicLong();
+    private long written = 0;
+
+    /**
+     * @param directory the directory capture files are written to (created if needed)
+     * @param maxFileSize the size after which requests are no longer captured, in bytes
+     * @param anonymizer the anonymizer applied to every request before it is written
+     * @throws IOException if the capture file cannot be created.
+     */
+    public RequestCaptureWriter(Path directory, long maxFileSize, CaptureAnonymizer anonymizer) throws IOException {
+        Instant startedAt = Instant.now();
+        this.file = Files.createDirectories(directory).resolve("requests-" + FILE_NAME_FORMAT.format(startedAt) + CaptureFile.FILE_EXTENSION);
+        this.maxFileSize = maxFileSize;
+        this.anonymizer = anonymizer;
+
+        this.fileOutput = new CountingOutputStream(Files.newOutputStream(file));
+        this.output = new DataOutputStream(new BufferedOutputStream(new GZIPOutputStream(fileOutput, true)));
+        CaptureFile.writeHeader(output, startedAt.toEpochMilli());
+        output.flush();
+
+        this.writerThread = new Thread(this::run, "request-capture-writer");
+        this.writerThread.setDaemon(true);
+        this.writerThread.start();
+        log.atInfo().setMessage("Capturing requests").addKeyValue("file", file).log();
+    }
+
+    /**
+     * @return nanoseconds since the capture started (the offset of a request arriving now).
+     */
+    public long elapsedNanos() {
+        return System.nanoTime() - startNanos;
+    }
+
+    /**
+     * Queues a request to be anonymized and written. This never blocks.
+     *
+     * @param request the request, with its query and body as they were sent
+     */
+    public void append(CapturedRequest request) {
+        if (closed || fileOutput.getCount() >= maxFileSize || !queue.offer(request)) {
+            dropped.incrementAndGet();
+            return;
+        }
+        appended.incrementAndGet();
+    }
+
+    /**
+     * @return how many requests were not captured, because the queue or file were full.
+     */
+    public long getDropped() {
+        return dropped.get();
+    }
+
+    /**
+     * Waits until every request appended so far has been written to the file.
+     *
+     * @throws InterruptedException if interrupted while waiting.
+     */
+    public synchronized void flush() throws InterruptedException {
+        long target = appended.get();
+        long deadline = System.currentTimeMillis() + SHUTDOWN_TIMEOUT_MILLIS;
+        while (written < target && writerThread.isAlive()) {
+            long remaining = deadline - System.currentTimeMillis();
+            if (remaining <= 0) return;
+            wait(remaining);
+        }
+    }
+
+    @Override
+    public void close() throws InterruptedException {
+        closed = true;
+        writerThread.join(SHUTDOWN_TIMEOUT_MILLIS);
+        if (dropped.get() > 0) {
+            log.atWarn().setMessage("Requests were not captured").addKeyValue("dropped", dropped.get()).log();
+        }
+    }
+
+    ///////////////////////////////////////////////////////////////////////////
+
+    private void run() {
+        List<CapturedRequest> batch = new ArrayList<>(MAX_BATCH_SIZE);
+        try (output) {
+            while (!closed || !queue.isEmpty()) {
+                CapturedRequest first = queue.poll(POLL_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+                if (first == null) continue;
+                batch.add(first);
+                queue.drainTo(batch, MAX_BATCH_SIZE - 1);
+
+                for (CapturedRequest request : batch) {
+                    CaptureFile.writeRecord(output, anonymizer.anonymize(request));
+                }
+                output.flush();
+                markWritten(batch.size());
+                batch.clear();
+            }
+        }
+        catch (IOException e) {
+            closed = true;
+            log.atError().setMessage("Unable to write captured requests, capturing stopped").addKeyValue("file", file).addKeyValue("error", e.getMessage()).log();
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        finally {
+            synchronized (this) {
+                notifyAll();
+            }
+        }
+    }
+
+    private synchronized void markWritten(int count) {
+        written += count;
+        notifyAll();
+    }
+
+    private static final class CountingOutputStream extends FilterOutputStream {
+
+        private final AtomicLong count = new AtomicLong();
+
+        CountingOutputStream(OutputStream output) {
+            super(output);
+        }
+
+        long getCount() {
+            return count.get();
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count.incrementAndGet();
+        }
+
+        @Override
+        public void write(byte[] bytes, int offset, int length) throws IOException {
+            out.write(bytes, offset, length);
+            count.addAndGet(length);
+        }
+
+    }
+
+}
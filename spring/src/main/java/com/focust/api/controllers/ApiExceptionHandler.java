@@ -0,0 +1,88 @@
+/**
+ * ApiExceptionHandler.java - Turns the exceptions thrown by the controllers into error responses.
+ * Copyright (C) 2024  Allan DeBoe
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ * ------------------------------------------------------------------------
+ *
+ * The domain exceptions that mean the same thing wherever they are thrown
+ * are answered here, with a ProblemResponse that was serialized when the
+ * application started. Exceptions of Spring MVC itself (i.e. a missing
+ * request parameter) are answered with a ProblemDetail as well, by the
+ * ResponseEntityExceptionHandler this extends, rather than by the
+ * "/error" page.
+ *
+ * An exception that means something different depending on the endpoint
+ * (i.e. UserNotFoundException, when signing in) is still caught by that
+ * endpoint, which answers with its own ProblemResponse constant.
+ *
+ * @see com.focust.api.dto.responses.ProblemResponse
+ *
+ * @author Allan DeBoe (allan.m.deboe@gmail.com)
+ * @version 0.0.6
+ * @since 0.0.6
+ */
+package com.focust.api.controllers;
+
+///////////////////////////////////////////////////////////////////////////
+
+// Focust //
+import com.focust.api.dto.responses.ProblemResponse;
+import com.focust.api.exceptions.EmptyPageException;
+import com.focust.api.exceptions.IdempotencyKeyReusedException;
+import com.focust.api.exceptions.IncorrectSignInException;
+import com.focust.api.exceptions.UserNotFoundException;
+
+// Spring Framework //
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseEntityExceptionHandler;
+
+///////////////////////////////////////////////////////////////////////////
+
+@RestControllerAdvice
+public class ApiExceptionHandler extends ResponseEntityExceptionHandler {
+
+    static final ProblemResponse INCORRECT_SIGN_IN = ProblemResponse.of(HttpStatus.UNAUTHORIZED,
+            "The provided username (email) or password is incorrect. Please try again!");
+    static final ProblemResponse USER_NOT_FOUND = ProblemResponse.of(HttpStatus.NOT_FOUND,
+            "The requested user does not exist!");
+    static final ProblemResponse IDEMPOTENCY_KEY_REUSED = ProblemResponse.of(HttpStatus.UNPROCESSABLE_ENTITY,
+            "The " + AuthenticationController.IDEMPOTENCY_KEY_HEADER + " has already been used for a different registration!");
+
+    @ExceptionHandler(IncorrectSignInException.class)
+    public ResponseEntity<Object> handleIncorrectSignIn(IncorrectSignInException e) {
+        return INCORRECT_SIGN_IN.toResponseEntity();
+    }
+
+    @ExceptionHandler(UserNotFoundException.class)
+    public ResponseEntity<Object> handleUserNotFound(UserNotFoundException e) {
+        return USER_NOT_FOUND.toResponseEntity();
+    }
+
+    // Replaying the response of another registration would hand out its tokens.
+    @ExceptionHandler(IdempotencyKeyReusedException.class)
+    public ResponseEntity<Object> handleIdempotencyKeyReused(IdempotencyKeyReusedException e) {
+        return IDEMPOTENCY_KEY_REUSED.toResponseEntity();
+    }
+
+    // Asking for a page past the last one is not an error, there is just nothing on it.
+    @ExceptionHandler(EmptyPageException.class)
+    public ResponseEntity<Object> handleEmptyPage(EmptyPageException e) {
+        return new ResponseEntity<>(null, HttpStatus.NO_CONTENT);
+    }
+
+}
@@ -0,0 +1,102 @@
+/**
+ * AuditController.java - REST Controller used to read the authentication audit journal
+ * Copyright (C) 2024  Allan DeBoe
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ * ------------------------------------------------------------------------
+ *
+ * Only admins can read the audit journal.
+ *
+ * @see com.focust.api.security.audit.AuthAuditJournal
+ *
+ * @author Allan DeBoe (allan.m.deboe@gmail.com)
+ * @version 0.0.6
+ * @since 0.0.6
+ */
+package com.focust.api.controllers;
+
+///////////////////////////////////////////////////////////////////////////
+
+// Focust //
+import com.focust.api.security.audit.AuthAuditEvent;
+import com.focust.api.security.audit.AuthAuditJournal;
+
+// Jackson //
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+// Jakarta Servlets //
+import jakarta.servlet.http.HttpServletResponse;
+
+// Spring Framework //
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+// Standard Java //
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.Instant;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+///////////////////////////////////////////////////////////////////////////
+
+@RestController
+@RequestMapping("/audit")
+public class AuditController {
+
+    @Autowired
+    private AuthAuditJournal authAuditJournal;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    /**
+     * The events are written (as NDJSON) while they are read from the journal,
+     * so even large ranges never have to be held in memory.
+     *
+     * @param from the start of the range (inclusive), in the ISO-8601 format
+     * @param to the end of the range (exclusive), in the ISO-8601 format; defaults to now
+     * @param servletResponse the HttpServletResponse the events are streamed into
+     * @throws IOException if reading the journal or writing the response fails.
+     */
+    @GetMapping(value="/auth", produces="application/x-ndjson")
+    public void getAuthEvents(@RequestParam("from") @DateTimeFormat(iso=DateTimeFormat.ISO.DATE_TIME) Instant from,
+                              @RequestParam(value="to", required=false) @DateTimeFormat(iso=DateTimeFormat.ISO.DATE_TIME) Instant to,
+                              HttpServletResponse servletResponse) throws IOException {
+
+        servletResponse.setStatus(HttpStatus.OK.value());
+        servletResponse.setContentType("application/x-ndjson");
+        servletResponse.setCharacterEncoding("UTF-8");
+
+        OutputStream output = servletResponse.getOutputStream();
+        try (Stream<AuthAuditEvent> events = authAuditJournal.read(from, (to == null) ? Instant.now() : to)) {
+            Iterator<AuthAuditEvent> iterator = events.iterator();
+            while (iterator.hasNext()) {
+                output.write(objectMapper.writeValueAsBytes(iterator.next()));
+                output.write('\n');
+            }
+        }
+        catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        output.flush();
+    }
+
+}
@@ -22,7 +22,7 @@
  * @see com.focust.api.users.User
  *
  * @author Allan DeBoe (allan.m.deboe@gmail.com)
- * @version 0.0.5
+ * @version 0.0.6
  * @since 0.0.3
  */
 package com.focust.api.controllers;
@@ -34,6 +34,10 @@ import com.focust.api.exceptions.IncorrectSignInException;
 import com.focust.api.exceptions.UserAlreadyExistsException;
 import com.focust.api.exceptions.UserNotFoundException;
 import com.focust.api.dto.responses.JwtTokenResponse;
+import com.focust.api.dto.responses.ProblemResponse;
+import com.focust.api.security.audit.AuthAuditor;
+import com.focust.api.security.audit.AuthEventType;
+import com.focust.api.security.fingerprint.RequestFingerprint;
 import com.focust.api.security.jwt.JwtService;
 import com.focust.api.dto.requests.RegisterUserRequest;
 import com.focust.api.dto.requests.SignInUserRequest;
@@ -46,10 +50,12 @@ import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.util.WebUtils;
@@ -57,8 +63,6 @@ import org.springframework.web.util.WebUtils;
 // Standard Java //
 import java.security.NoSuchAlgorithmException;
 import java.security.spec.InvalidKeySpecException;
-import java.util.HashMap;
-import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 
@@ -74,49 +78,59 @@ public class AuthenticationController {
     @Autowired
     private JwtService jwtService;
 
+    @Autowired
+    private AuthAuditor authAuditor;
+
+    @Autowired
+    private IdempotentRegistrationCache idempotentRegistrationCache;
+
+    static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+    static final String IDEMPOTENT_REPLAYED_HEADER = "Idempotent-Replayed";
+
+    private static final ProblemResponse INVALID_IDEMPOTENCY_KEY = ProblemResponse.of(HttpStatus.BAD_REQUEST,
+            "The " + IDEMPOTENCY_KEY_HEADER + " header must be between 1 and " + IdempotentRegistrationCache.MAX_KEY_LENGTH + " characters long!");
+    private static final ProblemResponse EMPTY_TOKEN = ProblemResponse.of(HttpStatus.BAD_REQUEST,
+            "The generated JWT Token is empty!");
+    private static final ProblemResponse SIGN_IN_FAILED = ProblemResponse.of(HttpStatus.INTERNAL_SERVER_ERROR,
+            "Something went horribly wrong when signing in the user!");
+    private static final ProblemResponse REGISTRATION_FAILED = ProblemResponse.of(HttpStatus.INTERNAL_SERVER_ERROR,
+            "Something went horribly wrong when registering the user!");
+    private static final ProblemResponse USER_ALREADY_EXISTS = ProblemResponse.of(HttpStatus.OK,
+            "A user with the given email already exists!");
+    private static final ProblemResponse INVALID_REFRESH_TOKEN = ProblemResponse.of(HttpStatus.BAD_REQUEST,
+            "Can't provide new access token without a valid refresh token!");
+    private static final ProblemResponse REFRESH_FAILED = ProblemResponse.of(HttpStatus.INTERNAL_SERVER_ERROR,
+            "Something went horribly wrong when generating a new access token!");
+    private static final ProblemResponse UNAUTHORIZED_REFRESH = ProblemResponse.of(HttpStatus.UNAUTHORIZED,
+            "Can't generate access token for unauthorized users");
+
     /**
+     * A registration sent with an "Idempotency-Key" header can be sent again
+     * with the same key (i.e. after a dropped connection), in which case the
+     * response of the first registration is sent back, with an
+     * "Idempotent-Replayed" header, instead of registering the user again.
+     *
+     * @see IdempotentRegistrationCache
+     *
      * @param request a RegisterUserRequest representing the JSON Request
+     * @param idempotencyKey a key identifying the registration across retries (optional)
      * @return an HTTP Response, with JWT Access Token generated if a new user is created.
      */
     @PostMapping(value="/register", produces="application/json")
-    public final ResponseEntity<Object> registerUser(@RequestBody RegisterUserRequest request, HttpServletResponse servletResponse) {
-        try {
-            UserJwtDetails userDetails = userService.createUser(request);
-            Optional<String> accessToken = jwtService.generateAccessToken(userDetails);
-            Optional<String> refreshToken = jwtService.generateRefreshToken(userDetails);
-            if (accessToken.isEmpty() || refreshToken.isEmpty()) {
-                Map<String, String> response = new HashMap<>();
-                response.put("message", "The generated JWT Token is empty!");
-                return new ResponseEntity<>(response, HttpStatus.BAD_REQUEST);
-            }
-            Cookie refreshTokenCookie = createRefreshTokenCookie(refreshToken.get());
-            servletResponse.addCookie(refreshTokenCookie);
-
-            return new ResponseEntity<>(new JwtTokenResponse(accessToken.get(), userDetails.getId()), HttpStatus.CREATED);
+    public final ResponseEntity<Object> registerUser(@RequestBody RegisterUserRequest request, @RequestHeader(value=IDEMPOTENCY_KEY_HEADER, required=false) String idempotencyKey,
+                                                     HttpServletRequest servletRequest, HttpServletResponse servletResponse) {
+        if (idempotencyKey == null) {
+            return sendRegistrationResponse(register(request, servletRequest), false, servletResponse);
         }
 
-        // To ensure someone cannot just get the users authentication token
-        // by trying to register an existing user, the body does not return
-        // JWT Tokens
-        catch (UserAlreadyExistsException e) {
-            Map<String, String> response = new HashMap<>();
-            response.put("message", e.getMessage());
-            return new ResponseEntity<>(response, HttpStatus.OK);
-        }
-
-        // "NoSuchAlgorithmException" and "InvalidKeySpecException" are thrown as a
-        // result of using the wrong Algorithm or Key Specification when JWTService
-        // extracts the Private and Public Keys needed to sign and verify JWT Tokens.
-        // Since the code should be correct, these exceptions will never actually be thrown,
-        // but, just in case of a stupid coding mistake in the future, I have this catch
-        // statement here to ensure that the server can still run while also making sure
-        // that someone cannot get unauthorized access to user data or functionality.
-        catch (NoSuchAlgorithmException | InvalidKeySpecException e) {
-            Map<String, String> response = new HashMap<>();
-            response.put("message", "Something went horribly wrong when registering the user!");
-            return new ResponseEntity<>(response, HttpStatus.INTERNAL_SERVER_ERROR);
+        if (idempotencyKey.isBlank() || idempotencyKey.length() > IdempotentRegistrationCache.MAX_KEY_LENGTH) {
+            return INVALID_IDEMPOTENCY_KEY.toResponseEntity();
         }
 
+        // a key reused for a different registration is answered by ApiExceptionHandler.
+        RequestFingerprint fingerprint = RequestFingerprint.of(request.getEmail(), request.getPassword());
+        IdempotentRegistrationCache.Result result = idempotentRegistrationCache.execute(idempotencyKey, fingerprint, () -> register(request, servletRequest));
+        return sendRegistrationResponse(result.getResponse(), result.isReplayed(), servletResponse);
     }
 
     /**
@@ -124,15 +138,14 @@ public class AuthenticationController {
      * @return an HTTP Response, with JWT Access Token generated if the login has been successful.
      */
     @PostMapping(value="/login", produces="application/json")
-    public final ResponseEntity<Object> signInUser(@RequestBody SignInUserRequest request, HttpServletResponse servletResponse) {
+    public final ResponseEntity<Object> signInUser(@RequestBody SignInUserRequest request, HttpServletRequest servletRequest, HttpServletResponse servletResponse) {
         try {
             UserJwtDetails userDetails = userService.verifyUserSignIn(request);
+            authAuditor.record(AuthEventType.LOGIN_SUCCESS, userDetails.getId(), userDetails.getEmail(), servletRequest);
             Optional<String> accessToken = jwtService.generateAccessToken(userDetails);
             Optional<String> refreshToken = jwtService.generateRefreshToken(userDetails);
             if (accessToken.isEmpty() || refreshToken.isEmpty()) {
-                Map<String, String> response = new HashMap<>();
-                response.put("message", "The generated JWT Token is empty!");
-                return new ResponseEntity<>(response, HttpStatus.BAD_REQUEST);
+                return EMPTY_TOKEN.toResponseEntity();
             }
             Cookie refreshTokenCookie = createRefreshTokenCookie(refreshToken.get());
             servletResponse.addCookie(refreshTokenCookie);
@@ -144,14 +157,14 @@ public class AuthenticationController {
         // by trying to either login as a user that doesn't exist or done a failed login
         // attempt, the body does not return JWT Tokens
         catch (UserNotFoundException e) {
-            Map<String, String> response = new HashMap<>();
-            response.put("message", e.getMessage());
-            return new ResponseEntity<>(response, HttpStatus.NO_CONTENT);
+            authAuditor.record(AuthEventType.LOGIN_FAILURE, null, request.getEmail(), servletRequest);
+            return new ResponseEntity<>(null, HttpStatus.NO_CONTENT);
         }
+
+        // answered by ApiExceptionHandler, once the failed attempt is recorded.
         catch (IncorrectSignInException e) {
-            Map<String, String> response = new HashMap<>();
-            response.put("message", "The provided username (email) or password is incorrect. Please try again!");
-            return new ResponseEntity<>(response, HttpStatus.UNAUTHORIZED);
+            authAuditor.record(AuthEventType.LOGIN_FAILURE, null, request.getEmail(), servletRequest);
+            throw e;
         }
 
         // "NoSuchAlgorithmException" and "InvalidKeySpecException" are thrown as a
@@ -162,9 +175,7 @@ public class AuthenticationController {
         // statement here to ensure that the server can still run while also making sure
         // that someone cannot get unauthorized access to user data or functionality.
         catch (NoSuchAlgorithmException | InvalidKeySpecException e) {
-            Map<String, String> response = new HashMap<>();
-            response.put("message", "Something went horribly wrong when signing in the user!");
-            return new ResponseEntity<>(response, HttpStatus.INTERNAL_SERVER_ERROR);
+            return SIGN_IN_FAILED.toResponseEntity();
         }
 
     }
@@ -176,54 +187,43 @@ public class AuthenticationController {
     @GetMapping(value="/refresh", produces="application/json")
     public final ResponseEntity<Object> refreshAccessToken(HttpServletRequest request, HttpServletResponse servletResponse) {
 
-        // Ensures the messages are consistent.
-        final String BAD_REQUEST_RESPONSE = "Can't provide new access token without a valid refresh token!";
-        final String INTERNAL_SERVER_ERROR_RESPONSE = "Something went horribly wrong when generating a new access token!";
-        final String UNAUTHORIZED_RESPONSE = "Can't generate access token for unauthorized users";
-
         Optional<Cookie> jwtRefreshTokenCookie = Optional.ofNullable(WebUtils.getCookie(request, "jwt-refresh-token"));
         if (jwtRefreshTokenCookie.isEmpty()) {
-            Map<String, String> response = new HashMap<>();
-            response.put("message", BAD_REQUEST_RESPONSE);
-            return new ResponseEntity<>(response, HttpStatus.BAD_REQUEST);
+            return INVALID_REFRESH_TOKEN.toResponseEntity();
         }
 
         String refreshToken = jwtRefreshTokenCookie.get().getValue();
-        //System.out.println("(AuthenticationController - refreshAccessToken) REFRESH_TOKEN: \n\"" + refreshToken + "\"");
 
         // ensures that the refresh token cookie is still found in the response.
         servletResponse.addCookie(jwtRefreshTokenCookie.get());
 
         try {
             if (!jwtService.validateToken(refreshToken)) {
-                Map<String, String> response = new HashMap<>();
-                response.put("message", BAD_REQUEST_RESPONSE);
-                return new ResponseEntity<>(response, HttpStatus.BAD_REQUEST);
+                authAuditor.record(AuthEventType.TOKEN_REJECTED, null, null, request);
+                return INVALID_REFRESH_TOKEN.toResponseEntity();
             }
 
             Optional<String> email = jwtService.getEmail(refreshToken);
             if (email.isEmpty()) {
-                Map<String, String> response = new HashMap<>();
-                response.put("message", BAD_REQUEST_RESPONSE);
-                return new ResponseEntity<>(response, HttpStatus.BAD_REQUEST);
+                authAuditor.record(AuthEventType.TOKEN_REJECTED, null, null, request);
+                return INVALID_REFRESH_TOKEN.toResponseEntity();
             }
 
             UserJwtDetails userDetails = userService.getUserDetails(email.get());
             Optional<String> accessToken = jwtService.generateAccessToken(userDetails);
             if (accessToken.isEmpty()) {
-                Map<String, String> response = new HashMap<>();
-                response.put("message", INTERNAL_SERVER_ERROR_RESPONSE);
-                return new ResponseEntity<>(response, HttpStatus.INTERNAL_SERVER_ERROR);
+                return REFRESH_FAILED.toResponseEntity();
             }
 
+            authAuditor.record(AuthEventType.REFRESH, userDetails.getId(), userDetails.getEmail(), request);
+
             return new ResponseEntity<>(new JwtTokenResponse(accessToken.get(), userDetails.getId()), HttpStatus.OK);
         }
 
         // Because one can ask to refresh a token of a non-existent user
         catch (UserNotFoundException e) {
-            Map<String, String> response = new HashMap<>();
-            response.put("message", UNAUTHORIZED_RESPONSE);
-            return new ResponseEntity<>(response, HttpStatus.UNAUTHORIZED);
+            authAuditor.record(AuthEventType.TOKEN_REJECTED, null, null, request);
+            return UNAUTHORIZED_REFRESH.toResponseEntity();
         }
 
         // "NoSuchAlgorithmException" and "InvalidKeySpecException" are thrown as a
@@ -234,14 +234,61 @@ public class AuthenticationController {
         // statement here to ensure that the server can still run while also making sure
         // that someone cannot get unauthorized access to user data or functionality.
         catch (NoSuchAlgorithmException | InvalidKeySpecException e) {
-            Map<String, String> response = new HashMap<>();
-            response.put("message", INTERNAL_SERVER_ERROR_RESPONSE);
-            return new ResponseEntity<>(response, HttpStatus.INTERNAL_SERVER_ERROR);
+            return REFRESH_FAILED.toResponseEntity();
         }
     }
 
     ///////////////////////////////////////////////////////////////////////////////////////////////
 
+    // Registers the user, without signing any tokens yet, so that only the outcome is kept for replays.
+    private IdempotentRegistrationCache.Response register(RegisterUserRequest request, HttpServletRequest servletRequest) {
+        try {
+            UserJwtDetails userDetails = userService.createUser(request);
+            authAuditor.record(AuthEventType.REGISTER, userDetails.getId(), userDetails.getEmail(), servletRequest);
+            return new IdempotentRegistrationCache.Response(HttpStatus.CREATED, null, userDetails);
+        }
+
+        // To ensure someone cannot just get the users authentication token
+        // by trying to register an existing user, the body does not return
+        // JWT Tokens
+        catch (UserAlreadyExistsException e) {
+            authAuditor.record(AuthEventType.REGISTER_CONFLICT, null, request.getEmail(), servletRequest);
+            return new IdempotentRegistrationCache.Response(USER_ALREADY_EXISTS.getStatus(), USER_ALREADY_EXISTS, null);
+        }
+    }
+
+    // Tokens are signed for every response, including replays, so a replayed access token is as fresh as the first one.
+    private ResponseEntity<Object> sendRegistrationResponse(IdempotentRegistrationCache.Response response, boolean replayed, HttpServletResponse servletResponse) {
+        try {
+            ResponseEntity.BodyBuilder builder = ResponseEntity.status(response.getStatus());
+            if (replayed) builder.header(IDEMPOTENT_REPLAYED_HEADER, "true");
+            if (response.getBody() != null) {
+                return builder.contentType(MediaType.APPLICATION_PROBLEM_JSON).body(response.getBody().getBody());
+            }
+
+            UserJwtDetails userDetails = response.getUserDetails();
+            Optional<String> accessToken = jwtService.generateAccessToken(userDetails);
+            Optional<String> refreshToken = jwtService.generateRefreshToken(userDetails);
+            if (accessToken.isEmpty() || refreshToken.isEmpty()) {
+                return EMPTY_TOKEN.toResponseEntity();
+            }
+            servletResponse.addCookie(createRefreshTokenCookie(refreshToken.get()));
+
+            return builder.body(new JwtTokenResponse(accessToken.get(), userDetails.getId()));
+        }
+
+        // "NoSuchAlgorithmException" and "InvalidKeySpecException" are thrown as a
+        // result of using the wrong Algorithm or Key Specification when JWTService
+        // extracts the Private and Public Keys needed to sign and verify JWT Tokens.
+        // Since the code should be correct, these exceptions will never actually be thrown,
+        // but, just in case of a stupid coding mistake in the future, I have this catch
+        // statement here to ensure that the server can still run while also making sure
+        // that someone cannot get unauthorized access to user data or functionality.
+        catch (NoSuchAlgorithmException | InvalidKeySpecException e) {
+            return REGISTRATION_FAILED.toResponseEntity();
+        }
+    }
+
     // Created to ensure consistency when generating the Refresh Token Cookie
     private Cookie createRefreshTokenCookie(String refreshToken) {
         Cookie refreshTokenCookie = new Cookie ("jwt-refresh-token", refreshToken);
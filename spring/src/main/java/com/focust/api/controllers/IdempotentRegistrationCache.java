@@ -0,0 +1,195 @@
+/**
+ * IdempotentRegistrationCache.java - Replays registrations sent again with the same Idempotency-Key.
+ * Copyright (C) 2024  Allan DeBoe
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ * ------------------------------------------------------------------------
+ *
+ * A client that did not get a response to "/auth/register" (i.e. because
+ * the connection dropped) cannot tell whether the account was created.
+ * By sending an "Idempotency-Key" header, it can simply send the same
+ * registration again, and gets the outcome of the first one back instead
+ * of being told that the email is taken. If the first one is still in
+ * progress, the retry waits for it.
+ *
+ * A key can only be replayed by the same registration (compared by the
+ * fingerprint of its email and password), so a key that is reused for a
+ * different registration is rejected rather than leaking the response.
+ *
+ * Only the outcome (the status, and the registered user or the error) is
+ * kept, never any tokens, so a replay is sent freshly signed tokens rather
+ * than ones that may have expired since. Outcomes are only kept in memory,
+ * for a limited time and up to a limited number of keys, which is enough
+ * for retries. Replays are counted
+ * as "cache.gets" with cache="idempotent-registrations" and result="hit",
+ * and first uses of a key with result="miss".
+ *
+ * @see com.focust.api.controllers.AuthenticationController
+ *
+ * @author Allan DeBoe (allan.m.deboe@gmail.com)
+ * @version 0.0.6
+ * @since 0.0.6
+ */
+package com.focust.api.controllers;
+
+///////////////////////////////////////////////////////////////////////////
+
+// Focust //
+import com.focust.api.exceptions.IdempotencyKeyReusedException;
+import com.focust.api.dto.responses.ProblemResponse;
+import com.focust.api.security.fingerprint.RequestFingerprint;
+import com.focust.api.users.UserJwtDetails;
+
+// Micrometer //
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+// Project Lombok //
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+// Spring Framework //
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.stereotype.Component;
+
+// Standard Java //
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
+
+///////////////////////////////////////////////////////////////////////////
+
+@Component
+class IdempotentRegistrationCache {
+
+    static final int MAX_KEY_LENGTH = 255;
+    private static final int MAX_ENTRIES = 10000;
+
+    @Value("${focust.auth.idempotency.ttl:PT24H}")
+    private Duration timeToLive;
+
+    // in the order they were added, which is also the order they expire in; guarded by "this".
+    private final Map<String, Entry> entries = new LinkedHashMap<>();
+
+    private final Counter hits;
+    private final Counter misses;
+
+    IdempotentRegistrationCache(MeterRegistry meterRegistry) {
+        this.hits = Counter.builder("cache.gets").tag("cache", "idempotent-registrations").tag("result", "hit")
+                .description("registrations replayed from an earlier request with the same Idempotency-Key").register(meterRegistry);
+        this.misses = Counter.builder("cache.gets").tag("cache", "idempotent-registrations").tag("result", "miss")
+                .description("registrations sent with an Idempotency-Key that was not used yet").register(meterRegistry);
+    }
+
+    /**
+     * @param key the Idempotency-Key of the request
+     * @param fingerprint the fingerprint of the registration
+     * @param registration registers the user, if the key has not been used yet
+     * @return the response of the registration, and whether it was replayed.
+     * @throws IdempotencyKeyReusedException if the key was used by a different registration.
+     */
+    Result execute(String key, RequestFingerprint fingerprint, Supplier<Response> registration) throws IdempotencyKeyReusedException {
+        Entry ownEntry = new Entry(fingerprint, Instant.now().plus(timeToLive));
+        Entry existingEntry;
+        synchronized (this) {
+            removeExpired();
+            existingEntry = entries.putIfAbsent(key, ownEntry);
+        }
+
+        if (existingEntry != null) {
+            if (!existingEntry.fingerprint.matches(fingerprint)) throw new IdempotencyKeyReusedException();
+            hits.increment();
+            return new Result(await(existingEntry.response), true);
+        }
+
+        misses.increment();
+        try {
+            Response response = registration.get();
+            ownEntry.response.complete(response);
+
+            // errors on our side are not kept, so that retrying them can actually succeed.
+            if (response.getStatus().is5xxServerError()) remove(key, ownEntry);
+            return new Result(response, false);
+        }
+        catch (RuntimeException e) {
+            ownEntry.response.completeExceptionally(e);
+            remove(key, ownEntry);
+            throw e;
+        }
+    }
+
+    ///////////////////////////////////////////////////////////////////////////
+
+    private synchronized void remove(String key, Entry entry) {
+        entries.remove(key, entry);
+    }
+
+    // must be called while synchronized.
+    private void removeExpired() {
+        Instant now = Instant.now();
+        Iterator<Entry> iterator = entries.values().iterator();
+        while (iterator.hasNext()) {
+            Entry entry = iterator.next();
+            if (entry.expiresAt.isAfter(now) && entries.size() < MAX_ENTRIES) break;
+            iterator.remove();
+        }
+    }
+
+    // Unwraps the CompletionException, so replays see the same exceptions as the first request.
+    private static Response await(CompletableFuture<Response> response) {
+        try {
+            return response.join();
+        }
+        catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) throw cause;
+            throw e;
+        }
+    }
+
+    /**
+     * The outcome of a registration, which is all that is needed to send its response again.
+     */
+    @AllArgsConstructor
+    @Getter
+    static final class Response {
+        private final HttpStatusCode status;
+        private final ProblemResponse body;         // null if the user was registered.
+        private final UserJwtDetails userDetails;   // null if the registration failed.
+    }
+
+    @AllArgsConstructor
+    @Getter
+    static final class Result {
+        private final Response response;
+        private final boolean replayed;
+    }
+
+    private static final class Entry {
+        private final RequestFingerprint fingerprint;
+        private final Instant expiresAt;
+        private final CompletableFuture<Response> response = new CompletableFuture<>();
+
+        private Entry(RequestFingerprint fingerprint, Instant expiresAt) {
+            this.fingerprint = fingerprint;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+}
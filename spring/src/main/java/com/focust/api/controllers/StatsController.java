@@ -0,0 +1,88 @@
+/**
+ * StatsController.java - REST Controller used to get usage stats
+ * Copyright (C) 2024  Allan DeBoe
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ * ------------------------------------------------------------------------
+ *
+ * Only admins can get the stats.
+ *
+ * @see com.focust.api.stats.AuthStatsService
+ *
+ * @author Allan DeBoe (allan.m.deboe@gmail.com)
+ * @version 0.0.6
+ * @since 0.0.6
+ */
+package com.focust.api.controllers;
+
+///////////////////////////////////////////////////////////////////////////
+
+// Focust //
+import com.focust.api.dto.responses.ProblemResponse;
+import com.focust.api.stats.AuthStatsService;
+import com.focust.api.stats.StatsGranularity;
+
+// Spring Framework //
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+// Standard Java //
+import java.time.Instant;
+
+///////////////////////////////////////////////////////////////////////////
+
+@RestController
+@RequestMapping("/stats")
+public class StatsController {
+
+    // keeps a single request from asking for years of hourly buckets.
+    private static final int MAX_BUCKETS = 1000;
+
+    private static final ProblemResponse INVALID_RANGE = ProblemResponse.of(HttpStatus.BAD_REQUEST,
+            "from must be before to!");
+    private static final ProblemResponse TOO_MANY_BUCKETS = ProblemResponse.of(HttpStatus.BAD_REQUEST,
+            "at most " + MAX_BUCKETS + " buckets can be requested at once!");
+
+    @Autowired
+    private AuthStatsService authStatsService;
+
+    /**
+     * @param from the start of the range (inclusive), in the ISO-8601 format
+     * @param to the end of the range (exclusive), in the ISO-8601 format; defaults to now
+     * @param granularity either "HOUR" or "DAY" (UTC)
+     * @return an HTTP Response, containing the number of registrations and logins per bucket.
+     */
+    @GetMapping(value="/auth", produces="application/json")
+    public ResponseEntity<Object> getAuthStats(@RequestParam("from") @DateTimeFormat(iso=DateTimeFormat.ISO.DATE_TIME) Instant from,
+                                               @RequestParam(value="to", required=false) @DateTimeFormat(iso=DateTimeFormat.ISO.DATE_TIME) Instant to,
+                                               @RequestParam(value="granularity", defaultValue="HOUR") StatsGranularity granularity) {
+
+        Instant end = (to == null) ? Instant.now() : to;
+        if (!from.isBefore(end)) {
+            return INVALID_RANGE.toResponseEntity();
+        }
+        if (AuthStatsService.countBuckets(from, end, granularity) > MAX_BUCKETS) {
+            return TOO_MANY_BUCKETS.toResponseEntity();
+        }
+
+        return new ResponseEntity<>(authStatsService.getStats(from, end, granularity), HttpStatus.OK);
+    }
+
+}
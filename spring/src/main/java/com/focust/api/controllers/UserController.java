@@ -27,7 +27,7 @@
  * @see com.focust.api.controllers.AuthenticationController
  *
  * @author Allan DeBoe (allan.m.deboe@gmail.com)
- * @version 0.0.3
+ * @version 0.0.6
  * @since 0.0.3
  */
 package com.focust.api.controllers;
@@ -36,26 +36,44 @@ package com.focust.api.controllers;
 
 // Focust //
 import com.focust.api.dto.requests.PageNumberRequest;
+import com.focust.api.dto.requests.UserFilterRequest;
 import com.focust.api.dto.responses.NonSensitiveUserDataResponse;
-import com.focust.api.exceptions.EmptyPageException;
+import com.focust.api.dto.responses.ProblemResponse;
+import com.focust.api.dto.responses.UserChangesResponse;
 import com.focust.api.exceptions.UserNotFoundException;
+import com.focust.api.users.ApproximateCount;
+import com.focust.api.users.UserField;
+import com.focust.api.users.UserImportFormat;
+import com.focust.api.users.UserImportService;
 import com.focust.api.users.UserService;
 
+// Jakarta Servlets //
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
 // Spring Framework //
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 // Standard Java //
-import java.util.HashMap;
-import java.util.Map;
+import java.io.IOException;
+import java.time.ZonedDateTime;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 ///////////////////////////////////////////////////////////////////////////
 
@@ -63,39 +81,256 @@ import java.util.Optional;
 @RequestMapping(value="/users")
 public class UserController {
 
+    private static final int DEFAULT_SUGGESTION_LIMIT = 10;
+    private static final int MAX_SUGGESTION_LIMIT = 50;
+    private static final int DEFAULT_CHANGES_LIMIT = 500;
+    private static final int MAX_CHANGES_LIMIT = 1000;
+
+    private static final ProblemResponse INVALID_PAGE_NUMBER = ProblemResponse.of(HttpStatus.BAD_REQUEST,
+            "the page number must be greater than or equal to 1!");
+    private static final ProblemResponse INVALID_PAGE_SIZE = ProblemResponse.of(HttpStatus.BAD_REQUEST,
+            "the page size must be between 1 and " + PageNumberRequest.MAX_SIZE + "!");
+    private static final ProblemResponse INVALID_REGISTRATION_WINDOW = ProblemResponse.of(HttpStatus.BAD_REQUEST,
+            "registeredAfter must be before registeredBefore!");
+    private static final ProblemResponse INVALID_IDS = ProblemResponse.of(HttpStatus.BAD_REQUEST,
+            "between 1 and " + PageNumberRequest.MAX_SIZE + " ids must be given!");
+    private static final ProblemResponse EMPTY_QUERY = ProblemResponse.of(HttpStatus.BAD_REQUEST,
+            "the query (q) must not be empty!");
+    private static final ProblemResponse INVALID_SUGGESTION_LIMIT = ProblemResponse.of(HttpStatus.BAD_REQUEST,
+            "the limit must be between 1 and " + MAX_SUGGESTION_LIMIT + "!");
+    private static final ProblemResponse INVALID_SYNC_TOKEN = ProblemResponse.of(HttpStatus.BAD_REQUEST,
+            "since must be a sync token returned by this endpoint!");
+    private static final ProblemResponse INVALID_CHANGES_LIMIT = ProblemResponse.of(HttpStatus.BAD_REQUEST,
+            "the limit must be between 1 and " + MAX_CHANGES_LIMIT + "!");
+    private static final ProblemResponse UNKNOWN_FIELDS = ProblemResponse.of(HttpStatus.BAD_REQUEST,
+            "Unknown field requested! The available fields are: "
+                    + String.join(", ", Arrays.stream(UserField.values()).map(UserField::getFieldName).toList()));
+
     @Autowired
     private UserService userService;
 
+    @Autowired
+    private UserImportService userImportService;
+
+    /**
+     * The total number of matching users is sent back in the "X-Total-Count" header,
+     * with "X-Total-Count-Exact" being false if that number is only an approximation.
+     *
+     * @param request a PageNumberRequest containing the page number and page size
+     * @param filter a UserFilterRequest containing the (optional) email domain and registration window
+     * @param fields a comma-separated list of the fields to return (i.e. "id,email")
+     * @return an HTTP Response, containing the users on the requested page.
+     */
     @GetMapping(value="", produces="application/json")
-    public ResponseEntity<Object> getUsers(PageNumberRequest request) {
+    public ResponseEntity<Object> getUsers(PageNumberRequest request, UserFilterRequest filter, @RequestParam(value="fields", required=false) String fields) {
 
         int pageNumber = Optional.ofNullable(request).map(PageNumberRequest::getPageNumber).orElse(1);
         if (pageNumber < 1) {
-            Map<String, String> response = new HashMap<>();
-            response.put("message", "the page number must be greater than or equal to 1!");
-            return new ResponseEntity<>(response, HttpStatus.BAD_REQUEST);
+            return INVALID_PAGE_NUMBER.toResponseEntity();
         }
-        try {
-            Pageable page = PageRequest.of(pageNumber-1, 15);
-            return new ResponseEntity<>(userService.getUsers(page), HttpStatus.OK);
+
+        int pageSize = Optional.ofNullable(request).map(PageNumberRequest::getSize).orElse(PageNumberRequest.DEFAULT_SIZE);
+        if (pageSize < 1 || pageSize > PageNumberRequest.MAX_SIZE) {
+            return INVALID_PAGE_SIZE.toResponseEntity();
         }
-        catch (EmptyPageException e) {
+
+        UserFilterRequest userFilter = Optional.ofNullable(filter).orElseGet(UserFilterRequest::new);
+        if (userFilter.getRegisteredAfter() != null && userFilter.getRegisteredBefore() != null
+                && !userFilter.getRegisteredAfter().isBefore(userFilter.getRegisteredBefore())) {
+            return INVALID_REGISTRATION_WINDOW.toResponseEntity();
+        }
+
+        Optional<Set<UserField>> requestedFields = UserField.parse(fields);
+        if (requestedFields.isEmpty()) {
+            return UNKNOWN_FIELDS.toResponseEntity();
+        }
+
+        // a page past the last one (EmptyPageException) is answered by ApiExceptionHandler.
+        Pageable page = PageRequest.of(pageNumber-1, pageSize);
+        List<NonSensitiveUserDataResponse> users = userService.getUsers(page, requestedFields.get(), userFilter);
+        ApproximateCount count = userService.countUsers(userFilter);
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.set("X-Total-Count", String.valueOf(count.getCount()));
+        headers.set("X-Total-Count-Exact", String.valueOf(count.isExact()));
+        return new ResponseEntity<>(users, headers, HttpStatus.OK);
+
+    }
+
+    /**
+     * Used to get many users at once (i.e. "?ids=1,2,3"), instead of sending
+     * a separate request for each of them.
+     *
+     * @param ids the ids of the users
+     * @param fields a comma-separated list of the fields to return (i.e. "id,email")
+     * @return an HTTP Response, containing the users that were found.
+     */
+    @GetMapping(value="", params="ids", produces="application/json")
+    public ResponseEntity<Object> getUsersByIds(@RequestParam("ids") List<Long> ids, @RequestParam(value="fields", required=false) String fields) {
+
+        if (ids.isEmpty() || ids.size() > PageNumberRequest.MAX_SIZE) {
+            return INVALID_IDS.toResponseEntity();
+        }
+
+        Optional<Set<UserField>> requestedFields = UserField.parse(fields);
+        if (requestedFields.isEmpty()) {
+            return UNKNOWN_FIELDS.toResponseEntity();
+        }
+
+        List<NonSensitiveUserDataResponse> users = userService.getNonSensitiveUserDetails(ids, requestedFields.get());
+        if (users.isEmpty()) {
             return new ResponseEntity<>(null, HttpStatus.NO_CONTENT);
         }
+        return new ResponseEntity<>(users, HttpStatus.OK);
+    }
+
+    /**
+     * Used for typeahead (i.e. when assigning an issue or @-mentioning someone).
+     *
+     * @param query the start of an email or GitHub username (case-insensitive)
+     * @param limit the maximum number of users to return
+     * @return an HTTP Response, containing the matching users (if any).
+     */
+    @GetMapping(value="/suggest", produces="application/json")
+    public ResponseEntity<Object> suggestUsers(@RequestParam(value="q", required=false) String query, @RequestParam(value="limit", defaultValue="" + DEFAULT_SUGGESTION_LIMIT) int limit) {
+
+        if (query == null || query.isBlank()) {
+            return EMPTY_QUERY.toResponseEntity();
+        }
+        if (limit < 1 || limit > MAX_SUGGESTION_LIMIT) {
+            return INVALID_SUGGESTION_LIMIT.toResponseEntity();
+        }
 
+        return new ResponseEntity<>(userService.suggestUsers(query, limit), HttpStatus.OK);
     }
 
+    /**
+     * Used by clients that keep their own copy of the user directory (i.e. the
+     * desktop client), so they only download the users that changed since they
+     * last synced. Leaving out "since" returns every user (in pages of "limit").
+     *
+     * @see com.focust.api.dto.responses.UserChangesResponse
+     *
+     * @param since the "syncToken" of the last response
+     * @param limit the maximum number of changes to return
+     * @param fields a comma-separated list of the fields to return (i.e. "id,email")
+     * @return an HTTP Response, containing the changes and the next sync token.
+     */
+    @GetMapping(value="/changes", produces="application/json")
+    public ResponseEntity<Object> getUserChanges(@RequestParam(value="since", required=false) String since,
+                                                 @RequestParam(value="limit", defaultValue="" + DEFAULT_CHANGES_LIMIT) int limit,
+                                                 @RequestParam(value="fields", required=false) String fields) {
+
+        long sinceSequence;
+        try {
+            sinceSequence = (since == null || since.isBlank()) ? 0 : Long.parseLong(since);
+        }
+        catch (NumberFormatException e) {
+            sinceSequence = -1;
+        }
+        if (sinceSequence < 0) {
+            return INVALID_SYNC_TOKEN.toResponseEntity();
+        }
+        if (limit < 1 || limit > MAX_CHANGES_LIMIT) {
+            return INVALID_CHANGES_LIMIT.toResponseEntity();
+        }
+
+        Optional<Set<UserField>> requestedFields = UserField.parse(fields);
+        if (requestedFields.isEmpty()) {
+            return UNKNOWN_FIELDS.toResponseEntity();
+        }
+
+        UserChangesResponse changes = userService.getChanges(sinceSequence, limit, requestedFields.get());
+        return new ResponseEntity<>(changes, HttpStatus.OK);
+    }
+
+    /**
+     * Used by admins for inactive-account reports; when users were last seen
+     * and signed in is not one of the public fields.
+     *
+     * @see com.focust.api.dto.responses.UserActivityResponse
+     *
+     * @param since users who have not been seen since then (in the ISO-8601 format) are inactive
+     * @param request a PageNumberRequest containing the page number and page size
+     * @return an HTTP Response, containing the inactive users on the requested page.
+     */
+    @GetMapping(value="/inactive", produces="application/json")
+    public ResponseEntity<Object> getInactiveUsers(@RequestParam("since") @DateTimeFormat(iso=DateTimeFormat.ISO.DATE_TIME) ZonedDateTime since,
+                                                   PageNumberRequest request) {
+
+        int pageNumber = Optional.ofNullable(request).map(PageNumberRequest::getPageNumber).orElse(1);
+        if (pageNumber < 1) {
+            return INVALID_PAGE_NUMBER.toResponseEntity();
+        }
+
+        int pageSize = Optional.ofNullable(request).map(PageNumberRequest::getSize).orElse(PageNumberRequest.DEFAULT_SIZE);
+        if (pageSize < 1 || pageSize > PageNumberRequest.MAX_SIZE) {
+            return INVALID_PAGE_SIZE.toResponseEntity();
+        }
+
+        return new ResponseEntity<>(userService.getInactiveUsers(since, PageRequest.of(pageNumber-1, pageSize)), HttpStatus.OK);
+    }
+
+    /**
+     * @param id the id of the user
+     * @param fields a comma-separated list of the fields to return (i.e. "id,email")
+     * @return an HTTP Response, containing the user with the given id.
+     */
     @GetMapping(value="/{id}", produces="application/json")
-    public ResponseEntity<Object> getUserById(@PathVariable long id) {
+    public ResponseEntity<Object> getUserById(@PathVariable long id, @RequestParam(value="fields", required=false) String fields) {
+
+        Optional<Set<UserField>> requestedFields = UserField.parse(fields);
+        if (requestedFields.isEmpty()) {
+            return UNKNOWN_FIELDS.toResponseEntity();
+        }
+
         try {
-            NonSensitiveUserDataResponse response = userService.getNonSensitiveUserDetails(id);
+            NonSensitiveUserDataResponse response = userService.getNonSensitiveUserDetails(id, requestedFields.get());
             return new ResponseEntity<>(response, HttpStatus.OK);
         }
         catch (UserNotFoundException e) {
-            Map<String, String> response = new HashMap<>();
-            response.put("message", e.getMessage());
-            return new ResponseEntity<>(response, HttpStatus.NO_CONTENT);
+            return new ResponseEntity<>(null, HttpStatus.NO_CONTENT);
         }
     }
 
+    /**
+     * Used by admins to delete a user.
+     *
+     * @param id the id of the user
+     * @return an HTTP Response, with no content if the user has been deleted.
+     */
+    @DeleteMapping(value="/{id}", produces="application/json")
+    public ResponseEntity<Object> deleteUser(@PathVariable long id) {
+
+        // a user that doesn't exist (UserNotFoundException) is answered by ApiExceptionHandler.
+        userService.deleteUser(id);
+        return new ResponseEntity<>(null, HttpStatus.NO_CONTENT);
+    }
+
+    /**
+     * Used by admins to create many users at once (i.e. when onboarding a new team),
+     * from either a CSV ("text/csv") or NDJSON ("application/x-ndjson") body.
+     *
+     * The response is written while the import is still going on, with one
+     * line of NDJSON per imported row (see UserImportResultResponse), which is
+     * why this writes to the servlet response directly.
+     *
+     * @see com.focust.api.dto.responses.UserImportResultResponse
+     *
+     * @param request a HttpServletRequest containing the users to import
+     * @param servletResponse the HttpServletResponse the results are streamed into
+     * @throws IOException if reading the request or writing the response fails.
+     */
+    @PostMapping(value="/import", consumes={"text/csv", "application/x-ndjson"}, produces="application/x-ndjson")
+    public void importUsers(HttpServletRequest request, HttpServletResponse servletResponse) throws IOException {
+
+        // "consumes" already guarantees that the format is one of the above.
+        UserImportFormat format = UserImportFormat.fromContentType(request.getContentType()).orElseThrow();
+
+        servletResponse.setStatus(HttpStatus.OK.value());
+        servletResponse.setContentType(UserImportFormat.NDJSON.getMediaType());
+        servletResponse.setCharacterEncoding("UTF-8");
+        userImportService.importUsers(request.getInputStream(), format, servletResponse.getOutputStream());
+    }
+
 }
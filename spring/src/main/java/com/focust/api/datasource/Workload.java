@@ -0,0 +1,53 @@
+/**
+ * Workload.java - The workloads with a connection pool of their own
+ * Copyright (C) 2024  Allan DeBoe
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ * ------------------------------------------------------------------------
+ *
+ * Signing in (and verifying the JWT token of every request) only needs a
+ * single quick query, while listing users can hold a connection for much
+ * longer; each gets a pool of its own, so a flood of one can not take the
+ * connections the other needs. Everything else (registrations, imports,
+ * deletes, and the background jobs) uses the default pool.
+ *
+ * @see com.focust.api.datasource.WorkloadPool
+ * @see com.focust.api.datasource.WorkloadRoutingDataSource
+ *
+ * @author Allan DeBoe (allan.m.deboe@gmail.com)
+ * @version 0.0.6
+ * @since 0.0.6
+ */
+package com.focust.api.datasource;
+
+///////////////////////////////////////////////////////////////////////////
+
+// Project Lombok //
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+///////////////////////////////////////////////////////////////////////////
+
+@Getter
+@RequiredArgsConstructor
+public enum Workload {
+
+    DEFAULT("default"),
+    AUTH("auth"),
+    READ("read");
+
+    // used in properties, and as the name of the pool (i.e. the "pool" tag of "hikaricp.*" metrics).
+    private final String tag;
+
+}
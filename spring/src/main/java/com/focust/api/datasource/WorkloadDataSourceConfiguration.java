@@ -0,0 +1,96 @@
+/**
+ * WorkloadDataSourceConfiguration.java - Configuration of the connection pool of each workload
+ * Copyright (C) 2024  Allan DeBoe
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ * ------------------------------------------------------------------------
+ *
+ * Every pool is set up like Spring Boot would set up its single pool (from
+ * "spring.datasource.*" and "spring.datasource.hikari.*"), and the pools of
+ * the other workloads are then given their own size and timeouts from
+ * "focust.datasource.pools.<workload>.*" (i.e. "maximum-pool-size" or
+ * "connection-timeout"). As Spring Boot only exports the metrics of pools
+ * that are beans, each pool exports its own.
+ *
+ * The advisor is static, as the proxies are created while the other beans
+ * are (which includes this configuration).
+ *
+ * @see com.focust.api.datasource.WorkloadRoutingDataSource
+ *
+ * @author Allan DeBoe (allan.m.deboe@gmail.com)
+ * @version 0.0.6
+ * @since 0.0.6
+ */
+package com.focust.api.datasource;
+
+///////////////////////////////////////////////////////////////////////////
+
+// Hikari //
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+
+// Micrometer //
+import io.micrometer.core.instrument.MeterRegistry;
+
+// Spring Framework //
+import org.springframework.aop.Advisor;
+import org.springframework.aop.support.DefaultPointcutAdvisor;
+import org.springframework.aop.support.annotation.AnnotationMatchingPointcut;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.env.Environment;
+
+// Standard Java //
+import java.util.EnumMap;
+import java.util.Map;
+
+///////////////////////////////////////////////////////////////////////////
+
+@Configuration
+public class WorkloadDataSourceConfiguration {
+
+    private static final String PROPERTY_PREFIX = "focust.datasource.pools.";
+
+    @Bean
+    public WorkloadRoutingDataSource dataSource(DataSourceProperties properties, Environment environment, MeterRegistry meterRegistry) {
+        Binder binder = Binder.get(environment);
+        Map<Workload, HikariDataSource> pools = new EnumMap<>(Workload.class);
+        for (Workload workload : Workload.values()) {
+            HikariDataSource pool = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+            binder.bind("spring.datasource.hikari", Bindable.ofInstance(pool));
+            if (workload != Workload.DEFAULT) {
+                binder.bind(PROPERTY_PREFIX + workload.getTag(), Bindable.ofInstance(pool));
+            }
+            pool.setPoolName(workload.getTag());
+            pool.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+            pool.validate(); // fills in the defaults (i.e. the size), which are otherwise only known once the pool starts.
+            pools.put(workload, pool);
+        }
+        return new WorkloadRoutingDataSource(pools);
+    }
+
+    // runs before any other advice (i.e. transactions), so the workload is set before a connection is taken.
+    @Bean
+    public static Advisor workloadPoolAdvisor() {
+        DefaultPointcutAdvisor advisor = new DefaultPointcutAdvisor(
+                AnnotationMatchingPointcut.forMethodAnnotation(WorkloadPool.class), new WorkloadPoolInterceptor());
+        advisor.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return advisor;
+    }
+
+}
@@ -0,0 +1,58 @@
+/**
+ * WorkloadPool.java - Routes the queries of a method to the pool of a workload
+ * Copyright (C) 2024  Allan DeBoe
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ * ------------------------------------------------------------------------
+ *
+ * The annotated method runs with its workload set for the current thread,
+ * so the connections it takes (i.e. for the transactions of the repositories
+ * it calls) come from that workload's pool. A connection that was already
+ * taken when the method is called (i.e. by a transaction that is still
+ * going on) stays in use, and queries made on other threads are not routed
+ * by it either (those use WorkloadRoutingDataSource.runWith instead, like
+ * the batches of the UserLookupCoalescer).
+ *
+ * Annotated beans are proxied, so their public methods can not be final.
+ *
+ * @see com.focust.api.datasource.WorkloadPoolInterceptor
+ *
+ * @author Allan DeBoe (allan.m.deboe@gmail.com)
+ * @version 0.0.6
+ * @since 0.0.6
+ */
+package com.focust.api.datasource;
+
+///////////////////////////////////////////////////////////////////////////
+
+// Standard Java //
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+///////////////////////////////////////////////////////////////////////////
+
+@Documented
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface WorkloadPool {
+
+    /**
+     * @return the workload whose pool the queries of the method use
+     */
+    Workload value();
+
+}
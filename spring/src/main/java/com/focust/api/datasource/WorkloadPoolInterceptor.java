@@ -0,0 +1,59 @@
+/**
+ * WorkloadPoolInterceptor.java - Sets the workload of the current thread for WorkloadPool methods
+ * Copyright (C) 2024  Allan DeBoe
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ * ------------------------------------------------------------------------
+ *
+ * The workload the method replaced is put back once it returns (or throws),
+ * so that annotated methods calling one another behave like nested calls.
+ *
+ * @see com.focust.api.datasource.WorkloadPool
+ * @see com.focust.api.datasource.WorkloadDataSourceConfiguration
+ *
+ * @author Allan DeBoe (allan.m.deboe@gmail.com)
+ * @version 0.0.6
+ * @since 0.0.6
+ */
+package com.focust.api.datasource;
+
+///////////////////////////////////////////////////////////////////////////
+
+// AOP Alliance //
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+
+// Spring Framework //
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.lang.NonNull;
+
+///////////////////////////////////////////////////////////////////////////
+
+public class WorkloadPoolInterceptor implements MethodInterceptor {
+
+    @Override
+    public Object invoke(@NonNull MethodInvocation invocation) throws Throwable {
+        WorkloadPool workloadPool = AnnotatedElementUtils.findMergedAnnotation(invocation.getMethod(), WorkloadPool.class);
+        if (workloadPool == null) return invocation.proceed();
+
+        Workload previous = WorkloadRoutingDataSource.setCurrentWorkload(workloadPool.value());
+        try {
+            return invocation.proceed();
+        }
+        finally {
+            WorkloadRoutingDataSource.setCurrentWorkload(previous);
+        }
+    }
+
+}
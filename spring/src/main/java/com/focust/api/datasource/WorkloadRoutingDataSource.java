@@ -0,0 +1,120 @@
+/**
+ * WorkloadRoutingDataSource.java - Hands out connections from the pool of the current workload
+ * Copyright (C) 2024  Allan DeBoe
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ * ------------------------------------------------------------------------
+ *
+ * This is the application's only DataSource bean (which Hibernate and the
+ * JdbcTemplate use); the pools themselves are not beans, so it also closes
+ * them. Threads without a workload (see WorkloadPool) use the default pool.
+ *
+ * @see com.focust.api.datasource.WorkloadDataSourceConfiguration
+ *
+ * @author Allan DeBoe (allan.m.deboe@gmail.com)
+ * @version 0.0.6
+ * @since 0.0.6
+ */
+package com.focust.api.datasource;
+
+///////////////////////////////////////////////////////////////////////////
+
+// Hikari //
+import com.zaxxer.hikari.HikariDataSource;
+
+// Spring Framework //
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.lang.NonNull;
+
+// Standard Java //
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+///////////////////////////////////////////////////////////////////////////
+
+public class WorkloadRoutingDataSource extends AbstractRoutingDataSource implements AutoCloseable {
+
+    private static final ThreadLocal<Workload> currentWorkload = new ThreadLocal<>();
+
+    private final Map<Workload, HikariDataSource> pools;
+
+    /**
+     * @param pools the pool of every workload
+     */
+    public WorkloadRoutingDataSource(Map<Workload, HikariDataSource> pools) {
+        if (pools.size() != Workload.values().length) throw new IllegalArgumentException("every workload needs a pool");
+        this.pools = new EnumMap<>(pools);
+
+        setTargetDataSources(new HashMap<>(this.pools));
+        setDefaultTargetDataSource(this.pools.get(Workload.DEFAULT));
+        setLenientFallback(false);
+        afterPropertiesSet();
+    }
+
+    /**
+     * @param workload the workload
+     * @return its pool
+     */
+    public HikariDataSource getPool(Workload workload) {
+        return pools.get(workload);
+    }
+
+    /**
+     * @return the workload of the current thread, or nothing if it uses the default pool.
+     */
+    public static Optional<Workload> getCurrentWorkload() {
+        return Optional.ofNullable(currentWorkload.get());
+    }
+
+    /**
+     * Used by code that queries on threads of its own (i.e. the warm-up),
+     * which a WorkloadPool annotation would not reach.
+     *
+     * @param workload the workload whose pool the queries of the action use
+     * @param action the action to run on the current thread
+     */
+    public static void runWith(Workload workload, Runnable action) {
+        Workload previous = setCurrentWorkload(workload);
+        try {
+            action.run();
+        }
+        finally {
+            setCurrentWorkload(previous);
+        }
+    }
+
+    @Override
+    public void close() {
+        pools.values().forEach(HikariDataSource::close);
+    }
+
+    ///////////////////////////////////////////////////////////////////////////
+
+    // returns the workload it replaced, for restoring it afterwards (null meaning none).
+    static Workload setCurrentWorkload(Workload workload) {
+        Workload previous = currentWorkload.get();
+        if (workload == null) currentWorkload.remove();
+        else currentWorkload.set(workload);
+        return previous;
+    }
+
+    @Override
+    @NonNull
+    protected Object determineCurrentLookupKey() {
+        return getCurrentWorkload().orElse(Workload.DEFAULT);
+    }
+
+}
@@ -17,7 +17,7 @@
  * ------------------------------------------------------------------------
  *
  * @author Allan DeBoe (allan.m.deboe@gmail.com)
- * @version 0.0.4
+ * @version 0.0.6
  * @since 0.0.3
  */
 package com.focust.api.dto.requests;
@@ -34,11 +34,18 @@ import lombok.Setter;
 @Getter
 public final class PageNumberRequest implements Request {
 
+    public static final int DEFAULT_SIZE = 15;
+    public static final int MAX_SIZE = 100;
+
     private int pageNumber = 1;
 
+    // the number of entries per page, bounded by MAX_SIZE so a single
+    // request can't ask for the whole table at once.
+    private int size = DEFAULT_SIZE;
+
     @Override
     public String getJson() {
-        return "{ \"pageNumber\": " + pageNumber + " }";
+        return "{ \"pageNumber\": " + pageNumber + ", \"size\": " + size + " }";
     }
 
 }
@@ -0,0 +1,92 @@
+/**
+ * UserFilterRequest.java - Request for filtering the list of users
+ * Copyright (C) 2024  Allan DeBoe
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ * ------------------------------------------------------------------------
+ *
+ * Every filter is optional; the ones that are set are combined, so
+ * "?domain=focust.local&registeredAfter=2024-10-01T00:00:00Z" only
+ * matches users of that domain who registered after that date.
+ *
+ * @see com.focust.api.users.User
+ * @see com.focust.api.controllers.UserController
+ *
+ * @author Allan DeBoe (allan.m.deboe@gmail.com)
+ * @version 0.0.6
+ * @since 0.0.6
+ */
+package com.focust.api.dto.requests;
+
+///////////////////////////////////////////////////////////////////////////
+
+// Project Lombok //
+import lombok.Getter;
+import lombok.Setter;
+
+// Spring Framework //
+import org.springframework.format.annotation.DateTimeFormat;
+
+// Standard Java //
+import java.time.ZonedDateTime;
+import java.util.Locale;
+import java.util.Optional;
+
+///////////////////////////////////////////////////////////////////////////
+
+@Setter
+@Getter
+public final class UserFilterRequest implements Request {
+
+    // the part of the email after the '@' (i.e. "focust.local")
+    private String domain;
+
+    // inclusive lower bound of the registration date
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private ZonedDateTime registeredAfter;
+
+    // exclusive upper bound of the registration date
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private ZonedDateTime registeredBefore;
+
+    /**
+     * Email domains are stored in lowercase, so the given domain is
+     * normalized the same way (with a leading '@' being ignored).
+     *
+     * @return the normalized email domain, or nothing if not filtering by domain.
+     */
+    public Optional<String> getNormalizedDomain() {
+        return Optional.ofNullable(domain)
+                .map(String::trim)
+                .map(d -> d.startsWith("@") ? d.substring(1) : d)
+                .filter(d -> !d.isEmpty())
+                .map(d -> d.toLowerCase(Locale.ROOT));
+    }
+
+    /**
+     * @return true if at least one filter is set.
+     */
+    public boolean isFiltering() {
+        return getNormalizedDomain().isPresent() || registeredAfter != null || registeredBefore != null;
+    }
+
+    @Override
+    public String getJson() {
+        return "{ \"domain\": " + (domain == null ? "null" : "\"" + domain + "\"")
+                + ", \"registeredAfter\": " + (registeredAfter == null ? "null" : "\"" + registeredAfter + "\"")
+                + ", \"registeredBefore\": " + (registeredBefore == null ? "null" : "\"" + registeredBefore + "\"")
+                + " }";
+    }
+
+}
@@ -0,0 +1,46 @@
+/**
+ * AuthStatsResponse.java - Response DTO for the authentication stats of a time bucket
+ * Copyright (C) 2024  Allan DeBoe
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ * ------------------------------------------------------------------------
+ *
+ * @see com.focust.api.stats.AuthStatsService
+ *
+ * @author Allan DeBoe (allan.m.deboe@gmail.com)
+ * @version 0.0.6
+ * @since 0.0.6
+ */
+package com.focust.api.dto.responses;
+
+///////////////////////////////////////////////////////////////////////////
+
+// Project Lombok //
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+// Standard Java //
+import java.time.Instant;
+
+///////////////////////////////////////////////////////////////////////////
+
+@Getter
+@RequiredArgsConstructor
+public final class AuthStatsResponse {
+
+    private final Instant start;        // the start of the bucket (UTC)
+    private final long registrations;
+    private final long logins;
+
+}
@@ -16,28 +16,47 @@
  * along with this program.  If not, see <https://www.gnu.org/licenses/>.
  * ------------------------------------------------------------------------
  *
+ * Fields that weren't requested by the client (i.e. through "?fields=")
+ * are left as null and are not included in the JSON response.
+ *
  * @see com.focust.api.users.User
+ * @see com.focust.api.users.UserField
  * @see com.focust.api.controllers.UserController
  *
  * @author Allan DeBoe (allan.m.deboe@gmail.com)
- * @version 0.0.3
+ * @version 0.0.6
  * @since 0.0.3
  */
 package com.focust.api.dto.responses;
 
 ///////////////////////////////////////////////////////////////////////////
 
+// Jackson //
+import com.fasterxml.jackson.annotation.JsonInclude;
+
 // Project Lombok //
 import lombok.Getter;
 import lombok.RequiredArgsConstructor;
 
+// Standard Java //
+import java.time.ZonedDateTime;
+
 ///////////////////////////////////////////////////////////////////////////
 
 @Getter
 @RequiredArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
 public final class NonSensitiveUserDataResponse {
 
     private final Long id;
     private final String email;
+    private final String githubUsername;
+    private final String githubAvatarUrl;
+    private final String githubDisplayName;
+    private final ZonedDateTime registrationDate;
+
+    public NonSensitiveUserDataResponse(Long id, String email) {
+        this(id, email, null, null, null, null);
+    }
 
 }
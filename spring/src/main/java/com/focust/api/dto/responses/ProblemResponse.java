@@ -0,0 +1,97 @@
+/**
+ * ProblemResponse.java - An error response, already serialized as an RFC 7807 "problem detail".
+ * Copyright (C) 2024  Allan DeBoe
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ * ------------------------------------------------------------------------
+ *
+ * Error responses are sent as "application/problem+json", with the "title",
+ * "status", and "detail" of the problem. Since the error responses never
+ * change, they are created once (as constants) and serialized up front, so
+ * sending one costs no more than copying its bytes into the response; this
+ * matters as failed sign ins and requests for users that don't exist are
+ * exactly what brute-force and scraping traffic is made of.
+ *
+ * @see com.focust.api.controllers.ApiExceptionHandler
+ *
+ * @author Allan DeBoe (allan.m.deboe@gmail.com)
+ * @version 0.0.6
+ * @since 0.0.6
+ */
+package com.focust.api.dto.responses;
+
+///////////////////////////////////////////////////////////////////////////
+
+// Jackson //
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+// Spring Framework //
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ProblemDetail;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+///////////////////////////////////////////////////////////////////////////
+
+public final class ProblemResponse {
+
+    // includes the mixin that leaves out the unset fields of a ProblemDetail.
+    private static final ObjectMapper OBJECT_MAPPER = Jackson2ObjectMapperBuilder.json().build();
+
+    private final HttpStatus status;
+    private final byte[] body;
+
+    private ProblemResponse(HttpStatus status, byte[] body) {
+        this.status = status;
+        this.body = body;
+    }
+
+    /**
+     * Meant to be called once per error response (i.e. for a constant), as this serializes the problem.
+     *
+     * @param status the HTTP status of the response
+     * @param detail what went wrong, for the client
+     * @return the error response, ready to be sent.
+     */
+    public static ProblemResponse of(HttpStatus status, String detail) {
+        ProblemDetail problem = ProblemDetail.forStatusAndDetail(status, detail);
+        try {
+            return new ProblemResponse(status, OBJECT_MAPPER.writeValueAsBytes(problem));
+        }
+        catch (JsonProcessingException e) {
+            throw new IllegalStateException("Unable to serialize the problem \"" + detail + "\"", e);
+        }
+    }
+
+    public HttpStatus getStatus() {
+        return status;
+    }
+
+    /**
+     * @return the serialized problem, which must not be modified.
+     */
+    public byte[] getBody() {
+        return body;
+    }
+
+    /**
+     * @return an HTTP Response, containing the problem.
+     */
+    public ResponseEntity<Object> toResponseEntity() {
+        return ResponseEntity.status(status).contentType(MediaType.APPLICATION_PROBLEM_JSON).body(body);
+    }
+
+}
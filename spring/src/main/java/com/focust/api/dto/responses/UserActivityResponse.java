@@ -0,0 +1,51 @@
+/**
+ * UserActivityResponse.java - When a user was last seen and last signed in
+ * Copyright (C) 2024  Allan DeBoe
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ * ------------------------------------------------------------------------
+ *
+ * Used for finding inactive accounts, which is only for admins: unlike
+ * the fields of NonSensitiveUserDataResponse, these are not public.
+ *
+ * @see com.focust.api.users.UserActivityTracker
+ * @see com.focust.api.controllers.UserController
+ *
+ * @author Allan DeBoe (allan.m.deboe@gmail.com)
+ * @version 0.0.6
+ * @since 0.0.6
+ */
+package com.focust.api.dto.responses;
+
+///////////////////////////////////////////////////////////////////////////
+
+// Project Lombok //
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+// Standard Java //
+import java.time.ZonedDateTime;
+
+///////////////////////////////////////////////////////////////////////////
+
+@Getter
+@RequiredArgsConstructor
+public final class UserActivityResponse {
+
+    private final Long id;
+    private final String email;
+    private final ZonedDateTime lastSeenAt;   // null if the user never sent an authenticated request.
+    private final ZonedDateTime lastLoginAt;  // null if the user never signed in.
+
+}
@@ -0,0 +1,50 @@
+/**
+ * UserChangesResponse.java - Response DTO for the changes to the user directory
+ * Copyright (C) 2024  Allan DeBoe
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ * ------------------------------------------------------------------------
+ *
+ * Clients keep the "syncToken" and send it back (as "since") the next time
+ * they sync, and keep asking right away as long as "hasMore" is true.
+ *
+ * @see com.focust.api.users.UserService
+ *
+ * @author Allan DeBoe (allan.m.deboe@gmail.com)
+ * @version 0.0.6
+ * @since 0.0.6
+ */
+package com.focust.api.dto.responses;
+
+///////////////////////////////////////////////////////////////////////////
+
+// Project Lombok //
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+// Standard Java //
+import java.util.List;
+
+///////////////////////////////////////////////////////////////////////////
+
+@Getter
+@RequiredArgsConstructor
+public final class UserChangesResponse {
+
+    private final List<NonSensitiveUserDataResponse> users;     // created or changed users
+    private final List<Long> deleted;                           // the ids of deleted users
+    private final String syncToken;
+    private final boolean hasMore;
+
+}
@@ -0,0 +1,57 @@
+/**
+ * UserImportResultResponse.java - Response DTO for a single row of a user import
+ * Copyright (C) 2024  Allan DeBoe
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ * ------------------------------------------------------------------------
+ *
+ * A user import responds with one of these (as a line of NDJSON) for every
+ * row of the imported file, in the same order as the rows.
+ *
+ * @see com.focust.api.users.UserImportService
+ *
+ * @author Allan DeBoe (allan.m.deboe@gmail.com)
+ * @version 0.0.6
+ * @since 0.0.6
+ */
+package com.focust.api.dto.responses;
+
+///////////////////////////////////////////////////////////////////////////
+
+// Jackson //
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+// Project Lombok //
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+///////////////////////////////////////////////////////////////////////////
+
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public final class UserImportResultResponse {
+
+    public enum Status {
+        CREATED,    // the user has been created
+        EXISTS,     // a user with the same email already exists
+        INVALID     // the row is malformed, or its email or password are not allowed
+    }
+
+    @Getter private final long line;
+    @Getter private final String email;
+    @Getter private final Status status;
+    @Getter private final Long id;
+    @Getter private final String message;
+
+}
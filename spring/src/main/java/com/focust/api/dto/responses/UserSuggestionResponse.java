@@ -0,0 +1,51 @@
+/**
+ * UserSuggestionResponse.java - Response containing a suggested user.
+ * Copyright (C) 2024  Allan DeBoe
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ * ------------------------------------------------------------------------
+ *
+ * Used for typeahead (i.e. assigning an issue or @-mentioning someone),
+ * so it only contains what is needed to show and pick a user.
+ *
+ * @see com.focust.api.users.User
+ * @see com.focust.api.controllers.UserController
+ *
+ * @author Allan DeBoe (allan.m.deboe@gmail.com)
+ * @version 0.0.6
+ * @since 0.0.6
+ */
+package com.focust.api.dto.responses;
+
+///////////////////////////////////////////////////////////////////////////
+
+// Jackson //
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+// Project Lombok //
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+///////////////////////////////////////////////////////////////////////////
+
+@Getter
+@RequiredArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public final class UserSuggestionResponse {
+
+    private final Long id;
+    private final String email;
+    private final String githubUsername;
+
+}
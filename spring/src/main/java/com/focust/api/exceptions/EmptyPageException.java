@@ -19,11 +19,18 @@
  * @see org.springframework.data.domain.Page
  *
  * @author Allan DeBoe (allan.m.deboe@gmail.com)
- * @version 0.0.4
+ * @version 0.0.6
  * @since 0.0.3
  */
 package com.focust.api.exceptions;
 
 ///////////////////////////////////////////////////////////////////////////
 
-public final class EmptyPageException extends RuntimeException { }
+public final class EmptyPageException extends RuntimeException {
+
+    // Only tells the controller that the page is past the end, which does not need a stack trace.
+    public EmptyPageException() {
+        super(null, null, false, false);
+    }
+
+}
@@ -17,11 +17,18 @@
  * ------------------------------------------------------------------------
  *
  * @author Allan DeBoe (allan.m.deboe@gmail.com)
- * @version 0.0.3
+ * @version 0.0.6
  * @since 0.0.3
  */
 package com.focust.api.exceptions;
 
 ///////////////////////////////////////////////////////////////////////////
 
-public final class IncorrectSignInException extends RuntimeException { }
+public final class IncorrectSignInException extends RuntimeException {
+
+    // Thrown for every failed sign in (and so every brute-force attempt); the stack trace would never be looked at.
+    public IncorrectSignInException() {
+        super(null, null, false, false);
+    }
+
+}
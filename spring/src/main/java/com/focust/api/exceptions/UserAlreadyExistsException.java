@@ -17,11 +17,18 @@
  * ------------------------------------------------------------------------
  *
  * @author Allan DeBoe (allan.m.deboe@gmail.com)
- * @version 0.0.3
+ * @version 0.0.6
  * @since 0.0.3
  */
 package com.focust.api.exceptions;
 
 ///////////////////////////////////////////////////////////////////////////
 
-public final class UserAlreadyExistsException extends RuntimeException { }
+public final class UserAlreadyExistsException extends RuntimeException {
+
+    // Expected whenever an email is taken, so it is created without a stack trace.
+    public UserAlreadyExistsException() {
+        super(null, null, false, false);
+    }
+
+}
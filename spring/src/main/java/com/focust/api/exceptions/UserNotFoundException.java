@@ -17,11 +17,18 @@
  * ------------------------------------------------------------------------
  *
  * @author Allan DeBoe (allan.m.deboe@gmail.com)
- * @version 0.0.3
+ * @version 0.0.6
  * @since 0.0.3
  */
 package com.focust.api.exceptions;
 
 ///////////////////////////////////////////////////////////////////////////
 
-public final class UserNotFoundException extends RuntimeException { }
+public final class UserNotFoundException extends RuntimeException {
+
+    // Thrown for every request about a user that does not exist, so no stack trace is filled in.
+    public UserNotFoundException() {
+        super(null, null, false, false);
+    }
+
+}
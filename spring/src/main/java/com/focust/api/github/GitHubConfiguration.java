@@ -0,0 +1,71 @@
+/**
+ * GitHubConfiguration.java - Creates the GitHub profile client and its cache.
+ * Copyright (C) 2024  Allan DeBoe
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ * ------------------------------------------------------------------------
+ *
+ * @see com.focust.api.github.GitHubProfileClient
+ *
+ * @author Allan DeBoe (allan.m.deboe@gmail.com)
+ * @version 0.0.6
+ * @since 0.0.6
+ */
+package com.focust.api.github;
+
+///////////////////////////////////////////////////////////////////////////
+
+// Jackson //
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+// Micrometer //
+import io.micrometer.core.instrument.MeterRegistry;
+
+// Spring Framework //
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.client.RestTemplate;
+
+// Standard Java //
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Clock;
+
+///////////////////////////////////////////////////////////////////////////
+
+@Configuration
+public class GitHubConfiguration {
+
+    @Bean
+    public GitHubProfileCache gitHubProfileCache(
+            @Value("${focust.github.cache-directory:github-cache}") Path directory,
+            ObjectMapper objectMapper
+    ) throws IOException {
+        return new GitHubProfileCache(directory, objectMapper);
+    }
+
+    @Bean
+    public GitHubProfileClient gitHubProfileClient(
+            RestTemplate restTemplate,
+            GitHubProfileCache gitHubProfileCache,
+            ObjectMapper objectMapper,
+            MeterRegistry meterRegistry,
+            @Value("${focust.github.base-url:https://api.github.com}") String baseUrl,
+            @Value("${focust.github.token:}") String token
+    ) {
+        return new GitHubProfileClient(restTemplate, baseUrl, token, gitHubProfileCache, objectMapper, Clock.systemUTC(), meterRegistry);
+    }
+
+}
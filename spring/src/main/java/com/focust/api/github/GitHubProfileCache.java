@@ -0,0 +1,156 @@
+/**
+ * GitHubProfileCache.java - On-disk cache of GitHub profile responses.
+ * Copyright (C) 2024  Allan DeBoe
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ * ------------------------------------------------------------------------
+ *
+ * Each profile is stored as a small JSON file (named after the lowercase
+ * login) along with the ETag GitHub sent with it, so that the profile can
+ * be revalidated with "If-None-Match" even after a restart; a profile
+ * that did not change then costs a "304 Not Modified" without a body.
+ *
+ * Files are written to a temporary file first and then moved in place,
+ * so a crash never leaves a half-written entry behind.
+ *
+ * @see com.focust.api.github.GitHubProfileClient
+ *
+ * @author Allan DeBoe (allan.m.deboe@gmail.com)
+ * @version 0.0.6
+ * @since 0.0.6
+ */
+package com.focust.api.github;
+
+///////////////////////////////////////////////////////////////////////////
+
+// Jackson //
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+// Project Lombok //
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+// Standard Java //
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Locale;
+import java.util.Optional;
+
+///////////////////////////////////////////////////////////////////////////
+
+@Slf4j
+public class GitHubProfileCache {
+
+    private static final String FILE_EXTENSION = ".json";
+
+    private final Path directory;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * @param directory the directory the profiles are stored in (created if needed)
+     * @param objectMapper used to read and write the profiles
+     * @throws IOException if the directory cannot be created.
+     */
+    public GitHubProfileCache(Path directory, ObjectMapper objectMapper) throws IOException {
+        this.directory = Files.createDirectories(directory);
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * @param login a (valid) GitHub login
+     * @return the cached profile, or nothing if it is not cached (or cannot be read).
+     */
+    Optional<Entry> get(String login) {
+        try (InputStream input = Files.newInputStream(path(login))) {
+            JsonNode node = objectMapper.readTree(input);
+            GitHubProfile profile = new GitHubProfile(node.path("login").asText(), text(node, "avatarUrl"), text(node, "displayName"));
+            return Optional.of(new Entry(text(node, "etag"), profile));
+        }
+        catch (NoSuchFileException e) {
+            return Optional.empty();
+        }
+        catch (IOException e) {
+            log.atError().setMessage("Unable to read cached GitHub profile").addKeyValue("login", login).addKeyValue("error", e.getMessage()).log();
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Failing to write only means the profile is fetched in full next time, so this never throws.
+     *
+     * @param etag the ETag of the response the profile came from
+     * @param profile the profile to cache
+     */
+    void put(String etag, GitHubProfile profile) {
+        ObjectNode node = objectMapper.createObjectNode()
+                .put("etag", etag)
+                .put("login", profile.getLogin())
+                .put("avatarUrl", profile.getAvatarUrl())
+                .put("displayName", profile.getDisplayName());
+
+        Path path = path(profile.getLogin());
+        try {
+            Path temporaryPath = Files.createTempFile(directory, "profile", ".tmp");
+            try {
+                objectMapper.writeValue(temporaryPath.toFile(), node);
+                Files.move(temporaryPath, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            }
+            finally {
+                Files.deleteIfExists(temporaryPath);
+            }
+        }
+        catch (IOException e) {
+            log.atError().setMessage("Unable to cache GitHub profile").addKeyValue("login", profile.getLogin()).addKeyValue("error", e.getMessage()).log();
+        }
+    }
+
+    /**
+     * @param login a (valid) GitHub login, whose profile no longer exists
+     */
+    void remove(String login) {
+        try {
+            Files.deleteIfExists(path(login));
+        }
+        catch (IOException e) {
+            log.atError().setMessage("Unable to remove cached GitHub profile").addKeyValue("login", login).addKeyValue("error", e.getMessage()).log();
+        }
+    }
+
+    ///////////////////////////////////////////////////////////////////////////
+
+    // GitHub logins are case-insensitive, and only contain letters, digits, and hyphens (see GitHubProfileClient).
+    private Path path(String login) {
+        return directory.resolve(login.toLowerCase(Locale.ROOT) + FILE_EXTENSION);
+    }
+
+    private static String text(JsonNode node, String fieldName) {
+        JsonNode field = node.get(fieldName);
+        return (field == null || field.isNull()) ? null : field.asText();
+    }
+
+    @Getter
+    @RequiredArgsConstructor
+    static final class Entry {
+        private final String etag;
+        private final GitHubProfile profile;
+    }
+
+}
@@ -0,0 +1,227 @@
+/**
+ * GitHubProfileClient.java - Looks up GitHub profiles through the GitHub REST API.
+ * Copyright (C) 2024  Allan DeBoe
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ * ------------------------------------------------------------------------
+ *
+ * GitHub only allows a limited number of requests per hour (60 without a
+ * token, 5000 with one), so this client tries hard not to waste them:
+ *
+ * 1) Profiles that were fetched before are requested with "If-None-Match"
+ * (using the ETag stored in the GitHubProfileCache), and GitHub answers
+ * with an empty "304 Not Modified" if the profile did not change.
+ *
+ * 2) The rate limit headers of every response are looked at, and once the
+ * limit is used up (or GitHub says it is), no further requests are sent
+ * until the limit resets; lookups are answered with RATE_LIMITED instead.
+ *
+ * How often the cache saves a download is counted as "cache.gets", tagged
+ * with cache="github-profiles" and result="hit" (a 304) or "miss" (a 200).
+ *
+ * @see com.focust.api.github.GitHubProfileCache
+ *
+ * @author Allan DeBoe (allan.m.deboe@gmail.com)
+ * @version 0.0.6
+ * @since 0.0.6
+ */
+package com.focust.api.github;
+
+///////////////////////////////////////////////////////////////////////////
+
+// Jackson //
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+// Micrometer //
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+// Project Lombok //
+import lombok.extern.slf4j.Slf4j;
+
+// Spring Framework //
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.client.HttpStatusCodeException;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestTemplate;
+
+// Standard Java //
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.regex.Pattern;
+
+///////////////////////////////////////////////////////////////////////////
+
+@Slf4j
+public class GitHubProfileClient {
+
+    private static final String API_VERSION = "2022-11-28";
+    private static final String USER_AGENT = "focust-api-server";
+    private static final MediaType GITHUB_JSON = MediaType.parseMediaType("application/vnd.github+json");
+
+    // letters, digits, and single hyphens (not at the start or end), up to 39 characters.
+    private static final Pattern LOGIN_PATTERN = Pattern.compile("[A-Za-z0-9](?:[A-Za-z0-9]|-(?=[A-Za-z0-9])){0,38}");
+
+    // how long to wait after a rate limited response that does not say when to retry.
+    private static final Duration DEFAULT_RETRY_DELAY = Duration.ofMinutes(1);
+
+    private final RestTemplate restTemplate;
+    private final String baseUrl;
+    private final String token;
+    private final GitHubProfileCache cache;
+    private final ObjectMapper objectMapper;
+    private final Clock clock;
+    private final Counter cacheHits;
+    private final Counter cacheMisses;
+
+    // no requests are sent before this time, once the rate limit is used up.
+    private volatile Instant rateLimitedUntil = Instant.MIN;
+
+    /**
+     * @param restTemplate used to send the requests
+     * @param baseUrl the URL of the GitHub REST API (i.e. "https://api.github.com")
+     * @param token a GitHub token, which raises the rate limit (empty to not send one)
+     * @param cache where fetched profiles are cached
+     * @param objectMapper used to read the responses
+     * @param clock used to tell when the rate limit resets
+     * @param meterRegistry where the cache hits and misses are counted
+     */
+    public GitHubProfileClient(RestTemplate restTemplate, String baseUrl, String token, GitHubProfileCache cache, ObjectMapper objectMapper, Clock clock,
+                               MeterRegistry meterRegistry) {
+        this.restTemplate = restTemplate;
+        this.baseUrl = baseUrl.endsWith("/") ? baseUrl.substring(0, baseUrl.length() - 1) : baseUrl;
+        this.token = token;
+        this.cache = cache;
+        this.objectMapper = objectMapper;
+        this.clock = clock;
+        this.cacheHits = cacheCounter("hit", meterRegistry);
+        this.cacheMisses = cacheCounter("miss", meterRegistry);
+    }
+
+    /**
+     * @param login the GitHub username
+     * @return the profile of the user, or why it could not be looked up.
+     * @throws RestClientException if GitHub could not be reached, or responded with an unexpected error.
+     */
+    public GitHubProfileLookup fetch(String login) throws RestClientException {
+        if (login == null || !LOGIN_PATTERN.matcher(login).matches()) return GitHubProfileLookup.notFound();
+
+        Instant retryAt = rateLimitedUntil;
+        if (clock.instant().isBefore(retryAt)) return GitHubProfileLookup.rateLimited(retryAt);
+
+        Optional<GitHubProfileCache.Entry> cached = cache.get(login).filter(entry -> entry.getEtag() != null);
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setAccept(List.of(GITHUB_JSON));
+        headers.set("X-GitHub-Api-Version", API_VERSION);
+        headers.set(HttpHeaders.USER_AGENT, USER_AGENT);
+        if (!token.isEmpty()) headers.setBearerAuth(token);
+        cached.ifPresent(entry -> headers.setIfNoneMatch(entry.getEtag()));
+
+        ResponseEntity<String> response;
+        try {
+            response = restTemplate.exchange(baseUrl + "/users/{login}", HttpMethod.GET, new HttpEntity<>(headers), String.class, login);
+        }
+        catch (HttpStatusCodeException e) {
+            HttpHeaders responseHeaders = Optional.ofNullable(e.getResponseHeaders()).orElseGet(HttpHeaders::new);
+            if (e.getStatusCode().value() == HttpStatus.NOT_FOUND.value()) {
+                updateRateLimit(responseHeaders);
+                cache.remove(login);
+                return GitHubProfileLookup.notFound();
+            }
+            if (isRateLimited(e.getStatusCode().value(), responseHeaders)) {
+                Instant newRetryAt = retryAt(responseHeaders);
+                rateLimitedUntil = newRetryAt;
+                return GitHubProfileLookup.rateLimited(newRetryAt);
+            }
+            throw e;
+        }
+
+        updateRateLimit(response.getHeaders());
+        if (response.getStatusCode().value() == HttpStatus.NOT_MODIFIED.value()) {
+            if (cached.isEmpty()) throw new RestClientException("GitHub responded with 304 Not Modified to an unconditional request");
+            cacheHits.increment();
+            return GitHubProfileLookup.found(cached.get().getProfile());
+        }
+
+        cacheMisses.increment();
+        GitHubProfile profile = parse(login, response.getBody());
+        cache.put(response.getHeaders().getETag(), profile);
+        return GitHubProfileLookup.found(profile);
+    }
+
+    ///////////////////////////////////////////////////////////////////////////
+
+    private GitHubProfile parse(String login, String body) throws RestClientException {
+        try {
+            JsonNode node = objectMapper.readTree(body == null ? "" : body);
+            if (!node.isObject()) throw new RestClientException("GitHub responded with an empty profile for \"" + login + "\"");
+            String name = node.path("name").isTextual() ? node.get("name").textValue() : null;
+            String avatarUrl = node.path("avatar_url").isTextual() ? node.get("avatar_url").textValue() : null;
+            String actualLogin = node.path("login").isTextual() ? node.get("login").textValue() : login;
+            return new GitHubProfile(actualLogin, avatarUrl, (name == null || name.isBlank()) ? null : name);
+        }
+        catch (JsonProcessingException e) {
+            throw new RestClientException("GitHub responded with a malformed profile for \"" + login + "\"", e);
+        }
+    }
+
+    private static Counter cacheCounter(String result, MeterRegistry meterRegistry) {
+        return Counter.builder("cache.gets").tag("cache", "github-profiles").tag("result", result)
+                .description("GitHub profiles answered from the cache (hit) or downloaded (miss)").register(meterRegistry);
+    }
+
+    // Once the remaining requests hit zero, the next request would only be rejected.
+    private void updateRateLimit(HttpHeaders headers) {
+        if ("0".equals(headers.getFirst("X-RateLimit-Remaining"))) {
+            rateLimitedUntil = retryAt(headers);
+        }
+    }
+
+    // GitHub uses both 403 and 429 for its (primary and secondary) rate limits, but 403 also means forbidden.
+    private static boolean isRateLimited(int status, HttpHeaders headers) {
+        if (status == HttpStatus.TOO_MANY_REQUESTS.value()) return true;
+        return status == HttpStatus.FORBIDDEN.value()
+                && (headers.containsKey(HttpHeaders.RETRY_AFTER) || "0".equals(headers.getFirst("X-RateLimit-Remaining")));
+    }
+
+    private Instant retryAt(HttpHeaders headers) {
+        Instant now = clock.instant();
+        try {
+            String retryAfter = headers.getFirst(HttpHeaders.RETRY_AFTER);
+            if (retryAfter != null) return now.plusSeconds(Long.parseLong(retryAfter.trim()));
+
+            String reset = headers.getFirst("X-RateLimit-Reset");
+            if (reset != null) {
+                Instant resetAt = Instant.ofEpochSecond(Long.parseLong(reset.trim()));
+                return resetAt.isAfter(now) ? resetAt : now.plus(DEFAULT_RETRY_DELAY);
+            }
+        }
+        catch (NumberFormatException e) {
+            log.atError().setMessage("Unable to parse GitHub rate limit headers").addKeyValue("error", e.getMessage()).log();
+        }
+        return now.plus(DEFAULT_RETRY_DELAY);
+    }
+
+}
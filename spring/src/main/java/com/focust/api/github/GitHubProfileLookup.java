@@ -0,0 +1,65 @@
+/**
+ * GitHubProfileLookup.java - The result of looking up a GitHub profile.
+ * Copyright (C) 2024  Allan DeBoe
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ * ------------------------------------------------------------------------
+ *
+ * @see com.focust.api.github.GitHubProfileClient
+ *
+ * @author Allan DeBoe (allan.m.deboe@gmail.com)
+ * @version 0.0.6
+ * @since 0.0.6
+ */
+package com.focust.api.github;
+
+///////////////////////////////////////////////////////////////////////////
+
+// Project Lombok //
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+// Standard Java //
+import java.time.Instant;
+
+///////////////////////////////////////////////////////////////////////////
+
+@Getter
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+public final class GitHubProfileLookup {
+
+    public enum Status {
+        FOUND,
+        NOT_FOUND,
+        RATE_LIMITED
+    }
+
+    private final Status status;
+    private final GitHubProfile profile;    // only if found.
+    private final Instant retryAt;          // only if rate limited.
+
+    static GitHubProfileLookup found(GitHubProfile profile) {
+        return new GitHubProfileLookup(Status.FOUND, profile, null);
+    }
+
+    static GitHubProfileLookup notFound() {
+        return new GitHubProfileLookup(Status.NOT_FOUND, null, null);
+    }
+
+    static GitHubProfileLookup rateLimited(Instant retryAt) {
+        return new GitHubProfileLookup(Status.RATE_LIMITED, null, retryAt);
+    }
+
+}
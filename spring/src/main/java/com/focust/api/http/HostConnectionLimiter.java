@@ -0,0 +1,232 @@
+/**
+ * HostConnectionLimiter.java - Limits the number of concurrent outbound requests per host.
+ * Copyright (C) 2024  Allan DeBoe
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ * ------------------------------------------------------------------------
+ *
+ * The JDK's HttpClient keeps connections alive and reuses them, but it
+ * opens as many connections to a host as there are concurrent HTTP/1.1
+ * requests to it, with no upper bound. This interceptor puts one in
+ * place: each request takes one of a fixed number of slots for its host
+ * (a.k.a. "route") until its response is closed, and waits (up to a
+ * timeout) for a slot if they are all taken. So, for HTTP/1.1, the slots
+ * are effectively the connection pool of the host; for HTTP/2, where the
+ * requests share a single connection, they limit the concurrent streams.
+ *
+ * Since HttpClient does not expose its connection pool, the slots are
+ * also what the pool metrics are based on:
+ *
+ *   focust.http.client.connections.active{host}   - slots taken
+ *   focust.http.client.connections.pending{host}  - requests waiting for a slot
+ *   focust.http.client.connections.max{host}      - slots per host
+ *   focust.http.client.connections.acquire{host}  - time spent waiting for a slot
+ *   focust.http.client.connections.timeouts{host} - requests that gave up waiting
+ *
+ * @see com.focust.api.http.OutboundHttpConfiguration
+ *
+ * @author Allan DeBoe (allan.m.deboe@gmail.com)
+ * @version 0.0.6
+ * @since 0.0.6
+ */
+package com.focust.api.http;
+
+///////////////////////////////////////////////////////////////////////////
+
+// Micrometer //
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+// Spring Framework //
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+
+// Standard Java //
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.net.URI;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+///////////////////////////////////////////////////////////////////////////
+
+public class HostConnectionLimiter implements ClientHttpRequestInterceptor {
+
+    private static final String METRIC_PREFIX = "focust.http.client.connections";
+
+    // the most that is read of a body that was not read to its end, to keep its connection.
+    private static final int MAX_DRAINED_BYTES = 8 * 1024;
+
+    private final int maxConnectionsPerHost;
+    private final Duration acquireTimeout;
+    private final MeterRegistry meterRegistry;
+
+    private final Map<String, HostSlots> hosts = new ConcurrentHashMap<>();
+
+    /**
+     * @param maxConnectionsPerHost the maximum number of concurrent requests per host
+     * @param acquireTimeout how long a request waits for a free slot before failing
+     * @param meterRegistry where the pool metrics are registered
+     */
+    public HostConnectionLimiter(int maxConnectionsPerHost, Duration acquireTimeout, MeterRegistry meterRegistry) {
+        if (maxConnectionsPerHost < 1) throw new IllegalArgumentException("at least one connection per host is required");
+        this.maxConnectionsPerHost = maxConnectionsPerHost;
+        this.acquireTimeout = acquireTimeout;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution) throws IOException {
+        HostSlots slots = hosts.computeIfAbsent(hostOf(request.getURI()), HostSlots::new);
+        slots.acquire();
+        try {
+            return new SlotReleasingResponse(execution.execute(request, body), slots);
+        }
+        catch (IOException | RuntimeException e) {
+            slots.release();
+            throw e;
+        }
+    }
+
+    ///////////////////////////////////////////////////////////////////////////
+
+    // The default port is filled in, so that "https://host" and "https://host:443" share their slots.
+    private static String hostOf(URI uri) {
+        String scheme = (uri.getScheme() == null) ? "http" : uri.getScheme().toLowerCase(Locale.ROOT);
+        int port = (uri.getPort() != -1) ? uri.getPort() : scheme.equals("https") ? 443 : 80;
+        return scheme + "://" + String.valueOf(uri.getHost()).toLowerCase(Locale.ROOT) + ":" + port;
+    }
+
+    private final class HostSlots {
+        private final String host;
+        private final Semaphore semaphore = new Semaphore(maxConnectionsPerHost, true);
+        private final AtomicInteger pending = new AtomicInteger();
+        private final Timer acquireTimer;
+        private final Counter timeouts;
+
+        private HostSlots(String host) {
+            this.host = host;
+            Gauge.builder(METRIC_PREFIX + ".active", semaphore, s -> maxConnectionsPerHost - s.availablePermits())
+                    .tag("host", host).description("outbound requests in progress").register(meterRegistry);
+            Gauge.builder(METRIC_PREFIX + ".pending", pending, AtomicInteger::get)
+                    .tag("host", host).description("outbound requests waiting for a connection").register(meterRegistry);
+            Gauge.builder(METRIC_PREFIX + ".max", () -> maxConnectionsPerHost)
+                    .tag("host", host).description("maximum concurrent outbound requests").register(meterRegistry);
+            this.acquireTimer = Timer.builder(METRIC_PREFIX + ".acquire")
+                    .tag("host", host).description("time spent waiting for a connection").register(meterRegistry);
+            this.timeouts = Counter.builder(METRIC_PREFIX + ".timeouts")
+                    .tag("host", host).description("outbound requests that timed out waiting for a connection").register(meterRegistry);
+        }
+
+        private void acquire() throws IOException {
+            long start = System.nanoTime();
+            pending.incrementAndGet();
+            try {
+                if (!semaphore.tryAcquire(acquireTimeout.toNanos(), TimeUnit.NANOSECONDS)) {
+                    timeouts.increment();
+                    throw new IOException("Timed out after " + acquireTimeout.toMillis() + "ms waiting for a connection to " + host);
+                }
+            }
+            catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while waiting for a connection to " + host);
+            }
+            finally {
+                pending.decrementAndGet();
+                acquireTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            }
+        }
+
+        private void release() {
+            semaphore.release();
+        }
+    }
+
+    // Gives the slot back once the response is closed (which RestTemplate always does), but only once.
+    //
+    // Whatever is left of the body is read first: HttpClient closes the connection
+    // (instead of putting it back in its pool) when a body is closed before its end,
+    // which message converters usually do, as they stop once they have their value.
+    private static final class SlotReleasingResponse implements ClientHttpResponse {
+        private final ClientHttpResponse response;
+        private final HostSlots slots;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private SlotReleasingResponse(ClientHttpResponse response, HostSlots slots) {
+            this.response = response;
+            this.slots = slots;
+        }
+
+        @Override
+        public HttpStatusCode getStatusCode() throws IOException {
+            return response.getStatusCode();
+        }
+
+        @Override
+        public String getStatusText() throws IOException {
+            return response.getStatusText();
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return response.getHeaders();
+        }
+
+        @Override
+        public InputStream getBody() throws IOException {
+            return response.getBody();
+        }
+
+        @Override
+        public void close() {
+            try {
+                drainBody();
+                response.close();
+            }
+            finally {
+                if (released.compareAndSet(false, true)) slots.release();
+            }
+        }
+
+        // Bodies bigger than this are not worth reading just to keep the connection.
+        private void drainBody() {
+            try {
+                InputStream body = response.getBody();
+                byte[] buffer = new byte[MAX_DRAINED_BYTES];
+                int drained = 0;
+                int read;
+                while (drained < MAX_DRAINED_BYTES && (read = body.read(buffer, 0, MAX_DRAINED_BYTES - drained)) != -1) {
+                    drained += read;
+                }
+            }
+            catch (IOException e) {
+                // the connection is simply not reused.
+            }
+        }
+    }
+
+}
@@ -0,0 +1,114 @@
+/**
+ * OutboundHttpConfiguration.java - Creates the HTTP client used for outbound requests.
+ * Copyright (C) 2024  Allan DeBoe
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ * ------------------------------------------------------------------------
+ *
+ * Outbound requests (i.e. to GitHub) go through the JDK's HttpClient,
+ * which, unlike the default request factory of RestTemplate:
+ *
+ * 1) keeps a pool of connections per host that are reused across requests,
+ * so most requests skip both the TCP and the TLS handshake;
+ *
+ * 2) negotiates HTTP/2 (through ALPN) with hosts that support it, in which
+ * case all requests to the host share a single, multiplexed connection;
+ *
+ * 3) uses a single SSLContext (from the "focust-spring" SSL bundle) for
+ * every connection, so TLS sessions are cached and resumed when a new
+ * connection to the same host has to be opened.
+ *
+ * The number of concurrent requests per host is limited separately, by
+ * the HostConnectionLimiter, which also provides the pool metrics.
+ *
+ * @see com.focust.api.http.HostConnectionLimiter
+ *
+ * @author Allan DeBoe (allan.m.deboe@gmail.com)
+ * @version 0.0.6
+ * @since 0.0.6
+ */
+package com.focust.api.http;
+
+///////////////////////////////////////////////////////////////////////////
+
+// Micrometer //
+import io.micrometer.core.instrument.MeterRegistry;
+
+// Spring Framework //
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ssl.SslBundles;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+
+// Standard Java //
+import javax.net.ssl.SSLContext;
+import java.net.http.HttpClient;
+import java.time.Duration;
+
+///////////////////////////////////////////////////////////////////////////
+
+@Configuration
+public class OutboundHttpConfiguration {
+
+    // the number of TLS sessions kept for resumption, and for how long.
+    private static final int TLS_SESSION_CACHE_SIZE = 1000;
+    private static final Duration TLS_SESSION_TIMEOUT = Duration.ofHours(1);
+
+    @Bean
+    public HttpClient outboundHttpClient(
+            SslBundles sslBundles,
+            @Value("${focust.http.client.connect-timeout:PT5S}") Duration connectTimeout
+    ) {
+        return createHttpClient(sslBundles.getBundle("focust-spring").createSslContext(), connectTimeout);
+    }
+
+    @Bean
+    public HostConnectionLimiter hostConnectionLimiter(
+            MeterRegistry meterRegistry,
+            @Value("${focust.http.client.max-connections-per-host:20}") int maxConnectionsPerHost,
+            @Value("${focust.http.client.acquire-timeout:PT5S}") Duration acquireTimeout
+    ) {
+        return new HostConnectionLimiter(maxConnectionsPerHost, acquireTimeout, meterRegistry);
+    }
+
+    /**
+     * @param sslContext the SSLContext shared by every connection (and so every TLS session)
+     * @param connectTimeout how long to wait for a new connection to be established
+     * @return a new HttpClient, preferring HTTP/2.
+     */
+    public static HttpClient createHttpClient(SSLContext sslContext, Duration connectTimeout) {
+        sslContext.getClientSessionContext().setSessionCacheSize(TLS_SESSION_CACHE_SIZE);
+        sslContext.getClientSessionContext().setSessionTimeout((int)TLS_SESSION_TIMEOUT.toSeconds());
+        return HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .sslContext(sslContext)
+                .connectTimeout(connectTimeout)
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .build();
+    }
+
+    /**
+     * @param httpClient the HttpClient to send the requests with
+     * @param readTimeout how long to wait for a response
+     * @return a request factory for RestTemplate, backed by the HttpClient.
+     */
+    public static ClientHttpRequestFactory createRequestFactory(HttpClient httpClient, Duration readTimeout) {
+        JdkClientHttpRequestFactory requestFactory = new JdkClientHttpRequestFactory(httpClient);
+        requestFactory.setReadTimeout(readTimeout);
+        return requestFactory;
+    }
+
+}
@@ -0,0 +1,175 @@
+/**
+ * AdaptiveConcurrencyLimit.java - A concurrency limit following round-trip times
+ * Copyright (C) 2024  Allan DeBoe
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ * ------------------------------------------------------------------------
+ *
+ * The number of requests handled at once is limited, and the limit is
+ * worked out from their round-trip times (a "gradient" limit, like the one
+ * of Netflix's concurrency-limits): the average of every window of
+ * WINDOW_SAMPLES requests (the short-term RTT) is compared to a slowly
+ * moving average of those (the long-term RTT). As long as the short-term
+ * RTT stays within RTT_TOLERANCE of the long-term one, the limit grows by
+ * about its square root per window; once requests start queueing up
+ * (in Tomcat, the connection pool, or for the CPU), the short-term RTT
+ * goes up, and the limit shrinks with the ratio of the two (by half at
+ * most), so requests over it are turned away instead of slowing down
+ * every other request.
+ *
+ * Changes are smoothed, and the limit only grows while it is actually
+ * being used (at least half of it), so that a quiet period does not leave
+ * it far higher than what was ever tested.
+ *
+ * @see com.focust.api.http.limit.ConcurrencyLimitFilter
+ *
+ * @author Allan DeBoe (allan.m.deboe@gmail.com)
+ * @version 0.0.6
+ * @since 0.0.6
+ */
+package com.focust.api.http.limit;
+
+///////////////////////////////////////////////////////////////////////////
+
+// Standard Java //
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+///////////////////////////////////////////////////////////////////////////
+
+public class AdaptiveConcurrencyLimit {
+
+    // the number of requests averaged into each short-term RTT.
+    static final int WINDOW_SAMPLES = 10;
+
+    // the number of windows the long-term RTT is (roughly) averaged over.
+    private static final int LONG_WINDOWS = 60;
+
+    // how much slower than the long-term RTT requests get before the limit shrinks.
+    private static final double RTT_TOLERANCE = 1.5;
+
+    // how much of each new limit is taken at once.
+    private static final double SMOOTHING = 0.2;
+
+    private final int minLimit;
+    private final int maxLimit;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final LongAdder accepted = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private volatile int limit;
+
+    // guarded by "this"
+    private double estimatedLimit;
+    private double longRttNanos;
+    private double shortRttNanos;
+    private long windowRttNanos;
+    private int windowSamples;
+    private int windowMaxInFlight;
+
+    /**
+     * @param initialLimit the limit until enough requests have been measured
+     * @param minLimit the lowest the limit can go
+     * @param maxLimit the highest the limit can go
+     */
+    public AdaptiveConcurrencyLimit(int initialLimit, int minLimit, int maxLimit) {
+        if (minLimit < 1 || minLimit > maxLimit) throw new IllegalArgumentException("the limits must be such that 1 <= min <= max");
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.estimatedLimit = Math.clamp(initialLimit, minLimit, maxLimit);
+        this.limit = (int) this.estimatedLimit;
+    }
+
+    /**
+     * @return true if the request can go on (and has to call release() once done), false if it is over the limit.
+     */
+    public boolean tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= limit) {
+                rejected.increment();
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                accepted.increment();
+                return true;
+            }
+        }
+    }
+
+    /**
+     * @param rttNanos how long the request took, from being let through to its response
+     */
+    public void release(long rttNanos) {
+        int inFlightBefore = inFlight.getAndDecrement();
+        onSample(rttNanos, inFlightBefore);
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    public long getAccepted() {
+        return accepted.sum();
+    }
+
+    public long getRejected() {
+        return rejected.sum();
+    }
+
+    public synchronized double getLongRttMillis() {
+        return longRttNanos / 1_000_000.0;
+    }
+
+    public synchronized double getShortRttMillis() {
+        return shortRttNanos / 1_000_000.0;
+    }
+
+    ///////////////////////////////////////////////////////////////////////////
+
+    private synchronized void onSample(long rttNanos, int inFlightBefore) {
+        windowRttNanos += rttNanos;
+        windowSamples++;
+        windowMaxInFlight = Math.max(windowMaxInFlight, inFlightBefore);
+        if (windowSamples < WINDOW_SAMPLES) return;
+
+        shortRttNanos = (double) windowRttNanos / windowSamples;
+        int maxInFlight = windowMaxInFlight;
+        windowRttNanos = 0;
+        windowSamples = 0;
+        windowMaxInFlight = 0;
+
+        longRttNanos = (longRttNanos == 0) ? shortRttNanos : longRttNanos + (shortRttNanos - longRttNanos) / LONG_WINDOWS;
+
+        // Once the load is gone, the long-term RTT drops right away, instead of
+        // over LONG_WINDOWS windows, so that the limit does not end up too high.
+        if (longRttNanos > 2 * shortRttNanos) {
+            longRttNanos = (longRttNanos + shortRttNanos) / 2;
+        }
+
+        // While well under the limit, the RTT says nothing about whether it is too high.
+        if (maxInFlight < estimatedLimit / 2) return;
+
+        double gradient = Math.clamp(RTT_TOLERANCE * longRttNanos / shortRttNanos, 0.5, 1.0);
+        double newLimit = estimatedLimit * gradient + Math.sqrt(estimatedLimit);
+        newLimit = estimatedLimit * (1 - SMOOTHING) + newLimit * SMOOTHING;
+        estimatedLimit = Math.clamp(newLimit, minLimit, maxLimit);
+        limit = (int) estimatedLimit;
+    }
+
+}
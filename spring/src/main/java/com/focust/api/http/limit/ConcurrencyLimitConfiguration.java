@@ -0,0 +1,80 @@
+/**
+ * ConcurrencyLimitConfiguration.java - Configuration of the inbound concurrency limits
+ * Copyright (C) 2024  Allan DeBoe
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ * ------------------------------------------------------------------------
+ *
+ * The filter itself is not a bean (which Spring Boot would also register
+ * as a servlet filter), as it is part of the security filter chain. The
+ * limiter is always defined (so "focust.concurrency-limit.enabled" can still
+ * be set when starting with bean definitions generated ahead of time), and
+ * the filter is only added to the chain when the property is true.
+ *
+ * @see com.focust.api.security.SecurityConfiguration
+ *
+ * @author Allan DeBoe (allan.m.deboe@gmail.com)
+ * @version 0.0.6
+ * @since 0.0.6
+ */
+package com.focust.api.http.limit;
+
+///////////////////////////////////////////////////////////////////////////
+
+// Micrometer //
+import io.micrometer.core.instrument.MeterRegistry;
+
+// Spring Framework //
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+// Standard Java //
+import java.util.EnumMap;
+import java.util.Map;
+
+///////////////////////////////////////////////////////////////////////////
+
+@Configuration
+public class ConcurrencyLimitConfiguration {
+
+    private static final String PROPERTY_PREFIX = "focust.concurrency-limit.";
+
+    // i.e. "focust.concurrency-limit.auth.initial-limit", falling back on "focust.concurrency-limit.initial-limit".
+    @Bean
+    public ConcurrencyLimiter concurrencyLimiter(Environment environment, MeterRegistry meterRegistry) {
+        Map<EndpointClass, AdaptiveConcurrencyLimit> limits = new EnumMap<>(EndpointClass.class);
+        for (EndpointClass endpointClass : EndpointClass.values()) {
+            limits.put(endpointClass, new AdaptiveConcurrencyLimit(
+                    property(environment, endpointClass, "initial-limit", 20),
+                    property(environment, endpointClass, "min-limit", 2),
+                    property(environment, endpointClass, "max-limit", 200)
+            ));
+        }
+        return new ConcurrencyLimiter(limits, meterRegistry);
+    }
+
+    @Bean
+    public ConcurrencyLimitEndpoint concurrencyLimitEndpoint(ConcurrencyLimiter concurrencyLimiter) {
+        return new ConcurrencyLimitEndpoint(concurrencyLimiter);
+    }
+
+    ///////////////////////////////////////////////////////////////////////////
+
+    private static int property(Environment environment, EndpointClass endpointClass, String name, int defaultValue) {
+        int value = environment.getProperty(PROPERTY_PREFIX + name, Integer.class, defaultValue);
+        return environment.getProperty(PROPERTY_PREFIX + endpointClass.getTag() + "." + name, Integer.class, value);
+    }
+
+}
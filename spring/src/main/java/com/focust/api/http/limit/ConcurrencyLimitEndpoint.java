@@ -0,0 +1,69 @@
+/**
+ * ConcurrencyLimitEndpoint.java - Actuator endpoint showing the concurrency limits
+ * Copyright (C) 2024  Allan DeBoe
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ * ------------------------------------------------------------------------
+ *
+ * The limits, requests in progress, and rejections are also scraped by
+ * Prometheus, but "/actuator/concurrency" also shows the round-trip times
+ * the limits are worked out from.
+ *
+ * @see com.focust.api.http.limit.ConcurrencyLimiter
+ *
+ * @author Allan DeBoe (allan.m.deboe@gmail.com)
+ * @version 0.0.6
+ * @since 0.0.6
+ */
+package com.focust.api.http.limit;
+
+///////////////////////////////////////////////////////////////////////////
+
+// Spring Framework //
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+
+// Standard Java //
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+///////////////////////////////////////////////////////////////////////////
+
+@Endpoint(id = "concurrency")
+public class ConcurrencyLimitEndpoint {
+
+    private final ConcurrencyLimiter concurrencyLimiter;
+
+    public ConcurrencyLimitEndpoint(ConcurrencyLimiter concurrencyLimiter) {
+        this.concurrencyLimiter = concurrencyLimiter;
+    }
+
+    @ReadOperation
+    public Map<String, Object> limits() {
+        Map<String, Object> response = new LinkedHashMap<>();
+        for (EndpointClass endpointClass : EndpointClass.values()) {
+            AdaptiveConcurrencyLimit limit = concurrencyLimiter.getLimit(endpointClass);
+            Map<String, Object> state = new LinkedHashMap<>();
+            state.put("limit", limit.getLimit());
+            state.put("inFlight", limit.getInFlight());
+            state.put("shortRttMs", limit.getShortRttMillis());
+            state.put("longRttMs", limit.getLongRttMillis());
+            state.put("accepted", limit.getAccepted());
+            state.put("rejected", limit.getRejected());
+            response.put(endpointClass.getTag(), state);
+        }
+        return response;
+    }
+
+}
@@ -0,0 +1,99 @@
+/**
+ * ConcurrencyLimitFilter.java - Sheds requests over the concurrency limit of their endpoint
+ * Copyright (C) 2024  Allan DeBoe
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ * ------------------------------------------------------------------------
+ *
+ * Under overload, Tomcat would queue requests without bound, and every
+ * endpoint would get slower together. Instead, a request over the limit of
+ * its class of endpoints is answered right away with "503 Service
+ * Unavailable" (and "Retry-After"), before any of the work of handling it
+ * (i.e. verifying its JWT token, which is why this runs right before the
+ * JwtAuthenticationFilter) is done. The time the other requests take, from
+ * here to their response, is what the limits adapt to.
+ *
+ * @see com.focust.api.http.limit.AdaptiveConcurrencyLimit
+ * @see com.focust.api.security.SecurityConfiguration
+ *
+ * @author Allan DeBoe (allan.m.deboe@gmail.com)
+ * @version 0.0.6
+ * @since 0.0.6
+ */
+package com.focust.api.http.limit;
+
+///////////////////////////////////////////////////////////////////////////
+
+// Focust //
+import com.focust.api.dto.responses.ProblemResponse;
+
+// Jakarta Servlets //
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+// Spring Framework //
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.lang.NonNull;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+// Standard Java //
+import java.io.IOException;
+import java.util.Optional;
+
+///////////////////////////////////////////////////////////////////////////
+
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+
+    private static final ProblemResponse OVERLOADED = ProblemResponse.of(HttpStatus.SERVICE_UNAVAILABLE,
+            "The server is handling too many requests, try again in a moment");
+    private static final String RETRY_AFTER_SECONDS = "1";
+
+    private final ConcurrencyLimiter concurrencyLimiter;
+
+    public ConcurrencyLimitFilter(ConcurrencyLimiter concurrencyLimiter) {
+        this.concurrencyLimiter = concurrencyLimiter;
+    }
+
+    @Override
+    protected void doFilterInternal(@NonNull HttpServletRequest request, @NonNull HttpServletResponse response, @NonNull FilterChain filterChain) throws ServletException, IOException {
+        Optional<EndpointClass> endpointClass = EndpointClass.of(request);
+        if (endpointClass.isEmpty()) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        AdaptiveConcurrencyLimit limit = concurrencyLimiter.getLimit(endpointClass.get());
+        if (!limit.tryAcquire()) {
+            response.setStatus(OVERLOADED.getStatus().value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, RETRY_AFTER_SECONDS);
+            response.setContentType(MediaType.APPLICATION_PROBLEM_JSON_VALUE);
+            response.setContentLength(OVERLOADED.getBody().length);
+            response.getOutputStream().write(OVERLOADED.getBody());
+            return;
+        }
+
+        long start = System.nanoTime();
+        try {
+            filterChain.doFilter(request, response);
+        }
+        finally {
+            limit.release(System.nanoTime() - start);
+        }
+    }
+
+}
@@ -0,0 +1,79 @@
+/**
+ * ConcurrencyLimiter.java - The concurrency limits of each class of endpoints
+ * Copyright (C) 2024  Allan DeBoe
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ * ------------------------------------------------------------------------
+ *
+ * Holds one AdaptiveConcurrencyLimit per EndpointClass, and exports them:
+ *
+ *   focust.http.server.concurrency.limit{endpoint}    - the current limit
+ *   focust.http.server.concurrency.active{endpoint}   - requests in progress
+ *   focust.http.server.concurrency.rejected{endpoint} - requests turned away
+ *
+ * @see com.focust.api.http.limit.ConcurrencyLimitFilter
+ * @see com.focust.api.http.limit.ConcurrencyLimitEndpoint
+ *
+ * @author Allan DeBoe (allan.m.deboe@gmail.com)
+ * @version 0.0.6
+ * @since 0.0.6
+ */
+package com.focust.api.http.limit;
+
+///////////////////////////////////////////////////////////////////////////
+
+// Micrometer //
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+// Standard Java //
+import java.util.EnumMap;
+import java.util.Map;
+
+///////////////////////////////////////////////////////////////////////////
+
+public class ConcurrencyLimiter {
+
+    private static final String METRIC_PREFIX = "focust.http.server.concurrency";
+
+    private final Map<EndpointClass, AdaptiveConcurrencyLimit> limits;
+
+    /**
+     * @param limits the limit of every class of endpoints
+     * @param meterRegistry where the limits are exported
+     */
+    public ConcurrencyLimiter(Map<EndpointClass, AdaptiveConcurrencyLimit> limits, MeterRegistry meterRegistry) {
+        if (limits.size() != EndpointClass.values().length) throw new IllegalArgumentException("every class of endpoints needs a limit");
+        this.limits = new EnumMap<>(limits);
+
+        this.limits.forEach((endpointClass, limit) -> {
+            Gauge.builder(METRIC_PREFIX + ".limit", limit, AdaptiveConcurrencyLimit::getLimit)
+                    .tag("endpoint", endpointClass.getTag()).description("concurrency limit of the endpoints").register(meterRegistry);
+            Gauge.builder(METRIC_PREFIX + ".active", limit, AdaptiveConcurrencyLimit::getInFlight)
+                    .tag("endpoint", endpointClass.getTag()).description("requests in progress").register(meterRegistry);
+            FunctionCounter.builder(METRIC_PREFIX + ".rejected", limit, AdaptiveConcurrencyLimit::getRejected)
+                    .tag("endpoint", endpointClass.getTag()).description("requests rejected for being over the limit").register(meterRegistry);
+        });
+    }
+
+    /**
+     * @param endpointClass the class of endpoints
+     * @return its limit
+     */
+    public AdaptiveConcurrencyLimit getLimit(EndpointClass endpointClass) {
+        return limits.get(endpointClass);
+    }
+
+}
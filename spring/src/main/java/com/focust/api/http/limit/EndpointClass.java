@@ -0,0 +1,70 @@
+/**
+ * EndpointClass.java - The classes of endpoints with a concurrency limit of their own
+ * Copyright (C) 2024  Allan DeBoe
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ * ------------------------------------------------------------------------
+ *
+ * Signing in and registering is bound by bcrypt (i.e. the CPU), while
+ * reads are mostly bound by the database, so each gets its own limit:
+ * a flood of sign ins should not shed reads, and the other way around.
+ * Other requests (the admin's imports and deletes, and CORS preflights)
+ * are rare enough to not be limited at all.
+ *
+ * @see com.focust.api.http.limit.ConcurrencyLimitFilter
+ *
+ * @author Allan DeBoe (allan.m.deboe@gmail.com)
+ * @version 0.0.6
+ * @since 0.0.6
+ */
+package com.focust.api.http.limit;
+
+///////////////////////////////////////////////////////////////////////////
+
+// Jakarta Servlets //
+import jakarta.servlet.http.HttpServletRequest;
+
+// Project Lombok //
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+// Standard Java //
+import java.util.Optional;
+
+///////////////////////////////////////////////////////////////////////////
+
+@Getter
+@RequiredArgsConstructor
+public enum EndpointClass {
+
+    AUTH("auth"),
+    READ("read");
+
+    // used in properties, metrics, and "/actuator/concurrency".
+    private final String tag;
+
+    /**
+     * @param request the request to classify
+     * @return the class of the endpoint, or nothing if the request is not limited.
+     */
+    public static Optional<EndpointClass> of(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        if (path.startsWith("/actuator/")) return Optional.empty();
+        if (path.startsWith("/auth/")) return Optional.of(AUTH);
+        String method = request.getMethod();
+        if (method.equals("GET") || method.equals("HEAD")) return Optional.of(READ);
+        return Optional.empty();
+    }
+
+}
@@ -0,0 +1,68 @@
+/**
+ * SampledLogFilter.java - Only lets through a fraction of the log lines marked as SAMPLED.
+ * Copyright (C) 2024  Allan DeBoe
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ * ------------------------------------------------------------------------
+ *
+ * Lines that would be logged for every request (i.e. which user sent it)
+ * are marked as SAMPLED, so that turning on DEBUG while looking into a
+ * problem does not flood the logs. Being a TurboFilter, the lines that are
+ * left out are dropped before their event is even created.
+ *
+ * Configured in "logback-spring.xml", with "focust.logging.sample-rate".
+ *
+ * @author Allan DeBoe (allan.m.deboe@gmail.com)
+ * @version 0.0.6
+ * @since 0.0.6
+ */
+package com.focust.api.logging;
+
+///////////////////////////////////////////////////////////////////////////
+
+// Logback //
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.spi.FilterReply;
+
+// SLF4J //
+import org.slf4j.Marker;
+import org.slf4j.MarkerFactory;
+
+// Standard Java //
+import java.util.concurrent.ThreadLocalRandom;
+
+///////////////////////////////////////////////////////////////////////////
+
+public class SampledLogFilter extends TurboFilter {
+
+    public static final Marker SAMPLED = MarkerFactory.getMarker("SAMPLED");
+
+    private double rate = 0.01;
+
+    /**
+     * @param rate the fraction (between 0 and 1) of the SAMPLED lines that are logged
+     */
+    public void setRate(double rate) {
+        this.rate = rate;
+    }
+
+    @Override
+    public FilterReply decide(Marker marker, Logger logger, Level level, String format, Object[] params, Throwable t) {
+        if (marker == null || !marker.contains(SAMPLED)) return FilterReply.NEUTRAL;
+        return ThreadLocalRandom.current().nextDouble() < rate ? FilterReply.NEUTRAL : FilterReply.DENY;
+    }
+
+}
@@ -0,0 +1,167 @@
+/**
+ * AuthMetrics.java - Timers of the expensive steps of authentication.
+ * Copyright (C) 2024  Allan DeBoe
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ * ------------------------------------------------------------------------
+ *
+ * Most of the time spent signing in or registering goes to bcrypt (which
+ * is slow on purpose) and to RSA signatures, so each of them gets a timer
+ * of its own, next to the overall latency of the endpoints:
+ *
+ *   focust.auth.password.hash                       - hashing a new password
+ *   focust.auth.password.verify{outcome}            - "match" or "mismatch"
+ *   focust.auth.jwt.sign{token}                     - "access" or "refresh"
+ *   focust.auth.jwt.verify{outcome}                 - "valid" or "invalid"
+ *
+ * These names (and their tags) are relied on by dashboards and alerts, so
+ * they must not be renamed; see "Metrics" in the README for the others.
+ * Each step is also added to the ServerTiming of the current request.
+ *
+ * Work which is not from real requests (i.e. the warm-up, which runs while
+ * the code is still interpreted) is run through runSynthetic, and is then
+ * left out of all of these, so it does not skew them.
+ *
+ * @author Allan DeBoe (allan.m.deboe@gmail.com)
+ * @version 0.0.6
+ * @since 0.0.6
+ */
+package com.focust.api.metrics;
+
+///////////////////////////////////////////////////////////////////////////
+
+// Micrometer //
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+// Spring Framework //
+import org.springframework.stereotype.Component;
+
+// Standard Java //
+import java.util.concurrent.TimeUnit;
+
+///////////////////////////////////////////////////////////////////////////
+
+@Component
+public class AuthMetrics {
+
+    private static final ThreadLocal<Boolean> SYNTHETIC = new ThreadLocal<>();
+
+    private final Timer passwordHash;
+    private final Timer passwordMatch;
+    private final Timer passwordMismatch;
+    private final Timer accessTokenSign;
+    private final Timer refreshTokenSign;
+    private final Timer validTokenVerify;
+    private final Timer invalidTokenVerify;
+
+    // The timers are created once, so that recording does not have to look them up.
+    public AuthMetrics(MeterRegistry meterRegistry) {
+        this.passwordHash = Timer.builder("focust.auth.password.hash")
+                .description("time spent hashing passwords with bcrypt").register(meterRegistry);
+        this.passwordMatch = passwordVerifyTimer("match", meterRegistry);
+        this.passwordMismatch = passwordVerifyTimer("mismatch", meterRegistry);
+        this.accessTokenSign = jwtSignTimer("access", meterRegistry);
+        this.refreshTokenSign = jwtSignTimer("refresh", meterRegistry);
+        this.validTokenVerify = jwtVerifyTimer("valid", meterRegistry);
+        this.invalidTokenVerify = jwtVerifyTimer("invalid", meterRegistry);
+    }
+
+    /**
+     * @param startNanos the System.nanoTime() from before the password was hashed
+     */
+    public void recordPasswordHash(long startNanos) {
+        record(passwordHash, ServerTiming.Phase.BCRYPT, startNanos);
+    }
+
+    /**
+     * @param startNanos the System.nanoTime() from before the password was verified
+     * @param matched whether the password matched its hash
+     */
+    public void recordPasswordVerify(long startNanos, boolean matched) {
+        record(matched ? passwordMatch : passwordMismatch, ServerTiming.Phase.BCRYPT, startNanos);
+    }
+
+    /**
+     * @param startNanos the System.nanoTime() from before the token was signed
+     * @param refreshToken whether the token is a refresh token (instead of an access token)
+     */
+    public void recordJwtSign(long startNanos, boolean refreshToken) {
+        record(refreshToken ? refreshTokenSign : accessTokenSign, ServerTiming.Phase.JWT_SIGN, startNanos);
+    }
+
+    /**
+     * @param startNanos the System.nanoTime() from before the token was verified
+     * @param valid whether the token turned out to be valid
+     */
+    public void recordJwtVerify(long startNanos, boolean valid) {
+        record(valid ? validTokenVerify : invalidTokenVerify, ServerTiming.Phase.JWT_VERIFY, startNanos);
+    }
+
+    /**
+     * Runs work which is not from real requests (i.e. warming up) on the
+     * current thread, without recording any of it.
+     *
+     * @param work the synthetic work
+     * @throws Exception whatever the work throws
+     */
+    public static void runSynthetic(SyntheticWork work) throws Exception {
+        Boolean previous = SYNTHETIC.get();
+        SYNTHETIC.set(Boolean.TRUE);
+        try {
+            work.run();
+        }
+        finally {
+            SYNTHETIC.set(previous);
+        }
+    }
+
+    /**
+     * @return whether the current thread is running synthetic work, which
+     *         is not to be recorded (neither here nor as JFR events)
+     */
+    public static boolean isSynthetic() {
+        return SYNTHETIC.get() != null;
+    }
+
+    @FunctionalInterface
+    public interface SyntheticWork {
+        void run() throws Exception;
+    }
+
+    ///////////////////////////////////////////////////////////////////////////
+
+    private static void record(Timer timer, ServerTiming.Phase phase, long startNanos) {
+        if (isSynthetic()) return;
+        long durationNanos = System.nanoTime() - startNanos;
+        timer.record(durationNanos, TimeUnit.NANOSECONDS);
+        ServerTiming.recordDuration(phase, durationNanos);
+    }
+
+    private static Timer passwordVerifyTimer(String outcome, MeterRegistry meterRegistry) {
+        return Timer.builder("focust.auth.password.verify").tag("outcome", outcome)
+                .description("time spent checking passwords against their bcrypt hash").register(meterRegistry);
+    }
+
+    private static Timer jwtSignTimer(String token, MeterRegistry meterRegistry) {
+        return Timer.builder("focust.auth.jwt.sign").tag("token", token)
+                .description("time spent creating and signing JWT tokens").register(meterRegistry);
+    }
+
+    private static Timer jwtVerifyTimer(String outcome, MeterRegistry meterRegistry) {
+        return Timer.builder("focust.auth.jwt.verify").tag("outcome", outcome)
+                .description("time spent verifying JWT tokens").register(meterRegistry);
+    }
+
+}
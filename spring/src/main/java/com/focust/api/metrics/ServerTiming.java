@@ -0,0 +1,142 @@
+/**
+ * ServerTiming.java - Where the time of the current request went, for the "Server-Timing" header.
+ * Copyright (C) 2024  Allan DeBoe
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ * ------------------------------------------------------------------------
+ *
+ * Each request gets one of these (see ServerTimingFilter), kept in a
+ * ThreadLocal for as long as the request is being handled, and the slow
+ * steps of a request add the time they took to their phase. A phase that
+ * happens more than once (i.e. signing both an access and a refresh token)
+ * adds up. Recording is no more than reading the ThreadLocal and adding to
+ * an array, and does nothing at all outside of a request.
+ *
+ * The phases may overlap: "auth" (the JwtAuthenticationFilter) includes
+ * the "jwt-verify" and "db" time it took to authenticate the request.
+ *
+ * @see com.focust.api.metrics.ServerTimingFilter
+ * @see <a href="https://www.w3.org/TR/server-timing/">Server Timing</a>
+ *
+ * @author Allan DeBoe (allan.m.deboe@gmail.com)
+ * @version 0.0.6
+ * @since 0.0.6
+ */
+package com.focust.api.metrics;
+
+///////////////////////////////////////////////////////////////////////////
+
+public final class ServerTiming {
+
+    public enum Phase {
+        AUTH("auth", "JWT authentication"),
+        DB("db", "user lookups"),
+        BCRYPT("bcrypt", "password hashing"),
+        JWT_SIGN("jwt-sign", "JWT signing"),
+        JWT_VERIFY("jwt-verify", "JWT verification");
+
+        private final String metricName;
+        private final String description;
+
+        Phase(String metricName, String description) {
+            this.metricName = metricName;
+            this.description = description;
+        }
+    }
+
+    public static final String HEADER = "Server-Timing";
+
+    private static final Phase[] PHASES = Phase.values();
+    private static final ThreadLocal<ServerTiming> CURRENT = new ThreadLocal<>();
+
+    private final long startNanos = System.nanoTime();
+    private final long[] durations = new long[PHASES.length];
+    private final boolean sampled;
+    private boolean admin;
+
+    private ServerTiming(boolean sampled) {
+        this.sampled = sampled;
+    }
+
+    /**
+     * Meant to be called once the step is done, i.e. "record(Phase.DB, start)".
+     *
+     * @param phase the phase the time is added to
+     * @param startNanos the System.nanoTime() from before the step started
+     */
+    public static void record(Phase phase, long startNanos) {
+        recordDuration(phase, System.nanoTime() - startNanos);
+    }
+
+    /**
+     * @param phase the phase the time is added to
+     * @param durationNanos how long the step took, in nanoseconds
+     */
+    public static void recordDuration(Phase phase, long durationNanos) {
+        ServerTiming timing = CURRENT.get();
+        if (timing != null) timing.durations[phase.ordinal()] += durationNanos;
+    }
+
+    /**
+     * Admins always get the header, as they are the ones looking into slow requests.
+     */
+    public static void markAdmin() {
+        ServerTiming timing = CURRENT.get();
+        if (timing != null) timing.admin = true;
+    }
+
+    ///////////////////////////////////////////////////////////////////////////
+
+    // Only the ServerTimingFilter starts and ends requests.
+    static ServerTiming begin(boolean sampled) {
+        ServerTiming timing = new ServerTiming(sampled);
+        CURRENT.set(timing);
+        return timing;
+    }
+
+    static void end() {
+        CURRENT.remove();
+    }
+
+    /**
+     * @param phase one of the phases of the request
+     * @return the time spent in that phase so far, in nanoseconds
+     */
+    public long getDuration(Phase phase) {
+        return durations[phase.ordinal()];
+    }
+
+    boolean isReported() {
+        return sampled || admin;
+    }
+
+    /**
+     * @return the phases that took any time, followed by the total time so far (i.e. "db;dur=1.2;desc=...").
+     */
+    String toHeaderValue() {
+        StringBuilder value = new StringBuilder(128);
+        for (Phase phase : PHASES) {
+            long duration = durations[phase.ordinal()];
+            if (duration == 0) continue;
+            appendMetric(value, phase.metricName, duration).append(";desc=\"").append(phase.description).append("\", ");
+        }
+        return appendMetric(value, "total", System.nanoTime() - startNanos).toString();
+    }
+
+    // Durations are in milliseconds, rounded to the microsecond.
+    private static StringBuilder appendMetric(StringBuilder value, String name, long durationNanos) {
+        return value.append(name).append(";dur=").append(Math.round(durationNanos / 1_000.0) / 1_000.0);
+    }
+
+}
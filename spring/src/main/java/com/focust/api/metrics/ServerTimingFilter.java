@@ -0,0 +1,121 @@
+/**
+ * ServerTimingFilter.java - Adds the "Server-Timing" header to sampled and admin requests.
+ * Copyright (C) 2024  Allan DeBoe
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ * ------------------------------------------------------------------------
+ *
+ * This runs before every other filter (including Spring Security's), so
+ * that the time spent authenticating the request is part of its timing.
+ *
+ * Headers can no longer be added once the response is committed, so the
+ * header is added right before that happens (i.e. when the body is
+ * flushed), or once the request is done if the response is still not
+ * committed by then (i.e. when it has no body). A response that commits
+ * on its own because its body outgrew the response buffer, like a large
+ * streamed import, goes without the header.
+ *
+ * The same breakdown is recorded for every request as an HttpRequestEvent,
+ * for when Java Flight Recorder is recording (whether or not the request
+ * gets the header, or the header is turned off).
+ *
+ * @see com.focust.api.metrics.ServerTiming
+ *
+ * @author Allan DeBoe (allan.m.deboe@gmail.com)
+ * @version 0.0.6
+ * @since 0.0.6
+ */
+package com.focust.api.metrics;
+
+///////////////////////////////////////////////////////////////////////////
+
+// Focust //
+import com.focust.api.metrics.jfr.HttpRequestEvent;
+
+// Jakarta Servlets //
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+// Spring Framework //
+import org.springframework.lang.NonNull;
+import org.springframework.security.web.util.OnCommittedResponseWrapper;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+// Standard Java //
+import java.io.IOException;
+import java.util.concurrent.ThreadLocalRandom;
+
+///////////////////////////////////////////////////////////////////////////
+
+public class ServerTimingFilter extends OncePerRequestFilter {
+
+    private final boolean headerEnabled;
+    private final double sampleRate;
+
+    /**
+     * @param headerEnabled whether any response gets the header at all
+     * @param sampleRate the fraction of requests (between 0 and 1) that get the header, besides admin requests
+     */
+    public ServerTimingFilter(boolean headerEnabled, double sampleRate) {
+        this.headerEnabled = headerEnabled;
+        this.sampleRate = sampleRate;
+    }
+
+    @Override
+    protected void doFilterInternal(@NonNull HttpServletRequest request, @NonNull HttpServletResponse response, @NonNull FilterChain filterChain) throws ServletException, IOException {
+        HttpRequestEvent event = new HttpRequestEvent();
+        event.begin();
+        boolean sampled = sampleRate > 0 && ThreadLocalRandom.current().nextDouble() < sampleRate;
+        ServerTiming timing = ServerTiming.begin(sampled);
+        TimingResponse timingResponse = new TimingResponse(response, timing, headerEnabled);
+        try {
+            filterChain.doFilter(request, timingResponse);
+        }
+        finally {
+            if (!response.isCommitted()) timingResponse.addHeader();
+            ServerTiming.end();
+            event.commit(request.getMethod(), request.getRequestURI(), response.getStatus(), timing);
+        }
+    }
+
+    ///////////////////////////////////////////////////////////////////////////
+
+    private static final class TimingResponse extends OnCommittedResponseWrapper {
+        private final HttpServletResponse response;
+        private final ServerTiming timing;
+        private final boolean headerEnabled;
+        private boolean headerAdded;
+
+        private TimingResponse(HttpServletResponse response, ServerTiming timing, boolean headerEnabled) {
+            super(response);
+            this.response = response;
+            this.timing = timing;
+            this.headerEnabled = headerEnabled;
+        }
+
+        @Override
+        protected void onResponseCommitted() {
+            addHeader();
+        }
+
+        private void addHeader() {
+            if (headerAdded || !headerEnabled || !timing.isReported()) return;
+            headerAdded = true;
+            response.addHeader(ServerTiming.HEADER, timing.toHeaderValue());
+        }
+    }
+
+}
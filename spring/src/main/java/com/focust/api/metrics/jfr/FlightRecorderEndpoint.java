@@ -0,0 +1,180 @@
+/**
+ * FlightRecorderEndpoint.java - Actuator endpoint to start, stop and download a JFR recording.
+ * Copyright (C) 2024  Allan DeBoe
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ * ------------------------------------------------------------------------
+ *
+ * Served on the management port only, as "/actuator/jfr":
+ *
+ *   POST   /actuator/jfr          - starts a recording (409 if one is running)
+ *   GET    /actuator/jfr          - the state of the recording
+ *   GET    /actuator/jfr/focust   - downloads what has been recorded so far
+ *   DELETE /actuator/jfr          - stops the recording (it can still be downloaded)
+ *
+ * The recording uses the JDK's "profile" settings plus the Focust events,
+ * except for the events holding the environment variables, system
+ * properties, and command line of the JVM (which can contain secrets, i.e.
+ * passwords passed with "-D"), and is bounded both in time ("durationSeconds", stopping on its own) and
+ * in size ("maxSizeMegabytes", dropping its oldest data), so that one left
+ * running by accident cannot fill up the disk. Only one recording can run
+ * at a time, and it is dumped to a single file that is overwritten by the
+ * next download. Like every other actuator endpoint but "health" and
+ * "prometheus", it is only for admins (see SecurityConfiguration).
+ *
+ * @see com.focust.api.security.SecurityConfiguration
+ *
+ * @author Allan DeBoe (allan.m.deboe@gmail.com)
+ * @version 0.0.6
+ * @since 0.0.6
+ */
+package com.focust.api.metrics.jfr;
+
+///////////////////////////////////////////////////////////////////////////
+
+// Java Flight Recorder //
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+
+// Spring Framework //
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointResponse;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpStatus;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+// Standard Java //
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+///////////////////////////////////////////////////////////////////////////
+
+@Component
+@Endpoint(id = "jfr")
+public class FlightRecorderEndpoint {
+
+    public static final String RECORDING_NAME = "focust";
+
+    private static final int DEFAULT_DURATION_SECONDS = 5 * 60;
+    private static final int MAX_DURATION_SECONDS = 60 * 60;
+    private static final int DEFAULT_MAX_SIZE_MEGABYTES = 64;
+    private static final int MAX_SIZE_MEGABYTES = 256;
+
+    private static final List<Class<? extends jdk.jfr.Event>> EVENTS = List.of(
+            HttpRequestEvent.class,
+            PasswordVerifyEvent.class,
+            JwtSignEvent.class,
+            JwtVerifyEvent.class,
+            RepositoryCallEvent.class
+    );
+
+    // events of the "profile" settings that would put secrets into the recording.
+    private static final List<String> SECRET_EVENTS = List.of(
+            "jdk.InitialEnvironmentVariable",
+            "jdk.InitialSystemProperty",
+            "jdk.JVMInformation",
+            "jdk.ProcessStart"
+    );
+
+    private final Path dumpDirectory;
+    private Recording recording;
+
+    public FlightRecorderEndpoint(@Value("${focust.jfr.dump-directory:jfr}") Path dumpDirectory) {
+        this.dumpDirectory = dumpDirectory;
+    }
+
+    @ReadOperation
+    public synchronized Map<String, Object> state() {
+        Map<String, Object> state = new LinkedHashMap<>();
+        if (recording == null) {
+            state.put("state", "NONE");
+            return state;
+        }
+        state.put("name", recording.getName());
+        state.put("state", recording.getState());
+        state.put("startTime", recording.getStartTime());
+        state.put("stopTime", recording.getStopTime());
+        state.put("duration", recording.getDuration());
+        state.put("maxSizeBytes", recording.getMaxSize());
+        state.put("sizeBytes", recording.getSize());
+        return state;
+    }
+
+    /**
+     * @param durationSeconds how long to record for, up to an hour (5 minutes by default)
+     * @param maxSizeMegabytes how much to keep at most, up to 256 MB (64 MB by default)
+     */
+    @WriteOperation
+    public synchronized WebEndpointResponse<Map<String, Object>> start(@Nullable Integer durationSeconds, @Nullable Integer maxSizeMegabytes) throws IOException, ParseException {
+        if (recording != null && recording.getState() == RecordingState.RUNNING) {
+            return new WebEndpointResponse<>(state(), HttpStatus.CONFLICT.value());
+        }
+        if (recording != null) recording.close();
+
+        int duration = bounded(durationSeconds, DEFAULT_DURATION_SECONDS, MAX_DURATION_SECONDS);
+        int maxSize = bounded(maxSizeMegabytes, DEFAULT_MAX_SIZE_MEGABYTES, MAX_SIZE_MEGABYTES);
+
+        Map<String, String> settings = new HashMap<>(Configuration.getConfiguration("profile").getSettings());
+        SECRET_EVENTS.forEach(event -> settings.put(event + "#enabled", "false"));
+        recording = new Recording(settings);
+        recording.setName(RECORDING_NAME);
+        EVENTS.forEach(recording::enable);
+        recording.setToDisk(true);
+        recording.setDuration(Duration.ofSeconds(duration));
+        recording.setMaxSize(maxSize * 1024L * 1024L);
+        recording.start();
+        return new WebEndpointResponse<>(state());
+    }
+
+    @DeleteOperation
+    public synchronized Map<String, Object> stop() {
+        if (recording != null && recording.getState() == RecordingState.RUNNING) recording.stop();
+        return state();
+    }
+
+    @ReadOperation(produces = "application/octet-stream")
+    public synchronized WebEndpointResponse<Resource> dump(@Selector String name) throws IOException {
+        if (recording == null || !recording.getName().equals(name) || recording.getState() == RecordingState.NEW) {
+            return new WebEndpointResponse<>(WebEndpointResponse.STATUS_NOT_FOUND);
+        }
+        Files.createDirectories(dumpDirectory);
+        Path file = dumpDirectory.resolve(name + ".jfr");
+        Files.deleteIfExists(file);
+        recording.dump(file);
+        return new WebEndpointResponse<>(new FileSystemResource(file));
+    }
+
+    ///////////////////////////////////////////////////////////////////////////
+
+    private static int bounded(@Nullable Integer value, int defaultValue, int max) {
+        if (value == null || value <= 0) return defaultValue;
+        return Math.min(value, max);
+    }
+
+}
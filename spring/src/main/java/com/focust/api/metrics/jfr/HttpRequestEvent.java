@@ -0,0 +1,103 @@
+/**
+ * HttpRequestEvent.java - JFR event for a whole request, broken down like its "Server-Timing" header.
+ * Copyright (C) 2024  Allan DeBoe
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ * ------------------------------------------------------------------------
+ *
+ * Unlike the header, this is recorded for every request (while a recording
+ * is running), so slow requests can be found after the fact. The query
+ * string is left out of the path, and no headers are recorded.
+ *
+ * @see com.focust.api.metrics.ServerTimingFilter
+ *
+ * @author Allan DeBoe (allan.m.deboe@gmail.com)
+ * @version 0.0.6
+ * @since 0.0.6
+ */
+package com.focust.api.metrics.jfr;
+
+///////////////////////////////////////////////////////////////////////////
+
+// Focust //
+import com.focust.api.metrics.ServerTiming;
+
+// Java Flight Recorder //
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+///////////////////////////////////////////////////////////////////////////
+
+@Name("com.focust.HttpRequest")
+@Label("HTTP Request")
+@Category({"Focust", "HTTP"})
+public class HttpRequestEvent extends Event {
+
+    @Label("Method")
+    private String method;
+
+    @Label("Path")
+    private String path;
+
+    @Label("Status")
+    private int status;
+
+    @Label("Authentication Time")
+    @Description("Time spent in the JwtAuthenticationFilter, including its JWT verification and user lookup")
+    @Timespan
+    private long authenticationTime;
+
+    @Label("Database Time")
+    @Timespan
+    private long databaseTime;
+
+    @Label("bcrypt Time")
+    @Timespan
+    private long bcryptTime;
+
+    @Label("JWT Sign Time")
+    @Timespan
+    private long jwtSignTime;
+
+    @Label("JWT Verify Time")
+    @Timespan
+    private long jwtVerifyTime;
+
+    /**
+     * Ends the event, and commits it if it is being recorded.
+     *
+     * @param method the HTTP method of the request
+     * @param path the path of the request, without its query string
+     * @param status the HTTP status of the response
+     * @param timing where the time of the request went
+     */
+    public void commit(String method, String path, int status, ServerTiming timing) {
+        end();
+        if (!shouldCommit()) return;
+        this.method = method;
+        this.path = path;
+        this.status = status;
+        this.authenticationTime = timing.getDuration(ServerTiming.Phase.AUTH);
+        this.databaseTime = timing.getDuration(ServerTiming.Phase.DB);
+        this.bcryptTime = timing.getDuration(ServerTiming.Phase.BCRYPT);
+        this.jwtSignTime = timing.getDuration(ServerTiming.Phase.JWT_SIGN);
+        this.jwtVerifyTime = timing.getDuration(ServerTiming.Phase.JWT_VERIFY);
+        commit();
+    }
+
+}
@@ -0,0 +1,62 @@
+/**
+ * JwtVerifyEvent.java - JFR event for verifying a JWT token.
+ * Copyright (C) 2024  Allan DeBoe
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ * ------------------------------------------------------------------------
+ *
+ * The token itself and its claims are never recorded.
+ *
+ * @author Allan DeBoe (allan.m.deboe@gmail.com)
+ * @version 0.0.6
+ * @since 0.0.6
+ */
+package com.focust.api.metrics.jfr;
+
+///////////////////////////////////////////////////////////////////////////
+
+// Java Flight Recorder //
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+///////////////////////////////////////////////////////////////////////////
+
+@Name("com.focust.JwtVerify")
+@Label("JWT Verify")
+@Category({"Focust", "Authentication"})
+public class JwtVerifyEvent extends Event {
+
+    @Label("Algorithm")
+    private String algorithm;
+
+    @Label("Valid")
+    private boolean valid;
+
+    /**
+     * Ends the event, and commits it if it is being recorded.
+     *
+     * @param algorithm the JWT name of the verifying algorithm (i.e. "RS256")
+     * @param valid whether the token turned out to be valid
+     */
+    public void commit(String algorithm, boolean valid) {
+        end();
+        if (!shouldCommit()) return;
+        this.algorithm = algorithm;
+        this.valid = valid;
+        commit();
+    }
+
+}
@@ -0,0 +1,66 @@
+/**
+ * PasswordVerifyEvent.java - JFR event for checking a password against its bcrypt hash.
+ * Copyright (C) 2024  Allan DeBoe
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ * ------------------------------------------------------------------------
+ *
+ * Only the cost of the hash (and whether it matched) is recorded, never
+ * the email, the password or the hash itself.
+ *
+ * @author Allan DeBoe (allan.m.deboe@gmail.com)
+ * @version 0.0.6
+ * @since 0.0.6
+ */
+package com.focust.api.metrics.jfr;
+
+///////////////////////////////////////////////////////////////////////////
+
+// Java Flight Recorder //
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+///////////////////////////////////////////////////////////////////////////
+
+@Name("com.focust.PasswordVerify")
+@Label("Password Verify")
+@Category({"Focust", "Authentication"})
+@Description("Checking a password against its bcrypt hash when signing in")
+public class PasswordVerifyEvent extends Event {
+
+    @Label("Cost")
+    @Description("The bcrypt cost (log2 of the number of rounds) of the hash")
+    private int cost;
+
+    @Label("Matched")
+    private boolean matched;
+
+    /**
+     * Ends the event, and commits it if it is being recorded.
+     *
+     * @param cost the bcrypt cost of the hash the password was checked against
+     * @param matched whether the password matched the hash
+     */
+    public void commit(int cost, boolean matched) {
+        end();
+        if (!shouldCommit()) return;
+        this.cost = cost;
+        this.matched = matched;
+        commit();
+    }
+
+}
@@ -0,0 +1,73 @@
+/**
+ * RepositoryCallEvent.java - JFR event for a call to a Spring Data repository.
+ * Copyright (C) 2024  Allan DeBoe
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ * ------------------------------------------------------------------------
+ *
+ * Only the name of the repository method is recorded, not its arguments
+ * (which would include emails).
+ *
+ * @see com.focust.api.metrics.jfr.RepositoryCallInterceptor
+ *
+ * @author Allan DeBoe (allan.m.deboe@gmail.com)
+ * @version 0.0.6
+ * @since 0.0.6
+ */
+package com.focust.api.metrics.jfr;
+
+///////////////////////////////////////////////////////////////////////////
+
+// Java Flight Recorder //
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+///////////////////////////////////////////////////////////////////////////
+
+@Name("com.focust.RepositoryCall")
+@Label("Repository Call")
+@Category({"Focust", "Database"})
+public class RepositoryCallEvent extends Event {
+
+    @Label("Query")
+    @Description("The repository and the method that was called, i.e. \"UserRepository.findByEmail\"")
+    private String query;
+
+    @Label("Row Count")
+    @Description("The number of rows returned, or -1 when it is not known (i.e. counts and streams)")
+    private int rowCount;
+
+    @Label("Failed")
+    private boolean failed;
+
+    /**
+     * Ends the event, and commits it if it is being recorded.
+     *
+     * @param query the repository and the method that was called
+     * @param rowCount the number of rows returned, or -1 when not known
+     * @param failed whether the call threw an exception
+     */
+    public void commit(String query, int rowCount, boolean failed) {
+        end();
+        if (!shouldCommit()) return;
+        this.query = query;
+        this.rowCount = rowCount;
+        this.failed = failed;
+        commit();
+    }
+
+}
@@ -0,0 +1,90 @@
+/**
+ * RepositoryCallInterceptor.java - Records a RepositoryCallEvent for every call to a repository.
+ * Copyright (C) 2024  Allan DeBoe
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ * ------------------------------------------------------------------------
+ *
+ * This is added to the proxy Spring Data creates for each repository (see
+ * JfrConfiguration). When no recording is running, calls go straight
+ * through without creating the name of the query.
+ *
+ * @see com.focust.api.metrics.jfr.RepositoryCallEvent
+ *
+ * @author Allan DeBoe (allan.m.deboe@gmail.com)
+ * @version 0.0.6
+ * @since 0.0.6
+ */
+package com.focust.api.metrics.jfr;
+
+///////////////////////////////////////////////////////////////////////////
+
+// AOP Alliance //
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+
+// Spring Framework //
+import org.springframework.data.domain.Slice;
+import org.springframework.lang.NonNull;
+
+// Standard Java //
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+
+///////////////////////////////////////////////////////////////////////////
+
+public class RepositoryCallInterceptor implements MethodInterceptor {
+
+    private final String repositoryName;
+
+    /**
+     * @param repositoryName the simple name of the repository interface (i.e. "UserRepository")
+     */
+    public RepositoryCallInterceptor(String repositoryName) {
+        this.repositoryName = repositoryName;
+    }
+
+    @Override
+    public Object invoke(@NonNull MethodInvocation invocation) throws Throwable {
+        RepositoryCallEvent event = new RepositoryCallEvent();
+        if (!event.isEnabled()) return invocation.proceed();
+
+        event.begin();
+        Object result = null;
+        boolean failed = true;
+        try {
+            result = invocation.proceed();
+            failed = false;
+            return result;
+        }
+        finally {
+            event.commit(repositoryName + "." + invocation.getMethod().getName(), failed ? -1 : rowCount(result), failed);
+        }
+    }
+
+    ///////////////////////////////////////////////////////////////////////////
+
+    // Counts (and other numbers) are not rows, and counting a Stream would consume it.
+    static int rowCount(Object result) {
+        if (result == null) return 0;
+        if (result instanceof Collection<?> collection) return collection.size();
+        if (result instanceof Map<?, ?> map) return map.size();
+        if (result instanceof Slice<?> slice) return slice.getNumberOfElements();
+        if (result instanceof Optional<?> optional) return optional.isPresent() ? 1 : 0;
+        if (result instanceof Number || result instanceof Boolean || result instanceof Iterable<?> || result instanceof AutoCloseable) return -1;
+        return 1;
+    }
+
+}
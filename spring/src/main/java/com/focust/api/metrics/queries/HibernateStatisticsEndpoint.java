@@ -0,0 +1,112 @@
+/**
+ * HibernateStatisticsEndpoint.java - Actuator endpoint for Hibernate's statistics and the query budget.
+ * Copyright (C) 2024  Allan DeBoe
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ * ------------------------------------------------------------------------
+ *
+ * The totals are also scraped by Prometheus (as "hibernate.*"), but the
+ * statistics of each query are not, as there are too many of them to be
+ * used as tags. "/actuator/hibernate" shows the most executed queries,
+ * next to the fetches that usually give away an N+1 query problem (a
+ * high "collectionFetchCount" or "entityFetchCount" compared to the number
+ * of queries) and the latest requests that went over their query budget.
+ * As it shows the SQL being run, it is only for admins.
+ *
+ * @see com.focust.api.metrics.queries.QueryBudget
+ * @see com.focust.api.security.SecurityConfiguration
+ *
+ * @author Allan DeBoe (allan.m.deboe@gmail.com)
+ * @version 0.0.6
+ * @since 0.0.6
+ */
+package com.focust.api.metrics.queries;
+
+///////////////////////////////////////////////////////////////////////////
+
+// Hibernate //
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.QueryStatistics;
+import org.hibernate.stat.Statistics;
+
+// Jakarta //
+import jakarta.persistence.EntityManagerFactory;
+
+// Spring Framework //
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+// Standard Java //
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+///////////////////////////////////////////////////////////////////////////
+
+@Component
+@Endpoint(id = "hibernate")
+public class HibernateStatisticsEndpoint {
+
+    private static final int LISTED_QUERIES = 20;
+
+    private final Statistics statistics;
+    private final QueryBudget queryBudget;
+
+    public HibernateStatisticsEndpoint(EntityManagerFactory entityManagerFactory, QueryBudget queryBudget) {
+        this.statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        this.queryBudget = queryBudget;
+    }
+
+    @ReadOperation
+    public Map<String, Object> statistics() {
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("enabled", statistics.isStatisticsEnabled());
+        response.put("startTime", statistics.getStart());
+        response.put("prepareStatementCount", statistics.getPrepareStatementCount());
+        response.put("queryExecutionCount", statistics.getQueryExecutionCount());
+        response.put("queryExecutionMaxTimeMs", statistics.getQueryExecutionMaxTime());
+        response.put("queryExecutionMaxTimeQuery", statistics.getQueryExecutionMaxTimeQueryString());
+        response.put("entityLoadCount", statistics.getEntityLoadCount());
+        response.put("entityFetchCount", statistics.getEntityFetchCount());
+        response.put("collectionLoadCount", statistics.getCollectionLoadCount());
+        response.put("collectionFetchCount", statistics.getCollectionFetchCount());
+        response.put("transactionCount", statistics.getTransactionCount());
+        response.put("queries", mostExecutedQueries());
+        response.put("budgetViolations", queryBudget.getViolations());
+        return response;
+    }
+
+    ///////////////////////////////////////////////////////////////////////////
+
+    private List<Map<String, Object>> mostExecutedQueries() {
+        return Arrays.stream(statistics.getQueries())
+                .map(query -> Map.entry(query, statistics.getQueryStatistics(query)))
+                .sorted(Comparator.comparingLong((Map.Entry<String, QueryStatistics> entry) -> entry.getValue().getExecutionCount()).reversed())
+                .limit(LISTED_QUERIES)
+                .map(entry -> {
+                    Map<String, Object> query = new LinkedHashMap<>();
+                    query.put("query", entry.getKey());
+                    query.put("executionCount", entry.getValue().getExecutionCount());
+                    query.put("executionRowCount", entry.getValue().getExecutionRowCount());
+                    query.put("executionAvgTimeMs", entry.getValue().getExecutionAvgTime());
+                    query.put("executionMaxTimeMs", entry.getValue().getExecutionMaxTime());
+                    return query;
+                })
+                .toList();
+    }
+
+}
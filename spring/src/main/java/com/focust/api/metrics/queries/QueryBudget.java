@@ -0,0 +1,189 @@
+/**
+ * QueryBudget.java - How many queries each endpoint may make, and the requests that made more.
+ * Copyright (C) 2024  Allan DeBoe
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ * ------------------------------------------------------------------------
+ *
+ * An endpoint whose number of queries grows with the size of its response
+ * (i.e. loading a lazy association once per user, a.k.a. the "N+1" query
+ * problem) goes over its budget as soon as the response has more than a
+ * few rows, so it gets flagged long before it gets slow.
+ *
+ * Budgets are given as "METHOD /pattern=queries" entries separated by ";"
+ * (i.e. "GET /users/{id}=3; POST /auth/login=3"), using the same patterns
+ * as the controllers, and every other endpoint gets the default budget. A
+ * negative budget leaves the endpoint unchecked.
+ *
+ * Every request is counted in "focust.db.queries{method,uri}", and those
+ * over budget in "focust.db.query.budget.exceeded{method,uri}". The latest
+ * of them are also kept, for "/actuator/hibernate" and for the tests.
+ *
+ * @author Allan DeBoe (allan.m.deboe@gmail.com)
+ * @version 0.0.6
+ * @since 0.0.6
+ */
+package com.focust.api.metrics.queries;
+
+///////////////////////////////////////////////////////////////////////////
+
+// Micrometer //
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+
+// Project Lombok //
+import lombok.extern.slf4j.Slf4j;
+
+// Spring Framework //
+import org.springframework.lang.Nullable;
+
+// Standard Java //
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+///////////////////////////////////////////////////////////////////////////
+
+@Slf4j
+public class QueryBudget {
+
+    public record Violation(String method, String endpoint, int queries, int budget, Instant time) { }
+
+    private static final int KEPT_VIOLATIONS = 50;
+
+    private final int defaultBudget;
+    private final Map<String, Integer> budgets;
+    private final MeterRegistry meterRegistry;
+    private final Deque<Violation> violations = new ArrayDeque<>();
+    private final AtomicInteger pendingRequests = new AtomicInteger();
+
+    /**
+     * @param defaultBudget the number of queries allowed for endpoints without a budget of their own
+     * @param budgets the budgets of specific endpoints, as "METHOD /pattern=queries" entries separated by ";"
+     * @param meterRegistry where the number of queries per request is recorded
+     * @throws IllegalArgumentException if one of the budgets is not in the expected format
+     */
+    public QueryBudget(int defaultBudget, String budgets, MeterRegistry meterRegistry) throws IllegalArgumentException {
+        this.defaultBudget = defaultBudget;
+        this.budgets = parseBudgets(budgets);
+        this.meterRegistry = meterRegistry;
+    }
+
+    public int getBudget(String method, String endpoint) {
+        return budgets.getOrDefault(method + " " + endpoint, defaultBudget);
+    }
+
+    /**
+     * @return the latest requests that went over budget, oldest first
+     */
+    public List<Violation> getViolations() {
+        synchronized (violations) {
+            return List.copyOf(violations);
+        }
+    }
+
+    public void clearViolations() {
+        synchronized (violations) {
+            violations.clear();
+        }
+    }
+
+    /**
+     * A request is only checked once it is done, which can be after its
+     * response has been received, so this is used (i.e. by tests) to wait
+     * for the requests that are still being checked.
+     *
+     * @param timeout how long to wait at most
+     * @return true if no requests are left to be checked
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public boolean awaitPendingRequests(Duration timeout) throws InterruptedException {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        while (pendingRequests.get() > 0) {
+            if (System.nanoTime() - deadline > 0) return false;
+            Thread.sleep(10);
+        }
+        return true;
+    }
+
+    ///////////////////////////////////////////////////////////////////////////
+
+    // Only the QueryBudgetFilter starts and finishes requests.
+    void requestStarted() {
+        pendingRequests.incrementAndGet();
+    }
+
+    /**
+     * @param method the HTTP method of the request
+     * @param endpoint the pattern of the endpoint that handled it (i.e. "/users/{id}"), or null if none did
+     * @param queries how many queries the request made
+     */
+    void requestFinished(String method, @Nullable String endpoint, int queries) {
+        try {
+            if (endpoint != null) check(method, endpoint, queries);
+        }
+        finally {
+            pendingRequests.decrementAndGet();
+        }
+    }
+
+    private void check(String method, String endpoint, int queries) {
+        DistributionSummary.builder("focust.db.queries")
+                .description("SQL statements prepared per request")
+                .tag("method", method).tag("uri", endpoint)
+                .register(meterRegistry).record(queries);
+
+        int budget = getBudget(method, endpoint);
+        if (budget < 0 || queries <= budget) return;
+
+        Counter.builder("focust.db.query.budget.exceeded")
+                .description("requests that made more queries than their endpoint's budget")
+                .tag("method", method).tag("uri", endpoint)
+                .register(meterRegistry).increment();
+        log.atWarn().setMessage("Request went over its query budget")
+                .addKeyValue("method", method).addKeyValue("uri", endpoint)
+                .addKeyValue("queries", queries).addKeyValue("budget", budget)
+                .log();
+        synchronized (violations) {
+            if (violations.size() == KEPT_VIOLATIONS) violations.removeFirst();
+            violations.addLast(new Violation(method, endpoint, queries, budget, Instant.now()));
+        }
+    }
+
+    private static Map<String, Integer> parseBudgets(String budgets) throws IllegalArgumentException {
+        Map<String, Integer> parsed = new HashMap<>();
+        for (String entry : budgets.split(";")) {
+            if (entry.isBlank()) continue;
+            int separator = entry.lastIndexOf('=');
+            String endpoint = separator < 0 ? "" : entry.substring(0, separator).trim().replaceAll("\\s+", " ");
+            if (!endpoint.matches("[A-Z]+ /\\S*")) {
+                throw new IllegalArgumentException("Query budget \"" + entry.trim() + "\" is not in the format \"METHOD /pattern=queries\"");
+            }
+            try {
+                parsed.put(endpoint, Integer.parseInt(entry.substring(separator + 1).trim()));
+            }
+            catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Query budget \"" + entry.trim() + "\" does not end with a number of queries");
+            }
+        }
+        return parsed;
+    }
+
+}
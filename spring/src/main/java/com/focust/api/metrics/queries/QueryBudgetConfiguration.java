@@ -0,0 +1,70 @@
+/**
+ * QueryBudgetConfiguration.java - Hooks the QueryCounter into Hibernate, and registers the QueryBudgetFilter.
+ * Copyright (C) 2024  Allan DeBoe
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ * ------------------------------------------------------------------------
+ *
+ * @see com.focust.api.metrics.queries.QueryBudget
+ *
+ * @author Allan DeBoe (allan.m.deboe@gmail.com)
+ * @version 0.0.6
+ * @since 0.0.6
+ */
+package com.focust.api.metrics.queries;
+
+///////////////////////////////////////////////////////////////////////////
+
+// Hibernate //
+import org.hibernate.cfg.AvailableSettings;
+
+// Micrometer //
+import io.micrometer.core.instrument.MeterRegistry;
+
+// Spring Framework //
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+///////////////////////////////////////////////////////////////////////////
+
+@Configuration
+public class QueryBudgetConfiguration {
+
+    @Bean
+    public QueryBudget queryBudget(
+            @Value("${focust.query-budget.default:10}") int defaultBudget,
+            @Value("${focust.query-budget.endpoints:}") String budgets,
+            MeterRegistry meterRegistry
+    ) {
+        return new QueryBudget(defaultBudget, budgets, meterRegistry);
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer queryCounter() {
+        return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, new QueryCounter());
+    }
+
+    // Right after the ServerTimingFilter, and before Spring Security.
+    @Bean
+    public FilterRegistrationBean<QueryBudgetFilter> queryBudgetFilter(QueryBudget queryBudget) {
+        FilterRegistrationBean<QueryBudgetFilter> registration = new FilterRegistrationBean<>(new QueryBudgetFilter(queryBudget));
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 1);
+        return registration;
+    }
+
+}
@@ -0,0 +1,72 @@
+/**
+ * QueryBudgetFilter.java - Counts the queries of each request, and checks them against its budget.
+ * Copyright (C) 2024  Allan DeBoe
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ * ------------------------------------------------------------------------
+ *
+ * This runs before Spring Security, so that the lookup done to authenticate
+ * a request counts towards its budget. The endpoint is only known once the
+ * request has been dispatched to its controller, so requests that never
+ * got to one (i.e. rejected ones, or unknown paths) are not checked.
+ *
+ * @see com.focust.api.metrics.queries.QueryBudget
+ *
+ * @author Allan DeBoe (allan.m.deboe@gmail.com)
+ * @version 0.0.6
+ * @since 0.0.6
+ */
+package com.focust.api.metrics.queries;
+
+///////////////////////////////////////////////////////////////////////////
+
+// Jakarta Servlets //
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+// Spring Framework //
+import org.springframework.lang.NonNull;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+// Standard Java //
+import java.io.IOException;
+
+///////////////////////////////////////////////////////////////////////////
+
+public class QueryBudgetFilter extends OncePerRequestFilter {
+
+    private final QueryBudget queryBudget;
+
+    public QueryBudgetFilter(QueryBudget queryBudget) {
+        this.queryBudget = queryBudget;
+    }
+
+    @Override
+    protected void doFilterInternal(@NonNull HttpServletRequest request, @NonNull HttpServletResponse response, @NonNull FilterChain filterChain) throws ServletException, IOException {
+        queryBudget.requestStarted();
+        QueryCounter.begin();
+        try {
+            filterChain.doFilter(request, response);
+        }
+        finally {
+            int queries = QueryCounter.end();
+            Object endpoint = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            queryBudget.requestFinished(request.getMethod(), endpoint == null ? null : endpoint.toString(), queries);
+        }
+    }
+
+}
@@ -0,0 +1,98 @@
+/**
+ * QueryCounter.java - Counts the SQL statements Hibernate prepares during the current request.
+ * Copyright (C) 2024  Allan DeBoe
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ * ------------------------------------------------------------------------
+ *
+ * Hibernate hands every statement to its StatementInspector right before
+ * preparing it, which is used here to count them (leaving them untouched).
+ * The count is kept per thread, between QueryBudgetFilter's begin() and
+ * end(), so statements outside of requests are not counted. Work that is
+ * done on another thread for the requests waiting on it (i.e. by the user
+ * lookup coalescer or the registration batcher) is counted with count(),
+ * and each of those requests then adds it to its own count. A JDBC
+ * batch counts once, as it is a single prepared statement.
+ *
+ * @see com.focust.api.metrics.queries.QueryBudgetFilter
+ *
+ * @author Allan DeBoe (allan.m.deboe@gmail.com)
+ * @version 0.0.6
+ * @since 0.0.6
+ */
+package com.focust.api.metrics.queries;
+
+///////////////////////////////////////////////////////////////////////////
+
+// Hibernate //
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+///////////////////////////////////////////////////////////////////////////
+
+public class QueryCounter implements StatementInspector {
+
+    private static final ThreadLocal<int[]> COUNT = new ThreadLocal<>();
+
+    @Override
+    public String inspect(String sql) {
+        int[] count = COUNT.get();
+        if (count != null) count[0]++;
+        return sql;
+    }
+
+    /**
+     * Counts the statements prepared by work done on behalf of other
+     * requests, separately from the count of this thread (if any).
+     *
+     * @param work the work to count the statements of
+     * @return the number of statements it prepared
+     */
+    public static int count(Runnable work) {
+        int[] outerCount = COUNT.get();
+        int[] count = new int[1];
+        COUNT.set(count);
+        try {
+            work.run();
+            return count[0];
+        }
+        finally {
+            if (outerCount == null) COUNT.remove();
+            else COUNT.set(outerCount);
+        }
+    }
+
+    /**
+     * @param statements the number of statements prepared on another thread for the request of this thread
+     */
+    public static void add(int statements) {
+        int[] count = COUNT.get();
+        if (count != null) count[0] += statements;
+    }
+
+    ///////////////////////////////////////////////////////////////////////////
+
+    static void begin() {
+        COUNT.set(new int[1]);
+    }
+
+    /**
+     * @return the number of statements prepared since begin() on this thread
+     */
+    static int end() {
+        int[] count = COUNT.get();
+        COUNT.remove();
+        return count == null ? 0 : count[0];
+    }
+
+}
@@ -17,7 +17,7 @@
  * ------------------------------------------------------------------------
  *
  * @author Allan DeBoe (allan.m.deboe@gmail.com)
- * @version 0.0.4
+ * @version 0.0.6
  * @since 0.0.2
  */
 package com.focust.api.security;
@@ -25,13 +25,21 @@ package com.focust.api.security;
 ///////////////////////////////////////////////////////////////////////////
 
 // Focust //
+import com.focust.api.http.limit.ConcurrencyLimitFilter;
+import com.focust.api.http.limit.ConcurrencyLimiter;
 import com.focust.api.security.jwt.JwtAuthenticationFilter;
 
 // Spring Framework //
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.autoconfigure.security.servlet.EndpointRequest;
+import org.springframework.boot.actuate.health.HealthEndpoint;
+import org.springframework.boot.actuate.metrics.export.prometheus.PrometheusScrapeEndpoint;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.core.env.Environment;
+import org.springframework.http.HttpMethod;
+import org.springframework.security.config.Customizer;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
@@ -56,6 +64,13 @@ public class SecurityConfiguration {
     @Autowired
     private JwtAuthenticationFilter jwtAuthenticationFilter;
 
+    @Autowired
+    private ConcurrencyLimiter concurrencyLimiter;
+
+    // read when starting (not when building), unlike a condition on the limiter's configuration.
+    @Value("${focust.concurrency-limit.enabled:true}")
+    private boolean concurrencyLimitEnabled;
+
     @Bean
     CorsConfigurationSource corsConfigurationSource() {
 
@@ -64,6 +79,7 @@ public class SecurityConfiguration {
         CorsConfiguration configuration = new CorsConfiguration();
         configuration.setAllowedOrigins(Arrays.asList(origin, "https://focust.local"));
         configuration.setAllowedMethods(Arrays.asList("GET","POST"));
+        configuration.setExposedHeaders(Arrays.asList("X-Total-Count", "X-Total-Count-Exact", "Idempotent-Replayed", "Server-Timing"));
 
         UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
         source.registerCorsConfiguration("/**", configuration);
@@ -74,7 +90,24 @@ public class SecurityConfiguration {
     public SecurityFilterChain filterChain(HttpSecurity httpSecurity) throws Exception {
 
         httpSecurity.csrf(AbstractHttpConfigurer::disable);
-        httpSecurity.authorizeHttpRequests(request -> request.anyRequest().permitAll());
+        httpSecurity.authorizeHttpRequests(request -> request
+                .requestMatchers(HttpMethod.POST, "/users/import").hasRole("ADMIN")
+                .requestMatchers(HttpMethod.DELETE, "/users/**").hasRole("ADMIN")
+                .requestMatchers(HttpMethod.GET, "/users/inactive").hasRole("ADMIN")
+                .requestMatchers("/audit/**").hasRole("ADMIN")
+                .requestMatchers("/stats/**").hasRole("ADMIN")
+                // the management port only serves health checks and metrics scrapes to anyone.
+                .requestMatchers(EndpointRequest.to(HealthEndpoint.class, PrometheusScrapeEndpoint.class)).permitAll()
+                .requestMatchers(EndpointRequest.toAnyEndpoint()).hasRole("ADMIN")
+                .anyRequest().permitAll()
+        );
+
+        // Admin-only endpoints use HTTP Basic with the "spring.security.user" account.
+        httpSecurity.httpBasic(Customizer.withDefaults());
+        // Requests over their concurrency limit are shed before their JWT token is even verified.
+        if (concurrencyLimitEnabled) {
+            httpSecurity.addFilterBefore(new ConcurrencyLimitFilter(concurrencyLimiter), UsernamePasswordAuthenticationFilter.class);
+        }
         httpSecurity.addFilterBefore(jwtAuthenticationFilter, UsernamePasswordAuthenticationFilter.class);
 
         return httpSecurity.build();
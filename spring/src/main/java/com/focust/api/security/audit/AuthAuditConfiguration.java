@@ -0,0 +1,55 @@
+/**
+ * AuthAuditConfiguration.java - Configuration for the authentication audit journal.
+ * Copyright (C) 2024  Allan DeBoe
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ * ------------------------------------------------------------------------
+ *
+ * @see com.focust.api.security.audit.AuthAuditJournal
+ *
+ * @author Allan DeBoe (allan.m.deboe@gmail.com)
+ * @version 0.0.6
+ * @since 0.0.6
+ */
+package com.focust.api.security.audit;
+
+///////////////////////////////////////////////////////////////////////////
+
+// Spring Framework //
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
+
+// Standard Java //
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+
+///////////////////////////////////////////////////////////////////////////
+
+@Configuration
+public class AuthAuditConfiguration {
+
+    @Bean(destroyMethod = "close")
+    public AuthAuditJournal authAuditJournal(
+            @Value("${focust.audit.directory:audit}") Path directory,
+            @Value("${focust.audit.segment-size:16MB}") DataSize segmentSize,
+            @Value("${focust.audit.segment-max-age:PT1H}") Duration segmentMaxAge
+    ) throws IOException {
+        return new AuthAuditJournal(directory, Math.toIntExact(segmentSize.toBytes()), segmentMaxAge, Clock.systemUTC());
+    }
+
+}
@@ -0,0 +1,226 @@
+/**
+ * AuthAuditJournal.java - Append-only journal of authentication events.
+ * Copyright (C) 2024  Allan DeBoe
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ * ------------------------------------------------------------------------
+ *
+ * Every registration, sign in (successful or not), token refresh, and
+ * rejected token is recorded for security audits. Writing each of them
+ * to MySQL would double the writes of the authentication endpoints, so
+ * instead they are appended to memory-mapped files ("segments") in a
+ * directory, which only costs a few memory writes per event; the OS
+ * writes the pages to disk in the background (and "force" makes sure
+ * that it happens at least every second or so).
+ *
+ * Appending never locks: space is reserved in the current segment with
+ * a single atomic add. Only when the current segment is full, or older
+ * than the maximum age, is a lock taken to create the next segment
+ * ("rolling"), which every other writer then moves on to.
+ *
+ * Each time the application starts, a new segment is started, so older
+ * segments are never written to again.
+ *
+ * @see com.focust.api.security.audit.AuthAuditSegment
+ *
+ * @author Allan DeBoe (allan.m.deboe@gmail.com)
+ * @version 0.0.6
+ * @since 0.0.6
+ */
+package com.focust.api.security.audit;
+
+///////////////////////////////////////////////////////////////////////////
+
+// Project Lombok //
+import lombok.extern.slf4j.Slf4j;
+
+// Standard Java //
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+///////////////////////////////////////////////////////////////////////////
+
+@Slf4j
+public class AuthAuditJournal implements AutoCloseable {
+
+    // A writer may reserve space in a segment right before it is rolled and
+    // only finish writing a bit later, so a segment can contain events from
+    // (slightly) after the next segment was created.
+    private static final long ROLL_GRACE_MILLIS = Duration.ofMinutes(1).toMillis();
+
+    private final Path directory;
+    private final int segmentSize;
+    private final long maxSegmentAgeMillis;
+    private final Clock clock;
+
+    private final Object rollLock = new Object();
+    private volatile AuthAuditSegment currentSegment;
+
+    /**
+     * @param directory the directory the segments are stored in (created if needed)
+     * @param segmentSize the size of each segment file, in bytes
+     * @param maxSegmentAge how long a segment is appended to before rolling to the next one
+     * @param clock the clock used to timestamp events
+     * @throws IOException if the directory or the first segment cannot be created.
+     */
+    public AuthAuditJournal(Path directory, int segmentSize, Duration maxSegmentAge, Clock clock) throws IOException {
+        if (segmentSize < AuthAuditSegment.minSegmentSize()) {
+            throw new IllegalArgumentException("segments must be at least " + AuthAuditSegment.minSegmentSize() + " bytes");
+        }
+        this.directory = Files.createDirectories(directory);
+        this.segmentSize = segmentSize;
+        this.maxSegmentAgeMillis = maxSegmentAge.toMillis();
+        this.clock = clock;
+
+        long lastSequence = listSegments().stream().mapToLong(AuthAuditSegment::parseSequence).max().orElse(0);
+        this.currentSegment = AuthAuditSegment.create(this.directory, lastSequence + 1, segmentSize, clock.millis());
+    }
+
+    /**
+     * Appends an event, timestamped with the current time. This never throws,
+     * as failing to audit an event should not fail the request it came from.
+     *
+     * @param type the type of event
+     * @param userId the id of the user, or null if unknown
+     * @param email the email the event is about (if any), truncated to 255 bytes
+     * @param remoteAddress the address the request came from (if known)
+     */
+    public void append(AuthEventType type, Long userId, String email, String remoteAddress) {
+        byte[] emailBytes = encode(email);
+        byte[] remoteAddressBytes = encode(remoteAddress);
+        try {
+            AuthAuditSegment segment = currentSegment;
+            while (true) {
+                long now = Math.max(clock.millis(), segment.getCreatedAtMillis());
+                if (now - segment.getCreatedAtMillis() < maxSegmentAgeMillis
+                        && segment.tryAppend(now, type, userId, emailBytes, remoteAddressBytes)) {
+                    return;
+                }
+                segment = roll(segment);
+            }
+        }
+        catch (UncheckedIOException e) {
+            log.atError().setMessage("Unable to audit event").addKeyValue("type", type).addKeyValue("error", e.getMessage()).log();
+        }
+    }
+
+    /**
+     * Streams the events in the given time range, segment by segment, with
+     * each segment being read directly from its mapped file (and only once
+     * the stream gets to it), so only the events themselves end up on the heap.
+     *
+     * @param from the start of the range (inclusive)
+     * @param to the end of the range (exclusive)
+     * @return the events in the range, in the order they were appended.
+     * @throws IOException if the directory cannot be listed.
+     */
+    public Stream<AuthAuditEvent> read(Instant from, Instant to) throws IOException {
+        long fromMillis = from.toEpochMilli();
+        long toMillis = to.toEpochMilli();
+
+        List<Path> segmentPaths = listSegments();
+        List<Path> candidates = new ArrayList<>();
+        for (int i = 0; i < segmentPaths.size(); i++) {
+            long createdAtMillis = AuthAuditSegment.readCreatedAtMillis(segmentPaths.get(i));
+            if (createdAtMillis >= toMillis) break;
+
+            // a segment is skipped once the next one was created (well) before the range.
+            boolean hasNext = (i + 1 < segmentPaths.size());
+            if (hasNext && AuthAuditSegment.readCreatedAtMillis(segmentPaths.get(i + 1)) + ROLL_GRACE_MILLIS < fromMillis) continue;
+            candidates.add(segmentPaths.get(i));
+        }
+
+        return candidates.stream()
+                .flatMap(AuthAuditJournal::readSegment)
+                .filter(event -> {
+                    long timestamp = event.getTimestamp().toEpochMilli();
+                    return timestamp >= fromMillis && timestamp < toMillis;
+                });
+    }
+
+    /**
+     * Writes the events appended so far to disk.
+     */
+    public void force() {
+        currentSegment.force();
+    }
+
+    @Override
+    public void close() {
+        force();
+    }
+
+    ///////////////////////////////////////////////////////////////////////////
+
+    private AuthAuditSegment roll(AuthAuditSegment full) {
+        synchronized (rollLock) {
+            AuthAuditSegment segment = currentSegment;
+            if (segment != full) return segment;  // already rolled by another writer.
+            try {
+                AuthAuditSegment next = AuthAuditSegment.create(directory, full.getSequence() + 1, segmentSize, clock.millis());
+                currentSegment = next;
+                full.force();
+                return next;
+            }
+            catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    private List<Path> listSegments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> path.getFileName().toString().endsWith(AuthAuditSegment.FILE_EXTENSION))
+                    .sorted(Comparator.comparingLong(AuthAuditSegment::parseSequence))
+                    .toList();
+        }
+    }
+
+    private static Stream<AuthAuditEvent> readSegment(Path path) {
+        try {
+            AuthAuditSegment segment = AuthAuditSegment.open(path);
+            return StreamSupport.stream(Spliterators.spliteratorUnknownSize(segment.iterator(), Spliterator.ORDERED | Spliterator.NONNULL), false);
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static byte[] encode(String value) {
+        if (value == null) return new byte[0];
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length <= AuthAuditSegment.MAX_STRING_BYTES) return bytes;
+
+        // truncated on a character boundary, so the result is still valid UTF-8.
+        int length = AuthAuditSegment.MAX_STRING_BYTES;
+        while ((bytes[length] & 0xC0) == 0x80) length--;
+        byte[] truncated = new byte[length];
+        System.arraycopy(bytes, 0, truncated, 0, length);
+        return truncated;
+    }
+
+}
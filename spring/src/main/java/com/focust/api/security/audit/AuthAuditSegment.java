@@ -0,0 +1,254 @@
+/**
+ * AuthAuditSegment.java - A single memory-mapped file of the authentication audit journal.
+ * Copyright (C) 2024  Allan DeBoe
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ * ------------------------------------------------------------------------
+ *
+ * A segment is a file of a fixed size, created up front (and so filled
+ * with zeroes), starting with a header:
+ *
+ *   int magic | int version | long creation time (epoch millis)
+ *
+ * followed by records, each aligned to 8 bytes:
+ *
+ *   int length | long timestamp | byte type | long user id (or -1)
+ *   | short email length | email (UTF-8) | short address length | address (UTF-8)
+ *
+ * Writers first reserve space by atomically moving the write position,
+ * so any number of threads can append at the same time without locking,
+ * each into its own part of the file. The length of a record is written
+ * last (with release semantics), so a reader that sees a non-zero length
+ * (with acquire semantics) is guaranteed to see the whole record, and a
+ * zero length means that there are no further (complete) records.
+ *
+ * @see com.focust.api.security.audit.AuthAuditJournal
+ *
+ * @author Allan DeBoe (allan.m.deboe@gmail.com)
+ * @version 0.0.6
+ * @since 0.0.6
+ */
+package com.focust.api.security.audit;
+
+///////////////////////////////////////////////////////////////////////////
+
+// Project Lombok //
+import lombok.Getter;
+
+// Standard Java //
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+///////////////////////////////////////////////////////////////////////////
+
+final class AuthAuditSegment {
+
+    static final String FILE_EXTENSION = ".journal";
+    static final int MAX_STRING_BYTES = 255;
+
+    private static final int MAGIC = 0x46415544; // "FAUD"
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 16;
+    private static final int ALIGNMENT = 8;
+    private static final long NO_USER = -1;
+
+    // length + timestamp + type + user id + both string lengths.
+    private static final int FIXED_RECORD_SIZE = 4 + 8 + 1 + 8 + 2 + 2;
+
+    private static final VarHandle LENGTH = MethodHandles.byteBufferViewVarHandle(int[].class, ByteOrder.LITTLE_ENDIAN);
+
+    @Getter private final Path path;
+    @Getter private final long sequence;
+    @Getter private final long createdAtMillis;
+    private final MappedByteBuffer buffer;
+    private final int capacity;
+
+    // the offset of the next reservation; may grow past the capacity once the segment is full.
+    private final AtomicInteger writePosition = new AtomicInteger(HEADER_SIZE);
+
+    private AuthAuditSegment(Path path, long sequence, long createdAtMillis, MappedByteBuffer buffer) {
+        this.path = path;
+        this.sequence = sequence;
+        this.createdAtMillis = createdAtMillis;
+        this.buffer = buffer;
+        this.capacity = buffer.capacity();
+    }
+
+    /**
+     * @param directory the directory of the journal
+     * @param sequence the number of the segment, which is also its file name
+     * @param size the size of the segment file, in bytes
+     * @param createdAtMillis the current time
+     * @return a new, empty segment, open for appending.
+     * @throws IOException if the file cannot be created or mapped.
+     */
+    static AuthAuditSegment create(Path directory, long sequence, int size, long createdAtMillis) throws IOException {
+        Path path = directory.resolve(fileName(sequence));
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+            buffer.putInt(0, MAGIC);
+            buffer.putInt(4, VERSION);
+            buffer.putLong(8, createdAtMillis);
+            return new AuthAuditSegment(path, sequence, createdAtMillis, buffer);
+        }
+    }
+
+    /**
+     * @param path the path of an existing segment file
+     * @return the segment, mapped read-only.
+     * @throws IOException if the file cannot be read or is not a segment.
+     */
+    static AuthAuditSegment open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+            if (buffer.capacity() < HEADER_SIZE || buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+                throw new IOException("Not an authentication audit segment: " + path);
+            }
+            return new AuthAuditSegment(path, parseSequence(path), buffer.getLong(8), buffer);
+        }
+    }
+
+    /**
+     * Only reads the header, so that segments outside a time range can be skipped cheaply.
+     *
+     * @param path the path of an existing segment file
+     * @return the time the segment was created at (in epoch millis).
+     * @throws IOException if the file cannot be read or is not a segment.
+     */
+    static long readCreatedAtMillis(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            while (header.hasRemaining() && channel.read(header) >= 0);
+            if (header.hasRemaining() || header.getInt(0) != MAGIC || header.getInt(4) != VERSION) {
+                throw new IOException("Not an authentication audit segment: " + path);
+            }
+            return header.getLong(8);
+        }
+    }
+
+    static String fileName(long sequence) {
+        return String.format("%012d", sequence) + FILE_EXTENSION;
+    }
+
+    static long parseSequence(Path path) {
+        String fileName = path.getFileName().toString();
+        return Long.parseLong(fileName.substring(0, fileName.length() - FILE_EXTENSION.length()));
+    }
+
+    /**
+     * @return false if the segment is full, in which case nothing has been written.
+     */
+    boolean tryAppend(long timestampMillis, AuthEventType type, Long userId, byte[] email, byte[] remoteAddress) {
+        int length = align(FIXED_RECORD_SIZE + email.length + remoteAddress.length);
+
+        // checked first, so that threads don't keep moving the position of a full segment.
+        if (writePosition.get() > capacity - length) return false;
+        int position = writePosition.getAndAdd(length);
+        if (position > capacity - length) return false;
+
+        int offset = position + 4;
+        buffer.putLong(offset, timestampMillis);
+        buffer.put(offset + 8, type.getCode());
+        buffer.putLong(offset + 9, (userId == null) ? NO_USER : userId);
+        buffer.putShort(offset + 17, (short)email.length);
+        buffer.put(offset + 19, email);
+        buffer.putShort(offset + 19 + email.length, (short)remoteAddress.length);
+        buffer.put(offset + 21 + email.length, remoteAddress);
+
+        // publishes the record; everything written above is visible to readers that see this length.
+        LENGTH.setRelease(buffer, position, length);
+        return true;
+    }
+
+    /**
+     * Writes the appended records to disk.
+     */
+    void force() {
+        buffer.force();
+    }
+
+    /**
+     * Records are decoded one by one, directly from the mapped file,
+     * so reading never copies the segment onto the heap.
+     *
+     * @return the (complete) records of the segment, in the order they were reserved.
+     */
+    Iterator<AuthAuditEvent> iterator() {
+        return new Iterator<>() {
+            private int position = HEADER_SIZE;
+            private int nextLength = -1;
+
+            @Override
+            public boolean hasNext() {
+                if (nextLength < 0) {
+                    nextLength = (position <= capacity - FIXED_RECORD_SIZE) ? (int)LENGTH.getAcquire(buffer, position) : 0;
+                }
+                return nextLength > 0;
+            }
+
+            @Override
+            public AuthAuditEvent next() {
+                if (!hasNext()) throw new NoSuchElementException();
+                AuthAuditEvent event = decode(position + 4);
+                position += nextLength;
+                nextLength = -1;
+                return event;
+            }
+        };
+    }
+
+    ///////////////////////////////////////////////////////////////////////////
+
+    private AuthAuditEvent decode(int offset) {
+        long timestampMillis = buffer.getLong(offset);
+        AuthEventType type = AuthEventType.fromCode(buffer.get(offset + 8));
+        long userId = buffer.getLong(offset + 9);
+        int emailLength = buffer.getShort(offset + 17);
+        String email = decodeString(offset + 19, emailLength);
+        int remoteAddressLength = buffer.getShort(offset + 19 + emailLength);
+        String remoteAddress = decodeString(offset + 21 + emailLength, remoteAddressLength);
+        return new AuthAuditEvent(Instant.ofEpochMilli(timestampMillis), type, (userId == NO_USER) ? null : userId, email, remoteAddress);
+    }
+
+    private String decodeString(int offset, int length) {
+        if (length == 0) return null;
+        byte[] bytes = new byte[length];
+        buffer.get(offset, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static int align(int length) {
+        return (length + ALIGNMENT - 1) & -ALIGNMENT;
+    }
+
+    // the size of the smallest segment that can hold at least one record.
+    static int minSegmentSize() {
+        return HEADER_SIZE + align(FIXED_RECORD_SIZE + 2 * MAX_STRING_BYTES);
+    }
+
+}
@@ -0,0 +1,64 @@
+/**
+ * AuthAuditor.java - Records authentication events of HTTP requests.
+ * Copyright (C) 2024  Allan DeBoe
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ * ------------------------------------------------------------------------
+ *
+ * This is what the AuthenticationController and the JwtAuthenticationFilter
+ * use to audit events, so that they don't need to know about the journal,
+ * and it is also what makes sure that the journal is regularly forced to disk.
+ *
+ * @see com.focust.api.security.audit.AuthAuditJournal
+ *
+ * @author Allan DeBoe (allan.m.deboe@gmail.com)
+ * @version 0.0.6
+ * @since 0.0.6
+ */
+package com.focust.api.security.audit;
+
+///////////////////////////////////////////////////////////////////////////
+
+// Jakarta Servlets //
+import jakarta.servlet.http.HttpServletRequest;
+
+// Spring Framework //
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+///////////////////////////////////////////////////////////////////////////
+
+@Component
+public class AuthAuditor {
+
+    @Autowired private AuthAuditJournal authAuditJournal;
+
+    /**
+     * @param type the type of event
+     * @param userId the id of the user, or null if unknown
+     * @param email the email the event is about (if any)
+     * @param request the request the event came from
+     */
+    public void record(AuthEventType type, Long userId, String email, HttpServletRequest request) {
+        authAuditJournal.append(type, userId, email, request.getRemoteAddr());
+    }
+
+    // The OS writes the mapped pages to disk on its own, but this bounds how many events a crash can lose.
+    @Scheduled(fixedDelayString = "${focust.audit.force-interval-ms:1000}")
+    void force() {
+        authAuditJournal.force();
+    }
+
+}
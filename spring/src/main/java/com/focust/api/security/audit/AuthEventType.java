@@ -0,0 +1,63 @@
+/**
+ * AuthEventType.java - The kinds of events recorded in the authentication audit journal.
+ * Copyright (C) 2024  Allan DeBoe
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ * ------------------------------------------------------------------------
+ *
+ * Each type is stored as a single byte (its code) in the journal, so the
+ * codes of existing types must never change; new types get new codes.
+ *
+ * @see com.focust.api.security.audit.AuthAuditJournal
+ *
+ * @author Allan DeBoe (allan.m.deboe@gmail.com)
+ * @version 0.0.6
+ * @since 0.0.6
+ */
+package com.focust.api.security.audit;
+
+///////////////////////////////////////////////////////////////////////////
+
+// Project Lombok //
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+///////////////////////////////////////////////////////////////////////////
+
+@Getter
+@RequiredArgsConstructor
+public enum AuthEventType {
+
+    REGISTER((byte)1),
+    REGISTER_CONFLICT((byte)2),     // tried to register an email that is already taken
+    LOGIN_SUCCESS((byte)3),
+    LOGIN_FAILURE((byte)4),         // unknown email or incorrect password
+    REFRESH((byte)5),
+    TOKEN_REJECTED((byte)6);        // an invalid access or refresh token was sent
+
+    private final byte code;
+
+    /**
+     * @param code the code of the type, as stored in the journal
+     * @return the type with the given code
+     * @throws IllegalArgumentException if no type has the given code.
+     */
+    public static AuthEventType fromCode(byte code) throws IllegalArgumentException {
+        for (AuthEventType type : AuthEventType.values()) {
+            if (type.code == code) return type;
+        }
+        throw new IllegalArgumentException("Unknown authentication event type: " + code);
+    }
+
+}
@@ -25,7 +25,7 @@
  * @see com.focust.api.security.bcrypt.BCryptHashType
  *
  * @author Allan DeBoe (allan.m.deboe@gmail.com)
- * @version 0.0.3
+ * @version 0.0.6
  * @since 0.0.3
  */
 package com.focust.api.security.bcrypt;
@@ -72,6 +72,13 @@ public final class BCryptHash implements Serializable {
 
     }
 
+    /**
+     * @return the cost (log2 of the number of rounds) the hash was made with.
+     */
+    public int getStrength() {
+        return this.strength;
+    }
+
     /**
      * @return the bCrypt hash string.
      */
@@ -0,0 +1,91 @@
+/**
+ * RequestFingerprint.java - Keyed fingerprints of (sensitive) request contents.
+ * Copyright (C) 2024  Allan DeBoe
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ * ------------------------------------------------------------------------
+ *
+ * Sometimes two requests need to be compared (i.e. "is this the same
+ * registration, with the same password?") without keeping the password
+ * itself around, and bcrypt is far too slow for that. Instead, they are
+ * compared by their HMAC-SHA256, with a random key that only lives as
+ * long as the application, so the fingerprints are useless outside of it.
+ *
+ * @author Allan DeBoe (allan.m.deboe@gmail.com)
+ * @version 0.0.6
+ * @since 0.0.6
+ */
+package com.focust.api.security.fingerprint;
+
+///////////////////////////////////////////////////////////////////////////
+
+// Standard Java //
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+
+///////////////////////////////////////////////////////////////////////////
+
+public final class RequestFingerprint {
+
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final SecretKeySpec KEY;
+
+    static {
+        byte[] key = new byte[32];
+        new SecureRandom().nextBytes(key);
+        KEY = new SecretKeySpec(key, ALGORITHM);
+    }
+
+    private final byte[] digest;
+
+    private RequestFingerprint(byte[] digest) {
+        this.digest = digest;
+    }
+
+    /**
+     * @param parts the contents of the request (null parts are allowed)
+     * @return the fingerprint of the parts, in order.
+     */
+    public static RequestFingerprint of(String... parts) {
+        try {
+            // "Mac" is not thread-safe, and creating one is cheap compared to sharing one.
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(KEY);
+            for (String part : parts) {
+                // each part is prefixed by its length, so that ("ab", "c") and ("a", "bc") differ.
+                byte[] bytes = (part == null) ? new byte[0] : part.getBytes(StandardCharsets.UTF_8);
+                mac.update(new byte[] { (byte)(bytes.length >>> 24), (byte)(bytes.length >>> 16), (byte)(bytes.length >>> 8), (byte)bytes.length });
+                mac.update(bytes);
+            }
+            return new RequestFingerprint(mac.doFinal());
+        }
+
+        // HMAC-SHA256 is required to be supported by every Java platform.
+        catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Compared in constant time, so that timing does not reveal how much of them matches.
+     */
+    public boolean matches(RequestFingerprint other) {
+        return MessageDigest.isEqual(digest, other.digest);
+    }
+
+}
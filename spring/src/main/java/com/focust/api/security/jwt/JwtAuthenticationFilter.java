@@ -17,7 +17,7 @@
  * ------------------------------------------------------------------------
  *
  * @author Allan DeBoe (allan.m.deboe@gmail.com)
- * @version 0.0.4
+ * @version 0.0.6
  * @since 0.0.3
  */
 
@@ -27,6 +27,10 @@ package com.focust.api.security.jwt;
 
 // Focust //
 import com.focust.api.exceptions.UserNotFoundException;
+import com.focust.api.logging.SampledLogFilter;
+import com.focust.api.metrics.ServerTiming;
+import com.focust.api.security.audit.AuthAuditor;
+import com.focust.api.security.audit.AuthEventType;
 import com.focust.api.users.UserJwtDetails;
 import com.focust.api.users.UserService;
 
@@ -38,6 +42,7 @@ import jakarta.servlet.http.HttpServletResponse;
 
 // Project Lombok //
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 
 // Spring Framework //
 import org.springframework.beans.factory.annotation.Autowired;
@@ -55,10 +60,12 @@ import java.util.Optional;
 
 @Component
 @RequiredArgsConstructor
+@Slf4j
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     @Autowired private JwtService jwtService;
     @Autowired private UserService userService;
+    @Autowired private AuthAuditor authAuditor;
 
     @Override
     protected void doFilterInternal(@NonNull HttpServletRequest request, @NonNull HttpServletResponse response, @NonNull FilterChain filterChain) throws ServletException, IOException {
@@ -73,6 +80,7 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         Optional<String> jwtToken = authorizationHeader.map(h -> h.substring(7));
 
         if (jwtToken.filter(bearer -> !bearer.isBlank()).isEmpty()) {
+            authAuditor.record(AuthEventType.TOKEN_REJECTED, null, null, request);
             response.sendError(
                     HttpServletResponse.SC_BAD_REQUEST,
                     "Received JWT Token with Empty Bearer Header"
@@ -81,10 +89,13 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             return;
         }
 
+        long authStart = System.nanoTime();
         try {
             String email = jwtService.getEmail(jwtToken.get()).orElseThrow(Exception::new);
             UserJwtDetails jwtDetails = userService.getUserDetails(email);
-            System.out.println("(JwtAuthenticationFilter - doFilterInternal) USER_ID: " + jwtDetails.getId() + ", USER_EMAIL: \"" + jwtDetails.getEmail() + "\"");
+            // not the fluent API, since its events skip the turbo filters, and so would never be sampled.
+            log.debug(SampledLogFilter.SAMPLED, "Authenticated request userId={}", jwtDetails.getId());
+            userService.recordActivity(jwtDetails.getId());
         }
 
         // "NoSuchAlgorithmException" and "InvalidKeySpecException" are thrown as a
@@ -95,25 +106,29 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         // statement here to ensure that the server can still run while also making sure
         // that someone cannot get unauthorized access to user data or functionality.
         catch (NoSuchAlgorithmException | InvalidKeySpecException e) {
-            e.printStackTrace();
+            log.error("Unable to load the JWT RSA keys", e);
             response.sendError(
                     HttpServletResponse.SC_INTERNAL_SERVER_ERROR,
                     "Something went horribly wrong when validating received JWT Token"
             );
         }
         catch (UserNotFoundException e) {
+            authAuditor.record(AuthEventType.TOKEN_REJECTED, null, null, request);
             response.sendError(
                     HttpServletResponse.SC_BAD_REQUEST,
                     "Unable to find existing user with the email from received JWT Token"
             );
         }
         catch (Exception e) {
+            authAuditor.record(AuthEventType.TOKEN_REJECTED, null, null, request);
             response.sendError(
                     HttpServletResponse.SC_BAD_REQUEST,
                     "Received JWT Token is Invalid"
             );
         }
 
+        // Includes the "jwt-verify" and "db" time spent authenticating the token.
+        ServerTiming.record(ServerTiming.Phase.AUTH, authStart);
         filterChain.doFilter(request, response);
     }
 
@@ -17,7 +17,7 @@
  * ------------------------------------------------------------------------
  *
  * @author Allan DeBoe (allan.m.deboe@gmail.com)
- * @version 0.0.5
+ * @version 0.0.6
  * @since 0.0.3
  */
 package com.focust.api.security.jwt;
@@ -34,8 +34,17 @@ import com.auth0.jwt.exceptions.JWTVerificationException;
 // Focust //
 import com.auth0.jwt.interfaces.Claim;
 import com.auth0.jwt.interfaces.DecodedJWT;
+import com.focust.api.metrics.AuthMetrics;
+import com.focust.api.metrics.jfr.JwtSignEvent;
+import com.focust.api.metrics.jfr.JwtVerifyEvent;
 import com.focust.api.users.UserJwtDetails;
 
+// Jakarta //
+import jakarta.annotation.PostConstruct;
+
+// Project Lombok //
+import lombok.extern.slf4j.Slf4j;
+
 // Spring Framework //
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.core.env.Environment;
@@ -43,9 +52,8 @@ import org.springframework.core.io.ResourceLoader;
 import org.springframework.stereotype.Service;
 
 // Standard Java //
-import java.io.File;
 import java.io.IOException;
-import java.nio.file.Files;
+import java.io.InputStream;
 import java.security.KeyFactory;
 import java.security.NoSuchAlgorithmException;
 import java.security.interfaces.RSAPrivateKey;
@@ -61,9 +69,11 @@ import java.util.Optional;
 ///////////////////////////////////////////////////////////////////////////
 
 @Service
+@Slf4j
 public class JwtService {
 
     private final static String issuer = "focust";
+    private final static String algorithmName = "RS256"; // the JWT name of Algorithm.RSA256
     private final static long accessTokenExpirationTime = 5 * 60;
     public final static long refreshTokenExpirationTime = 7 * 24 * 60 * 60;
 
@@ -73,12 +83,37 @@ public class JwtService {
     @Autowired
     private ResourceLoader resourceLoader;
 
+    @Autowired
+    private AuthMetrics authMetrics;
+
+    private volatile Algorithm algorithm;
+    private volatile JWTVerifier verifier;
+
+    /**
+     * Reads the keys while the application starts, so that the first sign in
+     * does not have to (and so that a CDS training run, which stops right
+     * after the beans are created, also archives the classes used for it).
+     * If they cannot be read, they are read again when first needed.
+     */
+    @PostConstruct
+    void loadKeys() {
+        try {
+            this.getAlgorithm();
+        }
+        catch (IOException | NoSuchAlgorithmException | InvalidKeySpecException | RuntimeException e) {
+            log.atWarn().setMessage("Unable to load the JWT RSA keys at startup").addKeyValue("error", e.getMessage()).log();
+        }
+    }
+
     /**
      * @param userDetails a UserJWTDetails object containing relevant details of the user
      * @return An Optional<String> object that contains either nothing or the newly token token
      * @throws NoSuchAlgorithmException or InvalidKeySpecException if JWTService incorrectly extracts the Public and/or Private Keys.
      */
     public final Optional<String> generateAccessToken(UserJwtDetails userDetails) throws NoSuchAlgorithmException, InvalidKeySpecException {
+        JwtSignEvent event = new JwtSignEvent();
+        event.begin();
+        long start = System.nanoTime();
         try {
             Instant currentTime = Instant.now();
             return Optional.ofNullable(JWT.create()
@@ -86,15 +121,22 @@ public class JwtService {
                     .withClaim("email", userDetails.getEmail())
                     .withExpiresAt(Date.from(currentTime.plusSeconds(accessTokenExpirationTime)))
                     .withIssuedAt(Date.from(currentTime))
-                    .sign(Algorithm.RSA256(this.getPublicKey(), this.getPrivateKey())));
+                    .sign(this.getAlgorithm()));
         }
         catch (JWTCreationException | IOException e) {
-            System.out.println("(JwtService - generateAccessToken) ERROR: \"" + e.getMessage() + "\"");
+            log.atError().setMessage("Unable to sign JWT token").addKeyValue("token", "access").setCause(e).log();
             return Optional.empty();
         }
+        finally {
+            authMetrics.recordJwtSign(start, false);
+            if (!AuthMetrics.isSynthetic()) event.commit(algorithmName, "access");
+        }
     }
 
     public final Optional<String> generateRefreshToken(UserJwtDetails userDetails) throws NoSuchAlgorithmException, InvalidKeySpecException {
+        JwtSignEvent event = new JwtSignEvent();
+        event.begin();
+        long start = System.nanoTime();
         try {
             Instant currentTime = Instant.now();
             return Optional.ofNullable(JWT.create()
@@ -102,12 +144,16 @@ public class JwtService {
                     .withClaim("email", userDetails.getEmail())
                     .withExpiresAt(Date.from(currentTime.plusSeconds(refreshTokenExpirationTime)))
                     .withIssuedAt(Date.from(currentTime))
-                    .sign(Algorithm.RSA256(this.getPublicKey(), this.getPrivateKey())));
+                    .sign(this.getAlgorithm()));
         }
         catch (JWTCreationException | IOException e) {
-            System.out.println("(JwtService - generateAccessToken) ERROR: \"" + e.getMessage() + "\"");
+            log.atError().setMessage("Unable to sign JWT token").addKeyValue("token", "refresh").setCause(e).log();
             return Optional.empty();
         }
+        finally {
+            authMetrics.recordJwtSign(start, true);
+            if (!AuthMetrics.isSynthetic()) event.commit(algorithmName, "refresh");
+        }
     }
 
     /**
@@ -122,13 +168,14 @@ public class JwtService {
             DecodedJWT validatedToken = this.getValidatedToken(jwtToken);
             Optional<Claim> emailClaim = Optional.ofNullable(validatedToken.getClaim("email"));
             if (emailClaim.isEmpty()) {
-                System.out.println("(JwtService - getEmail) Unable to get email from token.");
+                log.debug("JWT token has no email claim");
                 return Optional.empty();
             }
             return emailClaim.map(Claim::asString);
         }
         catch (JWTVerificationException | IOException e) {
-            System.out.println("(JwtService - getEmail) ERROR: \"" + e.getMessage() + "\"");
+            // Invalid tokens are sent by clients (i.e. expired ones), so they are not errors of the server.
+            log.atDebug().setMessage("Rejected JWT token").addKeyValue("error", e.getMessage()).log();
             return Optional.empty();
         }
     }
@@ -152,22 +199,57 @@ public class JwtService {
     ///////////////////////////////////////////////////////////////////////////
 
     private DecodedJWT getValidatedToken(String jwtToken) throws IOException, JWTVerificationException, NoSuchAlgorithmException, InvalidKeySpecException {
-        JWTVerifier verifier = JWT.require(Algorithm.RSA256(this.getPublicKey(), this.getPrivateKey()))
-                .withIssuer(JwtService.issuer)
-                .build();
-        return verifier.verify(jwtToken.replace("Bearer ", ""));
+        JwtVerifyEvent event = new JwtVerifyEvent();
+        event.begin();
+        long start = System.nanoTime();
+        boolean valid = false;
+        try {
+            DecodedJWT token = this.getVerifier().verify(jwtToken.replace("Bearer ", ""));
+            valid = true;
+            return token;
+        }
+        finally {
+            authMetrics.recordJwtVerify(start, valid);
+            if (!AuthMetrics.isSynthetic()) event.commit(algorithmName, valid);
+        }
     }
 
+    // The keys are only read (and parsed) once; both the algorithm and the verifier are thread-safe.
+    private Algorithm getAlgorithm() throws IOException, NoSuchAlgorithmException, InvalidKeySpecException {
+        Algorithm algorithm = this.algorithm;
+        if (algorithm == null) {
+            synchronized (this) {
+                if (this.algorithm == null) {
+                    this.algorithm = Algorithm.RSA256(this.getPublicKey(), this.getPrivateKey());
+                    this.verifier = JWT.require(this.algorithm).withIssuer(JwtService.issuer).build();
+                }
+                algorithm = this.algorithm;
+            }
+        }
+        return algorithm;
+    }
+
+    private JWTVerifier getVerifier() throws IOException, NoSuchAlgorithmException, InvalidKeySpecException {
+        this.getAlgorithm();
+        return this.verifier;
+    }
+
+    // Read through an InputStream rather than a File, as the keys are packaged
+    // inside the jar (see the "cds" profile) rather than in "target/classes".
     private RSAPublicKey getPublicKey() throws IOException, NoSuchAlgorithmException, InvalidKeySpecException {
-        File public_key_file = this.resourceLoader.getResource(Objects.requireNonNull(environment.getProperty("jwt.rsa.public-key"))).getFile();
-        byte[] decoded_public_key =  Files.readAllBytes(public_key_file.toPath());
+        byte[] decoded_public_key = readKey("jwt.rsa.public-key");
         return (RSAPublicKey) KeyFactory.getInstance("RSA").generatePublic(new X509EncodedKeySpec(decoded_public_key));
     }
 
     private RSAPrivateKey getPrivateKey() throws IOException, NoSuchAlgorithmException, InvalidKeySpecException {
-        File private_key_file = this.resourceLoader.getResource(Objects.requireNonNull(environment.getProperty("jwt.rsa.private-key"))).getFile();
-        byte[] decoded_private_key = Files.readAllBytes(private_key_file.toPath());
+        byte[] decoded_private_key = readKey("jwt.rsa.private-key");
         return (RSAPrivateKey) KeyFactory.getInstance("RSA").generatePrivate(new PKCS8EncodedKeySpec(decoded_private_key));
     }
 
+    private byte[] readKey(String property) throws IOException {
+        try (InputStream key = this.resourceLoader.getResource(Objects.requireNonNull(environment.getProperty(property))).getInputStream()) {
+            return key.readAllBytes();
+        }
+    }
+
 }
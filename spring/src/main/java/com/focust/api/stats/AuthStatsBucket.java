@@ -0,0 +1,72 @@
+/**
+ * AuthStatsBucket.java - Model representing the "auth_stats_hourly" table.
+ * Copyright (C) 2024  Allan DeBoe
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ * ------------------------------------------------------------------------
+ *
+ * One row per hour (UTC) with the number of registrations and logins in
+ * that hour, which is all the stats ever need to read; daily stats simply
+ * add up 24 rows, instead of going through every user.
+ *
+ * Rows are only ever written by the AuthStatsService (with an "upsert"),
+ * so this entity only exists to have Hibernate create the table.
+ *
+ * @see com.focust.api.stats.AuthStatsService
+ *
+ * @author Allan DeBoe (allan.m.deboe@gmail.com)
+ * @version 0.0.6
+ * @since 0.0.6
+ */
+package com.focust.api.stats;
+
+///////////////////////////////////////////////////////////////////////////
+
+// Jakarta & Hibernate //
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+// Project Lombok //
+import lombok.AccessLevel;
+import lombok.Getter;
+
+///////////////////////////////////////////////////////////////////////////
+
+@Entity
+@Table(name = AuthStatsBucket.TABLE_NAME)
+class AuthStatsBucket {
+
+    static final String TABLE_NAME = "auth_stats_hourly";
+
+    /**
+     * Hours are stored as the number of hours since the epoch, which keeps
+     * buckets independent of the time zones of both MySQL and the JVM.
+     *
+     * @return the hour of the bucket (hours since 1970-01-01T00:00Z)
+     */
+    @Id
+    @Column(name = "bucket_hour")
+    @Getter(AccessLevel.PROTECTED) private Long bucketHour;
+
+    @Column(name = "registrations", nullable = false)
+    @Getter(AccessLevel.PROTECTED) private long registrations;
+
+    @Column(name = "logins", nullable = false)
+    @Getter(AccessLevel.PROTECTED) private long logins;
+
+    protected AuthStatsBucket() { }
+
+}
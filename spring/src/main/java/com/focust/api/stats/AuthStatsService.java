@@ -0,0 +1,218 @@
+/**
+ * AuthStatsService.java - Service keeping track of registrations and logins over time.
+ * Copyright (C) 2024  Allan DeBoe
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ * ------------------------------------------------------------------------
+ *
+ * Counting registrations per hour with a "GROUP BY" over the "users" table
+ * means going through every user each time a dashboard is refreshed (and
+ * logins aren't even stored there). Instead, registrations and logins are
+ * counted in memory as they happen, per hour, and the counts are added to
+ * the "auth_stats_hourly" table every few seconds. Reading stats then only
+ * touches one row per hour in the requested range.
+ *
+ * @see com.focust.api.stats.AuthStatsBucket
+ *
+ * @author Allan DeBoe (allan.m.deboe@gmail.com)
+ * @version 0.0.6
+ * @since 0.0.6
+ */
+package com.focust.api.stats;
+
+///////////////////////////////////////////////////////////////////////////
+
+// Focust //
+import com.focust.api.dto.responses.AuthStatsResponse;
+
+// Jakarta //
+import jakarta.annotation.PreDestroy;
+
+// Project Lombok //
+import lombok.extern.slf4j.Slf4j;
+
+// Spring Framework //
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+// Standard Java //
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+///////////////////////////////////////////////////////////////////////////
+
+@Service
+@Slf4j
+public class AuthStatsService {
+
+    private static final long SECONDS_PER_HOUR = Duration.ofHours(1).toSeconds();
+
+    // Buckets are only removed from memory once they are this many hours old,
+    // so that a request that started just before the hour changed can still
+    // safely count towards the previous hour.
+    private static final long BUCKET_RETENTION_HOURS = 2;
+
+    @Autowired private JdbcTemplate jdbcTemplate;
+    @Autowired private TransactionTemplate transactionTemplate;
+
+    // the counts that have not been written yet, by hour (since the epoch).
+    private final Map<Long, Counts> pendingCounts = new ConcurrentHashMap<>();
+
+    // flushing and reading both look at the pending counts and the table, which must not be done halfway through a flush.
+    private final Object flushLock = new Object();
+
+    public final void recordRegistration() {
+        counts(currentHour()).registrations.increment();
+    }
+
+    public final void recordLogin() {
+        counts(currentHour()).logins.increment();
+    }
+
+    /**
+     * Adds the counts since the last flush to the "auth_stats_hourly" table.
+     */
+    @Scheduled(fixedDelayString = "${focust.stats.flush-interval-ms:10000}")
+    public final void flush() {
+        synchronized (flushLock) {
+            long currentHour = currentHour();
+            List<Object[]> rows = new ArrayList<>();
+            for (Map.Entry<Long, Counts> entry : pendingCounts.entrySet()) {
+                long hour = entry.getKey();
+                Counts counts = entry.getValue();
+
+                // "sumThenReset" never loses an increment; any that happen while
+                // resetting are either part of this sum or left for the next flush.
+                long registrations = counts.registrations.sumThenReset();
+                long logins = counts.logins.sumThenReset();
+                if (registrations != 0 || logins != 0) {
+                    rows.add(new Object[] { hour, registrations, logins });
+                }
+                if (hour < currentHour - BUCKET_RETENTION_HOURS) {
+                    pendingCounts.remove(hour);
+                }
+            }
+            if (rows.isEmpty()) return;
+
+            // in a single transaction, so that a batch failing partway does not leave some of its rows written.
+            try {
+                transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(
+                        "INSERT INTO " + AuthStatsBucket.TABLE_NAME + " (bucket_hour, registrations, logins) VALUES (?, ?, ?) AS new "
+                                + "ON DUPLICATE KEY UPDATE registrations = " + AuthStatsBucket.TABLE_NAME + ".registrations + new.registrations, "
+                                + "logins = " + AuthStatsBucket.TABLE_NAME + ".logins + new.logins",
+                        rows
+                ));
+            }
+
+            // nothing was written, so the counts are put back to be written by the next flush instead.
+            catch (RuntimeException e) {
+                log.atError().setMessage("Unable to write auth stats").addKeyValue("hours", rows.size()).setCause(e).log();
+                for (Object[] row : rows) {
+                    Counts counts = counts((long)row[0]);
+                    counts.registrations.add((long)row[1]);
+                    counts.logins.add((long)row[2]);
+                }
+            }
+        }
+    }
+
+    /**
+     * Both the start and the end of the range are rounded to whole buckets
+     * (in UTC), and every bucket in the range is returned, even empty ones.
+     *
+     * @param from the start of the range (inclusive)
+     * @param to the end of the range (exclusive)
+     * @param granularity the size of the buckets
+     * @return the number of registrations and logins per bucket, in order.
+     */
+    public final List<AuthStatsResponse> getStats(Instant from, Instant to, StatsGranularity granularity) {
+        long hoursPerBucket = granularity.getHours();
+        long firstBucket = Math.floorDiv(toHour(from), hoursPerBucket);
+        long endBucket = Math.ceilDiv(toHour(to.plusSeconds(SECONDS_PER_HOUR - 1)), hoursPerBucket);
+
+        Map<Long, long[]> totals = new HashMap<>();
+        synchronized (flushLock) {
+            jdbcTemplate.query(
+                    "SELECT bucket_hour DIV ? AS bucket, SUM(registrations), SUM(logins) FROM " + AuthStatsBucket.TABLE_NAME
+                            + " WHERE bucket_hour >= ? AND bucket_hour < ? GROUP BY bucket",
+                    resultSet -> {
+                        totals.put(resultSet.getLong(1), new long[] { resultSet.getLong(2), resultSet.getLong(3) });
+                    },
+                    hoursPerBucket, firstBucket * hoursPerBucket, endBucket * hoursPerBucket
+            );
+
+            // counts that have not been flushed yet are added on top, so the stats are always up to date.
+            pendingCounts.forEach((hour, counts) -> {
+                long bucket = Math.floorDiv(hour, hoursPerBucket);
+                if (bucket < firstBucket || bucket >= endBucket) return;
+                long[] total = totals.computeIfAbsent(bucket, b -> new long[2]);
+                total[0] += counts.registrations.sum();
+                total[1] += counts.logins.sum();
+            });
+        }
+
+        List<AuthStatsResponse> stats = new ArrayList<>();
+        for (long bucket = firstBucket; bucket < endBucket; bucket++) {
+            long[] total = totals.getOrDefault(bucket, new long[2]);
+            stats.add(new AuthStatsResponse(Instant.ofEpochSecond(bucket * hoursPerBucket * SECONDS_PER_HOUR), total[0], total[1]));
+        }
+        return stats;
+    }
+
+    /**
+     * @param from the start of the range (inclusive)
+     * @param to the end of the range (exclusive)
+     * @param granularity the size of the buckets
+     * @return how many buckets "getStats" would return for the range.
+     */
+    public static long countBuckets(Instant from, Instant to, StatsGranularity granularity) {
+        long hoursPerBucket = granularity.getHours();
+        return Math.ceilDiv(toHour(to.plusSeconds(SECONDS_PER_HOUR - 1)), hoursPerBucket) - Math.floorDiv(toHour(from), hoursPerBucket);
+    }
+
+    // Counts that have not been flushed yet are written before shutting down.
+    @PreDestroy
+    void shutdown() {
+        flush();
+    }
+
+    ///////////////////////////////////////////////////////////////////////////
+
+    private Counts counts(long hour) {
+        return pendingCounts.computeIfAbsent(hour, h -> new Counts());
+    }
+
+    private static long currentHour() {
+        return toHour(Instant.now());
+    }
+
+    private static long toHour(Instant instant) {
+        return Math.floorDiv(instant.getEpochSecond(), SECONDS_PER_HOUR);
+    }
+
+    private static final class Counts {
+        private final LongAdder registrations = new LongAdder();
+        private final LongAdder logins = new LongAdder();
+    }
+
+}
@@ -0,0 +1,47 @@
+/**
+ * ApproximateCount.java - A row count that may only be an estimate.
+ * Copyright (C) 2024  Allan DeBoe
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ * ------------------------------------------------------------------------
+ *
+ * An exact "COUNT(*)" has to visit every matching row, which gets slow
+ * once the "users" table gets large. Instead, rows are only counted up to
+ * a limit, past which the count is either MySQL's estimate of the table
+ * size or, when filtering, the limit itself (i.e. "at least 1000").
+ *
+ * @see com.focust.api.users.UserService
+ *
+ * @author Allan DeBoe (allan.m.deboe@gmail.com)
+ * @version 0.0.6
+ * @since 0.0.6
+ */
+package com.focust.api.users;
+
+///////////////////////////////////////////////////////////////////////////
+
+// Project Lombok //
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+///////////////////////////////////////////////////////////////////////////
+
+@Getter
+@RequiredArgsConstructor
+public final class ApproximateCount {
+
+    private final long count;
+    private final boolean exact;
+
+}
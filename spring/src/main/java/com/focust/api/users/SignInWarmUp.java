@@ -0,0 +1,97 @@
+/**
+ * SignInWarmUp.java - Warms up password verification and JWT tokens
+ * Copyright (C) 2024  Allan DeBoe
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ * ------------------------------------------------------------------------
+ *
+ * Verifies a synthetic password "focust.warm-up.password-verifies" times
+ * (a single bcrypt verify loops thousands of times, so a few are enough
+ * for it to be compiled), then signs and verifies tokens of a synthetic
+ * user "focust.warm-up.iterations" times through JwtService. As they run
+ * while the code is still interpreted, they are synthetic work, left out of
+ * "focust.auth.jwt.sign", "focust.auth.jwt.verify" and the JFR events.
+ *
+ * @see com.focust.api.warmup.WarmUp
+ *
+ * @author Allan DeBoe (allan.m.deboe@gmail.com)
+ * @version 0.0.6
+ * @since 0.0.6
+ */
+package com.focust.api.users;
+
+///////////////////////////////////////////////////////////////////////////
+
+// Focust //
+import com.focust.api.metrics.AuthMetrics;
+import com.focust.api.security.jwt.JwtService;
+import com.focust.api.warmup.WarmUpTask;
+
+// Spring Framework //
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+// Standard Java //
+import java.util.UUID;
+
+///////////////////////////////////////////////////////////////////////////
+
+@Component
+@Order(2)
+class SignInWarmUp implements WarmUpTask {
+
+    private static final String WARM_UP_EMAIL = "warm-up@focust.invalid";
+
+    // one refresh token is signed for every this many access tokens, as when signing in.
+    private static final int ACCESS_TOKENS_PER_REFRESH_TOKEN = 10;
+
+    @Autowired private JwtService jwtService;
+
+    @Value("${focust.warm-up.password-verifies:3}")
+    private int passwordVerifies;
+
+    @Value("${focust.warm-up.iterations:2000}")
+    private int iterations;
+
+    @Override
+    public String getName() {
+        return "sign-in";
+    }
+
+    @Override
+    public void warmUp() throws Exception {
+        String password = UUID.randomUUID().toString();
+        String hash = UserService.passwordEncoder.encode(password);
+        for (int i = 0; i < passwordVerifies; i++) {
+            UserService.passwordEncoder.matches(password, hash);
+        }
+
+        User user = new User();
+        user.setId(0L);
+        user.setEmail(WARM_UP_EMAIL);
+        UserJwtDetails userDetails = new UserJwtDetails(user);
+        AuthMetrics.runSynthetic(() -> {
+            for (int i = 0; i < iterations; i++) {
+                String accessToken = jwtService.generateAccessToken(userDetails).orElseThrow();
+                jwtService.getEmail("Bearer " + accessToken);
+                if (i % ACCESS_TOKENS_PER_REFRESH_TOKEN == 0) {
+                    jwtService.validateToken(jwtService.generateRefreshToken(userDetails).orElseThrow());
+                }
+            }
+        });
+    }
+
+}
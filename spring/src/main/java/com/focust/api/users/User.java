@@ -17,7 +17,7 @@
  * ------------------------------------------------------------------------
  *
  * @author Allan DeBoe (allan.m.deboe@gmail.com)
- * @version 0.0.3
+ * @version 0.0.6
  * @since 0.0.3
  */
 package com.focust.api.users;
@@ -33,6 +33,8 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 import jakarta.persistence.Temporal;
 import jakarta.persistence.TemporalType;
@@ -50,11 +52,30 @@ import java.time.ZonedDateTime;
 ///////////////////////////////////////////////////////////////////////////
 
 @Entity
-@Table(name = "users")
+@Table(name = "users", indexes = {
+        @Index(name = "users_email_domain_index", columnList = "email_domain"),
+        @Index(name = "users_registration_date_index", columnList = "registration_date"),
+        @Index(name = "users_change_sequence_index", columnList = "change_sequence")
+})
 class User {
 
+    static final String ID_SEQUENCE_NAME = "users_id_sequence";
+    static final int ID_ALLOCATION_SIZE = 50;
+
+    /**
+     * Ids are taken from a sequence (emulated by a table in MySQL) in blocks of
+     * ID_ALLOCATION_SIZE, rather than being generated by MySQL on insert
+     * (i.e. "IDENTITY"), which would force Hibernate to insert users one at a
+     * time just to read back each id, and so prevent batching inserts.
+     *
+     * @see com.focust.api.users.UserIdSequenceInitializer
+     *
+     * @param id the id of the user
+     * @return the id of the user
+     */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "users_id_generator")
+    @SequenceGenerator(name = "users_id_generator", sequenceName = ID_SEQUENCE_NAME, allocationSize = ID_ALLOCATION_SIZE)
     @Getter(AccessLevel.PROTECTED) @Setter(AccessLevel.PROTECTED) private Long id;
 
     /**
@@ -67,6 +88,17 @@ class User {
     @NonNull
     @Getter(AccessLevel.PROTECTED) @Setter(AccessLevel.PROTECTED) private String email;
 
+    /**
+     * The (lowercase) part of the email after the '@', which is computed and
+     * stored by MySQL itself, so that it can be indexed and used to quickly
+     * filter users by domain without having to use "LIKE '%@domain'".
+     *
+     * @return the domain of the user's email.
+     */
+    @Column(name = "email_domain", insertable = false, updatable = false,
+            columnDefinition = "VARCHAR(255) GENERATED ALWAYS AS (LOWER(SUBSTRING_INDEX(email, '@', -1))) STORED")
+    @Getter(AccessLevel.PROTECTED) private String emailDomain;
+
     /**
      * Since Focust is an issue tracker - something used by developers,
      * it makes sense to store the GitHub username.
@@ -80,6 +112,31 @@ class User {
     @Column(name = "github_username", unique = true)
     @Getter(AccessLevel.PROTECTED) @Setter(AccessLevel.PROTECTED) private String githubUsername;
 
+    /**
+     * The GitHub profile ("githubAvatarUrl" and "githubDisplayName") is only
+     * ever written by the UserGitHubProfileSync, in the background, which is
+     * why Hibernate itself never inserts or updates it.
+     *
+     * @see com.focust.api.users.UserGitHubProfileSync
+     *
+     * @return the URL of the avatar of the user's GitHub account (if synced)
+     */
+    @Column(name = "github_avatar_url", insertable = false, updatable = false)
+    @Getter(AccessLevel.PROTECTED) private String githubAvatarUrl;
+
+    /**
+     * @return the name shown on the user's GitHub account (if synced and set)
+     */
+    @Column(name = "github_display_name", insertable = false, updatable = false)
+    @Getter(AccessLevel.PROTECTED) private String githubDisplayName;
+
+    /**
+     * @return the last time the GitHub profile of the user was synced (if ever)
+     */
+    @Column(name = "github_synced_at", insertable = false, updatable = false)
+    @Temporal(TemporalType.TIMESTAMP)
+    @Getter(AccessLevel.PROTECTED) private ZonedDateTime githubSyncedAt;
+
     /**
      * User passwords are stored as password hashes as storing user passwords
      * as plaintext is a huge security risk, as all a hacker has to do is to hack
@@ -123,8 +180,56 @@ class User {
     @Temporal(TemporalType.TIMESTAMP)
     @Getter(AccessLevel.PROTECTED) @Setter(AccessLevel.PROTECTED) private ZonedDateTime registrationDate;
 
+    /**
+     * Set every time the user is created or changed, so that clients syncing
+     * the user directory only need to fetch the users that changed since the
+     * last change sequence they have seen.
+     *
+     * @see com.focust.api.users.UserChangeSequence
+     *
+     * @param changeSequence the change sequence of the latest change to the user
+     * @return the change sequence of the latest change to the user
+     */
+    @Column(name = "change_sequence")
+    @Getter(AccessLevel.PROTECTED) @Setter(AccessLevel.PROTECTED) private Long changeSequence;
+
+    /**
+     * Both "lastSeenAt" and "lastLoginAt" are only ever written by the
+     * UserActivityTracker, in batches, which is why Hibernate itself
+     * never inserts or updates them.
+     *
+     * @see com.focust.api.users.UserActivityTracker
+     *
+     * @return the last time the user sent an authenticated request (if ever)
+     */
+    @Column(name = "last_seen_at", insertable = false, updatable = false)
+    @Temporal(TemporalType.TIMESTAMP)
+    @Getter(AccessLevel.PROTECTED) private ZonedDateTime lastSeenAt;
+
+    /**
+     * @return the last time the user signed in (if ever)
+     */
+    @Column(name = "last_login_at", insertable = false, updatable = false)
+    @Temporal(TemporalType.TIMESTAMP)
+    @Getter(AccessLevel.PROTECTED) private ZonedDateTime lastLoginAt;
+
     protected User() {
         this.registrationDate = ZonedDateTime.now();
     }
 
+    /**
+     * @param field a (non-sensitive) field of the user
+     * @return the value of the given field
+     */
+    Object getFieldValue(UserField field) {
+        return switch (field) {
+            case ID -> this.id;
+            case EMAIL -> this.email;
+            case GITHUB_USERNAME -> this.githubUsername;
+            case GITHUB_AVATAR_URL -> this.githubAvatarUrl;
+            case GITHUB_DISPLAY_NAME -> this.githubDisplayName;
+            case REGISTRATION_DATE -> this.registrationDate;
+        };
+    }
+
 }
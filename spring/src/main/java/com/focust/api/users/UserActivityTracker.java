@@ -0,0 +1,204 @@
+/**
+ * UserActivityTracker.java - Write-behind tracking of when users were last active.
+ * Copyright (C) 2024  Allan DeBoe
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ * ------------------------------------------------------------------------
+ *
+ * Writing "last_seen_at" on every authenticated request would turn every
+ * read into a write. Instead, activity is only recorded in memory, where
+ * repeated activity of the same user simply overwrites the previous one,
+ * and is written to the database periodically as a single "UPDATE ...
+ * CASE" statement, so each user is written at most once per interval no
+ * matter how many requests they sent.
+ *
+ * The in-memory map is split into stripes (each with its own lock), so
+ * that concurrent requests rarely wait on each other, and flushing only
+ * ever holds one stripe's lock for as long as it takes to swap its map.
+ *
+ * Since the activity is only in memory until flushed, a crash can lose up
+ * to one interval of it, which is fine for inactive-account reports.
+ *
+ * @see com.focust.api.users.User
+ *
+ * @author Allan DeBoe (allan.m.deboe@gmail.com)
+ * @version 0.0.6
+ * @since 0.0.6
+ */
+package com.focust.api.users;
+
+///////////////////////////////////////////////////////////////////////////
+
+// Jakarta //
+import jakarta.annotation.PreDestroy;
+
+// Project Lombok //
+import lombok.extern.slf4j.Slf4j;
+
+// Spring Framework //
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+// Standard Java //
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+///////////////////////////////////////////////////////////////////////////
+
+@Component
+@Slf4j
+class UserActivityTracker {
+
+    // must be a power of two, as stripes are picked with a bit mask.
+    private static final int STRIPE_COUNT = 16;
+
+    // the maximum number of users written by a single "UPDATE" statement.
+    private static final int MAX_UPDATE_SIZE = 500;
+
+    @Autowired private JdbcTemplate jdbcTemplate;
+
+    private final Stripe[] stripes = new Stripe[STRIPE_COUNT];
+
+    UserActivityTracker() {
+        for (int i = 0; i < STRIPE_COUNT; i++) {
+            stripes[i] = new Stripe();
+        }
+    }
+
+    /**
+     * @param userId the id of the user that sent an authenticated request
+     */
+    void recordSeen(long userId) {
+        record(userId, new Activity(Instant.now(), null));
+    }
+
+    /**
+     * @param userId the id of the user that signed in
+     */
+    void recordLogin(long userId) {
+        Instant now = Instant.now();
+        record(userId, new Activity(now, now));
+    }
+
+    /**
+     * Writes all activity recorded since the last flush to the database.
+     */
+    @Scheduled(fixedDelayString = "${focust.users.activity.flush-interval-ms:30000}")
+    void flush() {
+        Map<Long, Activity> pending = new HashMap<>();
+        for (Stripe stripe : stripes) {
+            pending.putAll(stripe.drain());
+        }
+
+        List<Map.Entry<Long, Activity>> entries = new ArrayList<>(pending.entrySet());
+        for (int start = 0; start < entries.size(); start += MAX_UPDATE_SIZE) {
+            List<Map.Entry<Long, Activity>> batch = entries.subList(start, Math.min(start + MAX_UPDATE_SIZE, entries.size()));
+            try {
+                update(batch);
+            }
+            catch (RuntimeException e) {
+                log.atError().setMessage("Unable to write user activity").addKeyValue("users", batch.size()).setCause(e).log();
+            }
+        }
+    }
+
+    // Graceful shutdown ("server.shutdown") lets in-flight requests finish
+    // before this runs, so their activity is written as well.
+    @PreDestroy
+    void shutdown() {
+        flush();
+    }
+
+    ///////////////////////////////////////////////////////////////////////////
+
+    private void record(long userId, Activity activity) {
+        Stripe stripe = stripes[Long.hashCode(userId) & (STRIPE_COUNT - 1)];
+        synchronized (stripe) {
+            stripe.activities.merge(userId, activity, Activity::latest);
+        }
+    }
+
+    // i.e. "UPDATE users SET last_seen_at = CASE id WHEN ? THEN ? ... ELSE last_seen_at END, ... WHERE id IN (?, ...)"
+    private void update(List<Map.Entry<Long, Activity>> batch) {
+        StringBuilder lastSeenCases = new StringBuilder();
+        StringBuilder lastLoginCases = new StringBuilder();
+        StringBuilder ids = new StringBuilder();
+        List<Object> lastSeenArguments = new ArrayList<>();
+        List<Object> lastLoginArguments = new ArrayList<>();
+        List<Object> idArguments = new ArrayList<>();
+
+        for (Map.Entry<Long, Activity> entry : batch) {
+            Activity activity = entry.getValue();
+
+            lastSeenCases.append(" WHEN ? THEN ?");
+            lastSeenArguments.add(entry.getKey());
+            lastSeenArguments.add(Timestamp.from(activity.lastSeenAt));
+
+            if (activity.lastLoginAt != null) {
+                lastLoginCases.append(" WHEN ? THEN ?");
+                lastLoginArguments.add(entry.getKey());
+                lastLoginArguments.add(Timestamp.from(activity.lastLoginAt));
+            }
+
+            ids.append(ids.isEmpty() ? "?" : ", ?");
+            idArguments.add(entry.getKey());
+        }
+
+        StringBuilder sql = new StringBuilder("UPDATE users SET last_seen_at = CASE id")
+                .append(lastSeenCases).append(" ELSE last_seen_at END");
+        if (!lastLoginArguments.isEmpty()) {
+            sql.append(", last_login_at = CASE id").append(lastLoginCases).append(" ELSE last_login_at END");
+        }
+        sql.append(" WHERE id IN (").append(ids).append(")");
+
+        List<Object> arguments = new ArrayList<>(lastSeenArguments);
+        arguments.addAll(lastLoginArguments);
+        arguments.addAll(idArguments);
+        jdbcTemplate.update(sql.toString(), arguments.toArray());
+    }
+
+    private static final class Stripe {
+        private Map<Long, Activity> activities = new HashMap<>();
+
+        private synchronized Map<Long, Activity> drain() {
+            Map<Long, Activity> drained = activities;
+            activities = new HashMap<>();
+            return drained;
+        }
+    }
+
+    private static final class Activity {
+        private final Instant lastSeenAt;
+        private final Instant lastLoginAt;  // null if the user did not sign in since the last flush.
+
+        private Activity(Instant lastSeenAt, Instant lastLoginAt) {
+            this.lastSeenAt = lastSeenAt;
+            this.lastLoginAt = lastLoginAt;
+        }
+
+        private static Activity latest(Activity a, Activity b) {
+            Instant lastSeenAt = a.lastSeenAt.isAfter(b.lastSeenAt) ? a.lastSeenAt : b.lastSeenAt;
+            Instant lastLoginAt = (a.lastLoginAt == null) ? b.lastLoginAt
+                    : (b.lastLoginAt == null || a.lastLoginAt.isAfter(b.lastLoginAt)) ? a.lastLoginAt : b.lastLoginAt;
+            return new Activity(lastSeenAt, lastLoginAt);
+        }
+    }
+
+}
@@ -0,0 +1,155 @@
+/**
+ * UserBatchInserter.java - Inserts many users with as few round trips as possible.
+ * Copyright (C) 2024  Allan DeBoe
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ * ------------------------------------------------------------------------
+ *
+ * All users are inserted in a single transaction, which Hibernate sends
+ * as JDBC batches (see "hibernate.jdbc.batch_size"). Users whose email is
+ * already taken, either by an existing user or by an earlier user of the
+ * same batch, are skipped instead of failing the whole batch.
+ *
+ * Existing emails are found by the unique index of the "email" column:
+ * if the batch violates it, the users are inserted one by one instead,
+ * and those that violate it are the ones that already exist. Since that
+ * is rare for registrations, they skip checking for existing emails up
+ * front; imports (where re-importing a file is common) do check first.
+ *
+ * Each user also gets its change sequence here, which stays in flight
+ * until the users have either been inserted or skipped.
+ *
+ * @see com.focust.api.users.UserChangeSequence
+ *
+ * @see com.focust.api.users.UserRegistrationBatcher
+ *
+ * @author Allan DeBoe (allan.m.deboe@gmail.com)
+ * @version 0.0.6
+ * @since 0.0.6
+ */
+package com.focust.api.users;
+
+///////////////////////////////////////////////////////////////////////////
+
+// Spring Framework //
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+// Standard Java //
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+///////////////////////////////////////////////////////////////////////////
+
+@Component
+class UserBatchInserter {
+
+    // the MySQL error code of a duplicate entry in a unique index ("ER_DUP_ENTRY").
+    private static final int DUPLICATE_ENTRY_ERROR_CODE = 1062;
+
+    @Autowired private UserRepository userRepository;
+    @Autowired private TransactionTemplate transactionTemplate;
+    @Autowired private UserChangeSequence userChangeSequence;
+
+    /**
+     * @param users the (new) users to insert
+     * @param checkExistingEmails whether to look for existing emails before inserting (instead of only relying on the unique index)
+     * @return for each user (in the same order), true if inserted or false if its email was already taken.
+     */
+    List<Boolean> insertAll(List<User> users, boolean checkExistingEmails) {
+        long firstSequence = userChangeSequence.reserve(users.size());
+        try {
+            for (int i = 0; i < users.size(); i++) {
+                users.get(i).setChangeSequence(firstSequence + i);
+            }
+            return insertWithFallback(users, checkExistingEmails);
+        }
+        finally {
+            userChangeSequence.complete(firstSequence, users.size());
+        }
+    }
+
+    ///////////////////////////////////////////////////////////////////////////
+
+    private List<Boolean> insertWithFallback(List<User> users, boolean checkExistingEmails) {
+        try {
+            return transactionTemplate.execute(status -> insertBatch(users, checkExistingEmails));
+        }
+
+        // One of the emails is already taken (i.e. by another batch, or by
+        // an existing user if they were not checked), so fall back to
+        // inserting the users one by one to find out which one(s).
+        catch (DataIntegrityViolationException e) {
+            List<Boolean> inserted = new ArrayList<>(users.size());
+            for (User user : users) {
+                inserted.add(insertOne(user));
+            }
+            return inserted;
+        }
+    }
+
+    private List<Boolean> insertBatch(List<User> users, boolean checkExistingEmails) {
+
+        // MySQL compares emails case-insensitively, and so should this.
+        Set<String> takenEmails = new HashSet<>();
+        if (checkExistingEmails) {
+            for (String email : userRepository.findExistingEmails(users.stream().map(User::getEmail).toList())) {
+                takenEmails.add(email.toLowerCase(Locale.ROOT));
+            }
+        }
+
+        List<Boolean> inserted = new ArrayList<>(users.size());
+        List<User> newUsers = new ArrayList<>();
+        for (User user : users) {
+            boolean isNew = takenEmails.add(user.getEmail().toLowerCase(Locale.ROOT));
+            inserted.add(isNew);
+            if (isNew) newUsers.add(user);
+        }
+
+        userRepository.saveAll(newUsers);
+        userRepository.flush();
+        return inserted;
+    }
+
+    private boolean insertOne(User user) {
+        // the failed batch already assigned an id, which has been rolled back.
+        user.setId(null);
+        try {
+            transactionTemplate.executeWithoutResult(status -> userRepository.saveAndFlush(user));
+            return true;
+        }
+        catch (DataIntegrityViolationException e) {
+            if (isDuplicateEntry(e)) return false;
+            throw e;
+        }
+    }
+
+    // Only a duplicate email means that the user already exists; any other
+    // violation (i.e. a missing value) is an actual error.
+    private static boolean isDuplicateEntry(DataIntegrityViolationException e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof SQLException sqlException && sqlException.getErrorCode() == DUPLICATE_ENTRY_ERROR_CODE) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+}
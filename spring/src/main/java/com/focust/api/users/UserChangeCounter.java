@@ -0,0 +1,60 @@
+/**
+ * UserChangeCounter.java - The last change sequence handed out, shared by every instance
+ * Copyright (C) 2024  Allan DeBoe
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ * ------------------------------------------------------------------------
+ *
+ * A table with a single row, holding the last change sequence handed out
+ * by any instance. It is only ever read and written by UserChangeSequence
+ * (through SQL, as it relies on LAST_INSERT_ID); the entity is only here
+ * so that Hibernate creates the table along with the others.
+ *
+ * @see com.focust.api.users.UserChangeSequence
+ *
+ * @author Allan DeBoe (allan.m.deboe@gmail.com)
+ * @version 0.0.6
+ * @since 0.0.6
+ */
+package com.focust.api.users;
+
+///////////////////////////////////////////////////////////////////////////
+
+// Jakarta & Hibernate //
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+///////////////////////////////////////////////////////////////////////////
+
+@Entity
+@Table(name = UserChangeCounter.TABLE_NAME)
+class UserChangeCounter {
+
+    static final String TABLE_NAME = "user_change_counter";
+
+    // the id of the single row.
+    static final int ID = 1;
+
+    @Id
+    @Column(name = "id")
+    private Integer id;
+
+    @Column(name = "last_sequence", nullable = false)
+    private long lastSequence;
+
+    protected UserChangeCounter() { }
+
+}
@@ -0,0 +1,69 @@
+/**
+ * UserChangeReservation.java - Change sequences handed out whose transaction is not done yet
+ * Copyright (C) 2024  Allan DeBoe
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ * ------------------------------------------------------------------------
+ *
+ * Every instance writes the change sequences it reserved here until their
+ * transaction is done, so that the watermark (see UserChangeSequence) also
+ * waits for the changes still in flight on the other instances. As an
+ * instance that stopped (or crashed) mid-transaction never removes its
+ * reservations, each one is only honoured until it expires.
+ *
+ * Like UserChangeCounter, it is only accessed through SQL.
+ *
+ * @see com.focust.api.users.UserChangeSequence
+ *
+ * @author Allan DeBoe (allan.m.deboe@gmail.com)
+ * @version 0.0.6
+ * @since 0.0.6
+ */
+package com.focust.api.users;
+
+///////////////////////////////////////////////////////////////////////////
+
+// Jakarta & Hibernate //
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import jakarta.persistence.Temporal;
+import jakarta.persistence.TemporalType;
+
+// Standard Java //
+import java.time.ZonedDateTime;
+
+///////////////////////////////////////////////////////////////////////////
+
+@Entity
+@Table(name = UserChangeReservation.TABLE_NAME)
+class UserChangeReservation {
+
+    static final String TABLE_NAME = "user_change_reservations";
+
+    @Id
+    @Column(name = "first_sequence")
+    private Long firstSequence;
+
+    @Column(name = "sequence_count", nullable = false)
+    private int sequenceCount;
+
+    @Column(name = "expires_at", nullable = false)
+    @Temporal(TemporalType.TIMESTAMP)
+    private ZonedDateTime expiresAt;
+
+    protected UserChangeReservation() { }
+
+}
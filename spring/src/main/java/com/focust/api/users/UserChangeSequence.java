@@ -0,0 +1,160 @@
+/**
+ * UserChangeSequence.java - The sequence numbers given to changes of users.
+ * Copyright (C) 2024  Allan DeBoe
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ * ------------------------------------------------------------------------
+ *
+ * Every time a user is created, changed (i.e. its GitHub profile), or
+ * deleted (see UserTombstone) it gets the next number of this sequence,
+ * which is what lets clients ask for only the changes since the last
+ * number they have seen.
+ *
+ * Since transactions don't commit in the order they got their numbers, a
+ * change with a lower number can become visible after one with a higher
+ * number. So, numbers are tracked as "in flight" until their transaction
+ * is done, and changes are only ever read up to the "watermark": the
+ * highest number below which no change is still in flight. Otherwise, a
+ * client could move past a change that simply wasn't committed yet.
+ *
+ * As every instance of the server writes users, both the last number and
+ * the numbers in flight are kept in MySQL (see UserChangeCounter and
+ * UserChangeReservation) rather than in memory: reserving numbers bumps the
+ * counter and records them as in flight in one short transaction of its
+ * own, so no two instances get the same numbers, and the watermark waits
+ * for the changes of every instance. Numbers in flight for longer than
+ * "focust.users.change-sequence.lease" (i.e. from an instance that crashed
+ * mid-transaction) no longer hold the watermark back.
+ *
+ * Numbers whose transaction failed (i.e. an email that was already taken)
+ * are never used, which leaves gaps; clients don't mind, as they only
+ * ever compare numbers.
+ *
+ * @see com.focust.api.users.UserService
+ *
+ * @author Allan DeBoe (allan.m.deboe@gmail.com)
+ * @version 0.0.6
+ * @since 0.0.6
+ */
+package com.focust.api.users;
+
+///////////////////////////////////////////////////////////////////////////
+
+// Jakarta //
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+
+// Spring Framework //
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+// Standard Java //
+import java.time.Duration;
+import java.util.Objects;
+
+///////////////////////////////////////////////////////////////////////////
+
+@Component
+class UserChangeSequence {
+
+    private static final String COUNTER = UserChangeCounter.TABLE_NAME;
+    private static final String RESERVATIONS = UserChangeReservation.TABLE_NAME;
+
+    @Autowired private JdbcTemplate jdbcTemplate;
+    @Autowired private PlatformTransactionManager transactionManager;
+
+    // Hibernate creates (or updates) the tables when the EntityManagerFactory is created, hence the dependency.
+    @Autowired private EntityManagerFactory entityManagerFactory;
+
+    @Value("${focust.users.change-sequence.lease:PT5M}")
+    private Duration lease;
+
+    // reserving (and completing) numbers never joins the transaction of the change itself.
+    private TransactionTemplate ownTransaction;
+
+    @PostConstruct
+    void initialize() {
+        ownTransaction = new TransactionTemplate(transactionManager);
+        ownTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+
+        // users created before change sequences existed simply get their id,
+        // which is unique and lower than the sequences of any later change.
+        jdbcTemplate.update("UPDATE users SET change_sequence = id WHERE change_sequence IS NULL");
+
+        // (instances starting at the same time all end up with the same counter.)
+        jdbcTemplate.update("INSERT IGNORE INTO " + COUNTER + " (id, last_sequence) VALUES (?, 0)", UserChangeCounter.ID);
+        jdbcTemplate.update(
+                "UPDATE " + COUNTER + " SET last_sequence = GREATEST(last_sequence, "
+                        + "(SELECT COALESCE(MAX(change_sequence), 0) FROM users), "
+                        + "(SELECT COALESCE(MAX(change_sequence), 0) FROM user_tombstones)) WHERE id = ?",
+                UserChangeCounter.ID
+        );
+    }
+
+    /**
+     * Every number returned has to be passed to "complete" once its
+     * transaction is done, whether it committed or not.
+     *
+     * @param count how many numbers to reserve
+     * @return the first of "count" consecutive numbers, all of which are now in flight.
+     */
+    long reserve(int count) {
+        return Objects.requireNonNull(ownTransaction.execute(status -> {
+            // LAST_INSERT_ID(expression) hands the new value back to this connection only,
+            // while the row lock keeps other instances waiting until the reservation is in.
+            jdbcTemplate.update(
+                    "UPDATE " + COUNTER + " SET last_sequence = LAST_INSERT_ID(last_sequence + ?) WHERE id = ?",
+                    count, UserChangeCounter.ID
+            );
+            Long last = jdbcTemplate.queryForObject("SELECT LAST_INSERT_ID()", Long.class);
+            long first = Objects.requireNonNull(last) - count + 1;
+            jdbcTemplate.update(
+                    "INSERT INTO " + RESERVATIONS + " (first_sequence, sequence_count, expires_at) "
+                            + "VALUES (?, ?, UTC_TIMESTAMP(6) + INTERVAL ? SECOND)",
+                    first, count, lease.toSeconds()
+            );
+            return first;
+        }));
+    }
+
+    /**
+     * @param first the first of the numbers, as returned by "reserve"
+     * @param count how many numbers were reserved
+     */
+    void complete(long first, int count) {
+        ownTransaction.executeWithoutResult(status ->
+                jdbcTemplate.update("DELETE FROM " + RESERVATIONS + " WHERE first_sequence = ?", first)
+        );
+    }
+
+    /**
+     * @return the highest number up to which every change (of any instance) is either committed or abandoned.
+     */
+    long getWatermark() {
+        // a single statement reads the counter and the reservations as of the same moment,
+        // and both change together (in "reserve"), so a number can not be seen before it is in flight.
+        Long watermark = jdbcTemplate.queryForObject(
+                "SELECT COALESCE((SELECT MIN(first_sequence) FROM " + RESERVATIONS + " WHERE expires_at > UTC_TIMESTAMP(6)) - 1, "
+                        + "last_sequence) FROM " + COUNTER + " WHERE id = ?",
+                Long.class, UserChangeCounter.ID
+        );
+        return (watermark == null) ? 0 : watermark;
+    }
+
+}
@@ -0,0 +1,98 @@
+/**
+ * UserField.java - Fields of a user that can be requested through the API.
+ * Copyright (C) 2024  Allan DeBoe
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ * ------------------------------------------------------------------------
+ *
+ * Clients can ask for a subset of these fields (i.e. "?fields=id,email")
+ * so that only the requested columns are selected from the "users" table
+ * and sent back in the response. Only non-sensitive fields belong here
+ * (which leaves out when users were last seen or signed in, as those are
+ * only for admins; see UserActivityResponse).
+ *
+ * @see com.focust.api.users.User
+ * @see com.focust.api.dto.responses.NonSensitiveUserDataResponse
+ *
+ * @author Allan DeBoe (allan.m.deboe@gmail.com)
+ * @version 0.0.6
+ * @since 0.0.6
+ */
+package com.focust.api.users;
+
+///////////////////////////////////////////////////////////////////////////
+
+// Project Lombok //
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+// Standard Java //
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Optional;
+import java.util.Set;
+
+///////////////////////////////////////////////////////////////////////////
+
+@Getter
+@RequiredArgsConstructor
+public enum UserField {
+
+    ID("id"),
+    EMAIL("email"),
+    GITHUB_USERNAME("githubUsername"),
+    GITHUB_AVATAR_URL("githubAvatarUrl"),
+    GITHUB_DISPLAY_NAME("githubDisplayName"),
+    REGISTRATION_DATE("registrationDate");
+
+    /**
+     * The fields returned when a client does not ask for specific ones,
+     * which matches what the user endpoints have always returned.
+     */
+    public static final Set<UserField> DEFAULT_FIELDS = Collections.unmodifiableSet(EnumSet.of(ID, EMAIL));
+
+    /**
+     * The name of the field, both in the JSON response and in the User entity.
+     */
+    private final String fieldName;
+
+    /**
+     * @param fieldName the name of the field, as seen in the JSON response.
+     * @return the corresponding UserField, or nothing if no field has that name.
+     */
+    public static Optional<UserField> fromFieldName(String fieldName) {
+        for (UserField field : UserField.values()) {
+            if (field.fieldName.equalsIgnoreCase(fieldName.trim())) return Optional.of(field);
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * @param fields a comma-separated list of field names (i.e. "id,email")
+     * @return the set of requested fields, or nothing if any of the names is unknown.
+     */
+    public static Optional<Set<UserField>> parse(String fields) {
+        if (fields == null || fields.isBlank()) return Optional.of(DEFAULT_FIELDS);
+
+        Set<UserField> requestedFields = EnumSet.noneOf(UserField.class);
+        for (String fieldName : fields.split(",")) {
+            if (fieldName.isBlank()) continue;
+            Optional<UserField> field = fromFieldName(fieldName);
+            if (field.isEmpty()) return Optional.empty();
+            requestedFields.add(field.get());
+        }
+        return requestedFields.isEmpty() ? Optional.empty() : Optional.of(requestedFields);
+    }
+
+}
@@ -0,0 +1,174 @@
+/**
+ * UserGitHubProfileSync.java - Keeps the GitHub profiles of users up to date in the background.
+ * Copyright (C) 2024  Allan DeBoe
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ * ------------------------------------------------------------------------
+ *
+ * Every so often, the users with a GitHub username whose profile was
+ * synced the longest ago (or never) are picked, a batch at a time, and
+ * their avatar URL and display name are looked up on GitHub and written
+ * back with a single JDBC batch. Profiles that did not change on GitHub
+ * are answered from the on-disk cache (see GitHubProfileClient), so they
+ * cost almost nothing, and only users whose profile actually changed get
+ * a new change sequence (and so show up in "/users/changes").
+ *
+ * Once GitHub's rate limit is used up, the rest of the batch is left for
+ * a later run, as they are still the ones synced the longest ago.
+ *
+ * @see com.focust.api.github.GitHubProfileClient
+ *
+ * @author Allan DeBoe (allan.m.deboe@gmail.com)
+ * @version 0.0.6
+ * @since 0.0.6
+ */
+package com.focust.api.users;
+
+///////////////////////////////////////////////////////////////////////////
+
+// Focust //
+import com.focust.api.github.GitHubProfile;
+import com.focust.api.github.GitHubProfileClient;
+import com.focust.api.github.GitHubProfileLookup;
+
+// Project Lombok //
+import lombok.extern.slf4j.Slf4j;
+
+// Spring Framework //
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClientException;
+
+// Standard Java //
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+///////////////////////////////////////////////////////////////////////////
+
+@Component
+@Slf4j
+class UserGitHubProfileSync {
+
+    @Autowired private JdbcTemplate jdbcTemplate;
+    @Autowired private UserChangeSequence userChangeSequence;
+    @Autowired private GitHubProfileClient gitHubProfileClient;
+
+    // the maximum number of users looked up per run.
+    @Value("${focust.github.sync.batch-size:50}")
+    private int batchSize;
+
+    // how long a synced profile is left alone before it is looked up again.
+    @Value("${focust.github.sync.max-age:PT24H}")
+    private Duration maxAge;
+
+    @Scheduled(fixedDelayString = "${focust.github.sync.interval-ms:60000}", initialDelayString = "${focust.github.sync.initial-delay-ms:60000}")
+    void scheduledSync() {
+        syncBatch();
+    }
+
+    /**
+     * @return the number of users whose profile was synced.
+     */
+    int syncBatch() {
+        Instant now = Instant.now();
+        List<SyncedUser> users = jdbcTemplate.query(
+                "SELECT id, github_username, github_avatar_url, github_display_name FROM users "
+                        + "WHERE github_username IS NOT NULL AND (github_synced_at IS NULL OR github_synced_at < ?) "
+                        + "ORDER BY github_synced_at LIMIT ?",
+                (resultSet, rowNumber) -> new SyncedUser(resultSet.getLong(1), resultSet.getString(2), resultSet.getString(3), resultSet.getString(4)),
+                Timestamp.from(now.minus(maxAge)), batchSize
+        );
+
+        List<SyncedUser> changedUsers = new ArrayList<>();
+        List<SyncedUser> unchangedUsers = new ArrayList<>();
+        for (SyncedUser user : users) {
+            GitHubProfileLookup lookup;
+            try {
+                lookup = gitHubProfileClient.fetch(user.githubUsername);
+            }
+            // GitHub is most likely down, so the rest of the batch would fail as well.
+            catch (RestClientException e) {
+                log.atError().setMessage("Unable to look up GitHub profile").addKeyValue("githubUsername", user.githubUsername).addKeyValue("error", e.getMessage()).log();
+                break;
+            }
+            if (lookup.getStatus() == GitHubProfileLookup.Status.RATE_LIMITED) break;
+
+            GitHubProfile profile = lookup.getProfile();
+            String avatarUrl = (profile == null) ? null : profile.getAvatarUrl();
+            String displayName = (profile == null) ? null : profile.getDisplayName();
+            if (Objects.equals(avatarUrl, user.avatarUrl) && Objects.equals(displayName, user.displayName)) {
+                unchangedUsers.add(user);
+            }
+            else {
+                changedUsers.add(new SyncedUser(user.id, user.githubUsername, avatarUrl, displayName));
+            }
+        }
+
+        Timestamp syncedAt = Timestamp.from(Instant.now());
+        write(changedUsers, unchangedUsers, syncedAt);
+        return changedUsers.size() + unchangedUsers.size();
+    }
+
+    ///////////////////////////////////////////////////////////////////////////
+
+    // The GitHub username is checked again, so that a username changed in the meantime is not given the old profile.
+    private void write(List<SyncedUser> changedUsers, List<SyncedUser> unchangedUsers, Timestamp syncedAt) {
+        if (!unchangedUsers.isEmpty()) {
+            jdbcTemplate.batchUpdate(
+                    "UPDATE users SET github_synced_at = ? WHERE id = ? AND github_username = ?",
+                    unchangedUsers.stream().map(user -> new Object[] { syncedAt, user.id, user.githubUsername }).toList()
+            );
+        }
+        if (changedUsers.isEmpty()) return;
+
+        long firstSequence = userChangeSequence.reserve(changedUsers.size());
+        try {
+            List<Object[]> arguments = new ArrayList<>(changedUsers.size());
+            for (int i = 0; i < changedUsers.size(); i++) {
+                SyncedUser user = changedUsers.get(i);
+                arguments.add(new Object[] { user.avatarUrl, user.displayName, syncedAt, firstSequence + i, user.id, user.githubUsername });
+            }
+            jdbcTemplate.batchUpdate(
+                    "UPDATE users SET github_avatar_url = ?, github_display_name = ?, github_synced_at = ?, change_sequence = ? "
+                            + "WHERE id = ? AND github_username = ?",
+                    arguments
+            );
+        }
+        finally {
+            userChangeSequence.complete(firstSequence, changedUsers.size());
+        }
+    }
+
+    private static final class SyncedUser {
+        private final long id;
+        private final String githubUsername;
+        private final String avatarUrl;
+        private final String displayName;
+
+        private SyncedUser(long id, String githubUsername, String avatarUrl, String displayName) {
+            this.id = id;
+            this.githubUsername = githubUsername;
+            this.avatarUrl = avatarUrl;
+            this.displayName = displayName;
+        }
+    }
+
+}
@@ -0,0 +1,65 @@
+/**
+ * UserIdSequenceInitializer.java - Keeps the user id sequence ahead of existing ids.
+ * Copyright (C) 2024  Allan DeBoe
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ * ------------------------------------------------------------------------
+ *
+ * Users used to get their ids from MySQL's AUTO_INCREMENT, so databases
+ * created before the switch to a sequence already have users whose ids
+ * the (newly created) sequence would hand out again. On startup, before
+ * any user is created, the sequence is moved past the largest existing id.
+ *
+ * @see com.focust.api.users.User
+ *
+ * @author Allan DeBoe (allan.m.deboe@gmail.com)
+ * @version 0.0.6
+ * @since 0.0.6
+ */
+package com.focust.api.users;
+
+///////////////////////////////////////////////////////////////////////////
+
+// Jakarta //
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+
+// Spring Framework //
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+///////////////////////////////////////////////////////////////////////////
+
+@Component
+class UserIdSequenceInitializer {
+
+    @Autowired private JdbcTemplate jdbcTemplate;
+
+    // Hibernate creates (or updates) the tables, including the sequence's
+    // table, when the EntityManagerFactory is created, hence the dependency.
+    @Autowired private EntityManagerFactory entityManagerFactory;
+
+    @PostConstruct
+    void initialize() {
+        // Hibernate hands out the ids below "next_val" in blocks of ID_ALLOCATION_SIZE,
+        // so "next_val" has to be at least a full block past the largest id.
+        jdbcTemplate.update(
+                "UPDATE " + User.ID_SEQUENCE_NAME + " SET next_val = GREATEST(next_val, "
+                        + "(SELECT COALESCE(MAX(id), 0) + 1 + ? FROM users))",
+                User.ID_ALLOCATION_SIZE
+        );
+    }
+
+}
@@ -0,0 +1,74 @@
+/**
+ * UserImportFormat.java - The file formats accepted when importing users.
+ * Copyright (C) 2024  Allan DeBoe
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ * ------------------------------------------------------------------------
+ *
+ * CSV files have one "email,password" row per user (with an optional
+ * "email,password" header), where the password is everything after the
+ * first comma. NDJSON files have one {"email": ..., "password": ...}
+ * object per line.
+ *
+ * @see com.focust.api.users.UserImportService
+ *
+ * @author Allan DeBoe (allan.m.deboe@gmail.com)
+ * @version 0.0.6
+ * @since 0.0.6
+ */
+package com.focust.api.users;
+
+///////////////////////////////////////////////////////////////////////////
+
+// Project Lombok //
+import lombok.Getter;
+
+// Spring Framework //
+import org.springframework.http.MediaType;
+
+// Standard Java //
+import java.util.Arrays;
+import java.util.Optional;
+
+///////////////////////////////////////////////////////////////////////////
+
+public enum UserImportFormat {
+
+    CSV("text/csv"),
+    NDJSON("application/x-ndjson");
+
+    @Getter private final String mediaType;
+
+    UserImportFormat(String mediaType) {
+        this.mediaType = mediaType;
+    }
+
+    /**
+     * @param contentType the "Content-Type" of the request (parameters such as "charset" are ignored)
+     * @return the matching format, or nothing if the content type is not supported.
+     */
+    public static Optional<UserImportFormat> fromContentType(String contentType) {
+        if (contentType == null) return Optional.empty();
+        try {
+            MediaType mediaType = MediaType.parseMediaType(contentType);
+            return Arrays.stream(values())
+                    .filter(format -> MediaType.parseMediaType(format.mediaType).equalsTypeAndSubtype(mediaType))
+                    .findFirst();
+        }
+        catch (IllegalArgumentException e) {
+            return Optional.empty();
+        }
+    }
+
+}
@@ -0,0 +1,257 @@
+/**
+ * UserImportService.java - Service used to import many users at once.
+ * Copyright (C) 2024  Allan DeBoe
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ * ------------------------------------------------------------------------
+ *
+ * Onboarding a new team means creating thousands of accounts, and doing
+ * so through "/auth/register" costs a bcrypt hash, two signed JWT tokens,
+ * and a transaction per user. Instead, the imported file is read in
+ * chunks, the passwords of a chunk are hashed in parallel (bcrypt being
+ * by far the most expensive part), and the users are inserted in JDBC
+ * batches as soon as their hashes are ready. No tokens are generated, as
+ * the imported users sign in themselves later on.
+ *
+ * Results are written (as NDJSON) after every chunk, so the whole file
+ * never has to be held in memory, and the client sees progress as the
+ * import goes on.
+ *
+ * @see com.focust.api.users.UserImportFormat
+ * @see com.focust.api.users.UserBatchInserter
+ *
+ * @author Allan DeBoe (allan.m.deboe@gmail.com)
+ * @version 0.0.6
+ * @since 0.0.6
+ */
+package com.focust.api.users;
+
+///////////////////////////////////////////////////////////////////////////
+
+// Focust //
+import com.focust.api.dto.responses.UserImportResultResponse;
+import com.focust.api.dto.responses.UserSuggestionResponse;
+import com.focust.api.security.bcrypt.BCryptHash;
+
+// Jackson //
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+// Jakarta //
+import jakarta.annotation.PreDestroy;
+
+// Spring Framework //
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+// Standard Java //
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+///////////////////////////////////////////////////////////////////////////
+
+@Service
+public class UserImportService {
+
+    // the number of rows read (and hashed in parallel) before writing their results.
+    private static final int CHUNK_SIZE = 500;
+
+    // matches "hibernate.jdbc.batch_size", so that each insert is a single JDBC batch.
+    private static final int INSERT_BATCH_SIZE = 50;
+
+    private static final int MAX_EMAIL_LENGTH = 255;
+    private static final String CSV_HEADER = "email,password";
+
+    @Autowired private UserBatchInserter userBatchInserter;
+    @Autowired private UserSuggestionIndex userSuggestionIndex;
+    @Autowired private ObjectMapper objectMapper;
+
+    // bcrypt is CPU-bound, so there is no point in having more threads than processors.
+    private final ExecutorService hashingPool = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(), new HashingThreadFactory());
+
+    /**
+     * Reads the users from the body and writes one UserImportResultResponse
+     * (as a line of NDJSON) per row into the results, in the same order as the rows.
+     *
+     * @param body the file containing the users to import
+     * @param format the format of the file
+     * @param results where the results are written to
+     * @throws IOException if reading the body or writing the results fails.
+     */
+    public final void importUsers(InputStream body, UserImportFormat format, OutputStream results) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+
+        List<ImportRow> chunk = new ArrayList<>(CHUNK_SIZE);
+        long lineNumber = 0;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank()) continue;
+            if (format == UserImportFormat.CSV && lineNumber == 1 && line.trim().equalsIgnoreCase(CSV_HEADER)) continue;
+
+            chunk.add(parseRow(lineNumber, line, format));
+            if (chunk.size() >= CHUNK_SIZE) {
+                importChunk(chunk, results);
+                chunk = new ArrayList<>(CHUNK_SIZE);
+            }
+        }
+        if (!chunk.isEmpty()) {
+            importChunk(chunk, results);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        hashingPool.shutdown();
+    }
+
+    ///////////////////////////////////////////////////////////////////////////
+
+    private ImportRow parseRow(long lineNumber, String line, UserImportFormat format) {
+        return switch (format) {
+            case CSV -> {
+                int comma = line.indexOf(',');
+                if (comma < 0) yield ImportRow.invalid(lineNumber, null, "expected \"email,password\"");
+                yield validate(lineNumber, line.substring(0, comma).trim(), line.substring(comma + 1));
+            }
+            case NDJSON -> {
+                try {
+                    JsonNode node = objectMapper.readTree(line);
+                    String email = node.path("email").isTextual() ? node.get("email").textValue().trim() : null;
+                    String password = node.path("password").isTextual() ? node.get("password").textValue() : null;
+                    yield validate(lineNumber, email, password);
+                }
+                catch (JsonProcessingException e) {
+                    yield ImportRow.invalid(lineNumber, null, "malformed JSON");
+                }
+            }
+        };
+    }
+
+    private static ImportRow validate(long lineNumber, String email, String password) {
+        if (email == null || email.isEmpty() || email.indexOf('@') < 1 || email.length() > MAX_EMAIL_LENGTH) {
+            return ImportRow.invalid(lineNumber, email, "invalid email");
+        }
+        if (password == null || password.isEmpty()) {
+            return ImportRow.invalid(lineNumber, email, "the password must not be empty");
+        }
+        return new ImportRow(lineNumber, email, password, null);
+    }
+
+    private void importChunk(List<ImportRow> chunk, OutputStream results) throws IOException {
+
+        // all hashes of the chunk are started right away, so that the hashing
+        // pool keeps working on the later rows while the earlier ones are inserted.
+        for (ImportRow row : chunk) {
+            if (row.error != null) continue;
+            row.hash = CompletableFuture.supplyAsync(() -> new BCryptHash(UserService.passwordEncoder.encode(row.password)), hashingPool);
+        }
+
+        for (int start = 0; start < chunk.size(); start += INSERT_BATCH_SIZE) {
+            insertBatch(chunk.subList(start, Math.min(start + INSERT_BATCH_SIZE, chunk.size())));
+        }
+
+        for (ImportRow row : chunk) {
+            results.write(objectMapper.writeValueAsBytes(row.result));
+            results.write('\n');
+        }
+        results.flush();
+    }
+
+    private void insertBatch(List<ImportRow> rows) {
+        List<ImportRow> hashedRows = new ArrayList<>();
+        List<User> users = new ArrayList<>();
+        for (ImportRow row : rows) {
+            if (row.error != null) {
+                row.result = new UserImportResultResponse(row.lineNumber, row.email, UserImportResultResponse.Status.INVALID, null, row.error);
+                continue;
+            }
+
+            BCryptHash hash;
+            try {
+                hash = row.hash.join();
+            }
+            // i.e. bcrypt does not accept passwords longer than 72 bytes.
+            catch (CompletionException e) {
+                row.result = new UserImportResultResponse(row.lineNumber, row.email, UserImportResultResponse.Status.INVALID, null, "the password cannot be hashed");
+                continue;
+            }
+
+            User user = new User();
+            user.setEmail(row.email);
+            user.setPasswordHash(hash);
+            users.add(user);
+            hashedRows.add(row);
+        }
+        if (users.isEmpty()) return;
+
+        List<Boolean> inserted = userBatchInserter.insertAll(users, true);
+        for (int i = 0; i < users.size(); i++) {
+            ImportRow row = hashedRows.get(i);
+            User user = users.get(i);
+            if (inserted.get(i)) {
+                userSuggestionIndex.add(new UserSuggestionResponse(user.getId(), user.getEmail(), user.getGithubUsername()));
+                row.result = new UserImportResultResponse(row.lineNumber, row.email, UserImportResultResponse.Status.CREATED, user.getId(), null);
+            }
+            else {
+                row.result = new UserImportResultResponse(row.lineNumber, row.email, UserImportResultResponse.Status.EXISTS, null, "a user with this email already exists");
+            }
+        }
+    }
+
+    private static final class ImportRow {
+        private final long lineNumber;
+        private final String email;
+        private final String password;
+        private final String error;     // why the row is invalid, if it is.
+        private CompletableFuture<BCryptHash> hash;
+        private UserImportResultResponse result;
+
+        private ImportRow(long lineNumber, String email, String password, String error) {
+            this.lineNumber = lineNumber;
+            this.email = email;
+            this.password = password;
+            this.error = error;
+        }
+
+        private static ImportRow invalid(long lineNumber, String email, String error) {
+            return new ImportRow(lineNumber, email, null, error);
+        }
+    }
+
+    private static final class HashingThreadFactory implements ThreadFactory {
+        private final AtomicInteger threadCount = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "user-import-hashing-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+
+}
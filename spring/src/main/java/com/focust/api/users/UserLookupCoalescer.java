@@ -0,0 +1,284 @@
+/**
+ * UserLookupCoalescer.java - Coalesces concurrent lookups of users by id.
+ * Copyright (C) 2024  Allan DeBoe
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ * ------------------------------------------------------------------------
+ *
+ * Pages of the front-end tend to request many users at the same time,
+ * often the same ones, and doing a "findById" for each of them means one
+ * query per request. Instead, ids that are requested within a short window
+ * are collected and looked up together with a single "findAllById" (an
+ * "IN" query), and requests for an id that is already being looked up
+ * simply wait for that same lookup instead of starting a new one.
+ *
+ * A query never looks up more than MAX_BATCH_SIZE ids; when more are
+ * waiting, they are split into several batches, which run at the same time
+ * on as many threads as the read pool has connections. Requests wait for
+ * their lookup for at most "focust.users.lookup.timeout-ms".
+ *
+ * Since the queries run on the coalescer's threads, each batch counts its
+ * statements, which every request that waited for it adds to its own query
+ * count (once, however many of its ids were in the batch), along with the
+ * time it waited as its "db" Server-Timing.
+ *
+ * @see com.focust.api.users.UserService
+ *
+ * @author Allan DeBoe (allan.m.deboe@gmail.com)
+ * @version 0.0.6
+ * @since 0.0.6
+ */
+package com.focust.api.users;
+
+///////////////////////////////////////////////////////////////////////////
+
+// Focust //
+import com.focust.api.datasource.Workload;
+import com.focust.api.datasource.WorkloadRoutingDataSource;
+import com.focust.api.metrics.ServerTiming;
+import com.focust.api.metrics.queries.QueryCounter;
+
+// Jakarta //
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+// Spring Framework //
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.stereotype.Component;
+
+// Standard Java //
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+///////////////////////////////////////////////////////////////////////////
+
+@Component
+class UserLookupCoalescer {
+
+    // the maximum number of ids put in a single "IN" query.
+    private static final int MAX_BATCH_SIZE = 100;
+
+    @Autowired private UserRepository userRepository;
+    @Autowired private WorkloadRoutingDataSource dataSource;
+
+    // how long to wait for other lookups before querying the database.
+    @Value("${focust.users.lookup.window-ms:2}")
+    private long windowMillis;
+
+    // how long a request waits for its lookup, including waiting for a connection.
+    @Value("${focust.users.lookup.timeout-ms:15000}")
+    private long timeoutMillis;
+
+    // lookups that have been requested, but not yet completed.
+    private final Map<Long, CompletableFuture<Lookup>> inFlight = new ConcurrentHashMap<>();
+
+    // ids waiting for the next batch; guarded by "batchLock".
+    private final Object batchLock = new Object();
+    private final List<Long> pendingIds = new ArrayList<>();
+
+    // flushes submitted but not yet started, one per batch of pending ids; guarded by "batchLock".
+    private int queuedFlushes;
+
+    // runs the batches, as many at once as the read pool has connections.
+    private ScheduledExecutorService executor;
+
+    @PostConstruct
+    void initialize() {
+        AtomicInteger threads = new AtomicInteger();
+        executor = Executors.newScheduledThreadPool(dataSource.getPool(Workload.READ).getMaximumPoolSize(), runnable -> {
+            Thread thread = new Thread(runnable, "user-lookup-coalescer-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * @param id the id of the user
+     * @return the user with the given id, or nothing if no such user exists.
+     */
+    Optional<User> findById(long id) {
+        long start = System.nanoTime();
+        try {
+            Lookup lookup = await(lookup(id));
+            QueryCounter.add(lookup.batch.statements);
+            return lookup.user;
+        }
+        finally {
+            ServerTiming.record(ServerTiming.Phase.DB, start);
+        }
+    }
+
+    /**
+     * @param ids the ids of the users
+     * @return the users that exist, mapped by id in the order of the given ids.
+     */
+    Map<Long, User> findAllById(Collection<Long> ids) {
+        long start = System.nanoTime();
+        try {
+            Map<Long, CompletableFuture<Lookup>> lookups = new LinkedHashMap<>();
+            for (Long id : ids) {
+                lookups.computeIfAbsent(id, this::lookup);
+            }
+
+            Map<Long, User> users = new LinkedHashMap<>();
+            Set<Batch> batches = Collections.newSetFromMap(new IdentityHashMap<>());
+            lookups.forEach((id, future) -> {
+                Lookup lookup = await(future);
+                if (batches.add(lookup.batch)) QueryCounter.add(lookup.batch.statements);
+                lookup.user.ifPresent(user -> users.put(id, user));
+            });
+            return users;
+        }
+        finally {
+            ServerTiming.record(ServerTiming.Phase.DB, start);
+        }
+    }
+
+    // The batches already waiting still run (the default of a ScheduledThreadPoolExecutor).
+    @PreDestroy
+    void shutdown() {
+        executor.shutdown();
+    }
+
+    ///////////////////////////////////////////////////////////////////////////
+
+    private CompletableFuture<Lookup> lookup(long id) {
+        CompletableFuture<Lookup> lookup = new CompletableFuture<>();
+        CompletableFuture<Lookup> existingLookup = inFlight.putIfAbsent(id, lookup);
+        if (existingLookup != null) return existingLookup;
+
+        // the first batch waits for the window, while every other full batch is looked up right away.
+        boolean isFirstBatch;
+        boolean needsFlush;
+        synchronized (batchLock) {
+            pendingIds.add(id);
+            isFirstBatch = (queuedFlushes == 0);
+            needsFlush = (queuedFlushes < batchesNeeded());
+            if (needsFlush) queuedFlushes++;
+        }
+        if (needsFlush) submitFlush(isFirstBatch);
+        return lookup;
+    }
+
+    private void submitFlush(boolean afterWindow) {
+        try {
+            if (afterWindow) executor.schedule(this::flush, windowMillis, TimeUnit.MILLISECONDS);
+            else executor.execute(this::flush);
+        }
+        catch (RejectedExecutionException e) {
+            // shutting down, so the batch is looked up on the current thread instead.
+            flush();
+        }
+    }
+
+    // Looks up (at most) the next MAX_BATCH_SIZE ids.
+    private void flush() {
+        List<Long> ids;
+        boolean needsFlush;
+        synchronized (batchLock) {
+            queuedFlushes--;
+            List<Long> batch = pendingIds.subList(0, Math.min(pendingIds.size(), MAX_BATCH_SIZE));
+            ids = new ArrayList<>(batch);
+            batch.clear();
+            // the ids left behind have already waited for the window.
+            needsFlush = (queuedFlushes < batchesNeeded());
+            if (needsFlush) queuedFlushes++;
+        }
+        if (needsFlush) submitFlush(false);
+        if (ids.isEmpty()) return;
+
+        try {
+            // the batch runs on the executor's threads, so it is routed to the pool of the lookups it serves.
+            Map<Long, User> users = new HashMap<>();
+            Batch batch = new Batch(QueryCounter.count(() -> WorkloadRoutingDataSource.runWith(Workload.READ, () -> {
+                for (User user : userRepository.findAllById(ids)) {
+                    users.put(user.getId(), user);
+                }
+            })));
+            for (Long id : ids) {
+                Optional.ofNullable(inFlight.remove(id)).ifPresent(lookup -> lookup.complete(new Lookup(Optional.ofNullable(users.get(id)), batch)));
+            }
+        }
+        catch (Throwable e) {
+            // (errors as well, so that no request is left waiting for a lookup that will never complete.)
+            for (Long id : ids) {
+                Optional.ofNullable(inFlight.remove(id)).ifPresent(lookup -> lookup.completeExceptionally(e));
+            }
+            if (e instanceof Error error) throw error;
+        }
+    }
+
+    // guarded by "batchLock".
+    private int batchesNeeded() {
+        return (pendingIds.size() + MAX_BATCH_SIZE - 1) / MAX_BATCH_SIZE;
+    }
+
+    // Unwraps the ExecutionException, so callers see the same exceptions as with "findById".
+    private Lookup await(CompletableFuture<Lookup> lookup) {
+        try {
+            return lookup.get(timeoutMillis, TimeUnit.MILLISECONDS);
+        }
+        catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) throw cause;
+            if (e.getCause() instanceof Error cause) throw cause;
+            throw new IllegalStateException(e.getCause());
+        }
+        catch (TimeoutException e) {
+            throw new QueryTimeoutException("User lookup did not complete within " + timeoutMillis + "ms", e);
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new QueryTimeoutException("Interrupted while waiting for a user lookup", e);
+        }
+    }
+
+    private static final class Lookup {
+        private final Optional<User> user;
+        private final Batch batch;
+
+        private Lookup(Optional<User> user, Batch batch) {
+            this.user = user;
+            this.batch = batch;
+        }
+    }
+
+    // compared by identity, so that a request counts each batch it waited for once.
+    private static final class Batch {
+        private final int statements;
+
+        private Batch(int statements) {
+            this.statements = statements;
+        }
+    }
+
+}
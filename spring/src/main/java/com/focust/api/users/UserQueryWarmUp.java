@@ -0,0 +1,131 @@
+/**
+ * UserQueryWarmUp.java - Prepares the busiest user queries on every pooled connection
+ * Copyright (C) 2024  Allan DeBoe
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ * ------------------------------------------------------------------------
+ *
+ * The MySQL driver caches prepared statements per connection (see
+ * "cachePrepStmts" in application.properties), so the queries behind sign
+ * ins, lookups by id, and listing users are run once on every connection
+ * each pool (see Workload) keeps open. Each one is run in its own
+ * transaction, and they are only ended once all of them have run their
+ * queries, so that each is given a different connection. Hibernate's query
+ * plans get cached on the way.
+ *
+ * @see com.focust.api.warmup.WarmUp
+ *
+ * @author Allan DeBoe (allan.m.deboe@gmail.com)
+ * @version 0.0.6
+ * @since 0.0.6
+ */
+package com.focust.api.users;
+
+///////////////////////////////////////////////////////////////////////////
+
+// Focust //
+import com.focust.api.datasource.Workload;
+import com.focust.api.datasource.WorkloadRoutingDataSource;
+import com.focust.api.dto.requests.PageNumberRequest;
+import com.focust.api.dto.requests.UserFilterRequest;
+import com.focust.api.warmup.WarmUpTask;
+
+// Spring Framework //
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+// Standard Java //
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+///////////////////////////////////////////////////////////////////////////
+
+@Component
+@Order(1)
+class UserQueryWarmUp implements WarmUpTask {
+
+    private static final String WARM_UP_EMAIL = "warm-up@focust.invalid";
+
+    // how long a transaction waits for the others to get their connection, in case the pool is busy.
+    private static final long CONNECTION_WAIT_SECONDS = 5;
+
+    @Autowired private UserRepository userRepository;
+    @Autowired private PlatformTransactionManager transactionManager;
+    @Autowired private WorkloadRoutingDataSource dataSource;
+
+    @Override
+    public String getName() {
+        return "user-queries";
+    }
+
+    @Override
+    public void warmUp() throws Exception {
+        for (Workload workload : Workload.values()) {
+            warmUp(workload);
+        }
+    }
+
+    ///////////////////////////////////////////////////////////////////////////
+
+    private void warmUp(Workload workload) throws Exception {
+        int connections = Math.max(1, dataSource.getPool(workload).getMinimumIdle());
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setReadOnly(true);
+
+        CountDownLatch queried = new CountDownLatch(connections);
+        ExecutorService executor = Executors.newFixedThreadPool(connections);
+        try {
+            List<Future<?>> transactions = new ArrayList<>();
+            for (int i = 0; i < connections; i++) {
+                transactions.add(executor.submit(() -> WorkloadRoutingDataSource.runWith(workload, () ->
+                        transactionTemplate.executeWithoutResult(status -> {
+                            runQueries();
+                            queried.countDown();
+                            try {
+                                queried.await(CONNECTION_WAIT_SECONDS, TimeUnit.SECONDS);
+                            }
+                            catch (InterruptedException e) {
+                                Thread.currentThread().interrupt();
+                            }
+                        })
+                )));
+            }
+            for (Future<?> transaction : transactions) {
+                transaction.get();
+            }
+        }
+        finally {
+            executor.shutdown();
+        }
+    }
+
+    // the same queries as UserService and UserLookupCoalescer.
+    private void runQueries() {
+        UserFilterRequest filter = new UserFilterRequest();
+        userRepository.findByEmail(WARM_UP_EMAIL);
+        userRepository.findAllById(List.of(0L));
+        userRepository.findAllProjected(UserField.DEFAULT_FIELDS, filter, PageRequest.of(0, PageNumberRequest.DEFAULT_SIZE));
+        userRepository.countUpTo(filter, UserService.EXACT_COUNT_LIMIT + 1);
+    }
+
+}
@@ -0,0 +1,168 @@
+/**
+ * UserRegistrationBatcher.java - Groups concurrent registrations into batched inserts.
+ * Copyright (C) 2024  Allan DeBoe
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ * ------------------------------------------------------------------------
+ *
+ * When many people sign up at once (i.e. when onboarding a new team),
+ * giving each registration its own existence check and its own
+ * transaction means the database spends most of its time committing.
+ * Instead, registrations are queued for a short window and then written
+ * together, in one transaction for the whole group (a.k.a. "group
+ * commit"). Each caller still gets its own result, including
+ * UserAlreadyExistsException if its email was already taken (which is
+ * found out by the unique index on the emails, not by checking first).
+ *
+ * Since the batch is written on the batcher's thread, its statements are
+ * counted there and added to the query count of every registration in it,
+ * along with the time each one waited as its "db" Server-Timing.
+ *
+ * @see com.focust.api.users.UserBatchInserter
+ * @see com.focust.api.users.UserService
+ *
+ * @author Allan DeBoe (allan.m.deboe@gmail.com)
+ * @version 0.0.6
+ * @since 0.0.6
+ */
+package com.focust.api.users;
+
+///////////////////////////////////////////////////////////////////////////
+
+// Focust //
+import com.focust.api.exceptions.UserAlreadyExistsException;
+import com.focust.api.metrics.ServerTiming;
+import com.focust.api.metrics.queries.QueryCounter;
+
+// Jakarta //
+import jakarta.annotation.PreDestroy;
+
+// Spring Framework //
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+// Standard Java //
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+///////////////////////////////////////////////////////////////////////////
+
+@Component
+class UserRegistrationBatcher {
+
+    // matches "hibernate.jdbc.batch_size", so that a full group is a single JDBC batch.
+    private static final int MAX_BATCH_SIZE = 50;
+    private static final long SHUTDOWN_TIMEOUT_SECONDS = 10;
+
+    @Autowired private UserBatchInserter userBatchInserter;
+
+    // how long to wait for other registrations before writing to the database.
+    @Value("${focust.users.registration.window-ms:5}")
+    private long windowMillis;
+
+    // registrations waiting for the next batch; guarded by "batchLock".
+    private final Object batchLock = new Object();
+    private List<PendingRegistration> pendingRegistrations = new ArrayList<>();
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "user-registration-batcher");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * Waits until the user has been written to the database as part of a batch.
+     *
+     * @param user the new user to insert
+     * @return the same user, now with its id.
+     * @throws UserAlreadyExistsException if a user with the same email already exists.
+     */
+    User register(User user) throws UserAlreadyExistsException {
+        PendingRegistration registration = new PendingRegistration(user);
+
+        boolean isFirstOfBatch;
+        boolean isBatchFull;
+        synchronized (batchLock) {
+            pendingRegistrations.add(registration);
+            isFirstOfBatch = (pendingRegistrations.size() == 1);
+            isBatchFull = (pendingRegistrations.size() >= MAX_BATCH_SIZE);
+        }
+
+        if (isBatchFull) scheduler.execute(this::flush);
+        else if (isFirstOfBatch) scheduler.schedule(this::flush, windowMillis, TimeUnit.MILLISECONDS);
+
+        long start = System.nanoTime();
+        try {
+            return registration.result.join();
+        }
+        catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) throw cause;
+            throw e;
+        }
+        finally {
+            QueryCounter.add(registration.statements);
+            ServerTiming.record(ServerTiming.Phase.DB, start);
+        }
+    }
+
+    // Registrations that are still queued are written before shutting down.
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        scheduler.execute(this::flush);
+        scheduler.shutdown();
+        scheduler.awaitTermination(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+    }
+
+    ///////////////////////////////////////////////////////////////////////////
+
+    private void flush() {
+        List<PendingRegistration> registrations;
+        synchronized (batchLock) {
+            if (pendingRegistrations.isEmpty()) return;
+            registrations = pendingRegistrations;
+            pendingRegistrations = new ArrayList<>();
+        }
+
+        try {
+            List<Boolean> inserted = new ArrayList<>(registrations.size());
+            int statements = QueryCounter.count(() -> inserted.addAll(userBatchInserter.insertAll(registrations.stream().map(r -> r.user).toList(), false)));
+            for (int i = 0; i < registrations.size(); i++) {
+                PendingRegistration registration = registrations.get(i);
+                registration.statements = statements;
+                if (inserted.get(i)) registration.result.complete(registration.user);
+                else registration.result.completeExceptionally(new UserAlreadyExistsException());
+            }
+        }
+        catch (RuntimeException e) {
+            registrations.forEach(registration -> registration.result.completeExceptionally(e));
+        }
+    }
+
+    private static final class PendingRegistration {
+        private final User user;
+        private final CompletableFuture<User> result = new CompletableFuture<>();
+        private int statements;  // set before the result is completed.
+
+        private PendingRegistration(User user) {
+            this.user = user;
+        }
+    }
+
+}
@@ -0,0 +1,126 @@
+/**
+ * UserRegistrationCoalescer.java - Shares the result of concurrent registrations of the same email.
+ * Copyright (C) 2024  Allan DeBoe
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ * ------------------------------------------------------------------------
+ *
+ * A double-clicked (or retried) sign up sends the same registration twice,
+ * and each of them would pay for a bcrypt hash before one of them fails
+ * on the unique email. Instead, a registration for an email that is
+ * already being registered waits for that registration and shares its
+ * result, so the password is only hashed (and the user only inserted) once.
+ *
+ * The result is only shared if the passwords match (compared by their
+ * fingerprints), as otherwise anyone could get the tokens of a user by
+ * registering the same email at the same time; a registration with a
+ * different password gets UserAlreadyExistsException instead, just as
+ * if it had come in after the first one.
+ *
+ * @see com.focust.api.users.UserService
+ * @see com.focust.api.security.fingerprint.RequestFingerprint
+ *
+ * @author Allan DeBoe (allan.m.deboe@gmail.com)
+ * @version 0.0.6
+ * @since 0.0.6
+ */
+package com.focust.api.users;
+
+///////////////////////////////////////////////////////////////////////////
+
+// Focust //
+import com.focust.api.exceptions.UserAlreadyExistsException;
+import com.focust.api.security.fingerprint.RequestFingerprint;
+
+// Spring Framework //
+import org.springframework.stereotype.Component;
+
+// Standard Java //
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+///////////////////////////////////////////////////////////////////////////
+
+@Component
+class UserRegistrationCoalescer {
+
+    // registrations that have started, but not yet completed, by normalized email.
+    private final Map<String, InFlightRegistration> inFlight = new ConcurrentHashMap<>();
+
+    /**
+     * @param email the email of the new user
+     * @param password the (plain) password of the new user
+     * @param registration registers the user, if no registration of the email is in flight
+     * @return the registered user, which may have been registered by a concurrent call.
+     * @throws UserAlreadyExistsException if a user with the same email already exists (or is being registered with another password).
+     */
+    User register(String email, String password, Supplier<User> registration) throws UserAlreadyExistsException {
+        String normalizedEmail = normalize(email);
+        InFlightRegistration ownRegistration = new InFlightRegistration(RequestFingerprint.of(normalizedEmail, password));
+
+        InFlightRegistration existingRegistration = inFlight.putIfAbsent(normalizedEmail, ownRegistration);
+        if (existingRegistration != null) {
+            User user = await(existingRegistration.result);
+            if (!existingRegistration.fingerprint.matches(ownRegistration.fingerprint)) {
+                throw new UserAlreadyExistsException();
+            }
+            return user;
+        }
+
+        try {
+            User user = registration.get();
+            ownRegistration.result.complete(user);
+            return user;
+        }
+        catch (RuntimeException e) {
+            ownRegistration.result.completeExceptionally(e);
+            throw e;
+        }
+        finally {
+            inFlight.remove(normalizedEmail, ownRegistration);
+        }
+    }
+
+    ///////////////////////////////////////////////////////////////////////////
+
+    // MySQL compares emails case-insensitively, and so should this.
+    private static String normalize(String email) {
+        return (email == null) ? "" : email.trim().toLowerCase(Locale.ROOT);
+    }
+
+    // Unwraps the CompletionException, so waiting callers see the same exceptions as the registering one.
+    private static User await(CompletableFuture<User> result) {
+        try {
+            return result.join();
+        }
+        catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) throw cause;
+            throw e;
+        }
+    }
+
+    private static final class InFlightRegistration {
+        private final RequestFingerprint fingerprint;
+        private final CompletableFuture<User> result = new CompletableFuture<>();
+
+        private InFlightRegistration(RequestFingerprint fingerprint) {
+            this.fingerprint = fingerprint;
+        }
+    }
+
+}
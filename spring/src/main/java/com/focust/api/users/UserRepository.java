@@ -17,27 +17,49 @@
  * ------------------------------------------------------------------------
  *
  * @see com.focust.api.users.User
+ * @see com.focust.api.users.UserRepositoryCustom
  *
  * @author Allan DeBoe (allan.m.deboe@gmail.com)
- * @version 0.0.3
+ * @version 0.0.6
  * @since 0.0.3
  */
 package com.focust.api.users;
 
 ///////////////////////////////////////////////////////////////////////////
 
+// Focust //
+import com.focust.api.dto.responses.UserActivityResponse;
+import com.focust.api.dto.responses.UserSuggestionResponse;
+
 // Spring Framework //
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import java.time.ZonedDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 ///////////////////////////////////////////////////////////////////////////
 
-interface UserRepository extends JpaRepository<User, Long> {
+interface UserRepository extends JpaRepository<User, Long>, UserRepositoryCustom {
 
     @Query("SELECT u FROM User u WHERE u.email = :email")
     Optional<User> findByEmail(@Param("email") String email);
 
+    @Query("SELECT u.email FROM User u WHERE u.email IN :emails")
+    List<String> findExistingEmails(@Param("emails") Collection<String> emails);
+
+    @Query("SELECT new com.focust.api.dto.responses.UserSuggestionResponse(u.id, u.email, u.githubUsername) FROM User u")
+    List<UserSuggestionResponse> findAllSuggestions();
+
+    @Query("SELECT u FROM User u WHERE u.changeSequence > :after AND u.changeSequence <= :upTo ORDER BY u.changeSequence")
+    List<User> findChangedBetween(@Param("after") long after, @Param("upTo") long upTo, Pageable page);
+
+    @Query("SELECT new com.focust.api.dto.responses.UserActivityResponse(u.id, u.email, u.lastSeenAt, u.lastLoginAt) FROM User u "
+            + "WHERE u.lastSeenAt IS NULL OR u.lastSeenAt < :since ORDER BY u.id")
+    List<UserActivityResponse> findInactiveSince(@Param("since") ZonedDateTime since, Pageable page);
+
 }
@@ -0,0 +1,76 @@
+/**
+ * UserRepositoryCustom.java - Custom queries for the "users" table.
+ * Copyright (C) 2024  Allan DeBoe
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ * ------------------------------------------------------------------------
+ *
+ * Queries that can't be expressed through Spring Data's derived queries
+ * or a fixed @Query, like selecting only the columns a client asked for.
+ *
+ * @see com.focust.api.users.UserRepository
+ * @see com.focust.api.users.UserRepositoryCustomImpl
+ *
+ * @author Allan DeBoe (allan.m.deboe@gmail.com)
+ * @version 0.0.6
+ * @since 0.0.6
+ */
+package com.focust.api.users;
+
+///////////////////////////////////////////////////////////////////////////
+
+// Focust //
+import com.focust.api.dto.requests.UserFilterRequest;
+
+// Jakarta //
+import jakarta.persistence.Tuple;
+
+// Spring Framework //
+import org.springframework.data.domain.Pageable;
+
+// Standard Java //
+import java.util.List;
+import java.util.Set;
+
+///////////////////////////////////////////////////////////////////////////
+
+interface UserRepositoryCustom {
+
+    /**
+     * Selects only the columns corresponding to the given fields, ordered by id.
+     * Each tuple element is aliased with the name of its UserField.
+     *
+     * @param fields the fields to select
+     * @param filter the filters the users have to match
+     * @param page Pageable representing the page
+     * @return the tuples of the given page
+     */
+    List<Tuple> findAllProjected(Set<UserField> fields, UserFilterRequest filter, Pageable page);
+
+    /**
+     * Counts the users matching the filter, but stops counting at the limit,
+     * so the cost of counting is bounded no matter how many users match.
+     *
+     * @param filter the filters the users have to match
+     * @param limit the maximum number of users to count
+     * @return the number of matching users, at most the given limit
+     */
+    long countUpTo(UserFilterRequest filter, int limit);
+
+    /**
+     * @return MySQL's estimate of the number of rows in the "users" table.
+     */
+    long estimateRowCount();
+
+}
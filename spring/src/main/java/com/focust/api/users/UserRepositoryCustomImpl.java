@@ -0,0 +1,138 @@
+/**
+ * UserRepositoryCustomImpl.java - Implementation of the custom "users" queries.
+ * Copyright (C) 2024  Allan DeBoe
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ * ------------------------------------------------------------------------
+ *
+ * Spring Data picks this class up by its name and merges it into the
+ * UserRepository proxy.
+ *
+ * @see com.focust.api.users.UserRepositoryCustom
+ *
+ * @author Allan DeBoe (allan.m.deboe@gmail.com)
+ * @version 0.0.6
+ * @since 0.0.6
+ */
+package com.focust.api.users;
+
+///////////////////////////////////////////////////////////////////////////
+
+// Focust //
+import com.focust.api.dto.requests.UserFilterRequest;
+
+// Hibernate //
+import org.hibernate.Session;
+import org.hibernate.query.criteria.HibernateCriteriaBuilder;
+import org.hibernate.query.criteria.JpaCriteriaQuery;
+import org.hibernate.query.criteria.JpaSubQuery;
+
+// Jakarta //
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+
+// Spring Framework //
+import org.springframework.data.domain.Pageable;
+
+// Standard Java //
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+///////////////////////////////////////////////////////////////////////////
+
+class UserRepositoryCustomImpl implements UserRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<Tuple> findAllProjected(Set<UserField> fields, UserFilterRequest filter, Pageable page) {
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = builder.createTupleQuery();
+        Root<User> user = query.from(User.class);
+
+        List<Selection<?>> selections = new ArrayList<>();
+        for (UserField field : fields) {
+            selections.add(user.get(field.getFieldName()).alias(field.getFieldName()));
+        }
+        query.multiselect(selections);
+        query.where(createPredicates(builder, user, filter));
+
+        // Without an explicit order, MySQL is free to return rows in any
+        // order, meaning that the same user could show up on two pages.
+        query.orderBy(builder.asc(user.get("id")));
+
+        return entityManager.createQuery(query)
+                .setFirstResult((int)page.getOffset())
+                .setMaxResults(page.getPageSize())
+                .getResultList();
+    }
+
+    @Override
+    public long countUpTo(UserFilterRequest filter, int limit) {
+        HibernateCriteriaBuilder builder = entityManager.unwrap(Session.class).getCriteriaBuilder();
+        JpaCriteriaQuery<Long> query = builder.createQuery(Long.class);
+
+        // SELECT COUNT(*) FROM (SELECT id FROM users WHERE ... LIMIT ?), so
+        // MySQL stops at the limit and sends back a single number. Only ids
+        // are selected, which both indexes already contain, so MySQL never
+        // has to read the rows themselves (and as they are not ordered, it
+        // can stop as soon as it has found enough of them).
+        JpaSubQuery<Tuple> matching = query.subquery(Tuple.class);
+        Root<User> user = matching.from(User.class);
+        matching.multiselect(user.get("id").alias("id")); // (derived tables need their columns named)
+        matching.where(createPredicates(builder, user, filter));
+        matching.fetch(limit);
+
+        query.from(matching);
+        query.select(builder.count());
+        return entityManager.createQuery(query).getSingleResult();
+    }
+
+    @Override
+    public long estimateRowCount() {
+        Object estimate = entityManager.createNativeQuery(
+                "SELECT TABLE_ROWS FROM information_schema.TABLES WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'users'"
+        ).getResultList().stream().findFirst().orElse(null);
+        return (estimate instanceof Number number) ? number.longValue() : 0L;
+    }
+
+    ///////////////////////////////////////////////////////////////////////////
+
+    // Each filter maps onto an indexed column ("email_domain" or "registration_date").
+    private Predicate[] createPredicates(CriteriaBuilder builder, Root<User> user, UserFilterRequest filter) {
+        List<Predicate> predicates = new ArrayList<>();
+        if (filter == null) return predicates.toArray(new Predicate[0]);
+
+        filter.getNormalizedDomain().ifPresent(domain ->
+                predicates.add(builder.equal(user.get("emailDomain"), domain))
+        );
+        if (filter.getRegisteredAfter() != null) {
+            predicates.add(builder.greaterThanOrEqualTo(user.<ZonedDateTime>get("registrationDate"), filter.getRegisteredAfter()));
+        }
+        if (filter.getRegisteredBefore() != null) {
+            predicates.add(builder.lessThan(user.<ZonedDateTime>get("registrationDate"), filter.getRegisteredBefore()));
+        }
+        return predicates.toArray(new Predicate[0]);
+    }
+
+}
@@ -19,10 +19,15 @@
  * Since we ideally don't want direct external access to the "Users"
  * class, this service exists.
  *
+ * Signing in and reading users each take their connections from a pool
+ * of their own (see WorkloadPool), which is why none of the methods are
+ * final: the service is proxied to route them.
+ *
  * @see com.focust.api.users.User
+ * @see com.focust.api.datasource.Workload
  *
  * @author Allan DeBoe (allan.m.deboe@gmail.com)
- * @version 0.0.4
+ * @version 0.0.6
  * @since 0.0.3
  */
 package com.focust.api.users;
@@ -31,29 +36,48 @@ package com.focust.api.users;
 
 // Focust //
 import com.focust.api.controllers.AuthenticationController;
+import com.focust.api.datasource.Workload;
+import com.focust.api.datasource.WorkloadPool;
 import com.focust.api.dto.requests.RegisterUserRequest;
 import com.focust.api.dto.requests.SignInUserRequest;
+import com.focust.api.dto.requests.UserFilterRequest;
 import com.focust.api.dto.responses.NonSensitiveUserDataResponse;
+import com.focust.api.dto.responses.UserActivityResponse;
+import com.focust.api.dto.responses.UserChangesResponse;
+import com.focust.api.dto.responses.UserSuggestionResponse;
 import com.focust.api.exceptions.EmptyPageException;
 import com.focust.api.exceptions.IncorrectSignInException;
 import com.focust.api.exceptions.UserAlreadyExistsException;
 import com.focust.api.exceptions.UserNotFoundException;
+import com.focust.api.metrics.AuthMetrics;
+import com.focust.api.metrics.ServerTiming;
+import com.focust.api.metrics.jfr.PasswordVerifyEvent;
 import com.focust.api.security.bcrypt.BCryptHash;
+import com.focust.api.stats.AuthStatsService;
+
+// Jakarta //
+import jakarta.persistence.Tuple;
 
 // Spring Framework //
 import com.focust.api.security.jwt.JwtAuthenticationFilter;
 import com.focust.api.security.jwt.JwtService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 
 // Standard Java //
+import java.time.ZonedDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
 
 ///////////////////////////////////////////////////////////////////////////
 
@@ -61,9 +85,22 @@ import java.util.Optional;
 public class UserService {
 
     @Autowired private UserRepository userRepository;
+    @Autowired private UserSuggestionIndex userSuggestionIndex;
+    @Autowired private UserLookupCoalescer userLookupCoalescer;
+    @Autowired private UserRegistrationBatcher userRegistrationBatcher;
+    @Autowired private UserRegistrationCoalescer userRegistrationCoalescer;
+    @Autowired private UserActivityTracker userActivityTracker;
+    @Autowired private UserChangeSequence userChangeSequence;
+    @Autowired private UserTombstoneRepository userTombstoneRepository;
+    @Autowired private TransactionTemplate transactionTemplate;
+    @Autowired private AuthStatsService authStatsService;
+    @Autowired private AuthMetrics authMetrics;
+
+    // Users are only counted exactly up to this number, past which counts are approximate.
+    public static final int EXACT_COUNT_LIMIT = 1000;
 
-    // UserService is the only place where password encoding and matching are even needed.
-    private static final PasswordEncoder passwordEncoder = new BCryptPasswordEncoder(BCryptPasswordEncoder.BCryptVersion.$2B, 12);
+    // Passwords are only encoded and matched within the "users" package (i.e. here and when importing users).
+    static final PasswordEncoder passwordEncoder = new BCryptPasswordEncoder(BCryptPasswordEncoder.BCryptVersion.$2B, 12);
 
     /**
      * This function is primarily used when verifying a JWT Token
@@ -77,8 +114,9 @@ public class UserService {
      * @return a UserJWTDetails object based on the user with the email
      * @throws UserNotFoundException if the user with the email is not found
      */
-    public final UserJwtDetails getUserDetails(String email) throws UserNotFoundException {
-        User user = userRepository.findByEmail(email).orElseThrow(UserNotFoundException::new);
+    @WorkloadPool(Workload.AUTH)
+    public UserJwtDetails getUserDetails(String email) throws UserNotFoundException {
+        User user = findByEmail(email).orElseThrow(UserNotFoundException::new);
         return new UserJwtDetails(user);
     }
 
@@ -93,38 +131,87 @@ public class UserService {
      * @return a UserJWTDetails object based on the user with the email
      * @throws UserNotFoundException if the user with the email is not found
      */
-    public final UserJwtDetails verifyUserSignIn(SignInUserRequest request) throws UserNotFoundException, IncorrectSignInException {
-        User user = userRepository.findByEmail(request.getEmail()).orElseThrow(UserNotFoundException::new);
+    @WorkloadPool(Workload.AUTH)
+    public UserJwtDetails verifyUserSignIn(SignInUserRequest request) throws UserNotFoundException, IncorrectSignInException {
+        User user = findByEmail(request.getEmail()).orElseThrow(UserNotFoundException::new);
 
-        if (!passwordEncoder.matches(request.getPassword(), user.getPasswordHash().toString())) {
+        PasswordVerifyEvent verifyEvent = new PasswordVerifyEvent();
+        verifyEvent.begin();
+        long verifyStart = System.nanoTime();
+        boolean matched = passwordEncoder.matches(request.getPassword(), user.getPasswordHash().toString());
+        authMetrics.recordPasswordVerify(verifyStart, matched);
+        verifyEvent.commit(user.getPasswordHash().getStrength(), matched);
+        if (!matched) {
             throw new IncorrectSignInException();
         }
 
+        userActivityTracker.recordLogin(user.getId());
+        authStatsService.recordLogin();
         return new UserJwtDetails(user);
     }
 
+    /**
+     * Records that the user sent an authenticated request, which ends up in
+     * "lastSeenAt" the next time the recorded activity is written.
+     *
+     * @see UserActivityTracker
+     *
+     * @param userId the id of the user
+     */
+    public void recordActivity(long userId) {
+        userActivityTracker.recordSeen(userId);
+    }
+
     /**
      * Creating a new user, outside of testing, is only done when registering
      * a new account. Since a JWT token needs to be sent back to the client,
      * which requires the user's email, this function returns a UserJWTDetails
      * object based on the newly created user.
      *
+     * Concurrent registrations are written to the database together, in a
+     * single transaction, which relies on the unique index of the emails
+     * to find out which ones already exist. A registration for an email that
+     * is already being registered (i.e. a double-clicked sign up) shares the
+     * result of that registration instead of hashing the password again.
+     *
+     * @see UserRegistrationBatcher
+     * @see UserRegistrationCoalescer
+     *
      * @param request a RegisterUserRequest representing the JSON request
      * @return a UserJWTDetails object used to generate an access token
+     * @throws UserAlreadyExistsException if a user with the same email already exists.
      */
-    public final UserJwtDetails createUser(RegisterUserRequest request) throws UserAlreadyExistsException {
+    public UserJwtDetails createUser(RegisterUserRequest request) throws UserAlreadyExistsException {
+        User user = userRegistrationCoalescer.register(request.getEmail(), request.getPassword(), () -> {
 
-        Optional<User> existingUser = userRepository.findByEmail(request.getEmail());
-        if (existingUser.isPresent()) throw new UserAlreadyExistsException();
+            long hashStart = System.nanoTime();
+            BCryptHash hash = new BCryptHash(passwordEncoder.encode(request.getPassword()));
+            authMetrics.recordPasswordHash(hashStart);
 
-        BCryptHash hash = new BCryptHash(passwordEncoder.encode(request.getPassword()));
+            User newUser = new User();
+            newUser.setEmail(request.getEmail());
+            newUser.setPasswordHash(hash);
+            userRegistrationBatcher.register(newUser);
+            authStatsService.recordRegistration();
+            userSuggestionIndex.add(new UserSuggestionResponse(newUser.getId(), newUser.getEmail(), newUser.getGithubUsername()));
+            return newUser;
+        });
 
-        User newUser = new User();
-        newUser.setEmail(request.getEmail());
-        newUser.setPasswordHash(hash);
-        userRepository.save(newUser);
+        return new UserJwtDetails(user);
+    }
 
-        return new UserJwtDetails(newUser);
+    /**
+     * Used for typeahead; this never touches the database, as the
+     * suggestions are served from an in-memory index.
+     *
+     * @see UserSuggestionIndex
+     *
+     * @param prefix the start of an email or GitHub username (case-insensitive)
+     * @param limit the maximum number of users to return
+     * @return the users whose email or GitHub username starts with the prefix.
+     */
+    public List<UserSuggestionResponse> suggestUsers(String prefix, int limit) {
+        return userSuggestionIndex.suggest(prefix, limit);
     }
 
     /**
@@ -134,27 +221,206 @@ public class UserService {
      * @return a NonSensitiveUserDataResponse representing the JSON response.
      * @throws UserNotFoundException if the user was unable to be found.
      */
-    public final NonSensitiveUserDataResponse getNonSensitiveUserDetails(long id) throws UserNotFoundException {
-        User user = userRepository.findById(id).orElseThrow(UserNotFoundException::new);
-        return new NonSensitiveUserDataResponse(user.getId(), user.getEmail());
+    @WorkloadPool(Workload.READ)
+    public NonSensitiveUserDataResponse getNonSensitiveUserDetails(long id) throws UserNotFoundException {
+        return getNonSensitiveUserDetails(id, UserField.DEFAULT_FIELDS);
+    }
+
+    /**
+     * Concurrent lookups (i.e. from many requests at once) are coalesced into a
+     * single query, so looking up the same users over and over stays cheap.
+     *
+     * @see UserLookupCoalescer
+     *
+     * @param id the id of the user
+     * @param fields the fields to include in the response
+     * @return a NonSensitiveUserDataResponse containing only the requested fields.
+     * @throws UserNotFoundException if the user was unable to be found.
+     */
+    @WorkloadPool(Workload.READ)
+    public NonSensitiveUserDataResponse getNonSensitiveUserDetails(long id, Set<UserField> fields) throws UserNotFoundException {
+        User user = userLookupCoalescer.findById(id).orElseThrow(UserNotFoundException::new);
+        return createResponse(fields, user::getFieldValue);
+    }
+
+    /**
+     * @param ids the ids of the users
+     * @param fields the fields to include in the response
+     * @return the users that were found, in the order of the given ids (ignoring duplicates).
+     */
+    @WorkloadPool(Workload.READ)
+    public List<NonSensitiveUserDataResponse> getNonSensitiveUserDetails(Collection<Long> ids, Set<UserField> fields) {
+        List<NonSensitiveUserDataResponse> list = new ArrayList<>();
+        for (User user : userLookupCoalescer.findAllById(ids).values()) {
+            list.add(createResponse(fields, user::getFieldValue));
+        }
+        return list;
+    }
+
+    /**
+     * @param page Pageable representing the page
+     * @return a list of user data encoded in NonSensitiveUserDataResponse objects
+     * @throws EmptyPageException if there are no users on the page
+     */
+    @WorkloadPool(Workload.READ)
+    public List<NonSensitiveUserDataResponse> getUsers(Pageable page) throws EmptyPageException {
+        return getUsers(page, UserField.DEFAULT_FIELDS, new UserFilterRequest());
     }
 
     /**
+     * Only the columns of the requested fields are selected from the database,
+     * which keeps both the query and the response small when clients only need
+     * some of the fields (i.e. just the ids).
+     *
      * @param page Pageable representing the page
+     * @param fields the fields to include in the response
+     * @param filter the filters (email domain, registration date) the users have to match
      * @return a list of user data encoded in NonSensitiveUserDataResponse objects
-     * @throws EmptyPageException if there are
+     * @throws EmptyPageException if there are no users on the page
      */
-    public final List<NonSensitiveUserDataResponse> getUsers(Pageable page) throws EmptyPageException {
-        Page<User> pageEntries = userRepository.findAll(page);
+    @WorkloadPool(Workload.READ)
+    public List<NonSensitiveUserDataResponse> getUsers(Pageable page, Set<UserField> fields, UserFilterRequest filter) throws EmptyPageException {
+        List<Tuple> pageEntries = userRepository.findAllProjected(fields, filter, page);
         if (pageEntries.isEmpty()) {
             throw new EmptyPageException();
         }
         List<NonSensitiveUserDataResponse> list = new ArrayList<>();
-        for (User entry: pageEntries) {
-            NonSensitiveUserDataResponse response = new NonSensitiveUserDataResponse(entry.getId(), entry.getEmail());
+        for (Tuple entry: pageEntries) {
+            NonSensitiveUserDataResponse response = createResponse(fields, field -> entry.get(field.getFieldName()));
             list.add(response);
         }
         return list;
     }
 
-}
+    /**
+     * Counts the users matching the filter. Counting is exact up to EXACT_COUNT_LIMIT;
+     * past that, it is MySQL's estimate of the table size when not filtering, and
+     * EXACT_COUNT_LIMIT itself (i.e. "at least this many") when filtering.
+     *
+     * @param filter the filters (email domain, registration date) the users have to match
+     * @return the (possibly approximate) number of matching users
+     */
+    @WorkloadPool(Workload.READ)
+    public ApproximateCount countUsers(UserFilterRequest filter) {
+        long count = userRepository.countUpTo(filter, EXACT_COUNT_LIMIT + 1);
+        if (count <= EXACT_COUNT_LIMIT) {
+            return new ApproximateCount(count, true);
+        }
+        if (filter.isFiltering()) {
+            return new ApproximateCount(EXACT_COUNT_LIMIT, false);
+        }
+        return new ApproximateCount(Math.max(EXACT_COUNT_LIMIT, userRepository.estimateRowCount()), false);
+    }
+
+    /**
+     * Used by admins to find inactive accounts. As the activity is written
+     * in the background (see UserActivityTracker), it can lag behind by up
+     * to "focust.users.activity.flush-interval-ms".
+     *
+     * @see UserActivityTracker
+     *
+     * @param since users who have not been seen since then are inactive
+     * @param page Pageable representing the page
+     * @return the inactive users on the page (ordered by id), with when they were last seen and signed in.
+     */
+    @WorkloadPool(Workload.READ)
+    public List<UserActivityResponse> getInactiveUsers(ZonedDateTime since, Pageable page) {
+        return userRepository.findInactiveSince(since, page);
+    }
+
+    /**
+     * Used by clients that keep a copy of the user directory, so they only
+     * need to download what changed since they last synced, rather than every
+     * user. Both created users and deleted ones (as just their ids) are
+     * returned in the order they changed in, up to "limit" of them at once.
+     *
+     * @see UserChangeSequence
+     *
+     * @param since the sync token of the last sync, or 0 when syncing for the first time
+     * @param limit the maximum number of changes (users and deletions) to return
+     * @param fields the fields to include for the changed users
+     * @return the changes, along with the sync token to use next time.
+     */
+    @WorkloadPool(Workload.READ)
+    public UserChangesResponse getChanges(long since, int limit, Set<UserField> fields) {
+        long upTo = userChangeSequence.getWatermark();
+        Pageable page = PageRequest.ofSize(limit + 1);
+        List<User> changedUsers = userRepository.findChangedBetween(since, upTo, page);
+        List<UserTombstone> tombstones = userTombstoneRepository.findDeletedBetween(since, upTo, page);
+
+        // merges both lists by change sequence, until "limit" changes have been taken.
+        List<NonSensitiveUserDataResponse> users = new ArrayList<>();
+        List<Long> deleted = new ArrayList<>();
+        long lastSequence = since;
+        int userIndex = 0, tombstoneIndex = 0;
+        while (users.size() + deleted.size() < limit && (userIndex < changedUsers.size() || tombstoneIndex < tombstones.size())) {
+            boolean isUserNext = tombstoneIndex >= tombstones.size() || (userIndex < changedUsers.size()
+                    && changedUsers.get(userIndex).getChangeSequence() < tombstones.get(tombstoneIndex).getChangeSequence());
+            if (isUserNext) {
+                User user = changedUsers.get(userIndex++);
+                users.add(createResponse(fields, user::getFieldValue));
+                lastSequence = user.getChangeSequence();
+            }
+            else {
+                UserTombstone tombstone = tombstones.get(tombstoneIndex++);
+                deleted.add(tombstone.getUserId());
+                lastSequence = tombstone.getChangeSequence();
+            }
+        }
+        boolean hasMore = userIndex < changedUsers.size() || tombstoneIndex < tombstones.size();
+
+        // the token is always the sequence of a change that was actually stored
+        // (or the given one), which stays valid even if the application restarts.
+        return new UserChangesResponse(users, deleted, String.valueOf(lastSequence), hasMore);
+    }
+
+    /**
+     * Deleting a user leaves a tombstone behind, so that clients syncing the
+     * user directory find out about the deletion.
+     *
+     * @see UserTombstone
+     *
+     * @param id the id of the user
+     * @throws UserNotFoundException if the user was unable to be found.
+     */
+    public void deleteUser(long id) throws UserNotFoundException {
+        long sequence = userChangeSequence.reserve(1);
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                User existingUser = userRepository.findById(id).orElseThrow(UserNotFoundException::new);
+                userRepository.delete(existingUser);
+                userTombstoneRepository.save(new UserTombstone(id, sequence));
+            });
+            userSuggestionIndex.remove(id);
+        }
+        finally {
+            userChangeSequence.complete(sequence, 1);
+        }
+    }
+
+    ///////////////////////////////////////////////////////////////////////////
+
+    private Optional<User> findByEmail(String email) {
+        long start = System.nanoTime();
+        try {
+            return userRepository.findByEmail(email);
+        }
+        finally {
+            ServerTiming.record(ServerTiming.Phase.DB, start);
+        }
+    }
+
+    // Fields that were not requested are left as null, which are then left out of the JSON response.
+    private static NonSensitiveUserDataResponse createResponse(Set<UserField> fields, Function<UserField, Object> valueOf) {
+        Function<UserField, Object> requested = field -> fields.contains(field) ? valueOf.apply(field) : null;
+        return new NonSensitiveUserDataResponse(
+                (Long)requested.apply(UserField.ID),
+                (String)requested.apply(UserField.EMAIL),
+                (String)requested.apply(UserField.GITHUB_USERNAME),
+                (String)requested.apply(UserField.GITHUB_AVATAR_URL),
+                (String)requested.apply(UserField.GITHUB_DISPLAY_NAME),
+                (ZonedDateTime)requested.apply(UserField.REGISTRATION_DATE)
+        );
+    }
+
+}
\ No newline at end of file
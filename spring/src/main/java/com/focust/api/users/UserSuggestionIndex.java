@@ -0,0 +1,188 @@
+/**
+ * UserSuggestionIndex.java - In-memory prefix index of user emails & GitHub usernames.
+ * Copyright (C) 2024  Allan DeBoe
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ * ------------------------------------------------------------------------
+ *
+ * Typeahead sends a request on every keystroke, so running a
+ * "LIKE 'abc%'" query against MySQL for each of them doesn't scale.
+ * Instead, the (lowercase) emails and GitHub usernames of every user are
+ * kept in a sorted, concurrent map, where all terms starting with a given
+ * prefix are next to each other and can be found with a single O(log n)
+ * lookup. Unlike a sorted array, new users can be added without having to
+ * rebuild the whole index.
+ *
+ * The index is built once on startup and kept up to date by UserService
+ * whenever a user is created or deleted on this instance. Users created,
+ * changed, or deleted on the other instances are picked up from the change
+ * sequence (see UserChangeSequence), the same way clients sync the user
+ * directory, every "focust.users.suggestions.refresh-interval-ms".
+ *
+ * @see com.focust.api.users.UserService
+ *
+ * @author Allan DeBoe (allan.m.deboe@gmail.com)
+ * @version 0.0.6
+ * @since 0.0.6
+ */
+package com.focust.api.users;
+
+///////////////////////////////////////////////////////////////////////////
+
+// Focust //
+import com.focust.api.dto.responses.UserSuggestionResponse;
+
+// Jakarta //
+import jakarta.annotation.PostConstruct;
+
+// Spring Framework //
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+// Standard Java //
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+///////////////////////////////////////////////////////////////////////////
+
+@Component
+class UserSuggestionIndex {
+
+    // separates the term from the user id in the keys; since it sorts before
+    // every other character, "abc\0<id>" still falls in the range of prefix "abc".
+    private static final char KEY_SEPARATOR = '\0';
+
+    // how many changes are read at once when refreshing.
+    private static final int REFRESH_BATCH_SIZE = 500;
+
+    @Autowired private UserRepository userRepository;
+    @Autowired private UserTombstoneRepository userTombstoneRepository;
+    @Autowired private UserChangeSequence userChangeSequence;
+
+    // keys are "<term><KEY_SEPARATOR><user id>", so the same term can belong to more than one user.
+    private final ConcurrentSkipListMap<String, UserSuggestionResponse> entries = new ConcurrentSkipListMap<>();
+
+    // what each user is indexed under, so a changed (or deleted) user's old terms can be removed.
+    private final Map<Long, UserSuggestionResponse> users = new ConcurrentHashMap<>();
+
+    // the change sequence up to which every change is in the index.
+    private volatile long refreshedUpTo;
+
+    @PostConstruct
+    void build() {
+        // changes made while building are applied (again) by the next refresh.
+        refreshedUpTo = userChangeSequence.getWatermark();
+        for (UserSuggestionResponse user : userRepository.findAllSuggestions()) {
+            add(user);
+        }
+    }
+
+    /**
+     * Applies the changes made since the last refresh (or the build), by
+     * any instance, to the index.
+     */
+    @Scheduled(fixedDelayString = "${focust.users.suggestions.refresh-interval-ms:10000}")
+    void refresh() {
+        long upTo = userChangeSequence.getWatermark();
+        long after = refreshedUpTo;
+        List<User> changedUsers;
+        do {
+            changedUsers = userRepository.findChangedBetween(after, upTo, PageRequest.ofSize(REFRESH_BATCH_SIZE));
+            for (User user : changedUsers) {
+                add(new UserSuggestionResponse(user.getId(), user.getEmail(), user.getGithubUsername()));
+                after = user.getChangeSequence();
+            }
+        } while (changedUsers.size() == REFRESH_BATCH_SIZE);
+
+        // ids are never reused, so a deletion can be applied after the user's own (earlier) changes.
+        after = refreshedUpTo;
+        List<UserTombstone> tombstones;
+        do {
+            tombstones = userTombstoneRepository.findDeletedBetween(after, upTo, PageRequest.ofSize(REFRESH_BATCH_SIZE));
+            for (UserTombstone tombstone : tombstones) {
+                remove(tombstone.getUserId());
+                after = tombstone.getChangeSequence();
+            }
+        } while (tombstones.size() == REFRESH_BATCH_SIZE);
+
+        refreshedUpTo = upTo;
+    }
+
+    /**
+     * @param user the user to add (or update) in the index.
+     */
+    void add(UserSuggestionResponse user) {
+        synchronized (users) {
+            UserSuggestionResponse previous = users.put(user.getId(), user);
+            if (previous != null) removeTerms(previous);
+            entries.put(createKey(user.getEmail(), user.getId()), user);
+            if (user.getGithubUsername() != null) {
+                entries.put(createKey(user.getGithubUsername(), user.getId()), user);
+            }
+        }
+    }
+
+    /**
+     * @param userId the id of the user to remove from the index.
+     */
+    void remove(long userId) {
+        synchronized (users) {
+            UserSuggestionResponse previous = users.remove(userId);
+            if (previous != null) removeTerms(previous);
+        }
+    }
+
+    /**
+     * @param prefix the start of an email or GitHub username (case-insensitive)
+     * @param limit the maximum number of users to return
+     * @return the users whose email or GitHub username starts with the prefix, in alphabetical order.
+     */
+    List<UserSuggestionResponse> suggest(String prefix, int limit) {
+        String term = normalize(prefix);
+        if (term.isEmpty()) return List.of();
+
+        // a user can match both by email and by GitHub username, but should only show up once.
+        Map<Long, UserSuggestionResponse> matches = new LinkedHashMap<>();
+        for (UserSuggestionResponse user : entries.subMap(term, true, term + Character.MAX_VALUE, false).values()) {
+            matches.putIfAbsent(user.getId(), user);
+            if (matches.size() >= limit) break;
+        }
+        return new ArrayList<>(matches.values());
+    }
+
+    ///////////////////////////////////////////////////////////////////////////
+
+    private void removeTerms(UserSuggestionResponse user) {
+        entries.remove(createKey(user.getEmail(), user.getId()));
+        if (user.getGithubUsername() != null) {
+            entries.remove(createKey(user.getGithubUsername(), user.getId()));
+        }
+    }
+
+    private static String createKey(String term, long id) {
+        return normalize(term) + KEY_SEPARATOR + id;
+    }
+
+    private static String normalize(String term) {
+        return term.trim().toLowerCase(Locale.ROOT).replace(String.valueOf(KEY_SEPARATOR), "");
+    }
+
+}
@@ -0,0 +1,88 @@
+/**
+ * UserTombstone.java - Model representing the "user_tombstones" table.
+ * Copyright (C) 2024  Allan DeBoe
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ * ------------------------------------------------------------------------
+ *
+ * Once a user is deleted, its row is gone, so clients that sync the user
+ * directory (see "/users/changes") would never find out about it. Instead,
+ * a tombstone is left behind with just the id of the deleted user and the
+ * change sequence of the deletion.
+ *
+ * @see com.focust.api.users.UserChangeSequence
+ *
+ * @author Allan DeBoe (allan.m.deboe@gmail.com)
+ * @version 0.0.6
+ * @since 0.0.6
+ */
+package com.focust.api.users;
+
+///////////////////////////////////////////////////////////////////////////
+
+// Jakarta & Hibernate //
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import jakarta.persistence.Temporal;
+import jakarta.persistence.TemporalType;
+
+// Project Lombok //
+import lombok.AccessLevel;
+import lombok.Getter;
+
+// Standard Java //
+import java.time.ZonedDateTime;
+
+///////////////////////////////////////////////////////////////////////////
+
+@Entity
+@Table(name = "user_tombstones", indexes = {
+        @Index(name = "user_tombstones_change_sequence_index", columnList = "change_sequence")
+})
+class UserTombstone {
+
+    /**
+     * User ids are never reused, so there is at most one tombstone per id.
+     *
+     * @return the id of the deleted user
+     */
+    @Id
+    @Column(name = "user_id")
+    @Getter(AccessLevel.PROTECTED) private Long userId;
+
+    /**
+     * @return the change sequence of the deletion
+     */
+    @Column(name = "change_sequence", nullable = false)
+    @Getter(AccessLevel.PROTECTED) private long changeSequence;
+
+    /**
+     * @return the date the user was deleted
+     */
+    @Column(name = "deleted_at", nullable = false, updatable = false)
+    @Temporal(TemporalType.TIMESTAMP)
+    @Getter(AccessLevel.PROTECTED) private ZonedDateTime deletedAt;
+
+    protected UserTombstone() { }
+
+    UserTombstone(long userId, long changeSequence) {
+        this.userId = userId;
+        this.changeSequence = changeSequence;
+        this.deletedAt = ZonedDateTime.now();
+    }
+
+}
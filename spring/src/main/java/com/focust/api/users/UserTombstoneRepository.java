@@ -0,0 +1,45 @@
+/**
+ * UserTombstoneRepository.java - Repository for the "user_tombstones" table.
+ * Copyright (C) 2024  Allan DeBoe
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ * ------------------------------------------------------------------------
+ *
+ * @see com.focust.api.users.UserTombstone
+ *
+ * @author Allan DeBoe (allan.m.deboe@gmail.com)
+ * @version 0.0.6
+ * @since 0.0.6
+ */
+package com.focust.api.users;
+
+///////////////////////////////////////////////////////////////////////////
+
+// Spring Framework //
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+// Standard Java //
+import java.util.List;
+
+///////////////////////////////////////////////////////////////////////////
+
+interface UserTombstoneRepository extends JpaRepository<UserTombstone, Long> {
+
+    @Query("SELECT t FROM UserTombstone t WHERE t.changeSequence > :after AND t.changeSequence <= :upTo ORDER BY t.changeSequence")
+    List<UserTombstone> findDeletedBetween(@Param("after") long after, @Param("upTo") long upTo, Pageable page);
+
+}
@@ -0,0 +1,107 @@
+/**
+ * JsonWarmUp.java - Warms up Jackson with the DTOs of the busiest requests
+ * Copyright (C) 2024  Allan DeBoe
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ * ------------------------------------------------------------------------
+ *
+ * Jackson builds the (de)serializer of a class the first time it sees it,
+ * and caches it in the ObjectMapper, so creating a reader or writer for
+ * each DTO (which fetches it eagerly) does that before the first request.
+ * Sign in requests and token responses, by far the most common bodies,
+ * are then read and written "focust.warm-up.iterations" times.
+ *
+ * @see com.focust.api.warmup.WarmUp
+ *
+ * @author Allan DeBoe (allan.m.deboe@gmail.com)
+ * @version 0.0.6
+ * @since 0.0.6
+ */
+package com.focust.api.warmup;
+
+///////////////////////////////////////////////////////////////////////////
+
+// Focust //
+import com.focust.api.dto.requests.RegisterUserRequest;
+import com.focust.api.dto.requests.SignInUserRequest;
+import com.focust.api.dto.responses.AuthStatsResponse;
+import com.focust.api.dto.responses.JwtTokenResponse;
+import com.focust.api.dto.responses.NonSensitiveUserDataResponse;
+import com.focust.api.dto.responses.ProblemResponse;
+import com.focust.api.dto.responses.UserChangesResponse;
+import com.focust.api.dto.responses.UserImportResultResponse;
+import com.focust.api.dto.responses.UserSuggestionResponse;
+
+// Jackson //
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+// Spring Framework //
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+// Standard Java //
+import java.util.List;
+
+///////////////////////////////////////////////////////////////////////////
+
+@Component
+@Order(3)
+class JsonWarmUp implements WarmUpTask {
+
+    private static final List<Class<?>> REQUEST_TYPES = List.of(SignInUserRequest.class, RegisterUserRequest.class);
+
+    private static final List<Class<?>> RESPONSE_TYPES = List.of(
+            JwtTokenResponse.class,
+            NonSensitiveUserDataResponse.class,
+            UserSuggestionResponse.class,
+            UserChangesResponse.class,
+            UserImportResultResponse.class,
+            AuthStatsResponse.class,
+            ProblemResponse.class
+    );
+
+    private static final String SIGN_IN_REQUEST = "{\"email\":\"warm-up@focust.invalid\",\"password\":\"warm-up-password\"}";
+
+    @Autowired private ObjectMapper objectMapper;
+
+    @Value("${focust.warm-up.iterations:2000}")
+    private int iterations;
+
+    @Override
+    public String getName() {
+        return "json";
+    }
+
+    @Override
+    public void warmUp() throws Exception {
+        for (Class<?> type : REQUEST_TYPES) {
+            objectMapper.readerFor(type);
+        }
+        for (Class<?> type : RESPONSE_TYPES) {
+            objectMapper.writerFor(type);
+        }
+
+        ObjectReader signInReader = objectMapper.readerFor(SignInUserRequest.class);
+        ObjectWriter tokenWriter = objectMapper.writerFor(JwtTokenResponse.class);
+        for (int i = 0; i < iterations; i++) {
+            SignInUserRequest request = signInReader.readValue(SIGN_IN_REQUEST);
+            tokenWriter.writeValueAsBytes(new JwtTokenResponse(request.getEmail(), i));
+        }
+    }
+
+}
@@ -0,0 +1,144 @@
+/**
+ * WarmUp.java - Runs the warm-up tasks, and reports whether they are done
+ * Copyright (C) 2024  Allan DeBoe
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ * ------------------------------------------------------------------------
+ *
+ * Right after starting, bcrypt, JWT signing and verification, Jackson and
+ * Hibernate all run interpreted, which is when the first few thousand
+ * requests are at their slowest. The tasks are run on their own thread
+ * once the application is ready, and until they are done, this health
+ * indicator ("warmUp", part of the "readiness" group) is OUT_OF_SERVICE,
+ * so no traffic is sent before the server is warm.
+ *
+ * The tasks are given at most "focust.warm-up.timeout", after which the
+ * server is reported ready anyway (while they go on in the background),
+ * so a slow or stuck task never keeps a deploy from going through.
+ *
+ * @see com.focust.api.warmup.WarmUpTask
+ *
+ * @author Allan DeBoe (allan.m.deboe@gmail.com)
+ * @version 0.0.6
+ * @since 0.0.6
+ */
+package com.focust.api.warmup;
+
+///////////////////////////////////////////////////////////////////////////
+
+// Project Lombok //
+import lombok.extern.slf4j.Slf4j;
+
+// Spring Framework //
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+
+// Standard Java //
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+///////////////////////////////////////////////////////////////////////////
+
+@Slf4j
+public class WarmUp implements HealthIndicator {
+
+    private final List<WarmUpTask> tasks;
+    private final Duration timeout;
+
+    private final CompletableFuture<Void> completion = new CompletableFuture<>();
+    private final Map<String, Long> taskMillis = new LinkedHashMap<>();
+    private volatile String currentTask;
+    private volatile boolean started;
+
+    /**
+     * @param tasks the tasks to run, in order
+     * @param timeout how long the tasks are given before the server is reported ready anyway
+     */
+    public WarmUp(List<WarmUpTask> tasks, Duration timeout) {
+        this.tasks = List.copyOf(tasks);
+        this.timeout = timeout;
+    }
+
+    /**
+     * Starts running the tasks (only the first time this is called).
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void start() {
+        if (started) return;
+        started = true;
+
+        Thread thread = new Thread(this::runTasks, "warm-up");
+        thread.setDaemon(true);
+        thread.start();
+
+        CompletableFuture.delayedExecutor(timeout.toMillis(), TimeUnit.MILLISECONDS).execute(() -> {
+            if (completion.complete(null)) {
+                log.atWarn().setMessage("Warm-up timed out, the server is ready anyway")
+                        .addKeyValue("task", currentTask).addKeyValue("timeout", timeout).log();
+            }
+        });
+    }
+
+    /**
+     * @return true once every task is done (or the timeout is over).
+     */
+    public boolean isComplete() {
+        return completion.isDone();
+    }
+
+    @Override
+    public Health health() {
+        Map<String, Long> millis;
+        synchronized (taskMillis) {
+            millis = new LinkedHashMap<>(taskMillis);
+        }
+        if (!isComplete()) {
+            return Health.outOfService().withDetail("task", Objects.requireNonNullElse(currentTask, "pending")).withDetail("tasks", millis).build();
+        }
+        return Health.up().withDetail("tasks", millis).build();
+    }
+
+    ///////////////////////////////////////////////////////////////////////////
+
+    private void runTasks() {
+        long start = System.nanoTime();
+        for (WarmUpTask task : tasks) {
+            currentTask = task.getName();
+            long taskStart = System.nanoTime();
+            try {
+                task.warmUp();
+            }
+            catch (Exception e) {
+                log.atWarn().setMessage("Warm-up task failed").addKeyValue("task", task.getName()).addKeyValue("error", e.getMessage()).log();
+            }
+            synchronized (taskMillis) {
+                taskMillis.put(task.getName(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - taskStart));
+            }
+        }
+        currentTask = null;
+
+        if (completion.complete(null)) {
+            log.atInfo().setMessage("Warm-up done, the server is ready")
+                    .addKeyValue("durationMs", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)).log();
+        }
+    }
+
+}
@@ -0,0 +1,54 @@
+/**
+ * WarmUpConfiguration.java - Configuration of the warm-up before readiness
+ * Copyright (C) 2024  Allan DeBoe
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ * ------------------------------------------------------------------------
+ *
+ * @see com.focust.api.warmup.WarmUp
+ *
+ * @author Allan DeBoe (allan.m.deboe@gmail.com)
+ * @version 0.0.6
+ * @since 0.0.6
+ */
+package com.focust.api.warmup;
+
+///////////////////////////////////////////////////////////////////////////
+
+// Spring Framework //
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+// Standard Java //
+import java.time.Duration;
+import java.util.List;
+
+///////////////////////////////////////////////////////////////////////////
+
+@Configuration
+public class WarmUpConfiguration {
+
+    // Named "warmUp", which is also the name of its health indicator (see "management.endpoint.health.group.readiness").
+    @Bean
+    public WarmUp warmUp(
+            ObjectProvider<WarmUpTask> tasks,
+            @Value("${focust.warm-up.enabled:true}") boolean enabled,
+            @Value("${focust.warm-up.timeout:PT2M}") Duration timeout
+    ) {
+        return new WarmUp(enabled ? tasks.orderedStream().toList() : List.of(), timeout);
+    }
+
+}
@@ -0,0 +1,50 @@
+/**
+ * WarmUpTask.java - Work done after starting, before being ready for traffic
+ * Copyright (C) 2024  Allan DeBoe
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ * ------------------------------------------------------------------------
+ *
+ * Every bean implementing this is run once by WarmUp, in the order given
+ * by their @Order, so that the code of the busiest requests has been run
+ * (and compiled by the JIT) enough times before the first actual request.
+ * Tasks live next to the code they warm up, as they usually need its
+ * package-private parts.
+ *
+ * @see com.focust.api.warmup.WarmUp
+ *
+ * @author Allan DeBoe (allan.m.deboe@gmail.com)
+ * @version 0.0.6
+ * @since 0.0.6
+ */
+package com.focust.api.warmup;
+
+///////////////////////////////////////////////////////////////////////////
+
+public interface WarmUpTask {
+
+    /**
+     * @return the name of the task, as shown by the "warmUp" health indicator.
+     */
+    String getName();
+
+    /**
+     * Runs the task. A task failing is logged, but does not keep the
+     * application from becoming ready, as it would only be slower at first.
+     *
+     * @throws Exception if the task failed.
+     */
+    void warmUp() throws Exception;
+
+}
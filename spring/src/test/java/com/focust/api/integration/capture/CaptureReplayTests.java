@@ -0,0 +1,188 @@
+/**
+ * CaptureReplayTests.java - Captures requests, and replays them against the server
+ * Copyright (C) 2024  Allan DeBoe
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ * ------------------------------------------------------------------------
+ *
+ * Besides checking that a replay of captured traffic gets the same
+ * responses, this is how captures are replayed to compare two builds:
+ *
+ *   mvn test -Dtest=CaptureReplayTests \
+ *       -Dfocust.replay.capture=capture/requests-....fcap \
+ *       -Dfocust.replay.speed=1 \
+ *       -Dfocust.replay.baseline=target/replay/latency-report.json
+ *
+ * replays the capture against this build (backed by FocustMySQLContainer),
+ * writes its latency report to "target/replay/latency-report.json", and
+ * prints how it compares with the report of the other build (copied
+ * somewhere else first, as it gets overwritten). The server is run over
+ * plain HTTP, so TLS handshakes are not part of the comparison.
+ *
+ * @see com.focust.api.util.replay.CaptureReplayer
+ *
+ * @author Allan DeBoe (allan.m.deboe@gmail.com)
+ * @version 0.0.6
+ * @since 0.0.6
+ */
+package com.focust.api.integration.capture;
+
+///////////////////////////////////////////////////////////////////////////
+
+// Focust //
+import com.focust.api.capture.CaptureFile;
+import com.focust.api.capture.CapturedRequest;
+import com.focust.api.capture.RequestCaptureWriter;
+import com.focust.api.util.replay.CaptureReplayer;
+import com.focust.api.util.replay.LatencyReport;
+import com.focust.api.util.testcontainers.UseFocustMySQL;
+
+// JUnit 5 (Jupiter) //
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+// Spring Framework //
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.annotation.DirtiesContext;
+
+// Standard Java //
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Base64;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+// Static Imports //
+import static org.assertj.core.api.Assertions.assertThat;
+
+///////////////////////////////////////////////////////////////////////////
+
+@SpringBootTest(
+        webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {
+                "server.ssl.enabled=false",
+                "focust.capture.enabled=true",
+                "focust.capture.directory=target/capture",
+                "spring.security.user.password=" + CaptureReplayTests.ADMIN_PASSWORD
+        }
+)
+@UseFocustMySQL
+@DirtiesContext
+class CaptureReplayTests {
+
+    static final String ADMIN_PASSWORD = "capture-test-password";
+
+    private static final int USERS = 10;
+    private static final long PHASE_PAUSE_MILLIS = 250;
+    private static final Path REPORT = Path.of("target", "replay", "latency-report.json");
+
+    @LocalServerPort private int serverPort;
+    @Autowired private RequestCaptureWriter requestCaptureWriter;
+
+    private final HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+
+    @Test
+    public final void givenCapturedTraffic_whenReplayed_thenSameStatusesWithoutPersonalData() throws Exception {
+        long startOffsetNanos = requestCaptureWriter.elapsedNanos();
+        for (int i = 0; i < USERS; i++) {
+            send(post("/auth/register", "application/json", signIn("capture-" + i, "password" + i)));
+        }
+        Thread.sleep(PHASE_PAUSE_MILLIS);
+        for (int i = 0; i < USERS; i++) {
+            send(post("/auth/login", "application/json", signIn("capture-" + i, "password" + i)));
+        }
+        send(post("/auth/login", "application/json", signIn("capture-0", "wrong-password")));
+        send(post("/users/import", "text/csv", "email,password\ncapture-import@replay.focust.test,password123\n")
+                .header("Authorization", adminAuthorization()));
+        Thread.sleep(PHASE_PAUSE_MILLIS);
+        send(get("/users?size=5&domain=replay.focust.test"));
+        send(get("/users/suggest?q=capture"));
+        send(get("/users/1"));
+
+        requestCaptureWriter.flush();
+        Path file = requestCaptureWriter.getFile();
+        List<CapturedRequest> captured = CaptureFile.read(file).stream()
+                .filter(request -> request.offsetNanos() >= startOffsetNanos)
+                .toList();
+        assertThat(captured).hasSize(2 * USERS + 5);
+        assertThat(decompress(file)).doesNotContain("capture-", "password0", "password123", "replay.focust.test", ADMIN_PASSWORD);
+
+        List<CaptureReplayer.ReplayedRequest> replayed = replayer(1.0).replay(captured);
+        assertThat(replayed).extracting(CaptureReplayer.ReplayedRequest::status)
+                .containsExactlyElementsOf(captured.stream().map(CapturedRequest::status).toList());
+
+        LatencyReport report = LatencyReport.of(replayed);
+        assertThat(report.getEntries()).containsKeys("POST /auth/register", "POST /auth/login", "GET /users/{id}");
+        report.write(REPORT);
+    }
+
+    @Test
+    @EnabledIfSystemProperty(named = "focust.replay.capture", matches = ".+")
+    public final void givenCaptureFile_whenReplayed_thenLatencyReportIsWritten() throws Exception {
+        List<CapturedRequest> captured = CaptureFile.read(Path.of(System.getProperty("focust.replay.capture")));
+        double speed = Double.parseDouble(System.getProperty("focust.replay.speed", "1"));
+
+        LatencyReport report = LatencyReport.of(replayer(speed).replay(captured));
+        String baseline = System.getProperty("focust.replay.baseline");
+        if (baseline != null && Files.exists(Path.of(baseline))) {
+            System.out.println("(CaptureReplayTests) - Compared with \"" + baseline + "\":\n" + report.diff(LatencyReport.read(Path.of(baseline))));
+        }
+        report.write(REPORT);
+        System.out.println("(CaptureReplayTests) - Replayed " + captured.size() + " requests at " + speed + "x, report written to \"" + REPORT + "\".");
+    }
+
+    ///////////////////////////////////////////////////////////////////////////
+
+    private CaptureReplayer replayer(double speed) {
+        return new CaptureReplayer(client, URI.create("http://localhost:" + serverPort), speed)
+                .withCredential(CapturedRequest.Credential.BASIC, adminAuthorization());
+    }
+
+    private HttpRequest.Builder get(String path) {
+        return HttpRequest.newBuilder(URI.create("http://localhost:" + serverPort + path)).GET();
+    }
+
+    private HttpRequest.Builder post(String path, String contentType, String body) {
+        return HttpRequest.newBuilder(URI.create("http://localhost:" + serverPort + path))
+                .header("Content-Type", contentType)
+                .POST(HttpRequest.BodyPublishers.ofString(body));
+    }
+
+    private void send(HttpRequest.Builder request) throws IOException, InterruptedException {
+        client.send(request.build(), HttpResponse.BodyHandlers.discarding());
+    }
+
+    private static String signIn(String name, String password) {
+        return "{ \"email\": \"" + name + "@replay.focust.test\", \"password\": \"" + password + "\" }";
+    }
+
+    private static String adminAuthorization() {
+        return "Basic " + Base64.getEncoder().encodeToString(("spring-admin:" + ADMIN_PASSWORD).getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String decompress(Path file) throws IOException {
+        try (GZIPInputStream input = new GZIPInputStream(Files.newInputStream(file))) {
+            return new String(input.readAllBytes(), StandardCharsets.ISO_8859_1);
+        }
+    }
+
+}
@@ -0,0 +1,144 @@
+/**
+ * RegistrationIdempotencyEndpointTests.java - Tests regarding the "Idempotency-Key" header of "/auth/register".
+ * Copyright (C) 2024  Allan DeBoe
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ * ------------------------------------------------------------------------
+ *
+ * @see com.focust.api.controllers.AuthenticationController
+ *
+ * @author Allan DeBoe (allan.m.deboe@gmail.com)
+ * @version 0.0.6
+ * @since 0.0.6
+ */
+package com.focust.api.integration.controllers;
+
+///////////////////////////////////////////////////////////////////////////
+
+// Focust //
+import com.focust.api.dto.requests.RegisterUserRequest;
+import com.focust.api.security.jwt.JwtService;
+import com.focust.api.util.querybudget.UseQueryBudget;
+import com.focust.api.util.restassured.UseFocustRestAssured;
+import com.focust.api.util.testcontainers.UseFocustMySQL;
+
+// REST-Assured //
+import io.restassured.RestAssured;
+import io.restassured.http.ContentType;
+import io.restassured.response.Response;
+import io.restassured.specification.RequestSpecification;
+
+// JUnit 5 (Jupiter) //
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+
+// Spring Framework //
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.core.env.Environment;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.annotation.DirtiesContext;
+
+// Static Imports //
+import static org.assertj.core.api.Assertions.assertThat;
+
+///////////////////////////////////////////////////////////////////////////
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@UseFocustRestAssured
+@UseFocustMySQL
+@UseQueryBudget
+@DirtiesContext
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+class RegistrationIdempotencyEndpointTests {
+
+    private static final String IDEMPOTENCY_KEY = "7c1f0b6e-idempotency-test";
+
+    // These data members are needed for @UseFocustRestAssured
+    @LocalServerPort protected int serverPort;
+    @Autowired protected ResourceLoader loader;
+    @Autowired protected Environment environment;
+
+    @Autowired private JwtService jwtService;
+
+    private static long registeredId;
+
+    @Test @Order(1)
+    public final void givenIdempotencyKey_whenRegistering_thenCreatedStatus() {
+        Response response = register(new RegisterUserRequest("retry@idempotency.focust.test", "password123"), IDEMPOTENCY_KEY);
+
+        response.then().assertThat()
+                .statusCode(HttpStatus.CREATED.value());
+        assertThat(response.header("Idempotent-Replayed")).isNull();
+        assertThat(response.cookie("jwt-refresh-token")).isNotEmpty();
+        registeredId = response.jsonPath().getLong("userId");
+    }
+
+    @Test @Order(2)
+    public final void givenSameIdempotencyKey_whenRegisteringAgain_thenFirstResponseReplayed() throws Exception {
+        Response response = register(new RegisterUserRequest("retry@idempotency.focust.test", "password123"), IDEMPOTENCY_KEY);
+
+        response.then().assertThat()
+                .statusCode(HttpStatus.CREATED.value());
+        assertThat(response.header("Idempotent-Replayed")).isEqualTo("true");
+        assertThat(response.jsonPath().getLong("userId")).isEqualTo(registeredId);
+
+        // only the outcome is kept, so the replay is sent freshly signed tokens.
+        assertThat(jwtService.validateToken(response.jsonPath().getString("accessToken"))).isTrue();
+        assertThat(jwtService.validateToken(response.cookie("jwt-refresh-token"))).isTrue();
+    }
+
+    @Test @Order(3)
+    public final void givenSameIdempotencyKey_whenRegisteringWithAnotherPassword_thenUnprocessableEntityStatus() {
+        Response response = register(new RegisterUserRequest("retry@idempotency.focust.test", "another-password"), IDEMPOTENCY_KEY);
+
+        response.then().assertThat()
+                .statusCode(HttpStatus.UNPROCESSABLE_ENTITY.value());
+        assertThat(response.cookie("jwt-refresh-token")).isNull();
+    }
+
+    @Test @Order(4)
+    public final void givenNoIdempotencyKey_whenRegisteringAgain_thenNotReplayed() {
+        Response response = register(new RegisterUserRequest("retry@idempotency.focust.test", "password123"), null);
+
+        // the email is taken, which (as before) is not an error.
+        response.then().assertThat()
+                .statusCode(HttpStatus.OK.value());
+        assertThat(response.cookie("jwt-refresh-token")).isNull();
+    }
+
+    @Test @Order(5)
+    public final void givenTooLongIdempotencyKey_whenRegistering_thenBadRequestStatus() {
+        Response response = register(new RegisterUserRequest("long-key@idempotency.focust.test", "password123"), "k".repeat(256));
+
+        response.then().assertThat()
+                .statusCode(HttpStatus.BAD_REQUEST.value());
+    }
+
+    ///////////////////////////////////////////////////////////////////////////
+
+    private static Response register(RegisterUserRequest request, String idempotencyKey) {
+        RequestSpecification specification = RestAssured.given()
+                .accept(ContentType.JSON)
+                .contentType(ContentType.JSON)
+                .body(request.getJson());
+        if (idempotencyKey != null) specification.header("Idempotency-Key", idempotencyKey);
+        return specification.when().post("/auth/register");
+    }
+
+}
@@ -21,11 +21,15 @@
  * is merely automating what I would do when using Postman to
  * test the endpoints of the back-end server.
  *
+ * Every request is also held to the query budget of its endpoint, so a
+ * change that makes one of them run more queries (i.e. an N+1 query
+ * problem) fails these tests.
+ *
  * @see com.focust.api.controllers.AuthenticationController
  * @see com.focust.api.controllers.UserController
  *
  * @author Allan DeBoe (allan.m.deboe@gmail.com)
- * @version 0.0.5
+ * @version 0.0.6
  * @since 0.0.3
  */
 package com.focust.api.integration.controllers;
@@ -36,6 +40,7 @@ package com.focust.api.integration.controllers;
 import com.focust.api.dto.requests.PageNumberRequest;
 import com.focust.api.dto.requests.RegisterUserRequest;
 import com.focust.api.dto.requests.SignInUserRequest;
+import com.focust.api.util.querybudget.UseQueryBudget;
 import com.focust.api.util.restassured.UseFocustRestAssured;
 import com.focust.api.util.testcontainers.UseFocustMySQL;
 
@@ -61,13 +66,18 @@ import org.springframework.http.HttpStatus;
 import org.springframework.test.annotation.DirtiesContext;
 
 // Hamcrest //
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.isA;
+import static org.hamcrest.Matchers.nullValue;
 
 ///////////////////////////////////////////////////////////////////////////
 
 @SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
 @UseFocustRestAssured
 @UseFocustMySQL
+@UseQueryBudget
 @DirtiesContext
 @TestMethodOrder(MethodOrderer.OrderAnnotation.class)
 class UserEndpointTests {
@@ -246,4 +256,125 @@ class UserEndpointTests {
                 .body("userId", isA(Integer.class));
     }
 
+    @Test @Order(8)
+    public final void givenUsers_whenSendingRequestForIdsOnly_thenOnlyIdsReturned() {
+
+        System.out.println("(UserEndpointTests) - Sending Request for the ids of the first user.");
+
+        Response response = RestAssured.given()
+                .accept(ContentType.JSON)
+                .queryParam("fields", "id")
+                .queryParam("size", 1)
+                .when().get("/users");
+
+        String responseBody = response.thenReturn().asString();
+        System.out.println("(UserEndpointTests) - Received:\n\"" + responseBody + "\"");
+
+        response.then().assertThat()
+                .statusCode(HttpStatus.OK.value())
+                .body("$", hasSize(1))
+                .and()
+                .body("[0].id", isA(Integer.class))
+                .and()
+                .body("[0].email", nullValue());
+    }
+
+    @Test @Order(9)
+    public final void givenUsers_whenSendingRequestWithTooLargePageSize_thenBadRequestStatus() {
+
+        System.out.println("(UserEndpointTests) - Sending Request with a page size that is too large.");
+
+        Response response = RestAssured.given()
+                .accept(ContentType.JSON)
+                .queryParam("size", 1000)
+                .when().get("/users");
+
+        String responseBody = response.thenReturn().asString();
+        System.out.println("(UserEndpointTests) - Received:\n\"" + responseBody + "\"");
+
+        response.then().assertThat()
+                .statusCode(HttpStatus.BAD_REQUEST.value());
+    }
+
+    @Test @Order(10)
+    public final void givenUsers_whenFilteringByEmailDomain_thenOkStatusWithCount() {
+
+        System.out.println("(UserEndpointTests) - Sending Request for users with a \"focust.local\" email.");
+
+        Response response = RestAssured.given()
+                .accept(ContentType.JSON)
+                .queryParam("domain", "FOCUST.local")
+                .when().get("/users");
+
+        String responseBody = response.thenReturn().asString();
+        System.out.println("(UserEndpointTests) - Received:\n\"" + responseBody + "\"");
+
+        response.then().assertThat()
+                .statusCode(HttpStatus.OK.value())
+                .header("X-Total-Count", isA(String.class))
+                .header("X-Total-Count-Exact", "true")
+                .and()
+                .body("[0].email", equalTo("user@focust.local"));
+    }
+
+    @Test @Order(11)
+    public final void givenUsers_whenFilteringByUnusedEmailDomain_thenNoContentStatus() {
+
+        System.out.println("(UserEndpointTests) - Sending Request for users with a \"nowhere.invalid\" email.");
+
+        Response response = RestAssured.given()
+                .accept(ContentType.JSON)
+                .queryParam("domain", "nowhere.invalid")
+                .queryParam("registeredAfter", "2024-01-01T00:00:00Z")
+                .when().get("/users");
+
+        response.then().assertThat()
+                .statusCode(HttpStatus.NO_CONTENT.value());
+    }
+
+    @Test @Order(12)
+    public final void givenUsers_whenSendingSuggestionRequest_thenMatchingUsersReturned() {
+
+        System.out.println("(UserEndpointTests) - Sending Suggestion Request for \"USER@\".");
+
+        Response response = RestAssured.given()
+                .accept(ContentType.JSON)
+                .queryParam("q", "USER@")
+                .when().get("/users/suggest");
+
+        String responseBody = response.thenReturn().asString();
+        System.out.println("(UserEndpointTests) - Received:\n\"" + responseBody + "\"");
+
+        response.then().assertThat()
+                .statusCode(HttpStatus.OK.value())
+                .body("email", hasItem("user@focust.local"));
+    }
+
+    @Test @Order(13)
+    public final void givenUsers_whenSendingBatchRequestForIds_thenOnlyExistingUsersReturned() {
+
+        int existingId = RestAssured.given()
+                .accept(ContentType.JSON)
+                .queryParam("fields", "id")
+                .queryParam("size", 1)
+                .when().get("/users")
+                .then().extract().path("[0].id");
+
+        System.out.println("(UserEndpointTests) - Sending Batch Request for the users with ids " + existingId + " and -1.");
+
+        Response response = RestAssured.given()
+                .accept(ContentType.JSON)
+                .queryParam("ids", existingId + ",-1," + existingId)
+                .when().get("/users");
+
+        String responseBody = response.thenReturn().asString();
+        System.out.println("(UserEndpointTests) - Received:\n\"" + responseBody + "\"");
+
+        response.then().assertThat()
+                .statusCode(HttpStatus.OK.value())
+                .body("$", hasSize(1))
+                .and()
+                .body("[0].id", equalTo(existingId));
+    }
+
 }
@@ -0,0 +1,151 @@
+/**
+ * UserImportEndpointTests.java - Tests regarding the "/users/import" endpoint.
+ * Copyright (C) 2024  Allan DeBoe
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ * ------------------------------------------------------------------------
+ *
+ * @see com.focust.api.controllers.UserController
+ * @see com.focust.api.users.UserImportService
+ *
+ * @author Allan DeBoe (allan.m.deboe@gmail.com)
+ * @version 0.0.6
+ * @since 0.0.6
+ */
+package com.focust.api.integration.controllers;
+
+///////////////////////////////////////////////////////////////////////////
+
+// Focust //
+import com.focust.api.util.restassured.UseFocustRestAssured;
+import com.focust.api.util.testcontainers.UseFocustMySQL;
+
+// REST-Assured //
+import io.restassured.RestAssured;
+import io.restassured.path.json.JsonPath;
+import io.restassured.response.Response;
+
+// JUnit 5 (Jupiter) //
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+
+// Spring Framework //
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.core.env.Environment;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.annotation.DirtiesContext;
+
+// Standard Java //
+import java.util.List;
+
+// Static Imports //
+import static org.assertj.core.api.Assertions.assertThat;
+
+///////////////////////////////////////////////////////////////////////////
+
+@SpringBootTest(
+        webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "spring.security.user.password=" + UserImportEndpointTests.ADMIN_PASSWORD
+)
+@UseFocustRestAssured
+@UseFocustMySQL
+@DirtiesContext
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+class UserImportEndpointTests {
+
+    static final String ADMIN_PASSWORD = "import-test-password";
+
+    // These data members are needed for @UseFocustRestAssured
+    @LocalServerPort protected int serverPort;
+    @Autowired protected ResourceLoader loader;
+    @Autowired protected Environment environment;
+
+    @Test @Order(1)
+    public final void givenUserImport_whenNotAnAdmin_thenUnauthorizedStatus() {
+        RestAssured.given()
+                .contentType("text/csv")
+                .body("email,password\nnot-admin@import.focust.test,password123\n")
+                .when().post("/users/import")
+                .then().assertThat()
+                .statusCode(HttpStatus.UNAUTHORIZED.value());
+    }
+
+    @Test @Order(2)
+    public final void givenUserImport_whenSendingCsv_thenResultPerRow() {
+        String body = """
+                email,password
+                csv-0@import.focust.test,password123
+                csv-1@import.focust.test,pass,word,with,commas
+                csv-0@import.focust.test,duplicate123
+                missing-password@import.focust.test,
+                not-an-email,password123
+                """;
+
+        List<JsonPath> results = importUsers("text/csv", body);
+
+        assertThat(results).hasSize(5);
+        assertThat(results).extracting(result -> result.getString("status"))
+                .containsExactly("CREATED", "CREATED", "EXISTS", "INVALID", "INVALID");
+        assertThat(results).extracting(result -> result.getInt("line"))
+                .containsExactly(2, 3, 4, 5, 6);
+        assertThat(results.get(0).getLong("id")).isPositive();
+    }
+
+    @Test @Order(3)
+    public final void givenUserImport_whenSendingNdjson_thenResultPerRow() {
+        String body = """
+                {"email": "ndjson-0@import.focust.test", "password": "password123"}
+                {"email": "csv-1@import.focust.test", "password": "password123"}
+                {"email": "ndjson-1@import.focust.test"
+                """;
+
+        List<JsonPath> results = importUsers("application/x-ndjson", body);
+
+        assertThat(results).extracting(result -> result.getString("status"))
+                .containsExactly("CREATED", "EXISTS", "INVALID");
+    }
+
+    @Test @Order(4)
+    public final void givenImportedUser_whenSigningIn_thenOkStatus() {
+        RestAssured.given()
+                .contentType("application/json")
+                .body("{ \"email\": \"csv-1@import.focust.test\", \"password\": \"pass,word,with,commas\" }")
+                .when().post("/auth/login")
+                .then().assertThat()
+                .statusCode(HttpStatus.OK.value());
+    }
+
+    ///////////////////////////////////////////////////////////////////////////
+
+    private List<JsonPath> importUsers(String contentType, String body) {
+        Response response = RestAssured.given()
+                .auth().preemptive().basic("spring-admin", ADMIN_PASSWORD)
+                .contentType(contentType)
+                .body(body)
+                .when().post("/users/import");
+
+        String responseBody = response.thenReturn().asString();
+        System.out.println("(UserImportEndpointTests) - Received:\n\"" + responseBody + "\"");
+
+        response.then().assertThat()
+                .statusCode(HttpStatus.OK.value());
+        return responseBody.lines().map(JsonPath::from).toList();
+    }
+
+}
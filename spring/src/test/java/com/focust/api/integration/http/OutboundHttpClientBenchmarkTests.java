@@ -0,0 +1,271 @@
+/**
+ * OutboundHttpClientBenchmarkTests.java - Benchmark of the outbound HTTP client
+ * Copyright (C) 2024  Allan DeBoe
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ * ------------------------------------------------------------------------
+ *
+ * Sends the same concurrent requests to a local HTTPS server, once with
+ * RestTemplate's default request factory and once with the pooled client
+ * (as set up by OutboundHttpConfiguration), and prints how long each of
+ * them took along with how many TLS handshakes the server had to do. The
+ * timings are only printed, as they depend too much on the machine to be
+ * asserted on; what is asserted is that the pooled client reuses its
+ * connections and never goes over its limit of connections per host.
+ *
+ * The server's (self-signed) certificate is generated with "keytool".
+ * Being a benchmark, it is left out of the usual test run; it is run with
+ * "mvn -Pbenchmark test".
+ *
+ * @see com.focust.api.http.OutboundHttpConfiguration
+ * @see com.focust.api.http.HostConnectionLimiter
+ *
+ * @author Allan DeBoe (allan.m.deboe@gmail.com)
+ * @version 0.0.6
+ * @since 0.0.6
+ */
+package com.focust.api.integration.http;
+
+///////////////////////////////////////////////////////////////////////////
+
+// Focust //
+import com.focust.api.http.HostConnectionLimiter;
+import com.focust.api.http.OutboundHttpConfiguration;
+
+// JDK HTTP Server //
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpsConfigurator;
+import com.sun.net.httpserver.HttpsServer;
+
+// Micrometer //
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+// JUnit 5 (Jupiter) //
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+// Spring Framework //
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.web.client.RestTemplate;
+
+// Standard Java //
+import javax.net.ssl.HttpsURLConnection;
+import javax.net.ssl.KeyManagerFactory;
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.TrustManagerFactory;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.http.HttpClient;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.KeyStore;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Static Imports //
+import static org.assertj.core.api.Assertions.assertThat;
+
+///////////////////////////////////////////////////////////////////////////
+
+@Tag("benchmark")
+class OutboundHttpClientBenchmarkTests {
+
+    private static final char[] PASSWORD = "benchmark".toCharArray();
+    private static final int THREADS = 16;
+    private static final int REQUESTS_PER_THREAD = 25;
+    private static final int MAX_CONNECTIONS_PER_HOST = 4;
+
+    @TempDir static Path directory;
+
+    private static SSLContext serverSslContext;
+    private static SSLContext clientSslContext;
+
+    // the connections (by client address) the server has seen; a reused connection adds nothing.
+    private static final Set<InetSocketAddress> serverConnections = ConcurrentHashMap.newKeySet();
+    private static final AtomicInteger concurrentRequests = new AtomicInteger();
+    private static final AtomicInteger maxConcurrentRequests = new AtomicInteger();
+
+    @BeforeAll
+    public static void createSslContexts() throws Exception {
+        Path keyStorePath = directory.resolve("benchmark.p12");
+        Process keytool = new ProcessBuilder(
+                Path.of(System.getProperty("java.home"), "bin", "keytool").toString(),
+                "-genkeypair", "-alias", "benchmark", "-keyalg", "EC", "-groupname", "secp256r1",
+                "-dname", "CN=localhost", "-ext", "san=dns:localhost,ip:127.0.0.1", "-validity", "1",
+                "-storetype", "PKCS12", "-keystore", keyStorePath.toString(),
+                "-storepass", new String(PASSWORD), "-keypass", new String(PASSWORD)
+        ).inheritIO().start();
+        assertThat(keytool.waitFor()).isZero();
+
+        KeyStore keyStore = KeyStore.getInstance("PKCS12");
+        try (InputStream input = Files.newInputStream(keyStorePath)) {
+            keyStore.load(input, PASSWORD);
+        }
+
+        KeyManagerFactory keyManagerFactory = KeyManagerFactory.getInstance(KeyManagerFactory.getDefaultAlgorithm());
+        keyManagerFactory.init(keyStore, PASSWORD);
+        serverSslContext = SSLContext.getInstance("TLS");
+        serverSslContext.init(keyManagerFactory.getKeyManagers(), null, null);
+
+        TrustManagerFactory trustManagerFactory = TrustManagerFactory.getInstance(TrustManagerFactory.getDefaultAlgorithm());
+        trustManagerFactory.init(keyStore);
+        clientSslContext = SSLContext.getInstance("TLS");
+        clientSslContext.init(null, trustManagerFactory.getTrustManagers(), null);
+    }
+
+    @Test
+    public final void givenConcurrentRequests_whenComparingClients_thenPooledClientReusesConnectionsWithinItsLimit() throws Exception {
+
+        // the default request factory, with the same trust as the pooled client.
+        SimpleClientHttpRequestFactory defaultFactory = new SimpleClientHttpRequestFactory() {
+            @Override
+            protected void prepareConnection(HttpURLConnection connection, String httpMethod) throws IOException {
+                if (connection instanceof HttpsURLConnection httpsConnection) {
+                    httpsConnection.setSSLSocketFactory(clientSslContext.getSocketFactory());
+                }
+                super.prepareConnection(connection, httpMethod);
+            }
+        };
+        Result defaultResult = run(new RestTemplate(defaultFactory));
+
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        HttpClient httpClient = OutboundHttpConfiguration.createHttpClient(clientSslContext, Duration.ofSeconds(5));
+        RestTemplate pooledRestTemplate = new RestTemplate(OutboundHttpConfiguration.createRequestFactory(httpClient, Duration.ofSeconds(30)));
+        pooledRestTemplate.getInterceptors().add(new HostConnectionLimiter(MAX_CONNECTIONS_PER_HOST, Duration.ofSeconds(30), meterRegistry));
+        Result pooledResult = run(pooledRestTemplate);
+
+        System.out.println("(OutboundHttpClientBenchmarkTests) - default: " + defaultResult);
+        System.out.println("(OutboundHttpClientBenchmarkTests) - pooled:  " + pooledResult);
+
+        int totalRequests = THREADS * REQUESTS_PER_THREAD;
+        assertThat(pooledResult.successfulRequests).isEqualTo(totalRequests);
+        assertThat(pooledResult.maxConcurrentRequests).isLessThanOrEqualTo(MAX_CONNECTIONS_PER_HOST);
+
+        // connections are kept alive and reused, so there are far fewer handshakes than requests.
+        assertThat(pooledResult.newConnections).isLessThanOrEqualTo(MAX_CONNECTIONS_PER_HOST);
+
+        // every slot was given back, and every request waited for (and got) one.
+        assertThat(meterRegistry.get("focust.http.client.connections.active").gauge().value()).isZero();
+        assertThat(meterRegistry.get("focust.http.client.connections.acquire").timer().count()).isEqualTo(totalRequests);
+        httpClient.close();
+    }
+
+    ///////////////////////////////////////////////////////////////////////////
+
+    // Each client gets a server of its own, so that it does not pay for the connections left behind by the other.
+    private static Result run(RestTemplate restTemplate) throws Exception {
+        HttpsServer server = HttpsServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.setHttpsConfigurator(new HttpsConfigurator(serverSslContext));
+        ExecutorService serverExecutor = Executors.newFixedThreadPool(THREADS * 2);
+        server.setExecutor(serverExecutor);
+        server.createContext("/profile", OutboundHttpClientBenchmarkTests::handle);
+        server.start();
+
+        String url = "https://localhost:" + server.getAddress().getPort() + "/profile";
+        serverConnections.clear();
+        maxConcurrentRequests.set(0);
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch startSignal = new CountDownLatch(1);
+        List<Future<Integer>> threads = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            threads.add(executor.submit(() -> {
+                startSignal.await();
+                int successful = 0;
+                for (int j = 0; j < REQUESTS_PER_THREAD; j++) {
+                    String body = restTemplate.getForObject(url, String.class);
+                    if (body != null && body.contains("octocat")) successful++;
+                }
+                return successful;
+            }));
+        }
+
+        long start = System.nanoTime();
+        startSignal.countDown();
+        int successful = 0;
+        for (Future<Integer> thread : threads) {
+            successful += thread.get();
+        }
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+        executor.shutdown();
+        server.stop(0);
+        serverExecutor.shutdown();
+
+        return new Result(successful, elapsedMillis, serverConnections.size(), maxConcurrentRequests.get());
+    }
+
+    private static void handle(HttpExchange exchange) throws IOException {
+        int concurrent = concurrentRequests.incrementAndGet();
+        maxConcurrentRequests.accumulateAndGet(concurrent, Math::max);
+        try {
+            serverConnections.add(exchange.getRemoteAddress());
+            try (InputStream input = exchange.getRequestBody()) {
+                input.readAllBytes();
+            }
+
+            // a bit of latency, as a real server would have.
+            Thread.sleep(2);
+
+            byte[] body = "{\"login\": \"octocat\"}".getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream output = exchange.getResponseBody()) {
+                output.write(body);
+            }
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        finally {
+            concurrentRequests.decrementAndGet();
+            exchange.close();
+        }
+    }
+
+    private static final class Result {
+        private final int successfulRequests;
+        private final long elapsedMillis;
+        private final int newConnections;
+        private final int maxConcurrentRequests;
+
+        private Result(int successfulRequests, long elapsedMillis, int newConnections, int maxConcurrentRequests) {
+            this.successfulRequests = successfulRequests;
+            this.elapsedMillis = elapsedMillis;
+            this.newConnections = newConnections;
+            this.maxConcurrentRequests = maxConcurrentRequests;
+        }
+
+        @Override
+        public String toString() {
+            return successfulRequests + " requests in " + elapsedMillis + "ms, " + newConnections
+                    + " new connections (and TLS handshakes), at most " + maxConcurrentRequests + " concurrent requests";
+        }
+    }
+
+}
@@ -0,0 +1,102 @@
+/**
+ * ActuatorSecurityTests.java - Tests of who can reach the actuator endpoints
+ * Copyright (C) 2024  Allan DeBoe
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ * ------------------------------------------------------------------------
+ *
+ * Health checks and Prometheus scrapes are open to anyone who can reach the
+ * management port, while the other endpoints (which can start recordings,
+ * or show the queries being run) need the admin's credentials.
+ *
+ * @see com.focust.api.security.SecurityConfiguration
+ *
+ * @author Allan DeBoe (allan.m.deboe@gmail.com)
+ * @version 0.0.6
+ * @since 0.0.6
+ */
+package com.focust.api.integration.metrics;
+
+///////////////////////////////////////////////////////////////////////////
+
+// Focust //
+import com.focust.api.util.testcontainers.UseFocustMySQL;
+
+// REST-Assured //
+import io.restassured.RestAssured;
+import io.restassured.specification.RequestSpecification;
+
+// JUnit 5 (Jupiter) //
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+// Spring Framework //
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalManagementPort;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.annotation.DirtiesContext;
+
+///////////////////////////////////////////////////////////////////////////
+
+@SpringBootTest(
+        webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {
+                "spring.security.user.password=" + ActuatorSecurityTests.ADMIN_PASSWORD,
+                "focust.warm-up.enabled=false"
+        }
+)
+@UseFocustMySQL
+@DirtiesContext
+class ActuatorSecurityTests {
+
+    static final String ADMIN_PASSWORD = "actuator-test-password";
+
+    @LocalManagementPort private int managementPort;
+
+    @ParameterizedTest
+    @ValueSource(strings = { "/actuator/health", "/actuator/health/liveness", "/actuator/prometheus" })
+    public final void givenNoCredentials_whenCallingOpenEndpoint_thenOk(String path) {
+        management().when().get(path)
+                .then().assertThat().statusCode(HttpStatus.OK.value());
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = { "/actuator/jfr", "/actuator/jfr/focust", "/actuator/hibernate", "/actuator/concurrency" })
+    public final void givenNoCredentials_whenCallingAdminEndpoint_thenUnauthorized(String path) {
+        management().when().get(path)
+                .then().assertThat().statusCode(HttpStatus.UNAUTHORIZED.value());
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = { "/actuator/jfr", "/actuator/hibernate", "/actuator/concurrency" })
+    public final void givenAdminCredentials_whenCallingAdminEndpoint_thenOk(String path) {
+        management().auth().preemptive().basic("spring-admin", ADMIN_PASSWORD)
+                .when().get(path)
+                .then().assertThat().statusCode(HttpStatus.OK.value());
+    }
+
+    @Test
+    public final void givenNoCredentials_whenStartingRecording_thenUnauthorized() {
+        management().when().post("/actuator/jfr")
+                .then().assertThat().statusCode(HttpStatus.UNAUTHORIZED.value());
+    }
+
+    ///////////////////////////////////////////////////////////////////////////
+
+    private RequestSpecification management() {
+        return RestAssured.given().baseUri("http://localhost").port(managementPort);
+    }
+
+}
@@ -0,0 +1,119 @@
+/**
+ * PrometheusEndpointTests.java - Tests of the metrics scraped by Prometheus
+ * Copyright (C) 2024  Allan DeBoe
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ * ------------------------------------------------------------------------
+ *
+ * The metric names are a contract with the dashboards and alerts built on
+ * them, so these tests check that they are all scraped (after registering
+ * and signing in once), from the management port rather than the API's.
+ *
+ * @author Allan DeBoe (allan.m.deboe@gmail.com)
+ * @version 0.0.6
+ * @since 0.0.6
+ */
+package com.focust.api.integration.metrics;
+
+///////////////////////////////////////////////////////////////////////////
+
+// Focust //
+import com.focust.api.dto.requests.RegisterUserRequest;
+import com.focust.api.dto.requests.SignInUserRequest;
+import com.focust.api.util.restassured.UseFocustRestAssured;
+import com.focust.api.util.testcontainers.UseFocustMySQL;
+
+// REST-Assured //
+import io.restassured.RestAssured;
+import io.restassured.http.ContentType;
+
+// JUnit 5 (Jupiter) //
+import org.junit.jupiter.api.Test;
+
+// Spring Framework //
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalManagementPort;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.core.env.Environment;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.annotation.DirtiesContext;
+
+// Static Imports //
+import static org.assertj.core.api.Assertions.assertThat;
+
+///////////////////////////////////////////////////////////////////////////
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@UseFocustRestAssured
+@UseFocustMySQL
+@DirtiesContext
+class PrometheusEndpointTests {
+
+    // These data members are needed for @UseFocustRestAssured
+    @LocalServerPort protected int serverPort;
+    @Autowired protected ResourceLoader loader;
+    @Autowired protected Environment environment;
+
+    @LocalManagementPort private int managementPort;
+
+    @Test
+    public final void givenRegisteredAndSignedInUser_whenScraping_thenAuthMetricsAreExposed() {
+        RestAssured.given()
+                .contentType(ContentType.JSON)
+                .body(new RegisterUserRequest("scraped@metrics.focust.test", "password123").getJson())
+                .when().post("/auth/register")
+                .then().assertThat().statusCode(HttpStatus.CREATED.value());
+        RestAssured.given()
+                .contentType(ContentType.JSON)
+                .body(new SignInUserRequest("scraped@metrics.focust.test", "password123").getJson())
+                .when().post("/auth/login")
+                .then().assertThat().statusCode(HttpStatus.OK.value());
+
+        String metrics = scrape();
+
+        assertThat(metrics).contains(
+                "focust_auth_password_hash_seconds_count",
+                "focust_auth_password_verify_seconds_count{application=\"api-server\",outcome=\"match\"}",
+                "focust_auth_jwt_sign_seconds_count{application=\"api-server\",token=\"access\"}",
+                "focust_auth_jwt_sign_seconds_count{application=\"api-server\",token=\"refresh\"}",
+                "http_server_requests_seconds_bucket",
+                "hikaricp_connections_active",
+                "hibernate_query_executions_total",
+                "focust_db_queries_count{application=\"api-server\",method=\"POST\",uri=\"/auth/login\"}",
+                "jvm_gc_pause_seconds",
+                "cache_gets_total"
+        );
+    }
+
+    @Test
+    public final void givenApiPort_whenScraping_thenNotFound() {
+        RestAssured.given()
+                .when().get("/actuator/prometheus")
+                .then().assertThat().statusCode(HttpStatus.NOT_FOUND.value());
+    }
+
+    ///////////////////////////////////////////////////////////////////////////
+
+    private String scrape() {
+        return RestAssured.given()
+                .baseUri("http://localhost")
+                .port(managementPort)
+                .when().get("/actuator/prometheus")
+                .then().assertThat().statusCode(HttpStatus.OK.value())
+                .extract().asString();
+    }
+
+}
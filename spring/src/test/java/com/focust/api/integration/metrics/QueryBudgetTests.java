@@ -0,0 +1,127 @@
+/**
+ * QueryBudgetTests.java - Tests that queries run for a request on other threads count towards its budget
+ * Copyright (C) 2024  Allan DeBoe
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ * ------------------------------------------------------------------------
+ *
+ * Looking up a user by id (on the threads of the user lookup coalescer)
+ * and registering one (on the thread of the registration batcher) do not
+ * run their queries on the request's thread. These tests check that those
+ * queries are still counted for the request, and show up in its "db"
+ * Server-Timing, while staying within the endpoint's budget.
+ *
+ * @see com.focust.api.metrics.queries.QueryCounter
+ *
+ * @author Allan DeBoe (allan.m.deboe@gmail.com)
+ * @version 0.0.6
+ * @since 0.0.6
+ */
+package com.focust.api.integration.metrics;
+
+///////////////////////////////////////////////////////////////////////////
+
+// Focust //
+import com.focust.api.dto.requests.RegisterUserRequest;
+import com.focust.api.metrics.queries.QueryBudget;
+import com.focust.api.util.querybudget.UseQueryBudget;
+import com.focust.api.util.restassured.UseFocustRestAssured;
+import com.focust.api.util.testcontainers.UseFocustMySQL;
+
+// Micrometer //
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+
+// REST-Assured //
+import io.restassured.RestAssured;
+import io.restassured.http.ContentType;
+import io.restassured.response.Response;
+
+// JUnit 5 (Jupiter) //
+import org.junit.jupiter.api.Test;
+
+// Spring Framework //
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.core.env.Environment;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.annotation.DirtiesContext;
+
+// Standard Java //
+import java.time.Duration;
+
+// Static Imports //
+import static org.assertj.core.api.Assertions.assertThat;
+
+///////////////////////////////////////////////////////////////////////////
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = "focust.server-timing.sample-rate=1")
+@UseFocustRestAssured
+@UseFocustMySQL
+@UseQueryBudget
+@DirtiesContext
+class QueryBudgetTests {
+
+    // These data members are needed for @UseFocustRestAssured
+    @LocalServerPort protected int serverPort;
+    @Autowired protected ResourceLoader loader;
+    @Autowired protected Environment environment;
+
+    @Autowired private QueryBudget queryBudget;
+    @Autowired private MeterRegistry meterRegistry;
+
+    @Test
+    public final void givenRegistration_whenBatched_thenItsInsertCountsTowardsTheRequest() throws Exception {
+        double before = countedQueries("POST", "/auth/register");
+
+        Response response = register("batched@querybudget.focust.test");
+
+        response.then().assertThat().statusCode(HttpStatus.CREATED.value());
+        assertThat(response.header("Server-Timing")).contains("db;dur=");
+        assertThat(countedQueries("POST", "/auth/register") - before).isGreaterThanOrEqualTo(1);
+    }
+
+    @Test
+    public final void givenUserById_whenCoalesced_thenItsLookupCountsTowardsTheRequest() throws Exception {
+        long id = register("coalesced@querybudget.focust.test").jsonPath().getLong("userId");
+        double before = countedQueries("GET", "/users/{id}");
+
+        Response response = RestAssured.given()
+                .accept(ContentType.JSON)
+                .when().get("/users/" + id);
+
+        response.then().assertThat().statusCode(HttpStatus.OK.value());
+        assertThat(response.header("Server-Timing")).contains("db;dur=");
+        assertThat(countedQueries("GET", "/users/{id}") - before).isGreaterThanOrEqualTo(1);
+    }
+
+    ///////////////////////////////////////////////////////////////////////////
+
+    private Response register(String email) {
+        return RestAssured.given()
+                .contentType(ContentType.JSON)
+                .body(new RegisterUserRequest(email, "password123").getJson())
+                .when().post("/auth/register");
+    }
+
+    // the queries counted for the endpoint so far, once the requests that are still being checked are done.
+    private double countedQueries(String method, String endpoint) throws InterruptedException {
+        assertThat(queryBudget.awaitPendingRequests(Duration.ofSeconds(5))).isTrue();
+        DistributionSummary summary = meterRegistry.find("focust.db.queries").tag("method", method).tag("uri", endpoint).summary();
+        return summary == null ? 0 : summary.totalAmount();
+    }
+
+}
@@ -0,0 +1,92 @@
+/**
+ * AuthStatsTests.java - Tests regarding the registration and login stats.
+ * Copyright (C) 2024  Allan DeBoe
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ * ------------------------------------------------------------------------
+ *
+ * @see com.focust.api.stats.AuthStatsService
+ *
+ * @author Allan DeBoe (allan.m.deboe@gmail.com)
+ * @version 0.0.6
+ * @since 0.0.6
+ */
+package com.focust.api.integration.stats;
+
+///////////////////////////////////////////////////////////////////////////
+
+// Focust //
+import com.focust.api.dto.requests.RegisterUserRequest;
+import com.focust.api.dto.requests.SignInUserRequest;
+import com.focust.api.dto.responses.AuthStatsResponse;
+import com.focust.api.stats.AuthStatsService;
+import com.focust.api.stats.StatsGranularity;
+import com.focust.api.users.UserService;
+import com.focust.api.util.testcontainers.UseFocustMySQL;
+
+// JUnit 5 (Jupiter) //
+import org.junit.jupiter.api.Test;
+
+// Spring Framework //
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+
+// Standard Java //
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+// Static Imports //
+import static org.assertj.core.api.Assertions.assertThat;
+
+///////////////////////////////////////////////////////////////////////////
+
+@SpringBootTest
+@UseFocustMySQL
+@DirtiesContext
+class AuthStatsTests {
+
+    @Autowired private UserService userService;
+    @Autowired private AuthStatsService authStatsService;
+
+    @Test
+    public final void givenRegistrationsAndLogins_whenGettingStats_thenTheyAreCountedBothBeforeAndAfterFlushing() {
+        Instant from = Instant.now().truncatedTo(ChronoUnit.DAYS);
+        Instant to = from.plus(1, ChronoUnit.DAYS);
+        AuthStatsResponse before = authStatsService.getStats(from, to, StatsGranularity.DAY).getFirst();
+
+        for (int i = 0; i < 3; i++) {
+            userService.createUser(new RegisterUserRequest("stats-" + i + "@stats.focust.test", "password123"));
+        }
+        userService.verifyUserSignIn(new SignInUserRequest("stats-0@stats.focust.test", "password123"));
+        userService.verifyUserSignIn(new SignInUserRequest("stats-1@stats.focust.test", "password123"));
+
+        // not flushed yet, so these come from the in-memory counts.
+        AuthStatsResponse pending = authStatsService.getStats(from, to, StatsGranularity.DAY).getFirst();
+        assertThat(pending.getRegistrations() - before.getRegistrations()).isEqualTo(3);
+        assertThat(pending.getLogins() - before.getLogins()).isEqualTo(2);
+
+        authStatsService.flush();
+        AuthStatsResponse flushed = authStatsService.getStats(from, to, StatsGranularity.DAY).getFirst();
+        assertThat(flushed.getRegistrations()).isEqualTo(pending.getRegistrations());
+        assertThat(flushed.getLogins()).isEqualTo(pending.getLogins());
+
+        // the day is made of 24 hourly buckets, which add up to the same counts.
+        List<AuthStatsResponse> hours = authStatsService.getStats(from, to, StatsGranularity.HOUR);
+        assertThat(hours).hasSize(24);
+        assertThat(hours.stream().mapToLong(AuthStatsResponse::getRegistrations).sum()).isEqualTo(flushed.getRegistrations());
+    }
+
+}
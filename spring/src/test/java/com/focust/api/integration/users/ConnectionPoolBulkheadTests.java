@@ -0,0 +1,204 @@
+/**
+ * ConnectionPoolBulkheadTests.java - Tests that listing users can not starve signing in of connections
+ * Copyright (C) 2024  Allan DeBoe
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ * ------------------------------------------------------------------------
+ *
+ * This test floods the read pool with listings ("GET /users", from more
+ * threads than it has connections), and checks that signing in ("POST
+ * /auth/login", with its bcrypt verify and signing) never waits for a
+ * connection of the auth pool. With a single pool, every sign in would
+ * have to wait for the listings queued up in front of it. It also checks
+ * that a sign in only holds its connection for the lookup (not through the
+ * bcrypt verify), which is what the size of the auth pool depends on.
+ *
+ * The latencies before and during the flood are printed, but are only
+ * bounded loosely (by the auth pool's connection timeout), since wall clock
+ * ratios depend too much on the machine running the test.
+ *
+ * The concurrency limits are turned off, so that only the pools decide
+ * which requests wait.
+ *
+ * @see com.focust.api.datasource.WorkloadRoutingDataSource
+ * @see com.focust.api.users.UserService
+ *
+ * @author Allan DeBoe (allan.m.deboe@gmail.com)
+ * @version 0.0.6
+ * @since 0.0.6
+ */
+package com.focust.api.integration.users;
+
+///////////////////////////////////////////////////////////////////////////
+
+// Focust //
+import com.focust.api.datasource.Workload;
+import com.focust.api.datasource.WorkloadRoutingDataSource;
+import com.focust.api.dto.requests.RegisterUserRequest;
+import com.focust.api.dto.requests.SignInUserRequest;
+import com.focust.api.util.restassured.UseFocustRestAssured;
+import com.focust.api.util.testcontainers.UseFocustMySQL;
+
+// Micrometer //
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+// REST-Assured //
+import io.restassured.RestAssured;
+import io.restassured.http.ContentType;
+
+// JUnit 5 (Jupiter) //
+import org.junit.jupiter.api.Test;
+
+// Spring Framework //
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.core.env.Environment;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.annotation.DirtiesContext;
+
+// Standard Java //
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Static Imports //
+import static org.assertj.core.api.Assertions.assertThat;
+
+///////////////////////////////////////////////////////////////////////////
+
+@SpringBootTest(
+        webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {
+                "focust.warm-up.enabled=false",
+                "focust.concurrency-limit.enabled=false",
+                "focust.datasource.pools.auth.maximum-pool-size=2",
+                "focust.datasource.pools.read.maximum-pool-size=2",
+                "focust.datasource.pools.read.connection-timeout=30000"
+        }
+)
+@UseFocustRestAssured
+@UseFocustMySQL
+@DirtiesContext
+class ConnectionPoolBulkheadTests {
+
+    private static final String PASSWORD = "password123";
+    private static final int USERS = 5;
+    private static final int LOGINS = 30;
+    private static final int FLOOD_THREADS = 20;
+
+    // These data members are needed for @UseFocustRestAssured
+    @LocalServerPort protected int serverPort;
+    @Autowired protected ResourceLoader loader;
+    @Autowired protected Environment environment;
+
+    @Autowired private WorkloadRoutingDataSource dataSource;
+    @Autowired private MeterRegistry meterRegistry;
+
+    @Test
+    public final void givenListingFlood_whenSigningIn_thenAuthPoolIsNotWaitedOn() throws Exception {
+        List<String> emails = new ArrayList<>();
+        for (int i = 0; i < USERS; i++) {
+            String email = "bulkhead-" + i + "@bulkhead.focust.test";
+            RestAssured.given()
+                    .contentType(ContentType.JSON)
+                    .body(new RegisterUserRequest(email, PASSWORD).getJson())
+                    .when().post("/auth/register")
+                    .then().assertThat().statusCode(HttpStatus.CREATED.value());
+            emails.add(email);
+        }
+
+        List<Long> baselineMillis = loginMillis(emails, null);
+
+        AtomicBoolean flooding = new AtomicBoolean(true);
+        AtomicInteger listings = new AtomicInteger();
+        ExecutorService flood = Executors.newFixedThreadPool(FLOOD_THREADS);
+        for (int i = 0; i < FLOOD_THREADS; i++) {
+            flood.execute(() -> {
+                while (flooding.get()) {
+                    RestAssured.given()
+                            .queryParam("size", USERS)
+                            .when().get("/users")
+                            .then().assertThat().statusCode(HttpStatus.OK.value());
+                    listings.incrementAndGet();
+                }
+            });
+        }
+
+        List<Long> floodMillis;
+        AtomicInteger threadsAwaitingRead = new AtomicInteger();
+        try {
+            // lets the flood take every connection of the read pool first.
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            while (listings.get() < FLOOD_THREADS && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+            floodMillis = loginMillis(emails, threadsAwaitingRead);
+        }
+        finally {
+            flooding.set(false);
+            flood.shutdown();
+            flood.awaitTermination(30, TimeUnit.SECONDS);
+        }
+
+        Timer authUsage = meterRegistry.get("hikaricp.connections.usage").tag("pool", "auth").timer();
+        Timer passwordVerify = meterRegistry.get("focust.auth.password.verify").tag("outcome", "match").timer();
+
+        System.out.println("(ConnectionPoolBulkheadTests) - signing in took " + percentile(baselineMillis, 50) + "ms (p50) and "
+                + percentile(baselineMillis, 95) + "ms (p95) before, and " + percentile(floodMillis, 50) + "ms (p50) and "
+                + percentile(floodMillis, 95) + "ms (p95) during a flood of " + listings.get() + " listings (up to "
+                + threadsAwaitingRead.get() + " threads waiting for a read connection); auth connections were held for up to "
+                + authUsage.max(TimeUnit.MILLISECONDS) + "ms, bcrypt took " + passwordVerify.mean(TimeUnit.MILLISECONDS) + "ms.");
+
+        assertThat(threadsAwaitingRead.get()).isGreaterThan(0);
+        assertThat(dataSource.getPool(Workload.AUTH).getHikariPoolMXBean().getThreadsAwaitingConnection()).isZero();
+        assertThat(authUsage.max(TimeUnit.MILLISECONDS)).isLessThan(passwordVerify.mean(TimeUnit.MILLISECONDS));
+        assertThat(percentile(floodMillis, 95)).isLessThan(percentile(baselineMillis, 95) + dataSource.getPool(Workload.AUTH).getConnectionTimeout());
+    }
+
+    ///////////////////////////////////////////////////////////////////////////
+
+    // signs in one after the other, noting the most threads seen waiting for a read connection (if given).
+    private List<Long> loginMillis(List<String> emails, AtomicInteger threadsAwaitingRead) {
+        List<Long> millis = new ArrayList<>();
+        for (int i = 0; i < LOGINS; i++) {
+            long start = System.nanoTime();
+            RestAssured.given()
+                    .contentType(ContentType.JSON)
+                    .body(new SignInUserRequest(emails.get(i % emails.size()), PASSWORD).getJson())
+                    .when().post("/auth/login")
+                    .then().assertThat().statusCode(HttpStatus.OK.value());
+            millis.add((System.nanoTime() - start) / 1_000_000);
+            if (threadsAwaitingRead != null) {
+                threadsAwaitingRead.accumulateAndGet(dataSource.getPool(Workload.READ).getHikariPoolMXBean().getThreadsAwaitingConnection(), Math::max);
+            }
+        }
+        Collections.sort(millis);
+        return millis;
+    }
+
+    // the given percentile of the sorted durations.
+    private static long percentile(List<Long> sortedMillis, int percentile) {
+        int index = (int) Math.ceil(sortedMillis.size() * percentile / 100.0) - 1;
+        return sortedMillis.get(Math.max(index, 0));
+    }
+
+}
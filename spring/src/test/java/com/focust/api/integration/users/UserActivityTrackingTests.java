@@ -0,0 +1,100 @@
+/**
+ * UserActivityTrackingTests.java - Tests regarding tracking when users were last active.
+ * Copyright (C) 2024  Allan DeBoe
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ * ------------------------------------------------------------------------
+ *
+ * @see com.focust.api.users.UserService
+ *
+ * @author Allan DeBoe (allan.m.deboe@gmail.com)
+ * @version 0.0.6
+ * @since 0.0.6
+ */
+package com.focust.api.integration.users;
+
+///////////////////////////////////////////////////////////////////////////
+
+// Focust //
+import com.focust.api.dto.requests.RegisterUserRequest;
+import com.focust.api.dto.requests.SignInUserRequest;
+import com.focust.api.dto.responses.UserActivityResponse;
+import com.focust.api.users.UserField;
+import com.focust.api.users.UserService;
+import com.focust.api.util.testcontainers.UseFocustMySQL;
+
+// JUnit 5 (Jupiter) //
+import org.junit.jupiter.api.Test;
+
+// Spring Framework //
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.annotation.DirtiesContext;
+
+// Standard Java //
+import java.time.ZonedDateTime;
+
+// Static Imports //
+import static org.assertj.core.api.Assertions.assertThat;
+
+///////////////////////////////////////////////////////////////////////////
+
+@SpringBootTest(properties = "focust.users.activity.flush-interval-ms=100")
+@UseFocustMySQL
+@DirtiesContext
+class UserActivityTrackingTests {
+
+    private static final long TIMEOUT_MILLIS = 5000;
+
+    @Autowired private UserService userService;
+
+    @Test
+    public final void givenUser_whenSigningInAndSendingRequests_thenActivityIsWritten() throws Exception {
+
+        long id = userService.createUser(new RegisterUserRequest("active@activity.focust.test", "password123")).getId();
+        UserActivityResponse before = findActivity(id);
+        assertThat(before.getLastSeenAt()).isNull();
+        assertThat(before.getLastLoginAt()).isNull();
+
+        userService.verifyUserSignIn(new SignInUserRequest("active@activity.focust.test", "password123"));
+        for (int i = 0; i < 100; i++) {
+            userService.recordActivity(id);
+        }
+
+        UserActivityResponse after = before;
+        long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+        while (after.getLastLoginAt() == null && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+            after = findActivity(id);
+        }
+
+        assertThat(after.getLastLoginAt()).isNotNull();
+        assertThat(after.getLastSeenAt()).isNotNull();
+        assertThat(after.getLastSeenAt()).isAfterOrEqualTo(after.getLastLoginAt());
+        // only admins get to see the activity (through "/users/inactive"), so it is not a public field.
+        assertThat(UserField.parse("lastSeenAt,lastLoginAt")).isEmpty();
+    }
+
+    ///////////////////////////////////////////////////////////////////////////
+
+    // everyone is inactive "since" tomorrow.
+    private UserActivityResponse findActivity(long id) {
+        return userService.getInactiveUsers(ZonedDateTime.now().plusDays(1), PageRequest.of(0, 100)).stream()
+                .filter(activity -> activity.getId() == id)
+                .findFirst()
+                .orElseThrow();
+    }
+
+}
@@ -0,0 +1,127 @@
+/**
+ * UserChangesTests.java - Tests regarding syncing the changes of the user directory.
+ * Copyright (C) 2024  Allan DeBoe
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ * ------------------------------------------------------------------------
+ *
+ * @see com.focust.api.users.UserService
+ *
+ * @author Allan DeBoe (allan.m.deboe@gmail.com)
+ * @version 0.0.6
+ * @since 0.0.6
+ */
+package com.focust.api.integration.users;
+
+///////////////////////////////////////////////////////////////////////////
+
+// Focust //
+import com.focust.api.dto.requests.RegisterUserRequest;
+import com.focust.api.dto.responses.NonSensitiveUserDataResponse;
+import com.focust.api.dto.responses.UserChangesResponse;
+import com.focust.api.users.UserField;
+import com.focust.api.users.UserService;
+import com.focust.api.util.testcontainers.UseFocustMySQL;
+
+// JUnit 5 (Jupiter) //
+import org.junit.jupiter.api.Test;
+
+// Spring Framework //
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+
+// Static Imports //
+import static org.assertj.core.api.Assertions.assertThat;
+
+///////////////////////////////////////////////////////////////////////////
+
+@SpringBootTest
+@UseFocustMySQL
+@DirtiesContext
+class UserChangesTests {
+
+    private static final int LIMIT = 2;
+
+    @Autowired private UserService userService;
+    @Autowired private JdbcTemplate jdbcTemplate;
+
+    @Test
+    public final void givenSyncedClient_whenUsersAreCreatedAndDeleted_thenOnlyTheChangesAreReturned() {
+
+        // a full sync first, just like a client that has never synced before.
+        String syncToken = "0";
+        UserChangesResponse changes;
+        do {
+            changes = userService.getChanges(Long.parseLong(syncToken), LIMIT, UserField.DEFAULT_FIELDS);
+            assertThat(changes.getUsers().size() + changes.getDeleted().size()).isLessThanOrEqualTo(LIMIT);
+            syncToken = changes.getSyncToken();
+        } while (changes.isHasMore());
+
+        long keptId = userService.createUser(new RegisterUserRequest("kept@changes.focust.test", "password123")).getId();
+        long deletedId = userService.createUser(new RegisterUserRequest("deleted@changes.focust.test", "password123")).getId();
+        userService.deleteUser(deletedId);
+
+        changes = userService.getChanges(Long.parseLong(syncToken), LIMIT, UserField.DEFAULT_FIELDS);
+        assertThat(changes.getUsers()).extracting(NonSensitiveUserDataResponse::getId).containsExactly(keptId);
+        assertThat(changes.getDeleted()).containsExactly(deletedId);
+        assertThat(changes.isHasMore()).isFalse();
+        assertThat(Long.parseLong(changes.getSyncToken())).isGreaterThan(Long.parseLong(syncToken));
+
+        // nothing changed since, so nothing is returned and the token stays the same.
+        UserChangesResponse noChanges = userService.getChanges(Long.parseLong(changes.getSyncToken()), LIMIT, UserField.DEFAULT_FIELDS);
+        assertThat(noChanges.getUsers()).isEmpty();
+        assertThat(noChanges.getDeleted()).isEmpty();
+        assertThat(noChanges.getSyncToken()).isEqualTo(changes.getSyncToken());
+    }
+
+    @Test
+    public final void givenChangeInFlightOnAnotherInstance_whenSyncing_thenSyncTokenWaitsForIt() {
+        String syncToken = fullSync();
+
+        // another instance reserves a number (like UserChangeSequence does), but has not written its change yet.
+        long otherInstanceSequence = jdbcTemplate.queryForObject(
+                "SELECT last_sequence + 1 FROM user_change_counter WHERE id = 1", Long.class);
+        jdbcTemplate.update("UPDATE user_change_counter SET last_sequence = last_sequence + 1 WHERE id = 1");
+        jdbcTemplate.update("INSERT INTO user_change_reservations (first_sequence, sequence_count, expires_at) "
+                + "VALUES (?, 1, UTC_TIMESTAMP(6) + INTERVAL 5 MINUTE)", otherInstanceSequence);
+
+        long id = userService.createUser(new RegisterUserRequest("after@changes.focust.test", "password123")).getId();
+
+        UserChangesResponse changes = userService.getChanges(Long.parseLong(syncToken), LIMIT, UserField.DEFAULT_FIELDS);
+        assertThat(changes.getUsers()).isEmpty();
+        assertThat(Long.parseLong(changes.getSyncToken())).isLessThan(otherInstanceSequence);
+
+        // once the other instance is done, the change made here (with a later number) shows up.
+        jdbcTemplate.update("DELETE FROM user_change_reservations WHERE first_sequence = ?", otherInstanceSequence);
+        changes = userService.getChanges(Long.parseLong(syncToken), LIMIT, UserField.DEFAULT_FIELDS);
+        assertThat(changes.getUsers()).extracting(NonSensitiveUserDataResponse::getId).containsExactly(id);
+        assertThat(Long.parseLong(changes.getSyncToken())).isGreaterThan(otherInstanceSequence);
+    }
+
+    ///////////////////////////////////////////////////////////////////////////
+
+    // like a client that has never synced before.
+    private String fullSync() {
+        String syncToken = "0";
+        UserChangesResponse changes;
+        do {
+            changes = userService.getChanges(Long.parseLong(syncToken), LIMIT, UserField.DEFAULT_FIELDS);
+            syncToken = changes.getSyncToken();
+        } while (changes.isHasMore());
+        return syncToken;
+    }
+
+}
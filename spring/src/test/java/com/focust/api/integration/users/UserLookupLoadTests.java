@@ -0,0 +1,142 @@
+/**
+ * UserLookupLoadTests.java - Load tests regarding looking up users by id.
+ * Copyright (C) 2024  Allan DeBoe
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ * ------------------------------------------------------------------------
+ *
+ * This test fires many concurrent lookups for a handful of users, like
+ * the front-end does when rendering a page, and checks (using Hibernate's
+ * statistics) that they end up as far fewer queries than lookups.
+ *
+ * @see com.focust.api.users.UserService
+ *
+ * @author Allan DeBoe (allan.m.deboe@gmail.com)
+ * @version 0.0.6
+ * @since 0.0.6
+ */
+package com.focust.api.integration.users;
+
+///////////////////////////////////////////////////////////////////////////
+
+// Focust //
+import com.focust.api.dto.requests.RegisterUserRequest;
+import com.focust.api.users.UserField;
+import com.focust.api.users.UserService;
+import com.focust.api.util.testcontainers.UseFocustMySQL;
+
+// Hibernate //
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+
+// Jakarta //
+import jakarta.persistence.EntityManagerFactory;
+
+// JUnit 5 (Jupiter) //
+import org.junit.jupiter.api.Test;
+
+// Spring Framework //
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+
+// Standard Java //
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+// Static Imports //
+import static org.assertj.core.api.Assertions.assertThat;
+
+///////////////////////////////////////////////////////////////////////////
+
+@SpringBootTest(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "focust.warm-up.enabled=false"
+})
+@UseFocustMySQL
+@DirtiesContext
+class UserLookupLoadTests {
+
+    private static final int USERS = 5;
+    private static final int LOOKUPS = 1000;
+    private static final int THREADS = 50;
+    private static final int MANY_IDS = 250;
+
+    @Autowired private UserService userService;
+    @Autowired private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    public final void givenConcurrentLookups_whenLookingUpUsersById_thenLookupsAreCoalesced() throws Exception {
+
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < USERS; i++) {
+            RegisterUserRequest request = new RegisterUserRequest("lookup-" + i + "@lookup.focust.test", "password123");
+            ids.add(userService.createUser(request).getId());
+        }
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch startSignal = new CountDownLatch(1);
+        List<Future<?>> lookups = new ArrayList<>();
+        for (int i = 0; i < LOOKUPS; i++) {
+            final long id = ids.get(i % USERS);
+            lookups.add(executor.submit(() -> {
+                startSignal.await();
+                return userService.getNonSensitiveUserDetails(id);
+            }));
+        }
+
+        long startTime = System.nanoTime();
+        startSignal.countDown();
+        for (Future<?> lookup : lookups) {
+            lookup.get();
+        }
+        long elapsedMillis = (System.nanoTime() - startTime) / 1_000_000;
+        executor.shutdown();
+
+        long queries = statistics.getPrepareStatementCount();
+        System.out.println("(UserLookupLoadTests) - " + LOOKUPS + " lookups (" + THREADS + " threads) took "
+                + elapsedMillis + "ms and " + queries + " queries, instead of " + LOOKUPS + " queries without coalescing.");
+
+        assertThat(queries).isGreaterThan(0);
+        assertThat(queries).isLessThan(LOOKUPS / 10);
+    }
+
+    @Test
+    public final void givenMoreIdsThanABatch_whenLookingUpUsersById_thenEachQueryStaysWithinTheBatchSize() {
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < USERS; i++) {
+            RegisterUserRequest request = new RegisterUserRequest("batched-" + i + "@lookup.focust.test", "password123");
+            ids.add(userService.createUser(request).getId());
+        }
+        // ids that do not exist still take up room in the batches.
+        for (long id = Long.MAX_VALUE - MANY_IDS; ids.size() < MANY_IDS; id++) {
+            ids.add(id);
+        }
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        assertThat(userService.getNonSensitiveUserDetails(ids, UserField.DEFAULT_FIELDS)).hasSize(USERS);
+        // at most 100 ids per "IN" query.
+        assertThat(statistics.getPrepareStatementCount()).isGreaterThanOrEqualTo((MANY_IDS + 99) / 100);
+    }
+
+}
@@ -0,0 +1,141 @@
+/**
+ * UserRegistrationBatchingTests.java - Tests regarding concurrent user registrations.
+ * Copyright (C) 2024  Allan DeBoe
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ * ------------------------------------------------------------------------
+ *
+ * Registrations that happen at the same time are written together, so
+ * this test checks that every registration still gets its own result,
+ * even when some of them use the same email.
+ *
+ * @see com.focust.api.users.UserService
+ *
+ * @author Allan DeBoe (allan.m.deboe@gmail.com)
+ * @version 0.0.6
+ * @since 0.0.6
+ */
+package com.focust.api.integration.users;
+
+///////////////////////////////////////////////////////////////////////////
+
+// Focust //
+import com.focust.api.dto.requests.RegisterUserRequest;
+import com.focust.api.exceptions.UserAlreadyExistsException;
+import com.focust.api.users.UserService;
+import com.focust.api.util.testcontainers.UseFocustMySQL;
+
+// JUnit 5 (Jupiter) //
+import org.junit.jupiter.api.Test;
+
+// Spring Framework //
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+
+// Standard Java //
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+// Static Imports //
+import static org.assertj.core.api.Assertions.assertThat;
+
+///////////////////////////////////////////////////////////////////////////
+
+@SpringBootTest
+@UseFocustMySQL
+@DirtiesContext
+class UserRegistrationBatchingTests {
+
+    private static final int UNIQUE_REGISTRATIONS = 16;
+    private static final int DUPLICATE_REGISTRATIONS = 4;
+
+    @Autowired private UserService userService;
+
+    @Test
+    public final void givenConcurrentRegistrations_whenSomeEmailsAreDuplicated_thenEachRegistrationGetsItsOwnResult() throws Exception {
+
+        List<RegisterUserRequest> requests = new ArrayList<>();
+        for (int i = 0; i < UNIQUE_REGISTRATIONS; i++) {
+            requests.add(new RegisterUserRequest("batch-" + i + "@batch.focust.test", "password123"));
+        }
+        // each with its own password, as identical registrations would share a single result instead.
+        for (int i = 0; i < DUPLICATE_REGISTRATIONS; i++) {
+            requests.add(new RegisterUserRequest("batch-duplicate@batch.focust.test", "password-" + i));
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(requests.size());
+        CountDownLatch startSignal = new CountDownLatch(1);
+        List<Future<Long>> registrations = new ArrayList<>();
+        for (RegisterUserRequest request : requests) {
+            registrations.add(executor.submit(() -> {
+                startSignal.await();
+                return userService.createUser(request).getId();
+            }));
+        }
+        startSignal.countDown();
+
+        Set<Long> ids = new HashSet<>();
+        int conflicts = 0;
+        for (Future<Long> registration : registrations) {
+            try {
+                ids.add(registration.get());
+            }
+            catch (ExecutionException e) {
+                assertThat(e.getCause()).isInstanceOf(UserAlreadyExistsException.class);
+                conflicts++;
+            }
+        }
+        executor.shutdown();
+
+        System.out.println("(UserRegistrationBatchingTests) - " + ids.size() + " users created, " + conflicts + " conflicts.");
+
+        // every unique email and exactly one of the duplicates are created, each with its own id.
+        assertThat(ids).hasSize(UNIQUE_REGISTRATIONS + 1);
+        assertThat(conflicts).isEqualTo(DUPLICATE_REGISTRATIONS - 1);
+    }
+
+    @Test
+    public final void givenConcurrentIdenticalRegistrations_whenRegistering_thenTheyShareOneUser() throws Exception {
+        RegisterUserRequest request = new RegisterUserRequest("double-click@batch.focust.test", "password123");
+
+        ExecutorService executor = Executors.newFixedThreadPool(DUPLICATE_REGISTRATIONS);
+        CountDownLatch startSignal = new CountDownLatch(1);
+        List<Future<Long>> registrations = new ArrayList<>();
+        for (int i = 0; i < DUPLICATE_REGISTRATIONS; i++) {
+            registrations.add(executor.submit(() -> {
+                startSignal.await();
+                return userService.createUser(request).getId();
+            }));
+        }
+        startSignal.countDown();
+
+        // hashing the password takes long enough for all of them to be in flight at once.
+        Set<Long> ids = new HashSet<>();
+        for (Future<Long> registration : registrations) {
+            ids.add(registration.get());
+        }
+        executor.shutdown();
+
+        assertThat(ids).hasSize(1);
+    }
+
+}
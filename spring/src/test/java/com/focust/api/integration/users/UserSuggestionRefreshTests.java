@@ -0,0 +1,100 @@
+/**
+ * UserSuggestionRefreshTests.java - Tests that the typeahead index picks up the changes of other instances
+ * Copyright (C) 2024  Allan DeBoe
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ * ------------------------------------------------------------------------
+ *
+ * The other instance is played by writing to the tables directly, the same
+ * way its UserChangeSequence and UserService would.
+ *
+ * @see com.focust.api.users.UserService
+ *
+ * @author Allan DeBoe (allan.m.deboe@gmail.com)
+ * @version 0.0.6
+ * @since 0.0.6
+ */
+package com.focust.api.integration.users;
+
+///////////////////////////////////////////////////////////////////////////
+
+// Focust //
+import com.focust.api.dto.requests.RegisterUserRequest;
+import com.focust.api.dto.responses.UserSuggestionResponse;
+import com.focust.api.users.UserService;
+import com.focust.api.util.testcontainers.UseFocustMySQL;
+
+// JUnit 5 (Jupiter) //
+import org.junit.jupiter.api.Test;
+
+// Spring Framework //
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+
+// Standard Java //
+import java.util.List;
+
+// Static Imports //
+import static org.assertj.core.api.Assertions.assertThat;
+
+///////////////////////////////////////////////////////////////////////////
+
+@SpringBootTest(properties = "focust.users.suggestions.refresh-interval-ms=100")
+@UseFocustMySQL
+@DirtiesContext
+class UserSuggestionRefreshTests {
+
+    private static final long TIMEOUT_MILLIS = 5000;
+
+    @Autowired private UserService userService;
+    @Autowired private JdbcTemplate jdbcTemplate;
+
+    @Test
+    public final void givenChangesOnAnotherInstance_whenRefreshed_thenSuggestionsFollowThem() throws Exception {
+        long renamedId = userService.createUser(new RegisterUserRequest("renamed@suggest.focust.test", "password123")).getId();
+        long deletedId = userService.createUser(new RegisterUserRequest("removed@suggest.focust.test", "password123")).getId();
+        assertThat(suggest("removed@suggest")).extracting(UserSuggestionResponse::getId).containsExactly(deletedId);
+
+        // another instance syncs a GitHub username, then deletes a user.
+        jdbcTemplate.update("UPDATE users SET github_username = ?, change_sequence = ? WHERE id = ?",
+                "otherinstance", nextSequence(), renamedId);
+        long deletion = nextSequence();
+        jdbcTemplate.update("DELETE FROM users WHERE id = ?", deletedId);
+        jdbcTemplate.update("INSERT INTO user_tombstones (user_id, change_sequence, deleted_at) VALUES (?, ?, UTC_TIMESTAMP(6))",
+                deletedId, deletion);
+
+        long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+        while ((suggest("otherinstance").isEmpty() || !suggest("removed@suggest").isEmpty()) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+        }
+
+        assertThat(suggest("otherinstance")).extracting(UserSuggestionResponse::getId).containsExactly(renamedId);
+        assertThat(suggest("renamed@suggest")).extracting(UserSuggestionResponse::getGithubUsername).containsExactly("otherinstance");
+        assertThat(suggest("removed@suggest")).isEmpty();
+    }
+
+    ///////////////////////////////////////////////////////////////////////////
+
+    private List<UserSuggestionResponse> suggest(String prefix) {
+        return userService.suggestUsers(prefix, 10);
+    }
+
+    private long nextSequence() {
+        jdbcTemplate.update("UPDATE user_change_counter SET last_sequence = last_sequence + 1 WHERE id = 1");
+        return jdbcTemplate.queryForObject("SELECT last_sequence FROM user_change_counter WHERE id = 1", Long.class);
+    }
+
+}
@@ -0,0 +1,93 @@
+/**
+ * WarmUpReadinessTests.java - Tests of readiness waiting for the warm-up
+ * Copyright (C) 2024  Allan DeBoe
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ * ------------------------------------------------------------------------
+ *
+ * @see com.focust.api.warmup.WarmUp
+ *
+ * @author Allan DeBoe (allan.m.deboe@gmail.com)
+ * @version 0.0.6
+ * @since 0.0.6
+ */
+package com.focust.api.integration.warmup;
+
+///////////////////////////////////////////////////////////////////////////
+
+// Focust //
+import com.focust.api.util.testcontainers.UseFocustMySQL;
+import com.focust.api.warmup.WarmUp;
+
+// JUnit 5 (Jupiter) //
+import org.junit.jupiter.api.Test;
+
+// Spring Framework //
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalManagementPort;
+import org.springframework.test.annotation.DirtiesContext;
+
+// Standard Java //
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.TimeUnit;
+
+// Static Imports //
+import static org.assertj.core.api.Assertions.assertThat;
+
+///////////////////////////////////////////////////////////////////////////
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@UseFocustMySQL
+@DirtiesContext
+class WarmUpReadinessTests {
+
+    private static final long WARM_UP_WAIT_SECONDS = 120;
+
+    @LocalManagementPort private int managementPort;
+    @Autowired private WarmUp warmUp;
+
+    private final HttpClient client = HttpClient.newHttpClient();
+
+    @Test
+    public final void givenStartedServer_whenWarmUpIsDone_thenReadinessIsUp() throws Exception {
+        assertThat(health("/liveness").statusCode()).isEqualTo(200);
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(WARM_UP_WAIT_SECONDS);
+        while (System.nanoTime() < deadline) {
+            int status = health("/readiness").statusCode();
+            if (warmUp.isComplete()) break;
+            // still warming up after the response, so it was answered while warming up.
+            assertThat(status).isEqualTo(503);
+            Thread.sleep(100);
+        }
+
+        assertThat(warmUp.isComplete()).isTrue();
+        HttpResponse<String> readiness = health("/readiness");
+        assertThat(readiness.statusCode()).isEqualTo(200);
+        assertThat(readiness.body()).contains("\"status\":\"UP\"");
+    }
+
+    ///////////////////////////////////////////////////////////////////////////
+
+    private HttpResponse<String> health(String group) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + managementPort + "/actuator/health" + group)).GET().build();
+        return client.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+}
@@ -0,0 +1,85 @@
+/**
+ * FocustRuntimeHintsUnitTests.java - Tests of the native image hints
+ * Copyright (C) 2024  Allan DeBoe
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ * ------------------------------------------------------------------------
+ *
+ * A missing hint only shows up as a failure at runtime of a native image,
+ * so the ones that are easy to lose are checked here, on the JVM.
+ *
+ * @see com.focust.api.aot.FocustRuntimeHints
+ *
+ * @author Allan DeBoe (allan.m.deboe@gmail.com)
+ * @version 0.0.6
+ * @since 0.0.6
+ */
+package com.focust.api.unit.aot;
+
+///////////////////////////////////////////////////////////////////////////
+
+// Focust //
+import com.focust.api.aot.FocustRuntimeHints;
+import com.focust.api.dto.requests.SignInUserRequest;
+import com.focust.api.dto.responses.JwtTokenResponse;
+import com.focust.api.dto.responses.NonSensitiveUserDataResponse;
+import com.focust.api.github.GitHubProfile;
+import com.focust.api.security.bcrypt.BCryptHashType;
+
+// JUnit 5 (Jupiter) //
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+// Spring Framework //
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.TypeReference;
+import org.springframework.aot.hint.predicate.RuntimeHintsPredicates;
+
+// Static Imports //
+import static org.assertj.core.api.Assertions.assertThat;
+
+///////////////////////////////////////////////////////////////////////////
+
+public class FocustRuntimeHintsUnitTests {
+
+    private final RuntimeHints hints = new RuntimeHints();
+
+    @BeforeEach
+    public void registerHints() {
+        new FocustRuntimeHints().registerHints(hints, getClass().getClassLoader());
+    }
+
+    @Test
+    public final void givenHints_thenUserTypeCanBeCreatedByHibernate() {
+        assertThat(RuntimeHintsPredicates.reflection().onType(BCryptHashType.class)
+                .withMemberCategory(MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS)).accepts(hints);
+    }
+
+    @Test
+    public final void givenHints_thenDtosCanBeBoundByJackson() throws NoSuchMethodException {
+        assertThat(RuntimeHintsPredicates.reflection().onType(SignInUserRequest.class)).accepts(hints);
+        assertThat(RuntimeHintsPredicates.reflection().onMethod(JwtTokenResponse.class.getMethod("getAccessToken"))).accepts(hints);
+        assertThat(RuntimeHintsPredicates.reflection().onType(NonSensitiveUserDataResponse.class)).accepts(hints);
+        assertThat(RuntimeHintsPredicates.reflection().onType(GitHubProfile.class)).accepts(hints);
+    }
+
+    @Test
+    public final void givenHints_thenJwtLibraryAndKeystoreAreAvailable() {
+        assertThat(RuntimeHintsPredicates.reflection().onType(TypeReference.of("com.auth0.jwt.impl.PayloadDeserializer"))).accepts(hints);
+        assertThat(RuntimeHintsPredicates.resource().forResource(".keystore/focust-spring.p12")).accepts(hints);
+        assertThat(RuntimeHintsPredicates.resource().forResource(".keystore/public_key.der")).accepts(hints);
+    }
+
+}
@@ -0,0 +1,151 @@
+/**
+ * RequestCaptureFilterUnitTests.java - Tests of request capturing and anonymization
+ * Copyright (C) 2024  Allan DeBoe
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ * ------------------------------------------------------------------------
+ *
+ * Requests to a stub controller are captured to an actual capture file,
+ * which is then read back to check what was (and was not) kept.
+ *
+ * @see com.focust.api.capture.RequestCaptureFilter
+ *
+ * @author Allan DeBoe (allan.m.deboe@gmail.com)
+ * @version 0.0.6
+ * @since 0.0.6
+ */
+package com.focust.api.unit.capture;
+
+///////////////////////////////////////////////////////////////////////////
+
+// Focust //
+import com.focust.api.capture.CaptureAnonymizer;
+import com.focust.api.capture.CaptureFile;
+import com.focust.api.capture.CapturedRequest;
+import com.focust.api.capture.RequestCaptureFilter;
+import com.focust.api.capture.RequestCaptureWriter;
+
+// JUnit 5 (Jupiter) //
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+// Spring Framework //
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RestController;
+
+// Standard Java //
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+// Static Imports //
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+///////////////////////////////////////////////////////////////////////////
+
+public class RequestCaptureFilterUnitTests {
+
+    private static final String SIGN_IN = "{\"email\":\"Alice@Example.com\",\"password\":\"hunter22\"}";
+
+    @TempDir Path directory;
+
+    @Test
+    public final void givenCapturedRequests_whenRead_thenShapeIsKeptWithoutCredentials() throws Exception {
+        List<CapturedRequest> requests = capture(mockMvc -> {
+            mockMvc.perform(post("/auth/login").contentType(MediaType.APPLICATION_JSON).content(SIGN_IN));
+            mockMvc.perform(get("/users/42").header("Authorization", "Bearer secret.jwt.token"));
+            mockMvc.perform(get("/health"));
+        });
+
+        assertThat(requests).hasSize(2);
+        assertThat(requests).extracting(CapturedRequest::method).containsExactly("POST", "GET");
+        assertThat(requests).extracting(CapturedRequest::endpointOrPath).containsExactly("/auth/{action}", "/users/{id}");
+        assertThat(requests).extracting(CapturedRequest::status).containsExactly(200, 200);
+        assertThat(requests.get(0).requestSize()).isEqualTo(SIGN_IN.length());
+        assertThat(requests.get(1).responseSize()).isEqualTo("user 42".length());
+        assertThat(requests.get(1).credentials()).containsExactly(CapturedRequest.Credential.BEARER);
+        assertThat(requests.get(1).offsetNanos()).isGreaterThanOrEqualTo(requests.get(0).offsetNanos());
+        assertThat(requests).allSatisfy(request -> assertThat(request.toString()).doesNotContain("secret"));
+    }
+
+    @Test
+    public final void givenCapturedBodiesAndQueries_whenRead_thenPersonalValuesArePseudonymizedConsistently() throws Exception {
+        List<CapturedRequest> requests = capture(mockMvc -> {
+            mockMvc.perform(post("/auth/register").contentType(MediaType.APPLICATION_JSON).content(SIGN_IN));
+            mockMvc.perform(post("/auth/login").contentType(MediaType.APPLICATION_JSON).content(SIGN_IN));
+            mockMvc.perform(get("/users?fields=email&size=5&domain=example.com&q=alice"));
+        });
+
+        String registration = new String(requests.get(0).body(), StandardCharsets.UTF_8);
+        assertThat(registration).doesNotContainIgnoringCase("alice").doesNotContain("example", "hunter22");
+        assertThat(registration).matches("\\{\"email\":\"[0-9a-f]{5}@[0-9a-f]{6}\\.test\",\"password\":\"[0-9a-f]{8}\"}");
+        assertThat(requests.get(1).body()).isEqualTo(requests.get(0).body());
+
+        String domain = registration.substring(registration.indexOf('@') + 1, registration.indexOf(".test"));
+        assertThat(requests.get(2).query())
+                .startsWith("fields=email&size=5&domain=" + domain + ".test&q=")
+                .doesNotContain("alice");
+    }
+
+    ///////////////////////////////////////////////////////////////////////////
+
+    private List<CapturedRequest> capture(MockMvcRequests requests) throws Exception {
+        RequestCaptureWriter writer = new RequestCaptureWriter(directory, Long.MAX_VALUE, new CaptureAnonymizer("test-key".getBytes(StandardCharsets.UTF_8)));
+        MockMvc mockMvc = MockMvcBuilders.standaloneSetup(new StubController())
+                .addFilters(new RequestCaptureFilter(writer, 1024))
+                .build();
+        requests.perform(mockMvc);
+        writer.close();
+        return CaptureFile.read(writer.getFile());
+    }
+
+    private interface MockMvcRequests {
+        void perform(MockMvc mockMvc) throws Exception;
+    }
+
+    @RestController
+    private static class StubController {
+
+        @PostMapping("/auth/{action}")
+        public Map<String, Object> authenticate(@PathVariable String action, @RequestBody Map<String, Object> request) {
+            return Map.of("action", action);
+        }
+
+        @GetMapping("/users/{id}")
+        public String getUser(@PathVariable long id) {
+            return "user " + id;
+        }
+
+        @GetMapping("/users")
+        public String getUsers() {
+            return "users";
+        }
+
+        @GetMapping("/health")
+        public String health() {
+            return "ok";
+        }
+
+    }
+
+}
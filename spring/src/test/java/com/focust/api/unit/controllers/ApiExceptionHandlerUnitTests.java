@@ -0,0 +1,137 @@
+/**
+ * ApiExceptionHandlerUnitTests.java - Tests of the error responses sent by ApiExceptionHandler
+ * Copyright (C) 2024  Allan DeBoe
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ * ------------------------------------------------------------------------
+ *
+ * The exceptions are thrown by a stub controller, so that the responses
+ * can be checked without starting the application (or a database).
+ *
+ * @see com.focust.api.controllers.ApiExceptionHandler
+ *
+ * @author Allan DeBoe (allan.m.deboe@gmail.com)
+ * @version 0.0.6
+ * @since 0.0.6
+ */
+package com.focust.api.unit.controllers;
+
+///////////////////////////////////////////////////////////////////////////
+
+// Focust //
+import com.focust.api.controllers.ApiExceptionHandler;
+import com.focust.api.exceptions.EmptyPageException;
+import com.focust.api.exceptions.IncorrectSignInException;
+import com.focust.api.exceptions.UserNotFoundException;
+
+// JUnit 5 (Jupiter) //
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+// Spring Framework //
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+// Static Imports //
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+///////////////////////////////////////////////////////////////////////////
+
+public class ApiExceptionHandlerUnitTests {
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    public void createMockMvc() {
+        mockMvc = MockMvcBuilders.standaloneSetup(new StubController())
+                .setControllerAdvice(new ApiExceptionHandler())
+                .build();
+    }
+
+    @Test
+    public final void givenIncorrectSignIn_whenHandled_thenUnauthorizedProblemIsSent() throws Exception {
+        mockMvc.perform(get("/incorrect-sign-in").accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isUnauthorized())
+                .andExpect(content().contentType(MediaType.APPLICATION_PROBLEM_JSON))
+                .andExpect(jsonPath("$.status").value(HttpStatus.UNAUTHORIZED.value()))
+                .andExpect(jsonPath("$.title").value(HttpStatus.UNAUTHORIZED.getReasonPhrase()))
+                .andExpect(jsonPath("$.detail").isString());
+    }
+
+    @Test
+    public final void givenUserNotFound_whenHandled_thenNotFoundProblemIsSent() throws Exception {
+        mockMvc.perform(get("/user-not-found").accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isNotFound())
+                .andExpect(content().contentType(MediaType.APPLICATION_PROBLEM_JSON))
+                .andExpect(jsonPath("$.status").value(HttpStatus.NOT_FOUND.value()));
+    }
+
+    @Test
+    public final void givenEmptyPage_whenHandled_thenNoContentIsSent() throws Exception {
+        mockMvc.perform(get("/empty-page").accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isNoContent())
+                .andExpect(content().string(""));
+    }
+
+    @Test
+    public final void givenMissingParameter_whenHandled_thenBadRequestProblemIsSent() throws Exception {
+        mockMvc.perform(get("/parameter").accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().contentType(MediaType.APPLICATION_PROBLEM_JSON))
+                .andExpect(jsonPath("$.status").value(HttpStatus.BAD_REQUEST.value()));
+    }
+
+    @Test
+    public final void givenDomainExceptions_whenCreated_thenNoStackTraceIsFilledIn() {
+        assertThat(new UserNotFoundException().getStackTrace()).isEmpty();
+        assertThat(new IncorrectSignInException().getStackTrace()).isEmpty();
+        assertThat(new EmptyPageException().getStackTrace()).isEmpty();
+    }
+
+    ///////////////////////////////////////////////////////////////////////////
+
+    @RestController
+    private static class StubController {
+
+        @GetMapping(value="/incorrect-sign-in", produces="application/json")
+        public Object incorrectSignIn() {
+            throw new IncorrectSignInException();
+        }
+
+        @GetMapping(value="/user-not-found", produces="application/json")
+        public Object userNotFound() {
+            throw new UserNotFoundException();
+        }
+
+        @GetMapping(value="/empty-page", produces="application/json")
+        public Object emptyPage() {
+            throw new EmptyPageException();
+        }
+
+        @GetMapping(value="/parameter", produces="application/json")
+        public Object parameter(@RequestParam("value") String value) {
+            return value;
+        }
+    }
+
+}
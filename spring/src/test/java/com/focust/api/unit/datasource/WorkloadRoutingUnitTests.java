@@ -0,0 +1,176 @@
+/**
+ * WorkloadRoutingUnitTests.java - Tests of the connection pool of each workload
+ * Copyright (C) 2024  Allan DeBoe
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ * ------------------------------------------------------------------------
+ *
+ * The pools are never started (so no database is needed); which one would
+ * hand out the next connection is found by unwrapping the routing DataSource.
+ *
+ * @see com.focust.api.datasource.WorkloadRoutingDataSource
+ * @see com.focust.api.datasource.WorkloadPoolInterceptor
+ *
+ * @author Allan DeBoe (allan.m.deboe@gmail.com)
+ * @version 0.0.6
+ * @since 0.0.6
+ */
+package com.focust.api.unit.datasource;
+
+///////////////////////////////////////////////////////////////////////////
+
+// Focust //
+import com.focust.api.datasource.Workload;
+import com.focust.api.datasource.WorkloadDataSourceConfiguration;
+import com.focust.api.datasource.WorkloadPool;
+import com.focust.api.datasource.WorkloadRoutingDataSource;
+
+// Hikari //
+import com.zaxxer.hikari.HikariDataSource;
+
+// Micrometer //
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+// JUnit 5 (Jupiter) //
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+// Spring Framework //
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.mock.env.MockEnvironment;
+
+// Standard Java //
+import java.sql.SQLException;
+
+// Static Imports //
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+///////////////////////////////////////////////////////////////////////////
+
+public class WorkloadRoutingUnitTests {
+
+    private WorkloadRoutingDataSource dataSource;
+
+    @BeforeEach
+    public final void createPools() {
+        MockEnvironment environment = new MockEnvironment()
+                .withProperty("spring.datasource.hikari.maximum-pool-size", "10")
+                .withProperty("spring.datasource.hikari.data-source-properties.cachePrepStmts", "true")
+                .withProperty("focust.datasource.pools.auth.maximum-pool-size", "3")
+                .withProperty("focust.datasource.pools.auth.connection-timeout", "1000");
+        DataSourceProperties properties = new DataSourceProperties();
+        properties.setUrl("jdbc:mysql://localhost/focust_db");
+
+        dataSource = new WorkloadDataSourceConfiguration().dataSource(properties, environment, new SimpleMeterRegistry());
+    }
+
+    @AfterEach
+    public final void closePools() {
+        dataSource.close();
+    }
+
+    @Test
+    public final void givenPoolProperties_whenCreatingPools_thenEachWorkloadOverridesTheDefaults() {
+        HikariDataSource defaultPool = dataSource.getPool(Workload.DEFAULT);
+        HikariDataSource authPool = dataSource.getPool(Workload.AUTH);
+        HikariDataSource readPool = dataSource.getPool(Workload.READ);
+
+        assertThat(authPool.getPoolName()).isEqualTo("auth");
+        assertThat(authPool.getMaximumPoolSize()).isEqualTo(3);
+        assertThat(authPool.getMinimumIdle()).isEqualTo(3);
+        assertThat(authPool.getConnectionTimeout()).isEqualTo(1000);
+        assertThat(authPool.getDataSourceProperties()).containsEntry("cachePrepStmts", "true");
+        assertThat(readPool.getMaximumPoolSize()).isEqualTo(10);
+        assertThat(readPool.getConnectionTimeout()).isEqualTo(defaultPool.getConnectionTimeout());
+        assertThat(defaultPool.getJdbcUrl()).isEqualTo(readPool.getJdbcUrl()).isEqualTo("jdbc:mysql://localhost/focust_db");
+    }
+
+    @Test
+    public final void givenWorkload_whenRunning_thenItsPoolIsUsedUntilItReturns() throws SQLException {
+        assertThat(dataSource.unwrap(HikariDataSource.class)).isSameAs(dataSource.getPool(Workload.DEFAULT));
+
+        WorkloadRoutingDataSource.runWith(Workload.READ, () -> {
+            assertThat(target()).isSameAs(dataSource.getPool(Workload.READ));
+            WorkloadRoutingDataSource.runWith(Workload.AUTH, () -> assertThat(target()).isSameAs(dataSource.getPool(Workload.AUTH)));
+            assertThat(target()).isSameAs(dataSource.getPool(Workload.READ));
+        });
+
+        assertThat(WorkloadRoutingDataSource.getCurrentWorkload()).isEmpty();
+    }
+
+    @Test
+    public final void givenAnnotatedMethods_whenCalledThroughProxy_thenWorkloadIsSetAndRestored() {
+        StubService service = proxy(new StubService(proxy(new StubService(null))));
+
+        assertThat(service.signIn()).contains(Workload.AUTH);
+        assertThat(service.listThenSignIn()).containsExactly(Workload.READ, Workload.AUTH, Workload.READ);
+        assertThat(service.unrouted()).isEmpty();
+        assertThatThrownBy(service::failingRead).isInstanceOf(IllegalStateException.class);
+        assertThat(WorkloadRoutingDataSource.getCurrentWorkload()).isEmpty();
+    }
+
+    ///////////////////////////////////////////////////////////////////////////
+
+    private HikariDataSource target() {
+        try {
+            return dataSource.unwrap(HikariDataSource.class);
+        }
+        catch (SQLException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static StubService proxy(StubService service) {
+        ProxyFactory proxyFactory = new ProxyFactory(service);
+        proxyFactory.setProxyTargetClass(true);
+        proxyFactory.addAdvisor(WorkloadDataSourceConfiguration.workloadPoolAdvisor());
+        return (StubService) proxyFactory.getProxy();
+    }
+
+    public static class StubService {
+
+        // calls on "this" are not intercepted, so nested calls go through another proxy.
+        private final StubService nestedService;
+
+        public StubService(StubService nestedService) {
+            this.nestedService = nestedService;
+        }
+
+        @WorkloadPool(Workload.AUTH)
+        public Workload[] signIn() {
+            return new Workload[] { WorkloadRoutingDataSource.getCurrentWorkload().orElseThrow() };
+        }
+
+        @WorkloadPool(Workload.READ)
+        public Workload[] listThenSignIn() {
+            Workload before = WorkloadRoutingDataSource.getCurrentWorkload().orElseThrow();
+            Workload nested = nestedService.signIn()[0];
+            return new Workload[] { before, nested, WorkloadRoutingDataSource.getCurrentWorkload().orElseThrow() };
+        }
+
+        public Workload[] unrouted() {
+            return WorkloadRoutingDataSource.getCurrentWorkload().stream().toArray(Workload[]::new);
+        }
+
+        @WorkloadPool(Workload.READ)
+        public void failingRead() {
+            throw new IllegalStateException("the page scan failed");
+        }
+
+    }
+
+}
@@ -0,0 +1,196 @@
+/**
+ * GitHubProfileClientUnitTests.java - Tests regarding the GitHub profile client
+ * Copyright (C) 2024  Allan DeBoe
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ * ------------------------------------------------------------------------
+ *
+ * Instead of GitHub, the client talks to a small local HTTP server that
+ * behaves like the "/users/{login}" endpoint of the GitHub REST API,
+ * including ETags and rate limit headers.
+ *
+ * @see com.focust.api.github.GitHubProfileClient
+ *
+ * @author Allan DeBoe (allan.m.deboe@gmail.com)
+ * @version 0.0.6
+ * @since 0.0.6
+ */
+package com.focust.api.unit.github;
+
+///////////////////////////////////////////////////////////////////////////
+
+// Focust //
+import com.focust.api.github.GitHubProfileCache;
+import com.focust.api.github.GitHubProfileClient;
+import com.focust.api.github.GitHubProfileLookup;
+
+// Jackson //
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+// JDK HTTP Server //
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+// Micrometer //
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+// JUnit 5 (Jupiter) //
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+// Spring Framework //
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestTemplate;
+
+// Standard Java //
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+// Static Imports //
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+///////////////////////////////////////////////////////////////////////////
+
+public class GitHubProfileClientUnitTests {
+
+    private static final String ETAG = "W/\"octocat-v1\"";
+    private static final String PROFILE = "{\"login\": \"octocat\", \"avatar_url\": \"https://avatars.example/octocat\", \"name\": \"The Octocat\"}";
+
+    @TempDir Path cacheDirectory;
+
+    private HttpServer server;
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    // the "If-None-Match" header of each request the stub received (or "" if none).
+    private final List<String> receivedEtags = new CopyOnWriteArrayList<>();
+    private volatile String rateLimitRemaining = "59";
+
+    @BeforeEach
+    public void startStubServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/users/", this::handle);
+        server.start();
+    }
+
+    @AfterEach
+    public void stopStubServer() {
+        server.stop(0);
+    }
+
+    @Test
+    public final void givenFetchedProfile_whenFetchingAgain_thenRevalidatedWithEtag() throws IOException {
+        GitHubProfileClient client = createClient();
+
+        GitHubProfileLookup first = client.fetch("octocat");
+        GitHubProfileLookup second = client.fetch("octocat");
+
+        assertThat(receivedEtags).containsExactly("", ETAG);
+        assertThat(first.getStatus()).isEqualTo(GitHubProfileLookup.Status.FOUND);
+        assertThat(second.getStatus()).isEqualTo(GitHubProfileLookup.Status.FOUND);
+        assertThat(second.getProfile().getAvatarUrl()).isEqualTo("https://avatars.example/octocat");
+        assertThat(second.getProfile().getDisplayName()).isEqualTo("The Octocat");
+        assertThat(meterRegistry.get("cache.gets").tag("result", "hit").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("cache.gets").tag("result", "miss").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    public final void givenCachedProfile_whenClientRestarts_thenProfileIsNotFetchedAgain() throws IOException {
+        createClient().fetch("octocat");
+
+        // a new client (and cache) over the same directory, as after a restart.
+        GitHubProfileLookup lookup = createClient().fetch("OctoCat");
+
+        assertThat(receivedEtags).containsExactly("", ETAG);
+        assertThat(lookup.getProfile().getLogin()).isEqualTo("octocat");
+    }
+
+    @Test
+    public final void givenRateLimitUsedUp_whenFetching_thenNoRequestIsSent() throws IOException {
+        GitHubProfileClient client = createClient();
+        rateLimitRemaining = "0";
+
+        assertThat(client.fetch("octocat").getStatus()).isEqualTo(GitHubProfileLookup.Status.FOUND);
+        GitHubProfileLookup lookup = client.fetch("octocat");
+
+        assertThat(receivedEtags).hasSize(1);
+        assertThat(lookup.getStatus()).isEqualTo(GitHubProfileLookup.Status.RATE_LIMITED);
+        assertThat(lookup.getRetryAt()).isAfter(Instant.now());
+    }
+
+    @Test
+    public final void givenUnknownOrInvalidLogin_whenFetching_thenNotFound() throws IOException {
+        GitHubProfileClient client = createClient();
+
+        assertThat(client.fetch("ghost").getStatus()).isEqualTo(GitHubProfileLookup.Status.NOT_FOUND);
+        assertThat(client.fetch("../etc/passwd").getStatus()).isEqualTo(GitHubProfileLookup.Status.NOT_FOUND);
+        assertThat(receivedEtags).hasSize(1);
+    }
+
+    @Test
+    public final void givenForbiddenWithoutRateLimit_whenFetching_thenThrows() throws IOException {
+        GitHubProfileClient client = createClient();
+
+        assertThatThrownBy(() -> client.fetch("forbidden")).isInstanceOf(HttpClientErrorException.class);
+    }
+
+    ///////////////////////////////////////////////////////////////////////////
+
+    private GitHubProfileClient createClient() throws IOException {
+        String baseUrl = "http://localhost:" + server.getAddress().getPort();
+        GitHubProfileCache cache = new GitHubProfileCache(cacheDirectory, objectMapper);
+        return new GitHubProfileClient(new RestTemplate(), baseUrl, "", cache, objectMapper, Clock.systemUTC(), meterRegistry);
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        String login = exchange.getRequestURI().getPath().substring("/users/".length());
+        String etag = exchange.getRequestHeaders().getFirst("If-None-Match");
+        receivedEtags.add(etag == null ? "" : etag);
+
+        exchange.getResponseHeaders().set("X-RateLimit-Remaining", rateLimitRemaining);
+        exchange.getResponseHeaders().set("X-RateLimit-Reset", Long.toString(Instant.now().plusSeconds(3600).getEpochSecond()));
+
+        switch (login.toLowerCase()) {
+            case "octocat" -> {
+                exchange.getResponseHeaders().set("ETag", ETAG);
+                if (ETAG.equals(etag)) {
+                    exchange.sendResponseHeaders(304, -1);
+                }
+                else {
+                    byte[] body = PROFILE.getBytes(StandardCharsets.UTF_8);
+                    exchange.getResponseHeaders().set("Content-Type", "application/json");
+                    exchange.sendResponseHeaders(200, body.length);
+                    try (OutputStream output = exchange.getResponseBody()) {
+                        output.write(body);
+                    }
+                }
+            }
+            case "forbidden" -> exchange.sendResponseHeaders(403, -1);
+            default -> exchange.sendResponseHeaders(404, -1);
+        }
+        exchange.close();
+    }
+
+}
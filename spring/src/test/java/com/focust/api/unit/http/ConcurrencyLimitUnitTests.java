@@ -0,0 +1,179 @@
+/**
+ * ConcurrencyLimitUnitTests.java - Tests of the adaptive concurrency limits
+ * Copyright (C) 2024  Allan DeBoe
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ * ------------------------------------------------------------------------
+ *
+ * The limits are fed simulated round-trip times (with the limit always
+ * fully used), and the filter is run in front of a stub controller.
+ *
+ * @see com.focust.api.http.limit.AdaptiveConcurrencyLimit
+ * @see com.focust.api.http.limit.ConcurrencyLimitFilter
+ *
+ * @author Allan DeBoe (allan.m.deboe@gmail.com)
+ * @version 0.0.6
+ * @since 0.0.6
+ */
+package com.focust.api.unit.http;
+
+///////////////////////////////////////////////////////////////////////////
+
+// Focust //
+import com.focust.api.http.limit.AdaptiveConcurrencyLimit;
+import com.focust.api.http.limit.ConcurrencyLimitFilter;
+import com.focust.api.http.limit.ConcurrencyLimiter;
+import com.focust.api.http.limit.EndpointClass;
+
+// Micrometer //
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+// JUnit 5 (Jupiter) //
+import org.junit.jupiter.api.Test;
+
+// Spring Framework //
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+// Standard Java //
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// Static Imports //
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+///////////////////////////////////////////////////////////////////////////
+
+public class ConcurrencyLimitUnitTests {
+
+    private static final long STEADY_RTT_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    public final void givenSteadyRoundTripTimes_whenLimitIsUsed_thenLimitGrows() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(10, 2, 100);
+
+        runAtLimit(limit, STEADY_RTT_NANOS, 50);
+
+        assertThat(limit.getLimit()).isGreaterThan(20).isLessThanOrEqualTo(100);
+        assertThat(limit.getInFlight()).isZero();
+    }
+
+    @Test
+    public final void givenGrowingRoundTripTimes_whenLimitIsUsed_thenLimitShrinks() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(40, 2, 100);
+        runAtLimit(limit, STEADY_RTT_NANOS, 20);
+        int steadyLimit = limit.getLimit();
+
+        runAtLimit(limit, 4 * STEADY_RTT_NANOS, 10);
+
+        assertThat(limit.getLimit()).isLessThan(steadyLimit / 2).isGreaterThanOrEqualTo(2);
+        assertThat(limit.getShortRttMillis()).isGreaterThan(limit.getLongRttMillis());
+    }
+
+    @Test
+    public final void givenFewRequests_whenRoundTripTimesAreSteady_thenLimitDoesNotGrow() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(10, 2, 100);
+
+        for (int i = 0; i < 500; i++) {
+            assertThat(limit.tryAcquire()).isTrue();
+            limit.release(STEADY_RTT_NANOS);
+        }
+
+        assertThat(limit.getLimit()).isEqualTo(10);
+    }
+
+    @Test
+    public final void givenLimitIsReached_whenAcquiring_thenRequestIsRejected() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(2, 1, 10);
+
+        assertThat(limit.tryAcquire()).isTrue();
+        assertThat(limit.tryAcquire()).isTrue();
+        assertThat(limit.tryAcquire()).isFalse();
+        limit.release(STEADY_RTT_NANOS);
+        assertThat(limit.tryAcquire()).isTrue();
+
+        assertThat(limit.getAccepted()).isEqualTo(3);
+        assertThat(limit.getRejected()).isEqualTo(1);
+    }
+
+    @Test
+    public final void givenFullReadLimit_whenRequesting_thenOnlyReadsAreShedWith503() throws Exception {
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter(Map.of(
+                EndpointClass.AUTH, new AdaptiveConcurrencyLimit(1, 1, 1),
+                EndpointClass.READ, new AdaptiveConcurrencyLimit(1, 1, 1)
+        ), meterRegistry);
+        MockMvc mockMvc = MockMvcBuilders.standaloneSetup(new StubController())
+                .addFilters(new ConcurrencyLimitFilter(limiter))
+                .build();
+        assertThat(limiter.getLimit(EndpointClass.READ).tryAcquire()).isTrue();
+
+        mockMvc.perform(get("/users/7"))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string("Retry-After", "1"))
+                .andExpect(content().contentType("application/problem+json"));
+        mockMvc.perform(post("/auth/login")).andExpect(status().isOk());
+        mockMvc.perform(post("/users/import")).andExpect(status().isOk());
+
+        assertThat(meterRegistry.get("focust.http.server.concurrency.rejected").tag("endpoint", "read").functionCounter().count())
+                .isEqualTo(1);
+        assertThat(limiter.getLimit(EndpointClass.AUTH).getInFlight()).isZero();
+    }
+
+    ///////////////////////////////////////////////////////////////////////////
+
+    // Every window, as many requests as the limit allows are in flight at once.
+    private static void runAtLimit(AdaptiveConcurrencyLimit limit, long rttNanos, int rounds) {
+        for (int round = 0; round < rounds; round++) {
+            int acquired = 0;
+            while (limit.tryAcquire()) {
+                acquired++;
+            }
+            for (int i = 0; i < acquired; i++) {
+                limit.release(rttNanos);
+            }
+        }
+    }
+
+    @RestController
+    private static class StubController {
+
+        @GetMapping("/users/{id}")
+        public String getUser() {
+            return "user";
+        }
+
+        @PostMapping("/auth/login")
+        public String signIn() {
+            return "token";
+        }
+
+        @PostMapping("/users/import")
+        public String importUsers() {
+            return "imported";
+        }
+
+    }
+
+}
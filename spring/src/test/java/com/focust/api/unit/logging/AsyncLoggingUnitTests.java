@@ -0,0 +1,138 @@
+/**
+ * AsyncLoggingUnitTests.java - Tests of the logging configuration
+ * Copyright (C) 2024  Allan DeBoe
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ * ------------------------------------------------------------------------
+ *
+ * "logback-spring.xml" is loaded the same way Spring Boot loads it, to
+ * check that request threads only ever hand their events to a bounded,
+ * non-blocking queue, and that SAMPLED lines logged through a real logger
+ * are sampled.
+ *
+ * @see com.focust.api.logging.SampledLogFilter
+ *
+ * @author Allan DeBoe (allan.m.deboe@gmail.com)
+ * @version 0.0.6
+ * @since 0.0.6
+ */
+package com.focust.api.unit.logging;
+
+///////////////////////////////////////////////////////////////////////////
+
+// Focust //
+import com.focust.api.logging.SampledLogFilter;
+
+// Logback //
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.Appender;
+import ch.qos.logback.core.read.ListAppender;
+import ch.qos.logback.core.spi.FilterReply;
+
+// JUnit 5 (Jupiter) //
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+// SLF4J //
+import org.slf4j.LoggerFactory;
+
+// Spring Framework //
+import org.springframework.boot.logging.LoggingInitializationContext;
+import org.springframework.boot.logging.LoggingSystem;
+import org.springframework.mock.env.MockEnvironment;
+
+// Standard Java //
+import java.util.ArrayList;
+import java.util.List;
+
+// Static Imports //
+import static org.assertj.core.api.Assertions.assertThat;
+
+///////////////////////////////////////////////////////////////////////////
+
+public class AsyncLoggingUnitTests {
+
+    private LoggingSystem loggingSystem;
+
+    @AfterEach
+    public void resetLogging() {
+        if (loggingSystem != null) loggingSystem.cleanUp();
+        ((LoggerContext) LoggerFactory.getILoggerFactory()).reset();
+    }
+
+    @Test
+    public final void givenLogbackSpringXml_whenInitialized_thenRootOnlyLogsThroughNonBlockingQueue() {
+        LoggerContext context = initialize(new MockEnvironment());
+
+        List<Appender<?>> appenders = new ArrayList<>();
+        context.getLogger(Logger.ROOT_LOGGER_NAME).iteratorForAppenders().forEachRemaining(appenders::add);
+
+        assertThat(appenders).singleElement().isInstanceOfSatisfying(AsyncAppender.class, async -> {
+            assertThat(async.isNeverBlock()).isTrue();
+            assertThat(async.getQueueSize()).isEqualTo(8192);
+            assertThat(async.getAppender("CONSOLE")).isNotNull();
+        });
+    }
+
+    @Test
+    public final void givenSampleRate_whenInitialized_thenSampledLinesAreFilteredAtThatRate() {
+        LoggerContext context = initialize(new MockEnvironment().withProperty("focust.logging.sample-rate", "0"));
+        Logger logger = context.getLogger("com.focust.api.Test");
+
+        assertThat(context.getTurboFilterList()).singleElement().isInstanceOf(SampledLogFilter.class);
+        SampledLogFilter filter = (SampledLogFilter) context.getTurboFilterList().get(0);
+        assertThat(filter.decide(SampledLogFilter.SAMPLED, logger, Level.DEBUG, "sampled", null, null)).isEqualTo(FilterReply.DENY);
+        assertThat(filter.decide(null, logger, Level.DEBUG, "not sampled", null, null)).isEqualTo(FilterReply.NEUTRAL);
+
+        filter.setRate(1);
+        assertThat(filter.decide(SampledLogFilter.SAMPLED, logger, Level.DEBUG, "sampled", null, null)).isEqualTo(FilterReply.NEUTRAL);
+    }
+
+    @Test
+    public final void givenSampleRate_whenLoggingSampledLines_thenThatFractionIsAppended() {
+        LoggerContext context = initialize(new MockEnvironment().withProperty("focust.logging.sample-rate", "0.1"));
+        Logger logger = context.getLogger("com.focust.api.Test");
+        logger.setLevel(Level.DEBUG);
+        logger.setAdditive(false);
+        ListAppender<ILoggingEvent> appender = new ListAppender<>();
+        appender.setContext(context);
+        appender.start();
+        logger.addAppender(appender);
+
+        for (int i = 0; i < 10000; i++) {
+            logger.debug(SampledLogFilter.SAMPLED, "Authenticated request userId={}", i);
+        }
+        assertThat(appender.list).hasSizeBetween(700, 1300);
+
+        appender.list.clear();
+        for (int i = 0; i < 100; i++) {
+            logger.debug("Not sampled {}", i);
+        }
+        assertThat(appender.list).hasSize(100);
+    }
+
+    ///////////////////////////////////////////////////////////////////////////
+
+    private LoggerContext initialize(MockEnvironment environment) {
+        loggingSystem = LoggingSystem.get(getClass().getClassLoader());
+        loggingSystem.beforeInitialize();
+        loggingSystem.initialize(new LoggingInitializationContext(environment), "classpath:logback-spring.xml", null);
+        return (LoggerContext) LoggerFactory.getILoggerFactory();
+    }
+
+}
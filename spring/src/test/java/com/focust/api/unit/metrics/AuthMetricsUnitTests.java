@@ -0,0 +1,61 @@
+/**
+ * AuthMetricsUnitTests.java - Tests of the timers of signing in and registering
+ * Copyright (C) 2024  Allan DeBoe
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ * ------------------------------------------------------------------------
+ *
+ * @see com.focust.api.metrics.AuthMetrics
+ *
+ * @author Allan DeBoe (allan.m.deboe@gmail.com)
+ * @version 0.0.6
+ * @since 0.0.6
+ */
+package com.focust.api.unit.metrics;
+
+///////////////////////////////////////////////////////////////////////////
+
+// Focust //
+import com.focust.api.metrics.AuthMetrics;
+
+// Micrometer //
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+// JUnit 5 (Jupiter) //
+import org.junit.jupiter.api.Test;
+
+// Static Imports //
+import static org.assertj.core.api.Assertions.assertThat;
+
+///////////////////////////////////////////////////////////////////////////
+
+public class AuthMetricsUnitTests {
+
+    @Test
+    public final void givenSyntheticWork_whenSigningAndVerifying_thenNothingIsRecorded() throws Exception {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        AuthMetrics authMetrics = new AuthMetrics(meterRegistry);
+
+        AuthMetrics.runSynthetic(() -> {
+            authMetrics.recordJwtSign(System.nanoTime(), false);
+            authMetrics.recordJwtVerify(System.nanoTime(), true);
+        });
+        assertThat(AuthMetrics.isSynthetic()).isFalse();
+        authMetrics.recordJwtSign(System.nanoTime(), false);
+
+        assertThat(meterRegistry.get("focust.auth.jwt.sign").tag("token", "access").timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("focust.auth.jwt.verify").tag("outcome", "valid").timer().count()).isZero();
+    }
+
+}
@@ -0,0 +1,81 @@
+/**
+ * FlightRecorderEndpointUnitTests.java - Tests of the on-demand JFR recordings
+ * Copyright (C) 2024  Allan DeBoe
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ * ------------------------------------------------------------------------
+ *
+ * A recording is started, stopped, and downloaded through the endpoint,
+ * then read back to check that the events which would hold secrets (the
+ * environment variables, system properties, and JVM arguments) are not in it.
+ *
+ * @see com.focust.api.metrics.jfr.FlightRecorderEndpoint
+ *
+ * @author Allan DeBoe (allan.m.deboe@gmail.com)
+ * @version 0.0.6
+ * @since 0.0.6
+ */
+package com.focust.api.unit.metrics;
+
+///////////////////////////////////////////////////////////////////////////
+
+// Focust //
+import com.focust.api.metrics.jfr.FlightRecorderEndpoint;
+
+// Java Flight Recorder //
+import jdk.jfr.EventType;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+// JUnit 5 (Jupiter) //
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+// Spring Framework //
+import org.springframework.boot.actuate.endpoint.web.WebEndpointResponse;
+import org.springframework.core.io.Resource;
+
+// Standard Java //
+import java.nio.file.Path;
+import java.util.List;
+
+// Static Imports //
+import static org.assertj.core.api.Assertions.assertThat;
+
+///////////////////////////////////////////////////////////////////////////
+
+public class FlightRecorderEndpointUnitTests {
+
+    @TempDir Path directory;
+
+    @Test
+    public final void givenRecording_whenDownloading_thenEventsHoldingSecretsAreLeftOut() throws Exception {
+        FlightRecorderEndpoint endpoint = new FlightRecorderEndpoint(directory);
+
+        assertThat(endpoint.start(null, null).getStatus()).isEqualTo(WebEndpointResponse.STATUS_OK);
+        endpoint.stop();
+        WebEndpointResponse<Resource> dump = endpoint.dump(FlightRecorderEndpoint.RECORDING_NAME);
+
+        assertThat(dump.getStatus()).isEqualTo(WebEndpointResponse.STATUS_OK);
+        List<String> eventNames = RecordingFile.readAllEvents(dump.getBody().getFile().toPath()).stream()
+                .map(RecordedEvent::getEventType)
+                .map(EventType::getName)
+                .distinct()
+                .toList();
+        assertThat(eventNames).isNotEmpty().doesNotContain(
+                "jdk.InitialEnvironmentVariable", "jdk.InitialSystemProperty", "jdk.JVMInformation", "jdk.ProcessStart"
+        );
+    }
+
+}
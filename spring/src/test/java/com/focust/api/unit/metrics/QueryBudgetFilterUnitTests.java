@@ -0,0 +1,157 @@
+/**
+ * QueryBudgetFilterUnitTests.java - Tests of the per-request query counting and budgets
+ * Copyright (C) 2024  Allan DeBoe
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ * ------------------------------------------------------------------------
+ *
+ * Instead of a database, a stub controller hands statements straight to
+ * the QueryCounter, the same way Hibernate does before preparing them.
+ *
+ * @see com.focust.api.metrics.queries.QueryBudgetFilter
+ *
+ * @author Allan DeBoe (allan.m.deboe@gmail.com)
+ * @version 0.0.6
+ * @since 0.0.6
+ */
+package com.focust.api.unit.metrics;
+
+///////////////////////////////////////////////////////////////////////////
+
+// Focust //
+import com.focust.api.metrics.queries.QueryBudget;
+import com.focust.api.metrics.queries.QueryBudgetFilter;
+import com.focust.api.metrics.queries.QueryCounter;
+
+// Micrometer //
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+// JUnit 5 (Jupiter) //
+import org.junit.jupiter.api.Test;
+
+// Spring Framework //
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+// Standard Java //
+import java.time.Duration;
+
+// Static Imports //
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+///////////////////////////////////////////////////////////////////////////
+
+public class QueryBudgetFilterUnitTests {
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    public final void givenRequestWithinBudget_whenHandled_thenQueriesAreCountedWithoutViolation() throws Exception {
+        QueryBudget queryBudget = new QueryBudget(10, "GET /users/{id}=3", meterRegistry);
+
+        mockMvc(queryBudget).perform(get("/users/7").param("queries", "3"));
+
+        assertThat(queryBudget.getViolations()).isEmpty();
+        assertThat(meterRegistry.get("focust.db.queries").tag("method", "GET").tag("uri", "/users/{id}").summary().totalAmount())
+                .isEqualTo(3);
+    }
+
+    @Test
+    public final void givenQueriesRunOnAnotherThread_whenAddedToRequest_thenTheyAreCounted() throws Exception {
+        QueryBudget queryBudget = new QueryBudget(10, "GET /users=5", meterRegistry);
+
+        mockMvc(queryBudget).perform(get("/users").param("queries", "4"));
+
+        assertThat(meterRegistry.get("focust.db.queries").tag("method", "GET").tag("uri", "/users").summary().totalAmount())
+                .isEqualTo(4);
+    }
+
+    @Test
+    public final void givenRequestOverBudget_whenHandled_thenViolationIsRecorded() throws Exception {
+        QueryBudget queryBudget = new QueryBudget(10, "GET /users/{id}=3; GET /users=5", meterRegistry);
+
+        mockMvc(queryBudget).perform(get("/users/7").param("queries", "16"));
+
+        assertThat(queryBudget.getViolations()).singleElement().satisfies(violation -> {
+            assertThat(violation.endpoint()).isEqualTo("/users/{id}");
+            assertThat(violation.queries()).isEqualTo(16);
+            assertThat(violation.budget()).isEqualTo(3);
+        });
+        assertThat(meterRegistry.get("focust.db.query.budget.exceeded").tag("uri", "/users/{id}").counter().count())
+                .isEqualTo(1);
+        assertThat(queryBudget.awaitPendingRequests(Duration.ZERO)).isTrue();
+    }
+
+    @Test
+    public final void givenUncheckedEndpoint_whenHandledWithManyQueries_thenNoViolation() throws Exception {
+        QueryBudget queryBudget = new QueryBudget(1, "GET /users/{id}=-1", meterRegistry);
+
+        mockMvc(queryBudget).perform(get("/users/7").param("queries", "500"));
+
+        assertThat(queryBudget.getViolations()).isEmpty();
+    }
+
+    @Test
+    public final void givenMalformedBudget_whenCreated_thenIllegalArgumentException() {
+        assertThatThrownBy(() -> new QueryBudget(10, "/users/{id}=3", meterRegistry))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new QueryBudget(10, "GET /users/{id}=many", meterRegistry))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    ///////////////////////////////////////////////////////////////////////////
+
+    private static MockMvc mockMvc(QueryBudget queryBudget) {
+        return MockMvcBuilders.standaloneSetup(new StubController())
+                .addFilters(new QueryBudgetFilter(queryBudget))
+                .build();
+    }
+
+    @RestController
+    private static class StubController {
+
+        private final QueryCounter queryCounter = new QueryCounter();
+
+        @GetMapping("/users/{id}")
+        public String getUser(@PathVariable long id, @RequestParam int queries) {
+            for (int i = 0; i < queries; i++) queryCounter.inspect("select * from users where id = ?");
+            return "user " + id;
+        }
+
+        // like the user lookup coalescer, which runs the queries of the waiting requests on its own threads.
+        @GetMapping("/users")
+        public String getUsers(@RequestParam int queries) throws InterruptedException {
+            int[] counted = new int[1];
+            Thread batch = new Thread(() -> {
+                queryCounter.inspect("select * from users where id in (?)");
+                counted[0] = QueryCounter.count(() -> {
+                    for (int i = 0; i < queries; i++) queryCounter.inspect("select * from users where id in (?)");
+                });
+            });
+            batch.start();
+            batch.join();
+            QueryCounter.add(counted[0]);
+            return "users";
+        }
+
+    }
+
+}
@@ -0,0 +1,131 @@
+/**
+ * RepositoryCallInterceptorUnitTests.java - Tests of the JFR events recorded for repository calls
+ * Copyright (C) 2024  Allan DeBoe
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ * ------------------------------------------------------------------------
+ *
+ * A stub repository is proxied the same way Spring Data proxies the real
+ * ones, and its calls are recorded by an actual JFR recording, which is
+ * then read back to check the events (and that no arguments leak into them).
+ *
+ * @see com.focust.api.metrics.jfr.RepositoryCallInterceptor
+ *
+ * @author Allan DeBoe (allan.m.deboe@gmail.com)
+ * @version 0.0.6
+ * @since 0.0.6
+ */
+package com.focust.api.unit.metrics;
+
+///////////////////////////////////////////////////////////////////////////
+
+// Focust //
+import com.focust.api.metrics.jfr.RepositoryCallEvent;
+import com.focust.api.metrics.jfr.RepositoryCallInterceptor;
+
+// Java Flight Recorder //
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+// JUnit 5 (Jupiter) //
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+// Spring Framework //
+import org.springframework.aop.framework.ProxyFactory;
+
+// Standard Java //
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+
+// Static Imports //
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+///////////////////////////////////////////////////////////////////////////
+
+public class RepositoryCallInterceptorUnitTests {
+
+    @TempDir Path directory;
+
+    @Test
+    public final void givenRunningRecording_whenRepositoryIsCalled_thenQueryAndRowCountAreRecorded() throws Exception {
+        StubRepository repository = proxy(new StubRepository() {
+            @Override public Optional<String> findByEmail(String email) { return Optional.of(email); }
+            @Override public List<String> findExistingEmails(List<String> emails) { return emails; }
+            @Override public long count() { return 42; }
+        });
+
+        List<RecordedEvent> events = record(() -> {
+            repository.findByEmail("secret@focust.test");
+            repository.findExistingEmails(List.of("a@focust.test", "b@focust.test", "c@focust.test"));
+            repository.count();
+        });
+
+        assertThat(events).extracting(e -> e.getString("query")).containsExactly(
+                "UserRepository.findByEmail", "UserRepository.findExistingEmails", "UserRepository.count"
+        );
+        assertThat(events).extracting(e -> e.getInt("rowCount")).containsExactly(1, 3, -1);
+        assertThat(events).extracting(e -> e.getBoolean("failed")).containsOnly(false);
+        assertThat(events).allSatisfy(e -> assertThat(e.toString()).doesNotContain("focust.test"));
+    }
+
+    @Test
+    public final void givenRunningRecording_whenRepositoryCallFails_thenFailureIsRecordedAndRethrown() throws Exception {
+        StubRepository repository = proxy(new StubRepository() {
+            @Override public Optional<String> findByEmail(String email) { throw new IllegalStateException("connection lost"); }
+            @Override public List<String> findExistingEmails(List<String> emails) { return emails; }
+            @Override public long count() { return 0; }
+        });
+
+        List<RecordedEvent> events = record(() -> assertThatThrownBy(() -> repository.findByEmail("secret@focust.test"))
+                .isInstanceOf(IllegalStateException.class));
+
+        assertThat(events).hasSize(1);
+        assertThat(events.get(0).getBoolean("failed")).isTrue();
+        assertThat(events.get(0).getInt("rowCount")).isEqualTo(-1);
+    }
+
+    ///////////////////////////////////////////////////////////////////////////
+
+    private List<RecordedEvent> record(Runnable calls) throws Exception {
+        Path file = directory.resolve("repository-calls.jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable(RepositoryCallEvent.class);
+            recording.start();
+            calls.run();
+            recording.stop();
+            recording.dump(file);
+        }
+        return RecordingFile.readAllEvents(file).stream()
+                .filter(e -> e.getEventType().getName().equals("com.focust.RepositoryCall"))
+                .toList();
+    }
+
+    private static StubRepository proxy(StubRepository target) {
+        ProxyFactory proxyFactory = new ProxyFactory(target);
+        proxyFactory.addInterface(StubRepository.class);
+        proxyFactory.addAdvice(new RepositoryCallInterceptor("UserRepository"));
+        return (StubRepository) proxyFactory.getProxy();
+    }
+
+    public interface StubRepository {
+        Optional<String> findByEmail(String email);
+        List<String> findExistingEmails(List<String> emails);
+        long count();
+    }
+
+}
@@ -0,0 +1,125 @@
+/**
+ * ServerTimingFilterUnitTests.java - Tests of the "Server-Timing" header
+ * Copyright (C) 2024  Allan DeBoe
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ * ------------------------------------------------------------------------
+ *
+ * A stub controller records made-up phase durations, so that the header
+ * can be checked exactly, both for responses with a body (where it has to
+ * be added before the body commits the response) and for those without.
+ *
+ * @see com.focust.api.metrics.ServerTimingFilter
+ *
+ * @author Allan DeBoe (allan.m.deboe@gmail.com)
+ * @version 0.0.6
+ * @since 0.0.6
+ */
+package com.focust.api.unit.metrics;
+
+///////////////////////////////////////////////////////////////////////////
+
+// Focust //
+import com.focust.api.metrics.ServerTiming;
+import com.focust.api.metrics.ServerTimingFilter;
+
+// JUnit 5 (Jupiter) //
+import org.junit.jupiter.api.Test;
+
+// Spring Framework //
+import org.springframework.http.HttpStatus;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+
+// Static Imports //
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+///////////////////////////////////////////////////////////////////////////
+
+public class ServerTimingFilterUnitTests {
+
+    @Test
+    public final void givenSampledRequestWithBody_whenHandled_thenPhasesAreInHeader() throws Exception {
+        String header = mockMvc(1.0).perform(get("/sign-in"))
+                .andReturn().getResponse().getHeader(ServerTiming.HEADER);
+
+        assertThat(header)
+                .startsWith("db;dur=1.5;desc=\"user lookups\", bcrypt;dur=250.0;desc=\"password hashing\", "
+                        + "jwt-sign;dur=6.0;desc=\"JWT signing\", total;dur=")
+                .doesNotContain("auth;", "jwt-verify;");
+    }
+
+    @Test
+    public final void givenSampledRequestWithoutBody_whenHandled_thenHeaderIsAdded() throws Exception {
+        String header = mockMvc(1.0).perform(get("/no-content"))
+                .andReturn().getResponse().getHeader(ServerTiming.HEADER);
+
+        assertThat(header).startsWith("db;dur=0.5;desc=\"user lookups\", total;dur=");
+    }
+
+    @Test
+    public final void givenUnsampledRequest_whenHandled_thenNoHeader() throws Exception {
+        String header = mockMvc(0.0).perform(get("/sign-in"))
+                .andReturn().getResponse().getHeader(ServerTiming.HEADER);
+
+        assertThat(header).isNull();
+    }
+
+    @Test
+    public final void givenUnsampledAdminRequest_whenHandled_thenHeaderIsAdded() throws Exception {
+        String header = mockMvc(0.0).perform(get("/admin"))
+                .andReturn().getResponse().getHeader(ServerTiming.HEADER);
+
+        assertThat(header).startsWith("total;dur=");
+    }
+
+    ///////////////////////////////////////////////////////////////////////////
+
+    private static MockMvc mockMvc(double sampleRate) {
+        return MockMvcBuilders.standaloneSetup(new StubController())
+                .addFilters(new ServerTimingFilter(true, sampleRate))
+                .build();
+    }
+
+    @RestController
+    private static class StubController {
+
+        @GetMapping("/sign-in")
+        public String signIn() {
+            ServerTiming.recordDuration(ServerTiming.Phase.DB, 1_500_000);
+            ServerTiming.recordDuration(ServerTiming.Phase.BCRYPT, 250_000_000);
+            ServerTiming.recordDuration(ServerTiming.Phase.JWT_SIGN, 2_000_000);
+            ServerTiming.recordDuration(ServerTiming.Phase.JWT_SIGN, 4_000_000);
+            return "signed in";
+        }
+
+        @GetMapping("/no-content")
+        @ResponseStatus(HttpStatus.NO_CONTENT)
+        public void noContent() {
+            ServerTiming.recordDuration(ServerTiming.Phase.DB, 500_000);
+        }
+
+        @GetMapping("/admin")
+        public String admin() {
+            ServerTiming.markAdmin();
+            return "admin";
+        }
+
+    }
+
+}
@@ -0,0 +1,192 @@
+/**
+ * AuthAuditJournalUnitTests.java - Tests regarding the authentication audit journal
+ * Copyright (C) 2024  Allan DeBoe
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ * ------------------------------------------------------------------------
+ *
+ * This class is used to ensure that events appended to the journal, even
+ * by many threads at once and across many segments, are all read back.
+ *
+ * @see com.focust.api.security.audit.AuthAuditJournal
+ *
+ * @author Allan DeBoe (allan.m.deboe@gmail.com)
+ * @version 0.0.6
+ * @since 0.0.6
+ */
+package com.focust.api.unit.security;
+
+///////////////////////////////////////////////////////////////////////////
+
+// Focust //
+import com.focust.api.security.audit.AuthAuditEvent;
+import com.focust.api.security.audit.AuthAuditJournal;
+import com.focust.api.security.audit.AuthEventType;
+
+// JUnit 5 (Jupiter) //
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+// Standard Java //
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+// Static Imports //
+import static org.assertj.core.api.Assertions.assertThat;
+
+///////////////////////////////////////////////////////////////////////////
+
+public class AuthAuditJournalUnitTests {
+
+    private static final int SMALL_SEGMENT_SIZE = 8 * 1024;
+    private static final Duration ONE_HOUR = Duration.ofHours(1);
+
+    @TempDir Path directory;
+
+    @Test
+    public final void givenConcurrentAppends_whenReading_thenAllEventsAreReadInOrderPerThread() throws Exception {
+        final int threads = 8;
+        final int eventsPerThread = 2000;
+        AuthAuditJournal journal = new AuthAuditJournal(directory, SMALL_SEGMENT_SIZE, ONE_HOUR, Clock.systemUTC());
+        Instant start = Instant.now();
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch startSignal = new CountDownLatch(1);
+        List<Future<?>> writers = new ArrayList<>();
+        for (int thread = 0; thread < threads; thread++) {
+            final long firstUserId = (long)thread * eventsPerThread;
+            writers.add(executor.submit(() -> {
+                startSignal.await();
+                for (int i = 0; i < eventsPerThread; i++) {
+                    journal.append(AuthEventType.LOGIN_SUCCESS, firstUserId + i, "user-" + (firstUserId + i) + "@focust.local", "127.0.0.1");
+                }
+                return null;
+            }));
+        }
+        startSignal.countDown();
+        for (Future<?> writer : writers) {
+            writer.get();
+        }
+        executor.shutdown();
+        journal.close();
+
+        assertThat(countSegments()).isGreaterThan(1);
+
+        // the events of each thread have increasing user ids, so they must be read back in that order.
+        Map<Long, Long> lastUserIdPerThread = new HashMap<>();
+        long count;
+        try (Stream<AuthAuditEvent> events = journal.read(start.minusSeconds(1), Instant.now().plusSeconds(1))) {
+            count = events.peek(event -> {
+                long thread = event.getUserId() / eventsPerThread;
+                Long previous = lastUserIdPerThread.put(thread, event.getUserId());
+                assertThat(previous == null || previous < event.getUserId()).isTrue();
+                assertThat(event.getEmail()).isEqualTo("user-" + event.getUserId() + "@focust.local");
+            }).count();
+        }
+        assertThat(count).isEqualTo((long)threads * eventsPerThread);
+    }
+
+    @Test
+    public final void givenEventsOverTime_whenReadingTimeRange_thenOnlyEventsInRangeAreRead() throws IOException {
+        MutableClock clock = new MutableClock(Instant.parse("2024-10-01T00:00:00Z"));
+        AuthAuditJournal journal = new AuthAuditJournal(directory, SMALL_SEGMENT_SIZE, Duration.ofMinutes(10), clock);
+
+        // one event a minute for five hours, which rolls a segment every ten minutes.
+        for (int minute = 0; minute < 5 * 60; minute++) {
+            journal.append(AuthEventType.REFRESH, (long)minute, null, null);
+            clock.advance(Duration.ofMinutes(1));
+        }
+
+        Instant from = Instant.parse("2024-10-01T01:00:00Z");
+        Instant to = Instant.parse("2024-10-01T02:00:00Z");
+        try (Stream<AuthAuditEvent> events = journal.read(from, to)) {
+            List<Long> userIds = events.map(AuthAuditEvent::getUserId).toList();
+            assertThat(userIds).hasSize(60);
+            assertThat(userIds.getFirst()).isEqualTo(60L);
+            assertThat(userIds.getLast()).isEqualTo(119L);
+        }
+        assertThat(countSegments()).isEqualTo(30);
+    }
+
+    @Test
+    public final void givenExistingJournal_whenReopening_thenNewSegmentIsStartedAndOldEventsAreKept() throws IOException {
+        Instant start = Instant.now().minusSeconds(1);
+        AuthAuditJournal journal = new AuthAuditJournal(directory, SMALL_SEGMENT_SIZE, ONE_HOUR, Clock.systemUTC());
+        journal.append(AuthEventType.REGISTER, 1L, "first@focust.local", "127.0.0.1");
+        journal.close();
+
+        AuthAuditJournal reopened = new AuthAuditJournal(directory, SMALL_SEGMENT_SIZE, ONE_HOUR, Clock.systemUTC());
+        reopened.append(AuthEventType.LOGIN_FAILURE, null, "second@focust.local", null);
+
+        assertThat(countSegments()).isEqualTo(2);
+        try (Stream<AuthAuditEvent> events = reopened.read(start, Instant.now().plusSeconds(1))) {
+            List<AuthAuditEvent> read = events.toList();
+            assertThat(read).extracting(AuthAuditEvent::getType).containsExactly(AuthEventType.REGISTER, AuthEventType.LOGIN_FAILURE);
+            assertThat(read.get(1).getUserId()).isNull();
+            assertThat(read.get(1).getRemoteAddress()).isNull();
+        }
+    }
+
+    ///////////////////////////////////////////////////////////////////////////
+
+    private long countSegments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.count();
+        }
+    }
+
+    private static final class MutableClock extends Clock {
+        private final AtomicLong millis;
+
+        private MutableClock(Instant start) {
+            this.millis = new AtomicLong(start.toEpochMilli());
+        }
+
+        private void advance(Duration duration) {
+            millis.addAndGet(duration.toMillis());
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return Instant.ofEpochMilli(millis.get());
+        }
+    }
+
+}
@@ -0,0 +1,136 @@
+/**
+ * WarmUpUnitTests.java - Tests of the warm-up gating readiness
+ * Copyright (C) 2024  Allan DeBoe
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ * ------------------------------------------------------------------------
+ *
+ * @see com.focust.api.warmup.WarmUp
+ *
+ * @author Allan DeBoe (allan.m.deboe@gmail.com)
+ * @version 0.0.6
+ * @since 0.0.6
+ */
+package com.focust.api.unit.warmup;
+
+///////////////////////////////////////////////////////////////////////////
+
+// Focust //
+import com.focust.api.warmup.WarmUp;
+import com.focust.api.warmup.WarmUpTask;
+
+// JUnit 5 (Jupiter) //
+import org.junit.jupiter.api.Test;
+
+// Spring Framework //
+import org.springframework.boot.actuate.health.Status;
+
+// Standard Java //
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+// Static Imports //
+import static org.assertj.core.api.Assertions.assertThat;
+
+///////////////////////////////////////////////////////////////////////////
+
+public class WarmUpUnitTests {
+
+    private static final Duration LONG_TIMEOUT = Duration.ofMinutes(1);
+
+    @Test
+    public final void givenRunningTask_whenCheckingHealth_thenOutOfServiceUntilDone() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        WarmUp warmUp = new WarmUp(List.of(task("blocked", release::await)), LONG_TIMEOUT);
+        assertThat(warmUp.health().getStatus()).isEqualTo(Status.OUT_OF_SERVICE);
+
+        warmUp.start();
+        awaitDetail(warmUp, "task", "blocked");
+        assertThat(warmUp.health().getStatus()).isEqualTo(Status.OUT_OF_SERVICE);
+
+        release.countDown();
+        awaitComplete(warmUp);
+        assertThat(warmUp.health().getStatus()).isEqualTo(Status.UP);
+        assertThat(taskNames(warmUp)).containsExactly("blocked");
+    }
+
+    @Test
+    public final void givenFailingTask_whenWarmingUp_thenNextTasksRunAndServerBecomesReady() throws Exception {
+        WarmUp warmUp = new WarmUp(List.of(
+                task("failing", () -> { throw new IllegalStateException("failed on purpose"); }),
+                task("next", () -> { })
+        ), LONG_TIMEOUT);
+
+        warmUp.start();
+        awaitComplete(warmUp);
+        assertThat(warmUp.health().getStatus()).isEqualTo(Status.UP);
+        assertThat(taskNames(warmUp)).containsExactly("failing", "next");
+    }
+
+    @Test
+    public final void givenStuckTask_whenTimeoutIsOver_thenServerBecomesReadyAnyway() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        WarmUp warmUp = new WarmUp(List.of(task("stuck", release::await)), Duration.ofMillis(100));
+
+        warmUp.start();
+        awaitComplete(warmUp);
+        assertThat(warmUp.health().getStatus()).isEqualTo(Status.UP);
+        release.countDown();
+    }
+
+    ///////////////////////////////////////////////////////////////////////////
+
+    private interface Work {
+        void run() throws Exception;
+    }
+
+    private static WarmUpTask task(String name, Work work) {
+        return new WarmUpTask() {
+            @Override
+            public String getName() {
+                return name;
+            }
+
+            @Override
+            public void warmUp() throws Exception {
+                work.run();
+            }
+        };
+    }
+
+    private static List<String> taskNames(WarmUp warmUp) {
+        Map<?, ?> tasks = (Map<?, ?>) warmUp.health().getDetails().get("tasks");
+        return tasks.keySet().stream().map(String::valueOf).toList();
+    }
+
+    private static void awaitComplete(WarmUp warmUp) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!warmUp.isComplete() && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(warmUp.isComplete()).isTrue();
+    }
+
+    private static void awaitDetail(WarmUp warmUp, String detail, Object value) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!value.equals(warmUp.health().getDetails().get(detail)) && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(warmUp.health().getDetails()).containsEntry(detail, value);
+    }
+
+}
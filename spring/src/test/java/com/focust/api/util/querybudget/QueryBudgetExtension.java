@@ -0,0 +1,86 @@
+/**
+ * QueryBudgetExtension.java - JUnit Extension that checks the query budget after each test
+ * Copyright (C) 2024  Allan DeBoe
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ * ------------------------------------------------------------------------
+ *
+ * The violations are cleared before each test, and once the requests of
+ * the test have all been checked, the test fails if any of them went over
+ * budget.
+ *
+ * One doesn't need to use this extension directly, as there is a custom
+ * Annotation to do just that:
+ * @see com.focust.api.util.querybudget.UseQueryBudget
+ *
+ * @author Allan DeBoe (allan.m.deboe@gmail.com)
+ * @version 0.0.6
+ * @since 0.0.6
+ */
+package com.focust.api.util.querybudget;
+
+///////////////////////////////////////////////////////////////////////////
+
+// Focust //
+import com.focust.api.metrics.queries.QueryBudget;
+
+// JUnit 5 (Jupiter) //
+import org.junit.jupiter.api.extension.AfterEachCallback;
+import org.junit.jupiter.api.extension.BeforeEachCallback;
+import org.junit.jupiter.api.extension.ExtensionContext;
+
+// Spring Framework //
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+// Standard Java //
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Collectors;
+
+// Static Imports //
+import static org.junit.jupiter.api.Assertions.fail;
+
+///////////////////////////////////////////////////////////////////////////
+
+public class QueryBudgetExtension implements BeforeEachCallback, AfterEachCallback {
+
+    private static final Duration PENDING_REQUESTS_TIMEOUT = Duration.ofSeconds(5);
+
+    @Override
+    public void beforeEach(ExtensionContext extensionContext) {
+        getQueryBudget(extensionContext).clearViolations();
+    }
+
+    @Override
+    public void afterEach(ExtensionContext extensionContext) throws Exception {
+        QueryBudget queryBudget = getQueryBudget(extensionContext);
+        if (!queryBudget.awaitPendingRequests(PENDING_REQUESTS_TIMEOUT)) {
+            fail("Requests of \"" + extensionContext.getRequiredTestMethod().getName() + "\" were still running after " + PENDING_REQUESTS_TIMEOUT);
+        }
+
+        List<QueryBudget.Violation> violations = queryBudget.getViolations();
+        if (!violations.isEmpty()) {
+            fail("\"" + extensionContext.getRequiredTestMethod().getName() + "\" went over the query budget:\n" + violations.stream()
+                    .map(v -> "  " + v.method() + " " + v.endpoint() + " made " + v.queries() + " queries (budget: " + v.budget() + ")")
+                    .collect(Collectors.joining("\n")));
+        }
+    }
+
+    ///////////////////////////////////////////////////////////////////////////
+
+    private static QueryBudget getQueryBudget(ExtensionContext extensionContext) {
+        return SpringExtension.getApplicationContext(extensionContext).getBean(QueryBudget.class);
+    }
+
+}
@@ -0,0 +1,46 @@
+/**
+ * UseQueryBudget.java - Fails tests whose requests go over their endpoint's query budget
+ * Copyright (C) 2024  Allan DeBoe
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ * ------------------------------------------------------------------------
+ *
+ * This Annotation is used on @SpringBootTest classes, so that a change that
+ * makes an endpoint run more queries than its budget (i.e. an N+1 query
+ * problem) fails the build instead of only being flagged in production.
+ * @see com.focust.api.util.querybudget.QueryBudgetExtension
+ *
+ * @author Allan DeBoe (allan.m.deboe@gmail.com)
+ * @version 0.0.6
+ * @since 0.0.6
+ */
+package com.focust.api.util.querybudget;
+
+///////////////////////////////////////////////////////////////////////////
+
+// JUnit 5 (Jupiter) //
+import org.junit.jupiter.api.extension.ExtendWith;
+
+// Standard Java //
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+///////////////////////////////////////////////////////////////////////////
+
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+@ExtendWith(QueryBudgetExtension.class)
+public @interface UseQueryBudget { }
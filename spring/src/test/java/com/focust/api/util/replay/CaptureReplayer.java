@@ -0,0 +1,140 @@
+/**
+ * CaptureReplayer.java - Replays captured requests against a running server.
+ * Copyright (C) 2024  Allan DeBoe
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ * ------------------------------------------------------------------------
+ *
+ * Requests are sent at the same pace they were captured at (or faster,
+ * given a speed above 1), whether or not the responses to earlier ones
+ * have come back yet, just like real clients would. Latency is measured
+ * from when a request was due to be sent, so that a server falling behind
+ * shows up as latency, instead of just slowing down the replay.
+ *
+ * Captures never include credentials, so requests that were sent with
+ * some are sent with the ones given to the replayer instead.
+ *
+ * @see com.focust.api.capture.CaptureFile
+ * @see com.focust.api.util.replay.LatencyReport
+ *
+ * @author Allan DeBoe (allan.m.deboe@gmail.com)
+ * @version 0.0.6
+ * @since 0.0.6
+ */
+package com.focust.api.util.replay;
+
+///////////////////////////////////////////////////////////////////////////
+
+// Focust //
+import com.focust.api.capture.CapturedRequest;
+
+// Standard Java //
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.locks.LockSupport;
+
+///////////////////////////////////////////////////////////////////////////
+
+public class CaptureReplayer {
+
+    private static final String REFRESH_TOKEN_COOKIE = "jwt-refresh-token";
+
+    private final HttpClient client;
+    private final URI baseUri;
+    private final double speed;
+    private final Map<CapturedRequest.Credential, String> credentials = new EnumMap<>(CapturedRequest.Credential.class);
+
+    /**
+     * @param client the client requests are sent with
+     * @param baseUri the server to replay against (i.e. "http://localhost:8080")
+     * @param speed how much faster than captured to replay (1 for the same pace)
+     */
+    public CaptureReplayer(HttpClient client, URI baseUri, double speed) {
+        if (!(speed > 0)) throw new IllegalArgumentException("speed must be positive");
+        this.client = client;
+        this.baseUri = baseUri;
+        this.speed = speed;
+    }
+
+    /**
+     * @param credential a kind of credential
+     * @param value what to send for it (the whole "Authorization" header, or the refresh token itself)
+     * @return this replayer.
+     */
+    public CaptureReplayer withCredential(CapturedRequest.Credential credential, String value) {
+        credentials.put(credential, value);
+        return this;
+    }
+
+    /**
+     * Replays the requests, and waits for every response.
+     *
+     * @param requests the captured requests, in the order they were captured
+     * @return the outcome of each request, in the same order.
+     */
+    public List<ReplayedRequest> replay(List<CapturedRequest> requests) {
+        if (requests.isEmpty()) return List.of();
+
+        long firstOffsetNanos = requests.get(0).offsetNanos();
+        long startNanos = System.nanoTime();
+        List<CompletableFuture<ReplayedRequest>> replays = new ArrayList<>(requests.size());
+        for (CapturedRequest captured : requests) {
+            long dueNanos = startNanos + (long) ((captured.offsetNanos() - firstOffsetNanos) / speed);
+            for (long wait = dueNanos - System.nanoTime(); wait > 0; wait = dueNanos - System.nanoTime()) {
+                LockSupport.parkNanos(wait);
+            }
+            replays.add(client.sendAsync(toHttpRequest(captured), HttpResponse.BodyHandlers.discarding())
+                    .handle((response, error) -> new ReplayedRequest(
+                            captured, (error == null) ? response.statusCode() : -1, System.nanoTime() - dueNanos
+                    )));
+        }
+        return replays.stream().map(CompletableFuture::join).toList();
+    }
+
+    ///////////////////////////////////////////////////////////////////////////
+
+    private HttpRequest toHttpRequest(CapturedRequest captured) {
+        String query = captured.query().isEmpty() ? "" : "?" + captured.query();
+        HttpRequest.Builder builder = HttpRequest.newBuilder(baseUri.resolve(captured.path() + query))
+                .method(captured.method(), (captured.body().length > 0)
+                        ? HttpRequest.BodyPublishers.ofByteArray(captured.body())
+                        : HttpRequest.BodyPublishers.noBody());
+        if (!captured.contentType().isEmpty()) builder.header("Content-Type", captured.contentType());
+
+        for (CapturedRequest.Credential credential : captured.credentials()) {
+            String value = credentials.get(credential);
+            if (value == null) continue;
+            switch (credential) {
+                case BASIC, BEARER -> builder.header("Authorization", value);
+                case REFRESH_TOKEN -> builder.header("Cookie", REFRESH_TOKEN_COOKIE + "=" + value);
+            }
+        }
+        return builder.build();
+    }
+
+    /**
+     * @param captured the request as it was captured
+     * @param status the status of the replayed response, or -1 if it failed
+     * @param latencyNanos how long it took to respond, from when the request was due to be sent
+     */
+    public record ReplayedRequest(CapturedRequest captured, int status, long latencyNanos) { }
+
+}
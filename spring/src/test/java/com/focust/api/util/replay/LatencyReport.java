@@ -0,0 +1,157 @@
+/**
+ * LatencyReport.java - The latency distribution of a replay, per endpoint.
+ * Copyright (C) 2024  Allan DeBoe
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ * ------------------------------------------------------------------------
+ *
+ * Reports are written as JSON, so that the report of one build can be
+ * kept around and compared with the report of another build replaying
+ * the same capture (see "diff").
+ *
+ * @see com.focust.api.util.replay.CaptureReplayer
+ *
+ * @author Allan DeBoe (allan.m.deboe@gmail.com)
+ * @version 0.0.6
+ * @since 0.0.6
+ */
+package com.focust.api.util.replay;
+
+///////////////////////////////////////////////////////////////////////////
+
+// Jackson //
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+// Standard Java //
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.function.ToDoubleFunction;
+
+///////////////////////////////////////////////////////////////////////////
+
+public final class LatencyReport {
+
+    private static final ObjectMapper objectMapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+
+    private final SortedMap<String, Entry> entries;
+
+    private LatencyReport(SortedMap<String, Entry> entries) {
+        this.entries = entries;
+    }
+
+    /**
+     * @param replayed the outcome of a replay
+     * @return the report of the replay, with an entry per endpoint (i.e. "GET /users/{id}").
+     */
+    public static LatencyReport of(List<CaptureReplayer.ReplayedRequest> replayed) {
+        Map<String, List<CaptureReplayer.ReplayedRequest>> byEndpoint = new TreeMap<>();
+        for (CaptureReplayer.ReplayedRequest request : replayed) {
+            String endpoint = request.captured().method() + " " + request.captured().endpointOrPath();
+            byEndpoint.computeIfAbsent(endpoint, key -> new ArrayList<>()).add(request);
+        }
+
+        SortedMap<String, Entry> entries = new TreeMap<>();
+        byEndpoint.forEach((endpoint, requests) -> {
+            long[] latencies = requests.stream().mapToLong(CaptureReplayer.ReplayedRequest::latencyNanos).sorted().toArray();
+            long errors = requests.stream().filter(request -> request.status() < 0 || request.status() >= 500).count();
+            entries.put(endpoint, new Entry(latencies.length, errors,
+                    percentileMillis(latencies, 0.50), percentileMillis(latencies, 0.90),
+                    percentileMillis(latencies, 0.99), percentileMillis(latencies, 1.0)));
+        });
+        return new LatencyReport(entries);
+    }
+
+    /**
+     * @param file a report written by "write"
+     * @return the report.
+     * @throws IOException if the file cannot be read.
+     */
+    public static LatencyReport read(Path file) throws IOException {
+        return new LatencyReport(objectMapper.readValue(file.toFile(), new TypeReference<TreeMap<String, Entry>>() { }));
+    }
+
+    /**
+     * @param file where to write the report (its directory is created if needed)
+     * @throws IOException if the file cannot be written.
+     */
+    public void write(Path file) throws IOException {
+        if (file.getParent() != null) Files.createDirectories(file.getParent());
+        objectMapper.writeValue(file.toFile(), entries);
+    }
+
+    public SortedMap<String, Entry> getEntries() {
+        return entries;
+    }
+
+    /**
+     * Compares this report with the one of another build, endpoint by endpoint
+     * (endpoints only replayed by one of the builds are listed with "-" for the other).
+     *
+     * @param baseline the report of the build to compare with
+     * @return a table of the p50, p90 and p99 latencies of both, and how they changed.
+     */
+    public String diff(LatencyReport baseline) {
+        SortedMap<String, Entry> all = new TreeMap<>(baseline.entries);
+        all.putAll(entries);
+
+        StringBuilder table = new StringBuilder(String.format("%-32s %8s  %-26s %-26s %-26s %s%n",
+                "endpoint", "count", "p50 (ms)", "p90 (ms)", "p99 (ms)", "errors"));
+        for (String endpoint : all.keySet()) {
+            Entry before = baseline.entries.get(endpoint);
+            Entry after = entries.get(endpoint);
+            table.append(String.format("%-32s %8s  %-26s %-26s %-26s %s%n",
+                    endpoint,
+                    (after != null) ? after.count() : "-",
+                    compare(before, after, Entry::p50Millis),
+                    compare(before, after, Entry::p90Millis),
+                    compare(before, after, Entry::p99Millis),
+                    ((before != null) ? before.errors() : "-") + " -> " + ((after != null) ? after.errors() : "-")));
+        }
+        return table.toString();
+    }
+
+    ///////////////////////////////////////////////////////////////////////////
+
+    // nearest-rank percentile of the sorted latencies.
+    private static double percentileMillis(long[] sortedNanos, double percentile) {
+        int rank = (int) Math.ceil(percentile * sortedNanos.length);
+        return sortedNanos[Math.max(0, rank - 1)] / 1_000_000.0;
+    }
+
+    private static String compare(Entry before, Entry after, ToDoubleFunction<Entry> value) {
+        if (before == null || after == null) {
+            return String.format("%s -> %s",
+                    (before != null) ? String.format("%.1f", value.applyAsDouble(before)) : "-",
+                    (after != null) ? String.format("%.1f", value.applyAsDouble(after)) : "-");
+        }
+        double from = value.applyAsDouble(before);
+        double to = value.applyAsDouble(after);
+        return String.format("%.1f -> %.1f (%+.0f%%)", from, to, (from > 0) ? (to - from) / from * 100 : 0.0);
+    }
+
+    /**
+     * @param count how many requests were replayed
+     * @param errors how many of them failed, or got a 5xx status
+     */
+    public record Entry(long count, long errors, double p50Millis, double p90Millis, double p99Millis, double maxMillis) { }
+
+}
@@ -0,0 +1,87 @@
+#!/bin/bash
+
+# Compares how long the server takes to start, and to answer its first requests,
+# depending on how it is started:
+#
+#   mvn   "mvn spring-boot:run", which is how run.sh starts it by default
+#   jar   the packaged jar, without Spring AOT or class data sharing (the same
+#         jar as "cds", as the generated code is only used when enabled)
+#   cds   the packaged jar, with Spring AOT and class data sharing (run.sh -c)
+#
+# Each mode is started RUNS times (5 by default, i.e. "bash startup-benchmark.sh 10"),
+# and the median of each measurement is reported. Like the server itself, this
+# needs the database (and keystore) configured in application.properties. The
+# warm-up is turned off, so that the first requests show how cold each mode is.
+
+RUNS=${1:-5}
+HEALTH_URL=http://localhost:9090/actuator/health/liveness
+BASE_URL=https://localhost:8443
+TIMEOUT_SECONDS=300
+
+CDS_JAR=./cds/api.jar
+CDS_ARCHIVE=./cds/application.jsa
+
+now_millis() {
+    echo $(( $(date +%s%N) / 1000000 ))
+}
+
+median() {
+    sort -n | awk '{ values[NR] = $1 } END { if (NR == 0) print "-"; else print values[int((NR + 1) / 2)] }'
+}
+
+# prints the time of a request, in milliseconds.
+request_millis() {
+    curl --insecure --silent --output /dev/null --write-out '%{time_total}' "$@" | awk '{ printf "%d", $1 * 1000 }'
+}
+
+# starts the server with the given command, and prints "<startup> <first GET> <first POST>".
+measure() {
+    local start
+    start=$(now_millis)
+    setsid "$@" > /dev/null 2>&1 &
+    local pid=$!
+
+    until curl --silent --fail "$HEALTH_URL" 2>/dev/null | grep -q UP; do
+        if ! kill -0 $pid 2>/dev/null || (( $(now_millis) - start > TIMEOUT_SECONDS * 1000 )); then
+            echo "The server did not start: $*" >&2
+            kill $pid 2>/dev/null
+            return 1
+        fi
+        sleep 0.05
+    done
+    local startup=$(( $(now_millis) - start ))
+
+    local first_get first_post
+    first_get=$(request_millis "$BASE_URL/users?size=1")
+    first_post=$(request_millis -X POST -H "Content-Type: application/json" \
+        -d '{ "email": "startup-benchmark@focust.test", "password": "startup-benchmark" }' "$BASE_URL/auth/login")
+
+    # the whole session (see "setsid"), so that "mvn" takes the application down with it.
+    kill -- -$pid 2>/dev/null || kill $pid
+    wait $pid 2>/dev/null
+    echo "$startup $first_get $first_post"
+}
+
+benchmark() {
+    local mode=$1
+    shift
+    local results=() result
+    for (( run = 1; run <= RUNS; run++ )); do
+        result=$(measure "$@") || return 1
+        results+=("$result")
+    done
+    printf "%-6s %14s %18s %19s\n" "$mode" \
+        "$(printf '%s\n' "${results[@]}" | cut -d' ' -f1 | median)" \
+        "$(printf '%s\n' "${results[@]}" | cut -d' ' -f2 | median)" \
+        "$(printf '%s\n' "${results[@]}" | cut -d' ' -f3 | median)"
+}
+
+export FOCUST_WARM_UP_ENABLED=false
+
+bash ./run.sh --train-only || exit 1
+mvn -q compile || exit 1
+
+printf "%-6s %14s %18s %19s\n" "mode" "startup (ms)" "first GET (ms)" "first POST (ms)"
+benchmark mvn mvn -q spring-boot:run
+benchmark jar java -jar $CDS_JAR
+benchmark cds java -XX:SharedArchiveFile=$CDS_ARCHIVE -Dspring.aot.enabled=true -jar $CDS_JAR